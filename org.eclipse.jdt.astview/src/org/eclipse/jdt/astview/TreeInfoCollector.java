@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials 
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,9 +10,18 @@
  *******************************************************************************/
 package org.eclipse.jdt.astview;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.Name;
 
 /**
  *
@@ -27,6 +36,50 @@ public class TreeInfoCollector {
 			numberOfNodes++;
 		}
 	}
+	
+	public static class NodeTypeCounter extends ASTVisitor {
+
+		/**
+		 * Number of nodes, indexed by {@link ASTNode#getNodeType()}.
+		 */
+		public int[] counts= new int[128];
+		
+		public void preVisit(ASTNode node) {
+			int type= node.getNodeType();
+			if (type >= counts.length) {
+				int[] newCounts= new int[type * 2];
+				System.arraycopy(counts, 0, newCounts, 0, counts.length);
+				counts= newCounts;
+			}
+			counts[type]++;
+		}
+	}
+	
+	public static class BindingCollector extends ASTVisitor {
+
+		public final Set/*<IBinding>*/ bindings= new HashSet();
+		
+		public void preVisit(ASTNode node) {
+			if (node instanceof Name) {
+				IBinding binding= ((Name) node).resolveBinding();
+				if (binding != null)
+					bindings.add(binding);
+			}
+		}
+	}
+	
+	/**
+	 * Number of nodes of a node type.
+	 */
+	public static class NodeTypeCount {
+		public final String typeName;
+		public final int count;
+		
+		NodeTypeCount(String typeName, int count) {
+			this.typeName= typeName;
+			this.count= count;
+		}
+	}
  	
 	
 	private final CompilationUnit fRoot;
@@ -45,5 +98,41 @@ public class TreeInfoCollector {
 		return counter.numberOfNodes;
 	}
 	
+	/**
+	 * @return the {@link NodeTypeCount}s of the node types in the tree, most frequent first
+	 */
+	public List/*<NodeTypeCount>*/ getNodeTypeCounts() {
+		NodeTypeCounter counter= new NodeTypeCounter();
+		fRoot.accept(counter);
+		List result= new ArrayList();
+		for (int type= 0; type < counter.counts.length; type++) {
+			if (counter.counts[type] > 0) {
+				String typeName= ASTNode.nodeClassForType(type).getName();
+				typeName= typeName.substring(typeName.lastIndexOf('.') + 1);
+				result.add(new NodeTypeCount(typeName, counter.counts[type]));
+			}
+		}
+		Collections.sort(result, new Comparator() {
+			public int compare(Object o1, Object o2) {
+				return ((NodeTypeCount) o2).count - ((NodeTypeCount) o1).count;
+			}
+		});
+		return result;
+	}
+	
+	/**
+	 * Returns the number of distinct bindings that the names in the tree resolve to. Note that
+	 * this creates the bindings that have not been requested yet.
+	 * 
+	 * @return the number of bindings, or <code>-1</code> if the AST has no bindings
+	 */
+	public int getNumberOfBindings() {
+		if (!fRoot.getAST().hasResolvedBindings())
+			return -1;
+		BindingCollector collector= new BindingCollector();
+		fRoot.accept(collector);
+		return collector.bindings.size();
+	}
+	
 
 }
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.astview.views;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import org.eclipse.jdt.astview.TreeInfoCollector;
+
+import org.eclipse.jdt.core.IClassFile;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+/**
+ * Creates the AST of a type root with different AST levels and parser options and reports
+ * the creation times, so that the cost of binding resolution and statements recovery can be
+ * told apart from the cost of parsing.
+ */
+class ASTBenchmark {
+
+	private static final int WARM_UP_RUNS= 1;
+	private static final int MEASURED_RUNS= 5;
+
+	private static class Configuration {
+		final String fName;
+		final boolean fResolveBindings;
+		final boolean fStatementsRecovery;
+		final boolean fIgnoreMethodBodies;
+
+		Configuration(String name, boolean resolveBindings, boolean statementsRecovery, boolean ignoreMethodBodies) {
+			fName= name;
+			fResolveBindings= resolveBindings;
+			fStatementsRecovery= statementsRecovery;
+			fIgnoreMethodBodies= ignoreMethodBodies;
+		}
+	}
+
+	private static final Configuration[] CONFIGURATIONS= {
+			new Configuration("parse only", false, false, false), //$NON-NLS-1$
+			new Configuration("statements recovery", false, true, false), //$NON-NLS-1$
+			new Configuration("bindings", true, false, false), //$NON-NLS-1$
+			new Configuration("bindings, ignore method bodies", true, false, true), //$NON-NLS-1$
+	};
+
+	private final ITypeRoot fInput;
+	private final int[] fLevels;
+	private final String[] fLevelNames;
+	private final List/*<String>*/ fResults;
+
+	/**
+	 * @param input the type root to parse
+	 * @param levels the AST levels to compare
+	 * @param levelNames the names of the AST levels
+	 */
+	public ASTBenchmark(ITypeRoot input, int[] levels, String[] levelNames) {
+		fInput= input;
+		fLevels= levels;
+		fLevelNames= levelNames;
+		fResults= new ArrayList();
+	}
+
+	/**
+	 * Creates the ASTs for all levels and configurations.
+	 *
+	 * @param monitor the progress monitor
+	 * @throws OperationCanceledException if the benchmark has been canceled
+	 */
+	public void run(IProgressMonitor monitor) throws OperationCanceledException {
+		int runs= WARM_UP_RUNS + MEASURED_RUNS;
+		monitor.beginTask("Comparing AST levels and options", fLevels.length * CONFIGURATIONS.length * runs); //$NON-NLS-1$
+		try {
+			fResults.clear();
+			for (int i= 0; i < fLevels.length; i++) {
+				for (int k= 0; k < CONFIGURATIONS.length; k++) {
+					Configuration configuration= CONFIGURATIONS[k];
+					monitor.subTask(fLevelNames[i] + ", " + configuration.fName); //$NON-NLS-1$
+					long total= 0;
+					long min= Long.MAX_VALUE;
+					CompilationUnit root= null;
+					for (int run= 0; run < runs; run++) {
+						if (monitor.isCanceled())
+							throw new OperationCanceledException();
+						long startTime= System.currentTimeMillis();
+						root= createAST(fLevels[i], configuration);
+						long time= System.currentTimeMillis() - startTime;
+						if (run >= WARM_UP_RUNS) {
+							total+= time;
+							min= Math.min(min, time);
+						}
+						monitor.worked(1);
+					}
+					addResult(fLevelNames[i], configuration, min, total / MEASURED_RUNS, root);
+				}
+			}
+		} finally {
+			monitor.done();
+		}
+	}
+
+	private CompilationUnit createAST(int level, Configuration configuration) {
+		ASTParser parser= ASTParser.newParser(level);
+		parser.setResolveBindings(configuration.fResolveBindings);
+		if (fInput instanceof ICompilationUnit) {
+			parser.setSource((ICompilationUnit) fInput);
+		} else {
+			parser.setSource((IClassFile) fInput);
+		}
+		parser.setStatementsRecovery(configuration.fStatementsRecovery);
+		parser.setBindingsRecovery(false);
+		parser.setIgnoreMethodBodies(configuration.fIgnoreMethodBodies);
+		return (CompilationUnit) parser.createAST(null);
+	}
+
+	private void addResult(String levelName, Configuration configuration, long min, long average, CompilationUnit root) {
+		TreeInfoCollector collector= new TreeInfoCollector(root);
+		String msg= "{0}, {1}: min {2,number} ms, avg {3,number} ms, {4,number} nodes, {5,number} bytes"; //$NON-NLS-1$
+		Object[] args= { levelName, configuration.fName, new Long(min), new Long(average), new Integer(collector.getNumberOfNodes()), new Integer(collector.getSize()) };
+		fResults.add(MessageFormat.format(msg, args));
+	}
+
+	/**
+	 * @return the results of the last run, one line per AST level and configuration
+	 */
+	public String getReport() {
+		StringBuffer buf= new StringBuffer();
+		buf.append(fInput.getElementName());
+		buf.append(" (" + MEASURED_RUNS + " runs after " + WARM_UP_RUNS + " warm-up run)\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		for (int i= 0; i < fResults.size(); i++) {
+			buf.append('\n').append(fResults.get(i));
+		}
+		return buf.toString();
+	}
+}
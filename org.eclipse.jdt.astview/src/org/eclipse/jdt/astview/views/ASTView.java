@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@
 
 package org.eclipse.jdt.astview.views;
 
+import java.lang.reflect.InvocationTargetException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -18,8 +19,10 @@ import java.util.List;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.ListenerList;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 
 import org.eclipse.core.filebuffers.FileBuffers;
@@ -50,6 +53,8 @@ import org.eclipse.jface.dialogs.ErrorDialog;
 import org.eclipse.jface.dialogs.IDialogSettings;
 import org.eclipse.jface.dialogs.InputDialog;
 import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.jface.dialogs.ProgressMonitorDialog;
+import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.jface.viewers.AbstractTreeViewer;
 import org.eclipse.jface.viewers.DoubleClickEvent;
 import org.eclipse.jface.viewers.IDoubleClickListener;
@@ -418,6 +423,8 @@ public class ASTView extends ViewPart implements IShowInSource {
 	private Action fFindDeclaringNodeAction;
 	private Action fParseBindingFromKeyAction;
 	private Action fParseBindingFromElementAction;
+	private Action fShowStatisticsAction;
+	private Action fCompareSettingsAction;
 	private Action fCollapseAction;
 	private Action fExpandAction;
 	private Action fClearAction;
@@ -594,6 +601,8 @@ public class ASTView extends ViewPart implements IShowInSource {
 		setASTUptoDate(root != null);
 		fClearAction.setEnabled(root != null);
 		fFindDeclaringNodeAction.setEnabled(root != null);
+		fShowStatisticsAction.setEnabled(root != null);
+		fCompareSettingsAction.setEnabled(root != null);
 		fPreviousDouble= null; // avoid leaking AST
 	}
 	
@@ -878,6 +887,9 @@ public class ASTView extends ViewPart implements IShowInSource {
 		manager.add(fParseBindingFromKeyAction);
 		manager.add(fParseBindingFromElementAction);
 		manager.add(new Separator());
+		manager.add(fShowStatisticsAction);
+		manager.add(fCompareSettingsAction);
+		manager.add(new Separator());
 		manager.add(fFilterNonRelevantAction);
 		manager.add(fLinkWithEditor);
 	}
@@ -1009,6 +1021,22 @@ public class ASTView extends ViewPart implements IShowInSource {
 		fParseBindingFromKeyAction.setToolTipText("Parse Binding from Key..."); //$NON-NLS-1$
 		fParseBindingFromKeyAction.setEnabled(true);
 		
+		fShowStatisticsAction= new Action("Show AST &Statistics...", IAction.AS_PUSH_BUTTON) { //$NON-NLS-1$
+			public void run() {
+				performShowStatistics();
+			}
+		};
+		fShowStatisticsAction.setToolTipText("Show node type counts and bindings of the AST"); //$NON-NLS-1$
+		fShowStatisticsAction.setEnabled(false);
+		
+		fCompareSettingsAction= new Action("Co&mpare AST Levels and Options...", IAction.AS_PUSH_BUTTON) { //$NON-NLS-1$
+			public void run() {
+				performCompareSettings();
+			}
+		};
+		fCompareSettingsAction.setToolTipText("Measure the creation time of the AST with all AST levels and parser options"); //$NON-NLS-1$
+		fCompareSettingsAction.setEnabled(false);
+		
 		fFocusAction = new Action() {
 			public void run() {
 				performSetFocus();
@@ -1359,6 +1387,56 @@ public class ASTView extends ViewPart implements IShowInSource {
 		}
 	}
 
+	protected void performShowStatistics() {
+		if (fRoot == null)
+			return;
+		TreeInfoCollector collector= new TreeInfoCollector(fRoot);
+		StringBuffer buf= new StringBuffer();
+		buf.append(MessageFormat.format("{0,number} nodes, {1,number} bytes (AST nodes only)", //$NON-NLS-1$
+				new Object[] { new Integer(collector.getNumberOfNodes()), new Integer(collector.getSize()) }));
+		int bindings= collector.getNumberOfBindings();
+		if (bindings != -1)
+			buf.append(MessageFormat.format(", {0,number} distinct bindings of names", new Object[] { new Integer(bindings) })); //$NON-NLS-1$
+		buf.append('\n');
+		List counts= collector.getNodeTypeCounts();
+		for (int i= 0; i < counts.size(); i++) {
+			TreeInfoCollector.NodeTypeCount count= (TreeInfoCollector.NodeTypeCount) counts.get(i);
+			buf.append('\n').append(count.typeName).append(": ").append(count.count); //$NON-NLS-1$
+		}
+		MessageDialog.openInformation(getSite().getShell(), "AST Statistics", buf.toString()); //$NON-NLS-1$
+	}
+	
+	protected void performCompareSettings() {
+		if (fTypeRoot == null)
+			return;
+		int[] levels= new int[fASTVersionToggleActions.length];
+		String[] levelNames= new String[fASTVersionToggleActions.length];
+		for (int i= 0; i < fASTVersionToggleActions.length; i++) {
+			levels[i]= fASTVersionToggleActions[i].getLevel();
+			levelNames[i]= "AST Level " + levels[i]; //$NON-NLS-1$
+		}
+		final ASTBenchmark benchmark= new ASTBenchmark(fTypeRoot, levels, levelNames);
+		try {
+			new ProgressMonitorDialog(getSite().getShell()).run(true, true, new IRunnableWithProgress() {
+				public void run(IProgressMonitor monitor) throws InvocationTargetException, InterruptedException {
+					try {
+						benchmark.run(monitor);
+					} catch (OperationCanceledException e) {
+						throw new InterruptedException();
+					} catch (RuntimeException e) {
+						throw new InvocationTargetException(e);
+					}
+				}
+			});
+		} catch (InvocationTargetException e) {
+			showAndLogError("Could not compare AST levels and options", e.getCause()); //$NON-NLS-1$
+			return;
+		} catch (InterruptedException e) {
+			return;
+		}
+		MessageDialog.openInformation(getSite().getShell(), "Compare AST Levels and Options", benchmark.getReport()); //$NON-NLS-1$
+	}
+
 	private String askForKey(String dialogTitle) {
 		InputDialog dialog= new InputDialog(getSite().getShell(), dialogTitle, "Key: (optionally surrounded by <KEY: \"> and <\">)", "", null);
 		if (dialog.open() != Window.OK)
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.jeview.views;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaModel;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IOpenable;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IParent;
+import org.eclipse.jdt.core.ITypeHierarchy;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+import org.eclipse.jdt.internal.corext.util.SuperTypeHierarchyCache;
+
+import org.eclipse.jdt.internal.ui.javaeditor.ASTProvider;
+
+/**
+ * Shows what is held by the Java model cache and by the caches of JDT UI.
+ * <p>
+ * The memory estimates are rough: the Java model API does not reveal the size of element infos,
+ * so every element is counted with {@link #ELEMENT_SIZE} bytes, and only the buffers of working
+ * copies are counted, since asking other compilation units for their buffer would open it.
+ * </p>
+ */
+public class JECaches extends JavaElementChildrenProperty {
+
+	/**
+	 * Estimated size of an element handle and its info.
+	 */
+	private static final int ELEMENT_SIZE= 200;
+
+	private final IJavaModel fJavaModel;
+
+	public JECaches(JEAttribute parent, IJavaModel javaModel) {
+		super(parent, "Caches");
+		fJavaModel= javaModel;
+	}
+
+	@Override
+	protected JEAttribute[] computeChildren() throws Exception {
+		return new JEAttribute[] {
+				new JavaElementChildrenProperty(this, "Open elements") {
+					@Override protected JEAttribute[] computeChildren() throws Exception {
+						return computeOpenElements(this);
+					}
+				},
+				new JavaElementChildrenProperty(this, "Working copies") {
+					@Override protected JEAttribute[] computeChildren() throws Exception {
+						return computeWorkingCopies(this);
+					}
+				},
+				new JavaElementChildrenProperty(this, "SuperTypeHierarchyCache") {
+					@Override protected JEAttribute[] computeChildren() throws Exception {
+						return computeHierarchyCache(this);
+					}
+				},
+				new JavaElementChildrenProperty(this, "ASTProvider") {
+					@Override protected JEAttribute[] computeChildren() throws Exception {
+						return computeASTProvider(this);
+					}
+				},
+		};
+	}
+
+	JEAttribute[] computeOpenElements(JEAttribute parent) throws JavaModelException {
+		List<IOpenable> openables= new ArrayList<IOpenable>();
+		collectOpenElements(fJavaModel, openables);
+		List<JEAttribute> result= new ArrayList<JEAttribute>();
+		long total= 0;
+		for (IOpenable openable : openables) {
+			long size= estimateSize((IJavaElement) openable);
+			total+= size;
+			result.add(new JavaElement(parent, formatSize(size), (IJavaElement) openable));
+		}
+		result.add(0, new JavaElementProperty(parent, "estimated size (KB)", Long.valueOf(toKB(total))));
+		return result.toArray(new JEAttribute[result.size()]);
+	}
+
+	private static void collectOpenElements(IParent parent, List<IOpenable> result) throws JavaModelException {
+		IJavaElement[] children= parent.getChildren();
+		for (IJavaElement child : children) {
+			if (child instanceof IOpenable && ((IOpenable) child).isOpen()) {
+				result.add((IOpenable) child);
+				if (!(child instanceof ITypeRoot))
+					collectOpenElements((IParent) child, result);
+			}
+		}
+	}
+
+	private static long estimateSize(IJavaElement openable) throws JavaModelException {
+		if (openable instanceof ITypeRoot) {
+			long size= countElements(openable) * ELEMENT_SIZE;
+			if (openable instanceof ICompilationUnit && ((ICompilationUnit) openable).isWorkingCopy())
+				size+= estimateBufferSize((ICompilationUnit) openable);
+			return size;
+		}
+		// the handles of the children are kept in the info of containers
+		return (1 + ((IParent) openable).getChildren().length) * ELEMENT_SIZE;
+	}
+
+	private static int countElements(IJavaElement element) throws JavaModelException {
+		int count= 1;
+		if (element instanceof IParent) {
+			for (IJavaElement child : ((IParent) element).getChildren()) {
+				count+= countElements(child);
+			}
+		}
+		return count;
+	}
+
+	private static long estimateBufferSize(ICompilationUnit workingCopy) throws JavaModelException {
+		IBuffer buffer= workingCopy.getBuffer();
+		return buffer != null ? 2L * buffer.getLength() : 0;
+	}
+
+	static JEAttribute[] computeWorkingCopies(JEAttribute parent) throws JavaModelException {
+		ICompilationUnit[] workingCopies= JavaCore.getWorkingCopies(null);
+		List<JEAttribute> result= new ArrayList<JEAttribute>();
+		long total= 0;
+		for (ICompilationUnit workingCopy : workingCopies) {
+			long size= estimateBufferSize(workingCopy);
+			total+= size;
+			result.add(new JavaElement(parent, "buffer " + formatSize(size), workingCopy));
+		}
+		result.add(0, new JavaElementProperty(parent, "estimated size of buffers (KB)", Long.valueOf(toKB(total))));
+		return result.toArray(new JEAttribute[result.size()]);
+	}
+
+	static JEAttribute[] computeHierarchyCache(JEAttribute parent) {
+		ITypeHierarchy[] hierarchies= SuperTypeHierarchyCache.getCachedTypeHierarchies();
+		List<JEAttribute> result= new ArrayList<JEAttribute>();
+		result.add(new JavaElementProperty(parent, "hits", Integer.valueOf(SuperTypeHierarchyCache.getCacheHits())));
+		result.add(new JavaElementProperty(parent, "misses", Integer.valueOf(SuperTypeHierarchyCache.getCacheMisses())));
+		for (ITypeHierarchy hierarchy : hierarchies) {
+			result.add(new JavaElement(parent, "hierarchy of " + hierarchy.getAllClasses().length + " classes", hierarchy.getType()));
+		}
+		return result.toArray(new JEAttribute[result.size()]);
+	}
+
+	static JEAttribute[] computeASTProvider(JEAttribute parent) {
+		ASTProvider provider= ASTProvider.getASTProvider();
+		return new JEAttribute[] {
+				new JavaElementProperty(parent, "hits", Integer.valueOf(provider.getCacheHits())),
+				new JavaElementProperty(parent, "misses", Integer.valueOf(provider.getCacheMisses())),
+				new JavaElementProperty(parent, "AST cached", Boolean.valueOf(provider.hasCachedAST())),
+				new JavaElement(parent, "active element", provider.getActiveJavaElement()),
+		};
+	}
+
+	/**
+	 * Closes the open package fragment roots with the elements below them, and flushes the
+	 * caches of JDT UI. The Java projects stay open, and the Java model keeps working copies open.
+	 *
+	 * @param javaModel the Java model
+	 * @throws JavaModelException if a root could not be closed
+	 */
+	public static void flush(IJavaModel javaModel) throws JavaModelException {
+		SuperTypeHierarchyCache.flushCache();
+		ASTProvider.getASTProvider().flushCache();
+		for (IJavaProject project : javaModel.getJavaProjects()) {
+			if (!project.isOpen())
+				continue;
+			for (IPackageFragmentRoot root : project.getPackageFragmentRoots()) {
+				if (root.isOpen())
+					root.close();
+			}
+		}
+	}
+
+	private static long toKB(long bytes) {
+		return (bytes + 1023) / 1024;
+	}
+
+	private static String formatSize(long bytes) {
+		return "~" + toKB(bytes) + " KB";
+	}
+}
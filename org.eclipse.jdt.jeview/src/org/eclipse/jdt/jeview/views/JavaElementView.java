@@ -160,6 +160,8 @@ public class JavaElementView extends ViewPart implements IShowInSource, IShowInT
 	Action fDoubleClickAction;
 	
 	private Action fLogDeltasAction;
+	private Action fShowCachesAction;
+	private Action fFlushCachesAction;
 	
 	private PropertySheetPage fPropertySheetPage;
 
@@ -297,7 +299,7 @@ public class JavaElementView extends ViewPart implements IShowInSource, IShowInT
 		setSingleInput(getJavaModel());
 	}
 
-	private IJavaModel getJavaModel() {
+	IJavaModel getJavaModel() {
 		return JavaCore.create(JEViewPlugin.getWorkspace().getRoot());
 	}
 
@@ -352,6 +354,9 @@ public class JavaElementView extends ViewPart implements IShowInSource, IShowInT
 		manager.add(fResetAction);
 		manager.add(fLogDeltasAction);
 		manager.add(new Separator());
+		manager.add(fShowCachesAction);
+		manager.add(fFlushCachesAction);
+		manager.add(new Separator());
 		manager.add(fRefreshAction);
 	}
 
@@ -835,6 +840,31 @@ public class JavaElementView extends ViewPart implements IShowInSource, IShowInT
 			}
 		};
 		fCompareAction.setText("C&ompare with Each Other...");
+		
+		fShowCachesAction= new Action("Show C&aches") {
+			@Override public void run() {
+				JECaches element= new JECaches(fInput, getJavaModel());
+				fViewer.add(fInput, element);
+				fViewer.setSelection(new StructuredSelection(element));
+				fViewer.setExpandedState(element, true);
+			}
+		};
+		fShowCachesAction.setToolTipText("Show open Java elements, buffers and the caches of JDT UI");
+		
+		fFlushCachesAction= new Action("F&lush Caches...") {
+			@Override public void run() {
+				String msg= "Close all open package fragment roots with their packages, compilation units and class files, and flush the SuperTypeHierarchyCache and the ASTProvider? Java projects and working copies stay open.";
+				if (! MessageDialog.openConfirm(fViewer.getTree().getShell(), "Flush Caches", msg))
+					return;
+				try {
+					JECaches.flush(getJavaModel());
+				} catch (JavaModelException e) {
+					showAndLogError("Could not flush caches.", e);
+				}
+				fViewer.refresh();
+			}
+		};
+		fFlushCachesAction.setToolTipText("Close open package fragment roots and flush the caches of JDT UI");
 
 		
 		fLogDeltasAction= new Action("Log Java element deltas", IAction.AS_CHECK_BOX) {
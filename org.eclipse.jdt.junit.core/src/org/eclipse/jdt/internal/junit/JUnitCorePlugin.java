@@ -36,7 +36,11 @@ import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.JavaCore;
+
 import org.eclipse.jdt.internal.junit.model.JUnitModel;
+import org.eclipse.jdt.internal.junit.util.TestSearchCache;
 
 /**
  * The plug-in runtime class for the JUnit core plug-in.
@@ -79,6 +83,11 @@ public class JUnitCorePlugin extends Plugin {
 
 	private final JUnitModel fJUnitModel= new JUnitModel();
 
+	/**
+	 * Cache of the tests in containers, or <code>null</code> if not used yet.
+	 */
+	private TestSearchCache fTestSearchCache;
+
 
 	/**
 	 * List storing the registered test run listeners
@@ -133,6 +142,12 @@ public class JUnitCorePlugin extends Plugin {
 		try {
 			InstanceScope.INSTANCE.getNode(JUnitCorePlugin.CORE_PLUGIN_ID).flush();
 			fJUnitModel.stop();
+			synchronized (this) {
+				if (fTestSearchCache != null) {
+					JavaCore.removeElementChangedListener(fTestSearchCache);
+					fTestSearchCache= null;
+				}
+			}
 		} finally {
 			super.stop(context);
 		}
@@ -157,6 +172,17 @@ public class JUnitCorePlugin extends Plugin {
 		return getDefault().fJUnitModel;
 	}
 
+	/**
+	 * @return the cache of the tests found in containers
+	 */
+	public synchronized TestSearchCache getTestSearchCache() {
+		if (fTestSearchCache == null) {
+			fTestSearchCache= new TestSearchCache();
+			JavaCore.addElementChangedListener(fTestSearchCache, ElementChangedEvent.POST_CHANGE);
+		}
+		return fTestSearchCache;
+	}
+
 	/**
 	 * Initializes TestRun Listener extensions
 	 * @deprecated to avoid deprecation warning
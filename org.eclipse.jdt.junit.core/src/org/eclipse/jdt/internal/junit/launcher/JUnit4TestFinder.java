@@ -11,6 +11,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.junit.launcher;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -52,6 +53,7 @@ import org.eclipse.jdt.core.search.SearchRequestor;
 import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
 import org.eclipse.jdt.internal.junit.JUnitMessages;
 import org.eclipse.jdt.internal.junit.util.CoreTestSearchEngine;
+import org.eclipse.jdt.internal.junit.util.TestSearchCache;
 
 
 public class JUnit4TestFinder implements ITestFinder {
@@ -118,11 +120,20 @@ public class JUnit4TestFinder implements ITestFinder {
 			}
 		}
 
+		TestSearchCache cache= JUnitCorePlugin.getDefault().getTestSearchCache();
+		IType[] cachedTests= cache.get(element, this);
+		if (cachedTests != null) {
+			result.addAll(Arrays.asList(cachedTests));
+			return;
+		}
+		int modificationStamp= cache.getModificationStamp();
+
 		if (pm == null)
 			pm= new NullProgressMonitor();
 
 		try {
 			pm.beginTask(JUnitMessages.JUnit4TestFinder_searching_description, 4);
+			HashSet tests= new HashSet();
 
 			IRegion region= CoreTestSearchEngine.getRegion(element);
 			ITypeHierarchy hierarchy= JavaCore.newTypeHierarchy(region, null, new SubProgressMonitor(pm, 1));
@@ -145,18 +156,21 @@ public class JUnit4TestFinder implements ITestFinder {
 			for (Iterator iterator= candidates.iterator(); iterator.hasNext();) {
 				IType curr= (IType) iterator.next();
 				if (CoreTestSearchEngine.isAccessibleClass(curr) && !Flags.isAbstract(curr.getFlags()) && region.contains(curr)) {
-					result.add(curr);
+					tests.add(curr);
 				}
 			}
 
 			// add all classes implementing JUnit 3.8's Test interface in the region
 			IType testInterface= element.getJavaProject().findType(JUnitCorePlugin.TEST_INTERFACE_NAME);
 			if (testInterface != null) {
-				CoreTestSearchEngine.findTestImplementorClasses(hierarchy, testInterface, region, result);
+				CoreTestSearchEngine.findTestImplementorClasses(hierarchy, testInterface, region, tests);
 			}
 
 			//JUnit 4.3 can also run JUnit-3.8-style public static Test suite() methods:
-			CoreTestSearchEngine.findSuiteMethods(element, result, new SubProgressMonitor(pm, 1));
+			CoreTestSearchEngine.findSuiteMethods(element, tests, new SubProgressMonitor(pm, 1));
+
+			result.addAll(tests);
+			cache.put(element, tests, hierarchy, modificationStamp);
 		} finally {
 			pm.done();
 		}
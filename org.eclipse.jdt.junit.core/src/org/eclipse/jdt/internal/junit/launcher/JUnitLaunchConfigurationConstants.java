@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -39,6 +39,12 @@ public class JUnitLaunchConfigurationConstants {
 
 	public static final String ATTR_PORT= JUnitCorePlugin.PLUGIN_ID+".PORT"; //$NON-NLS-1$
 
+	/**
+	 * Launch attribute with the comma separated ports of the runner VMs of a sharded
+	 * launch. Set before {@link #ATTR_PORT}, which holds the port of the first runner VM.
+	 */
+	public static final String ATTR_SHARD_PORTS= JUnitCorePlugin.PLUGIN_ID+".SHARD_PORTS"; //$NON-NLS-1$
+
 	/**
 	 * The test name, or "" iff running the whole test type.
 	 */
@@ -59,6 +65,59 @@ public class JUnitLaunchConfigurationConstants {
 
 	public static final String ATTR_TEST_RUNNER_KIND= JUnitCorePlugin.PLUGIN_ID+".TEST_KIND"; //$NON-NLS-1$
 
+	/**
+	 * The number of threads to run the test classes on, or 1 to run them sequentially.
+	 */
+	public static final String ATTR_PARALLEL_THREADS= JUnitCorePlugin.PLUGIN_ID+".PARALLEL_THREADS"; //$NON-NLS-1$
+
+	/**
+	 * Comma separated names of test classes that must not run concurrently, or "". A name
+	 * ending with '*' matches all classes starting with the name. Classes annotated
+	 * with an annotation named <code>NotThreadSafe</code> are never run concurrently.
+	 */
+	public static final String ATTR_SERIAL_TEST_PATTERNS= JUnitCorePlugin.PLUGIN_ID+".SERIAL_TEST_PATTERNS"; //$NON-NLS-1$
+
+	/**
+	 * The number of runner VMs to split the test classes across, or 1 to run them in a single VM.
+	 * The classes are balanced by their durations in the previous test runs of the configuration.
+	 */
+	public static final String ATTR_SHARD_COUNT= JUnitCorePlugin.PLUGIN_ID+".SHARD_COUNT"; //$NON-NLS-1$
+
+	/**
+	 * The strategy to order the tests by the history of the previous test runs of the configuration:
+	 * one of the <code>TEST_ORDER_*</code> constants, or the fully qualified name of a class on the
+	 * class path of the tests that implements <code>org.eclipse.jdt.internal.junit.runner.ITestOrder</code>.
+	 * The tests are not reordered if this attribute is not set, or if failed tests are run first.
+	 */
+	public static final String ATTR_TEST_ORDER= JUnitCorePlugin.PLUGIN_ID+".TEST_ORDER"; //$NON-NLS-1$
+
+	/**
+	 * {@link #ATTR_TEST_ORDER}: tests that failed recently first.
+	 */
+	public static final String TEST_ORDER_FAILED_FIRST= "failedFirst"; //$NON-NLS-1$
+
+	/**
+	 * {@link #ATTR_TEST_ORDER}: the fastest tests first.
+	 */
+	public static final String TEST_ORDER_FASTEST_FIRST= "fastestFirst"; //$NON-NLS-1$
+
+	/**
+	 * {@link #ATTR_TEST_ORDER}: tests that failed recently first, then the fastest tests first.
+	 */
+	public static final String TEST_ORDER_FAILED_THEN_FASTEST= "failedThenFastest"; //$NON-NLS-1$
+
+	/**
+	 * The interval in milliseconds at which the test runner sends test events, or 0 to send
+	 * every event immediately. Failures and the end of the run are always sent immediately.
+	 * The runner only buffers events if this attribute is set.
+	 */
+	public static final String ATTR_FLUSH_INTERVAL= JUnitCorePlugin.PLUGIN_ID+".FLUSH_INTERVAL"; //$NON-NLS-1$
+
+	/**
+	 * Default for {@link #ATTR_FLUSH_INTERVAL}.
+	 */
+	public static final int DEFAULT_FLUSH_INTERVAL= 0;
+
 	public static ITestKind getTestRunnerKind(ILaunchConfiguration launchConfiguration) {
 		try {
 			String loaderId = launchConfiguration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_RUNNER_KIND, (String) null);
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.launcher;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.junit.model.ITestElement;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+import org.eclipse.debug.core.ILaunchConfiguration;
+
+import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+import org.eclipse.jdt.internal.junit.model.TestCaseElement;
+import org.eclipse.jdt.internal.junit.model.TestElement;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.model.TestSuiteElement;
+
+/**
+ * Writes the history of the previous test runs of a launch configuration for the
+ * <code>-testhistoryfile</code> argument of the test runner.
+ * <p>
+ * A test counts as failed if it failed in one of the last {@link #HISTORY_SIZE} runs.
+ * Its duration is taken from the latest run that has run the test.
+ * </p>
+ */
+public class TestHistoryFile {
+
+	/**
+	 * Number of previous test runs that are considered for failures.
+	 */
+	public static final int HISTORY_SIZE= 3;
+
+	private static class Entry {
+		boolean fFailed;
+		double fSeconds= Double.NaN;
+	}
+
+	private TestHistoryFile() {
+	}
+
+	/**
+	 * Writes the history of the previous test runs of the given configuration to a
+	 * temporary file.
+	 *
+	 * @param configuration the launch configuration
+	 * @return the absolute path of the file, or <code>null</code> if there is no history
+	 * @throws CoreException if the file could not be written
+	 */
+	public static String create(ILaunchConfiguration configuration) throws CoreException {
+		return create(JUnitCorePlugin.getModel().getFinishedTestRunSessions(configuration.getName()));
+	}
+
+	/**
+	 * Writes the history of the given test runs to a temporary file.
+	 *
+	 * @param sessions the finished test runs (element type: {@link TestRunSession}), from new to old
+	 * @return the absolute path of the file, or <code>null</code> if there is no history
+	 * @throws CoreException if the file could not be written
+	 */
+	public static String create(List sessions) throws CoreException {
+		Map/*<String, Entry>*/ entries= new LinkedHashMap();
+		for (int i= 0; i < sessions.size() && i < HISTORY_SIZE; i++) {
+			TestRunSession session= (TestRunSession) sessions.get(i);
+			collect(session.getTestRoot(), entries);
+		}
+		if (entries.isEmpty())
+			return null;
+
+		try {
+			File file= File.createTempFile("testHistory", ".txt"); //$NON-NLS-1$ //$NON-NLS-2$
+			file.deleteOnExit();
+			BufferedWriter bw= null;
+			try {
+				bw= new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8")); //$NON-NLS-1$
+				for (Iterator iter= entries.entrySet().iterator(); iter.hasNext();) {
+					Map.Entry mapEntry= (Map.Entry) iter.next();
+					Entry entry= (Entry) mapEntry.getValue();
+					bw.write(entry.fFailed ? 'F' : 'P');
+					bw.write(',');
+					bw.write(String.valueOf(Double.isNaN(entry.fSeconds) ? 0 : entry.fSeconds));
+					bw.write(',');
+					bw.write((String) mapEntry.getKey());
+					bw.newLine();
+				}
+			} finally {
+				if (bw != null) {
+					bw.close();
+				}
+			}
+			return file.getAbsolutePath();
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, JUnitCorePlugin.CORE_PLUGIN_ID, IStatus.ERROR, "", e)); //$NON-NLS-1$
+		}
+	}
+
+	private static void collect(TestSuiteElement suite, Map entries) {
+		ITestElement[] children= suite.getChildren();
+		for (int i= 0; i < children.length; i++) {
+			if (children[i] instanceof TestSuiteElement) {
+				collect((TestSuiteElement) children[i], entries);
+			} else if (children[i] instanceof TestCaseElement) {
+				TestElement testCase= (TestElement) children[i];
+				Entry entry= (Entry) entries.get(testCase.getTestName());
+				if (entry == null) {
+					entry= new Entry();
+					entries.put(testCase.getTestName(), entry);
+				}
+				if (testCase.getStatus().isErrorOrFailure())
+					entry.fFailed= true;
+				if (Double.isNaN(entry.fSeconds))
+					entry.fSeconds= testCase.getElapsedTimeInSeconds();
+			}
+		}
+	}
+}
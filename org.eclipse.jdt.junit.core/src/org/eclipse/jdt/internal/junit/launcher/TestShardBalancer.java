@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.launcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.junit.model.ITestElement;
+
+import org.eclipse.debug.core.ILaunchConfiguration;
+
+import org.eclipse.jdt.core.IType;
+
+import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+import org.eclipse.jdt.internal.junit.model.TestElement;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+
+/**
+ * Splits the test classes of a launch into shards that run in separate VMs.
+ * <p>
+ * The classes are balanced by their durations in the last complete test run of the same
+ * launch configuration. Classes without a known duration are assumed to take the average time.
+ * Each class goes to the shard with the smallest total duration so far, longest classes first.
+ * </p>
+ */
+public class TestShardBalancer {
+
+	private TestShardBalancer() {
+	}
+
+	/**
+	 * Splits the given test classes into at most <code>shardCount</code> non-empty shards.
+	 *
+	 * @param types the test classes
+	 * @param shardCount the maximal number of shards
+	 * @param configuration the launch configuration whose previous test runs give the durations
+	 * @return the shards, each in the order of <code>types</code>
+	 */
+	public static IType[][] split(IType[] types, int shardCount, ILaunchConfiguration configuration) {
+		return split(types, shardCount, getDurations(configuration.getName()));
+	}
+
+	/**
+	 * Splits the given test classes into at most <code>shardCount</code> non-empty shards.
+	 *
+	 * @param types the test classes
+	 * @param shardCount the maximal number of shards
+	 * @param durations map from fully qualified class name to duration in seconds (<code>Double</code>),
+	 *            with '.' as separator of nested classes like in {@link TestElement#getClassName()}
+	 * @return the shards, each in the order of <code>types</code>
+	 */
+	public static IType[][] split(IType[] types, int shardCount, Map/*<String, Double>*/ durations) {
+		shardCount= Math.max(1, Math.min(shardCount, types.length));
+
+		final double[] typeDurations= new double[types.length];
+		double knownTotal= 0;
+		int knownCount= 0;
+		for (int i= 0; i < types.length; i++) {
+			Double duration= (Double) durations.get(types[i].getFullyQualifiedName('.'));
+			if (duration != null) {
+				typeDurations[i]= duration.doubleValue();
+				knownTotal+= typeDurations[i];
+				knownCount++;
+			} else {
+				typeDurations[i]= Double.NaN;
+			}
+		}
+		double average= knownCount > 0 ? knownTotal / knownCount : 1;
+		Integer[] order= new Integer[types.length];
+		for (int i= 0; i < types.length; i++) {
+			if (Double.isNaN(typeDurations[i]))
+				typeDurations[i]= average;
+			order[i]= new Integer(i);
+		}
+		Arrays.sort(order, new Comparator() {
+			public int compare(Object o1, Object o2) {
+				return Double.compare(typeDurations[((Integer) o2).intValue()], typeDurations[((Integer) o1).intValue()]);
+			}
+		});
+
+		int[] shardOfType= new int[types.length];
+		double[] shardDurations= new double[shardCount];
+		for (int i= 0; i < order.length; i++) {
+			int shard= 0;
+			for (int j= 1; j < shardCount; j++) {
+				if (shardDurations[j] < shardDurations[shard])
+					shard= j;
+			}
+			int type= order[i].intValue();
+			shardOfType[type]= shard;
+			shardDurations[shard]+= typeDurations[type];
+		}
+
+		List[] shards= new List[shardCount];
+		for (int i= 0; i < shardCount; i++)
+			shards[i]= new ArrayList();
+		for (int i= 0; i < types.length; i++)
+			shards[shardOfType[i]].add(types[i]);
+		IType[][] result= new IType[shardCount][];
+		for (int i= 0; i < shardCount; i++)
+			result[i]= (IType[]) shards[i].toArray(new IType[shards[i].size()]);
+		return result;
+	}
+
+	private static Map/*<String, Double>*/ getDurations(String testRunName) {
+		Map durations= new HashMap();
+		List sessions= JUnitCorePlugin.getModel().getFinishedTestRunSessions(testRunName);
+		for (Iterator iter= sessions.iterator(); iter.hasNext();) {
+			TestRunSession session= (TestRunSession) iter.next();
+			if (session.isStopped())
+				continue;
+			ITestElement[] children= session.getTestRoot().getChildren();
+			for (int i= 0; i < children.length; i++) {
+				TestElement child= (TestElement) children[i];
+				double elapsed= child.getElapsedTimeInSeconds();
+				if (!Double.isNaN(elapsed))
+					durations.put(child.getClassName(), new Double(elapsed));
+			}
+			break; // sessions are ordered from new to old
+		}
+		return durations;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,6 +21,11 @@ public interface ITestSessionListener {
  	 * A test run has started.
  	 */
 	public void sessionStarted();
+	/**
+	 * The total number of tests of the running session has changed, e.g. because another shard
+	 * of the run has started.
+	 */
+	public void totalCountChanged();
 	/**
  	 * A test run has ended.
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -119,16 +119,26 @@ public final class JUnitModel {
 			if (portStr == null)
 				return;
 			try {
-				final int port= Integer.parseInt(portStr);
+				final int[] ports= parsePorts(portStr, launch.getAttribute(JUnitLaunchConfigurationConstants.ATTR_SHARD_PORTS));
 				fTrackedLaunches.remove(launch);
-				connectTestRunner(launch, javaProject, port);
+				connectTestRunner(launch, javaProject, ports);
 			} catch (NumberFormatException e) {
 				return;
 			}
 		}
 
-		private void connectTestRunner(ILaunch launch, IJavaProject javaProject, int port) {
-			TestRunSession testRunSession= new TestRunSession(launch, javaProject, port);
+		private int[] parsePorts(String portStr, String shardPortsStr) {
+			if (shardPortsStr == null)
+				return new int[] { Integer.parseInt(portStr) };
+			String[] shardPorts= shardPortsStr.split(","); //$NON-NLS-1$
+			int[] ports= new int[shardPorts.length];
+			for (int i= 0; i < shardPorts.length; i++)
+				ports[i]= Integer.parseInt(shardPorts[i].trim());
+			return ports;
+		}
+
+		private void connectTestRunner(ILaunch launch, IJavaProject javaProject, int[] ports) {
+			TestRunSession testRunSession= new TestRunSession(launch, javaProject, ports);
 			addTestRunSession(testRunSession);
 			
 			Object[] listeners= JUnitCorePlugin.getDefault().getNewTestRunListeners().getListeners();
@@ -162,6 +172,9 @@ public final class JUnitModel {
 						testRunListeners[i].testRunStarted(fActiveTestRunSession.getTotalCount());
 					}
 				}
+				public void totalCountChanged() {
+					// the deprecated ITestRunListener only gets the count at testRunStarted
+				}
 				public void sessionTerminated() {
 					org.eclipse.jdt.junit.ITestRunListener[] testRunListeners= JUnitCorePlugin.getDefault().getTestRunListeners();
 					for (int i= 0; i < testRunListeners.length; i++) {
@@ -322,6 +335,21 @@ public final class JUnitModel {
 		return new ArrayList(fTestRunSessions);
 	}
 
+	/**
+	 * @param testRunName the name of the test runs, e.g. the launch configuration name
+	 * @return a list of the {@link TestRunSession}s with the given name that are neither
+	 *         starting nor running, youngest first
+	 */
+	public synchronized List getFinishedTestRunSessions(String testRunName) {
+		List result= new ArrayList();
+		for (Iterator iter= fTestRunSessions.iterator(); iter.hasNext();) {
+			TestRunSession session= (TestRunSession) iter.next();
+			if (testRunName.equals(session.getTestRunName()) && !session.isStarting() && !session.isRunning())
+				result.add(session);
+		}
+		return result;
+	}
+
 	/**
 	 * Adds the given {@link TestRunSession} and notifies all registered
 	 * {@link ITestRunSessionListener}s.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -68,6 +68,13 @@ public class TestRunListenerAdapter implements ITestSessionListener {
 		// wait until all test are added
 	}
 
+	/* (non-Javadoc)
+	 * @see org.eclipse.jdt.internal.junit.model.ITestSessionListener#totalCountChanged()
+	 */
+	public void totalCountChanged() {
+		// not reported to TestRunListeners
+	}
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.jdt.internal.junit.model.ITestSessionListener#sessionEnded(long)
 	 */
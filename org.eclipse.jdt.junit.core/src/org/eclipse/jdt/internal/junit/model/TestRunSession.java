@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -64,9 +64,10 @@ public class TestRunSession implements ITestRunSession {
 	private final ITestKind fTestRunnerKind;
 
 	/**
-	 * Test runner client or <code>null</code>.
+	 * Test runner clients or <code>null</code>. A sharded test run has one client
+	 * per runner VM.
 	 */
-	private RemoteTestRunnerClient fTestRunnerClient;
+	private RemoteTestRunnerClient[] fTestRunnerClients;
 
 	private final ListenerList/*<ITestSessionListener>*/ fSessionListeners;
 
@@ -152,14 +153,27 @@ public class TestRunSession implements ITestRunSession {
 		fTestRoot= new TestRoot(this);
 		fIdToTest= new HashMap();
 
-		fTestRunnerClient= null;
+		fTestRunnerClients= null;
 
 		fSessionListeners= new ListenerList();
 	}
 
 
 	public TestRunSession(ILaunch launch, IJavaProject project, int port) {
+		this(launch, project, new int[] { port });
+	}
+
+	/**
+	 * Creates a test run session that listens to one runner VM per port. The tests of
+	 * all runner VMs are merged into this session.
+	 *
+	 * @param launch the launch
+	 * @param project the launched project
+	 * @param ports the ports of the runner VMs
+	 */
+	public TestRunSession(ILaunch launch, IJavaProject project, int[] ports) {
 		Assert.isNotNull(launch);
+		Assert.isLegal(ports.length > 0);
 
 		fLaunch= launch;
 		fProject= project;
@@ -176,24 +190,26 @@ public class TestRunSession implements ITestRunSession {
 		fTestRoot= new TestRoot(this);
 		fIdToTest= new HashMap();
 
-		fTestRunnerClient= new RemoteTestRunnerClient();
-		fTestRunnerClient.startListening(new ITestRunListener2[] { new TestSessionNotifier() }, port);
+		fTestRunnerClients= new RemoteTestRunnerClient[ports.length];
+		TestSessionNotifier notifier= new TestSessionNotifier();
+		ShardMerger merger= ports.length > 1 ? new ShardMerger(notifier, ports.length) : null;
+		for (int i= 0; i < ports.length; i++) {
+			ITestRunListener2 listener= merger != null ? merger.createShardListener(i) : (ITestRunListener2) notifier;
+			fTestRunnerClients[i]= new RemoteTestRunnerClient();
+			fTestRunnerClients[i].startListening(new ITestRunListener2[] { listener }, ports[i]);
+		}
 
 		final ILaunchManager launchManager= DebugPlugin.getDefault().getLaunchManager();
 		launchManager.addLaunchListener(new ILaunchesListener2() {
 			public void launchesTerminated(ILaunch[] launches) {
 				if (Arrays.asList(launches).contains(fLaunch)) {
-					if (fTestRunnerClient != null) {
-						fTestRunnerClient.stopWaiting();
-					}
+					stopWaiting();
 					launchManager.removeLaunchListener(this);
 				}
 			}
 			public void launchesRemoved(ILaunch[] launches) {
 				if (Arrays.asList(launches).contains(fLaunch)) {
-					if (fTestRunnerClient != null) {
-						fTestRunnerClient.stopWaiting();
-					}
+					stopWaiting();
 					launchManager.removeLaunchListener(this);
 				}
 			}
@@ -207,6 +223,14 @@ public class TestRunSession implements ITestRunSession {
 		addTestSessionListener(new TestRunListenerAdapter(this));
 	}
 
+	private void stopWaiting() {
+		RemoteTestRunnerClient[] clients= fTestRunnerClients;
+		if (clients != null) {
+			for (int i= 0; i < clients.length; i++)
+				clients[i].stopWaiting();
+		}
+	}
+
 	void reset() {
 		fStartedCount= 0;
 		fFailureCount= 0;
@@ -364,7 +388,7 @@ public class TestRunSession implements ITestRunSession {
 			JUnitModel.exportTestRunSession(this, swapFile);
 			fTestResult= fTestRoot.getTestResult(true);
 			fTestRoot= null;
-			fTestRunnerClient= null;
+			fTestRunnerClients= null;
 			fIdToTest= new HashMap();
 			fIncompleteTestSuites= null;
 			fUnrootedSuite= null;
@@ -415,17 +439,22 @@ public class TestRunSession implements ITestRunSession {
 	public void stopTestRun() {
 		if (isRunning() || ! isKeptAlive())
 			fIsStopped= true;
-		if (fTestRunnerClient != null)
-			fTestRunnerClient.stopTest();
+		RemoteTestRunnerClient[] clients= fTestRunnerClients;
+		if (clients != null) {
+			for (int i= 0; i < clients.length; i++)
+				clients[i].stopTest();
+		}
 	}
 
 	/**
 	 * @return <code>true</code> iff the runtime VM of this test session is still alive
 	 */
 	public boolean isKeptAlive() {
-		if (fTestRunnerClient != null
+		RemoteTestRunnerClient[] clients= fTestRunnerClients;
+		if (clients != null
+				&& clients.length == 1
 				&& fLaunch != null
-				&& fTestRunnerClient.isRunning()
+				&& clients[0].isRunning()
 				&& ILaunchManager.DEBUG_MODE.equals(fLaunch.getLaunchMode())) {
 			ILaunchConfiguration config= fLaunch.getLaunchConfiguration();
 			try {
@@ -463,7 +492,7 @@ public class TestRunSession implements ITestRunSession {
 			} else if (status == Status.FAILURE) {
 				fFailureCount--;
 			}
-			fTestRunnerClient.rerunTest(testId, className, testName);
+			fTestRunnerClients[0].rerunTest(testId, className, testName);
 			return true;
 		}
 		return false;
@@ -567,6 +596,20 @@ public class TestRunSession implements ITestRunSession {
 			}
 		}
 
+		/**
+		 * Adds the tests of a shard that started after the first one.
+		 *
+		 * @param testCount the number of tests of the shard
+		 */
+		public void shardStarted(int testCount) {
+			fTotalCount+= testCount;
+
+			Object[] listeners= fSessionListeners.getListeners();
+			for (int i= 0; i < listeners.length; ++i) {
+				((ITestSessionListener) listeners[i]).totalCountChanged();
+			}
+		}
+
 		public void testRunEnded(long elapsedTime) {
 			fIsRunning= false;
 
@@ -738,6 +781,117 @@ public class TestRunSession implements ITestRunSession {
 		}
 	}
 
+	/**
+	 * Merges the events of the runner VMs of a sharded test run into one {@link TestSessionNotifier}.
+	 * <p>
+	 * The events of all shards are serialized. Test ids are prefixed with the shard index,
+	 * since every runner VM numbers its tests from 1, and every shard keeps its own
+	 * incomplete test suites. The run starts with the first shard that starts and ends
+	 * when all shards have ended, stopped or terminated.
+	 * </p>
+	 */
+	private class ShardMerger {
+
+		private final Object fLock= new Object();
+		private final TestSessionNotifier fNotifier;
+		private final int fShardCount;
+
+		private int fStartedShards;
+		private int fFinishedShards;
+		private long fElapsedTime;
+		private boolean fStopped;
+		private boolean fTerminated;
+
+		public ShardMerger(TestSessionNotifier notifier, int shardCount) {
+			fNotifier= notifier;
+			fShardCount= shardCount;
+		}
+
+		public ITestRunListener2 createShardListener(final int shard) {
+			return new ITestRunListener2() {
+				private final String fIdPrefix= shard + "-"; //$NON-NLS-1$
+				private final List/*<IncompleteTestSuite>*/ fShardIncompleteTestSuites= new ArrayList();
+				private boolean fFinished;
+
+				public void testRunStarted(int testCount) {
+					synchronized (fLock) {
+						if (fStartedShards++ == 0) {
+							fNotifier.testRunStarted(testCount);
+						} else {
+							fNotifier.shardStarted(testCount);
+						}
+					}
+				}
+
+				public void testRunEnded(long elapsedTime) {
+					synchronized (fLock) {
+						finished(elapsedTime);
+					}
+				}
+
+				public void testRunStopped(long elapsedTime) {
+					synchronized (fLock) {
+						fStopped= true;
+						finished(elapsedTime);
+					}
+				}
+
+				public void testRunTerminated() {
+					synchronized (fLock) {
+						fTerminated= true;
+						finished(0);
+					}
+				}
+
+				private void finished(long elapsedTime) {
+					if (fFinished)
+						return;
+					fFinished= true;
+					fElapsedTime= Math.max(fElapsedTime, elapsedTime);
+					if (++fFinishedShards < fShardCount)
+						return;
+					if (fTerminated)
+						fNotifier.testRunTerminated();
+					else if (fStopped)
+						fNotifier.testRunStopped(fElapsedTime);
+					else
+						fNotifier.testRunEnded(fElapsedTime);
+				}
+
+				public void testTreeEntry(String description) {
+					synchronized (fLock) {
+						fIncompleteTestSuites= fShardIncompleteTestSuites;
+						fNotifier.testTreeEntry(fIdPrefix + description);
+					}
+				}
+
+				public void testStarted(String testId, String testName) {
+					synchronized (fLock) {
+						fNotifier.testStarted(fIdPrefix + testId, testName);
+					}
+				}
+
+				public void testEnded(String testId, String testName) {
+					synchronized (fLock) {
+						fNotifier.testEnded(fIdPrefix + testId, testName);
+					}
+				}
+
+				public void testFailed(int statusCode, String testId, String testName, String trace, String expected, String actual) {
+					synchronized (fLock) {
+						fNotifier.testFailed(statusCode, fIdPrefix + testId, testName, trace, expected, actual);
+					}
+				}
+
+				public void testReran(String testId, String className, String testName, int statusCode, String trace, String expectedResult, String actualResult) {
+					synchronized (fLock) {
+						fNotifier.testReran(fIdPrefix + testId, className, testName, statusCode, trace, expectedResult, actualResult);
+					}
+				}
+			};
+		}
+	}
+
 	private static class IncompleteTestSuite {
 		public TestSuiteElement fTestSuiteElement;
 		public int fOutstandingChildren;
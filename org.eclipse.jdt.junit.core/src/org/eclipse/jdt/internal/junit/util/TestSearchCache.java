@@ -0,0 +1,348 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.CoreException;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaModel;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IRegion;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeHierarchy;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+import org.eclipse.jdt.internal.junit.launcher.ITestFinder;
+
+/**
+ * Cache of the tests found in containers, so that launching the same project or package
+ * again does not search the whole container again.
+ * <p>
+ * The cache is updated from Java element deltas:
+ * </p>
+ * <ul>
+ * <li>Compilation units that are added, removed or whose contents change are marked as dirty in
+ * the containers of their project and of the projects that require it. The next
+ * {@link #get(IJavaElement, ITestFinder) get} only checks the types of the dirty units. Opening
+ * a working copy does not change the tests.</li>
+ * <li>If a dirty unit declares a super type of other classes, these classes can turn into tests
+ * or stop being tests. Since finding them needs a type hierarchy, the tests of the container
+ * are discarded and the container is searched again.</li>
+ * <li>Changes to the class path, to package fragment roots, archives or packages discard the
+ * tests of the containers of the changed projects and of the projects that require them.</li>
+ * </ul>
+ * <p>
+ * Searches must get the {@link #getModificationStamp() modification stamp} before they
+ * start, so that results of searches that overlap with a change are not cached.
+ * </p>
+ */
+public class TestSearchCache implements IElementChangedListener {
+
+	private static class Entry {
+		final String fProjectName;
+
+		/**
+		 * Map from the handle identifier of a compilation unit or class file to the tests it
+		 * declares (<code>IType[]</code>).
+		 */
+		final Map/*<String, IType[]>*/ fTests= new HashMap();
+
+		/**
+		 * Handle identifiers of the compilation units that declare a super type of a class
+		 * in the container.
+		 */
+		final Set/*<String>*/ fSuperTypeUnits= new HashSet();
+
+		final Set/*<ICompilationUnit>*/ fDirtyUnits= new HashSet();
+
+		Entry(String projectName) {
+			fProjectName= projectName;
+		}
+	}
+
+	/**
+	 * Map from the handle identifier of a container to its tests.
+	 */
+	private final Map/*<String, Entry>*/ fEntries= new HashMap();
+
+	private int fModificationStamp;
+
+	/**
+	 * @return the number of changes so far
+	 */
+	public synchronized int getModificationStamp() {
+		return fModificationStamp;
+	}
+
+	/**
+	 * Returns the cached tests in a container. The tests of compilation units that changed
+	 * since the container has been searched are updated with the given finder.
+	 *
+	 * @param container the container
+	 * @param finder the finder to check the types of changed compilation units
+	 * @return the tests in the container, or <code>null</code> if the container has to be
+	 *         searched
+	 * @throws CoreException if a type cannot be checked
+	 */
+	public IType[] get(IJavaElement container, ITestFinder finder) throws CoreException {
+		String key= container.getHandleIdentifier();
+		Entry entry;
+		Set/*<ICompilationUnit>*/ dirtyUnits;
+		int modificationStamp;
+		synchronized (this) {
+			entry= (Entry) fEntries.get(key);
+			if (entry == null)
+				return null;
+			if (entry.fDirtyUnits.isEmpty())
+				return getTests(entry.fTests);
+			for (Iterator iter= entry.fDirtyUnits.iterator(); iter.hasNext();) {
+				ICompilationUnit unit= (ICompilationUnit) iter.next();
+				if (entry.fSuperTypeUnits.contains(unit.getHandleIdentifier())) {
+					fEntries.remove(key);
+					return null;
+				}
+			}
+			dirtyUnits= new HashSet(entry.fDirtyUnits);
+			modificationStamp= fModificationStamp;
+		}
+
+		IRegion region= CoreTestSearchEngine.getRegion(container);
+		Map/*<String, IType[]>*/ unitTests= new HashMap();
+		Set/*<String>*/ superTypeUnits= new HashSet();
+		for (Iterator iter= dirtyUnits.iterator(); iter.hasNext();) {
+			ICompilationUnit unit= (ICompilationUnit) iter.next();
+			List tests= new ArrayList();
+			if (unit.exists() && region.contains(unit)) {
+				IType[] types= unit.getAllTypes();
+				for (int i= 0; i < types.length; i++) {
+					if (finder.isTest(types[i]))
+						tests.add(types[i]);
+					ITypeHierarchy hierarchy= types[i].newSupertypeHierarchy(null);
+					addSuperTypeUnits(hierarchy.getAllSupertypes(types[i]), superTypeUnits);
+				}
+			}
+			unitTests.put(unit.getHandleIdentifier(), tests.toArray(new IType[tests.size()]));
+		}
+
+		synchronized (this) {
+			if (modificationStamp == fModificationStamp && fEntries.get(key) == entry) {
+				entry.fTests.putAll(unitTests);
+				entry.fSuperTypeUnits.addAll(superTypeUnits);
+				entry.fDirtyUnits.removeAll(dirtyUnits);
+				return getTests(entry.fTests);
+			}
+			// changed again while checking the units: use the result, but leave the units dirty
+			Map tests= new HashMap(entry.fTests);
+			tests.putAll(unitTests);
+			return getTests(tests);
+		}
+	}
+
+	private static IType[] getTests(Map/*<String, IType[]>*/ testsByUnit) {
+		List result= new ArrayList();
+		for (Iterator iter= testsByUnit.values().iterator(); iter.hasNext();) {
+			IType[] tests= (IType[]) iter.next();
+			for (int i= 0; i < tests.length; i++)
+				result.add(tests[i]);
+		}
+		return (IType[]) result.toArray(new IType[result.size()]);
+	}
+
+	/**
+	 * Caches the tests found in a container, unless there has been a change since the
+	 * search started.
+	 *
+	 * @param container the container
+	 * @param tests the tests found in the container
+	 * @param hierarchy the hierarchy of the classes in the container
+	 * @param modificationStamp the modification stamp from before the search
+	 */
+	public synchronized void put(IJavaElement container, Collection/*<IType>*/ tests, ITypeHierarchy hierarchy, int modificationStamp) {
+		if (modificationStamp != fModificationStamp)
+			return;
+		Entry entry= new Entry(container.getJavaProject().getElementName());
+		Map/*<String, List<IType>>*/ testsByUnit= new HashMap();
+		for (Iterator iter= tests.iterator(); iter.hasNext();) {
+			IType test= (IType) iter.next();
+			String unit= test.getTypeRoot().getHandleIdentifier();
+			List unitTests= (List) testsByUnit.get(unit);
+			if (unitTests == null) {
+				unitTests= new ArrayList();
+				testsByUnit.put(unit, unitTests);
+			}
+			unitTests.add(test);
+		}
+		for (Iterator iter= testsByUnit.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry mapEntry= (Map.Entry) iter.next();
+			List unitTests= (List) mapEntry.getValue();
+			entry.fTests.put(mapEntry.getKey(), unitTests.toArray(new IType[unitTests.size()]));
+		}
+		IType[] classes= hierarchy.getAllClasses();
+		for (int i= 0; i < classes.length; i++)
+			addSuperTypeUnits(hierarchy.getSupertypes(classes[i]), entry.fSuperTypeUnits);
+		fEntries.put(container.getHandleIdentifier(), entry);
+	}
+
+	private static void addSuperTypeUnits(IType[] superTypes, Set superTypeUnits) {
+		for (int i= 0; i < superTypes.length; i++) {
+			ICompilationUnit unit= superTypes[i].getCompilationUnit();
+			if (unit != null)
+				superTypeUnits.add(unit.getHandleIdentifier());
+		}
+	}
+
+	public synchronized void clear() {
+		fModificationStamp++;
+		fEntries.clear();
+	}
+
+	/*
+	 * @see org.eclipse.jdt.core.IElementChangedListener#elementChanged(org.eclipse.jdt.core.ElementChangedEvent)
+	 */
+	public void elementChanged(ElementChangedEvent event) {
+		Set/*<String>*/ changedProjects= new HashSet();
+		Set/*<ICompilationUnit>*/ changedUnits= new HashSet();
+		if (!collectChanges(event.getDelta(), changedProjects, changedUnits)) {
+			clear();
+			return;
+		}
+		if (changedProjects.isEmpty() && changedUnits.isEmpty())
+			return;
+
+		synchronized (this) {
+			fModificationStamp++;
+			if (fEntries.isEmpty())
+				return;
+			IJavaModel model= JavaCore.create(ResourcesPlugin.getWorkspace().getRoot());
+			Map/*<String, Set<String>>*/ requiredProjects= new HashMap();
+			for (Iterator iter= fEntries.values().iterator(); iter.hasNext();) {
+				Entry entry= (Entry) iter.next();
+				Set required= (Set) requiredProjects.get(entry.fProjectName);
+				if (required == null) {
+					required= getRequiredProjects(model, entry.fProjectName);
+					requiredProjects.put(entry.fProjectName, required);
+				}
+				if (required.isEmpty() || containsAny(required, changedProjects)) {
+					iter.remove();
+					continue;
+				}
+				for (Iterator units= changedUnits.iterator(); units.hasNext();) {
+					ICompilationUnit unit= (ICompilationUnit) units.next();
+					if (required.contains(unit.getJavaProject().getElementName()))
+						entry.fDirtyUnits.add(unit);
+				}
+			}
+		}
+	}
+
+	private static boolean containsAny(Set set, Set elements) {
+		for (Iterator iter= elements.iterator(); iter.hasNext();) {
+			if (set.contains(iter.next()))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Collects the changed compilation units and the projects whose structure changed.
+	 *
+	 * @param delta the delta
+	 * @param changedProjects the names of the projects whose structure changed
+	 * @param changedUnits the changed compilation units
+	 * @return <code>false</code> if the changes are not known and all tests must be discarded
+	 */
+	private static boolean collectChanges(IJavaElementDelta delta, Set changedProjects, Set changedUnits) {
+		IJavaElement element= delta.getElement();
+		int flags= delta.getFlags();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				IJavaElementDelta[] projectDeltas= delta.getAffectedChildren();
+				if (projectDeltas.length == 0)
+					return false;
+				break;
+			case IJavaElement.JAVA_PROJECT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED
+						|| (flags & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+								| IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED)) != 0) {
+					changedProjects.add(element.getElementName());
+					return true;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+			case IJavaElement.PACKAGE_FRAGMENT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED
+						|| (flags & (IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH
+								| IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_REORDER)) != 0) {
+					changedProjects.add(element.getJavaProject().getElementName());
+					return true;
+				}
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+				// opening or closing a working copy does not change the tests
+				if (delta.getKind() != IJavaElementDelta.CHANGED || (flags & IJavaElementDelta.F_CONTENT) != 0)
+					changedUnits.add(((ICompilationUnit) element).getPrimary());
+				return true;
+			case IJavaElement.CLASS_FILE:
+				changedProjects.add(element.getJavaProject().getElementName());
+				return true;
+			default:
+				return true;
+		}
+		IJavaElementDelta[] children= delta.getAffectedChildren();
+		for (int i= 0; i < children.length; i++) {
+			if (!collectChanges(children[i], changedProjects, changedUnits))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @param model the Java model
+	 * @param projectName the name of a project
+	 * @return the names of the project and of all projects it requires, or an empty set if
+	 *         they cannot be determined
+	 */
+	private static Set/*<String>*/ getRequiredProjects(IJavaModel model, String projectName) {
+		Set visited= new HashSet();
+		List worklist= new ArrayList();
+		worklist.add(projectName);
+		while (!worklist.isEmpty()) {
+			String name= (String) worklist.remove(worklist.size() - 1);
+			if (!visited.add(name))
+				continue;
+			IJavaProject project= model.getJavaProject(name);
+			try {
+				String[] required= project.getRequiredProjectNames();
+				for (int i= 0; i < required.length; i++)
+					worklist.add(required[i]);
+			} catch (JavaModelException e) {
+				return new HashSet();
+			}
+		}
+		return visited;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -56,7 +56,9 @@ import org.eclipse.jdt.internal.junit.Messages;
 import org.eclipse.jdt.internal.junit.launcher.ITestKind;
 import org.eclipse.jdt.internal.junit.launcher.JUnitLaunchConfigurationConstants;
 import org.eclipse.jdt.internal.junit.launcher.JUnitRuntimeClasspathEntry;
+import org.eclipse.jdt.internal.junit.launcher.TestHistoryFile;
 import org.eclipse.jdt.internal.junit.launcher.TestKindRegistry;
+import org.eclipse.jdt.internal.junit.launcher.TestShardBalancer;
 import org.eclipse.jdt.internal.junit.util.CoreTestSearchEngine;
 import org.eclipse.jdt.internal.junit.util.IJUnitStatusConstants;
 
@@ -119,11 +121,21 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			}
 
 			fKeepAlive= mode.equals(ILaunchManager.DEBUG_MODE) && configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_KEEPRUNNING, false);
-			fPort= evaluatePort();
-			launch.setAttribute(JUnitLaunchConfigurationConstants.ATTR_PORT, String.valueOf(fPort));
-
 			fTestElements= evaluateTests(configuration, new SubProgressMonitor(monitor, 1));
 
+			IMember[][] shards= evaluateShards(configuration);
+			int[] ports= evaluatePorts(shards.length);
+			if (ports.length > 1) {
+				StringBuffer shardPorts= new StringBuffer();
+				for (int i= 0; i < ports.length; i++) {
+					if (i > 0)
+						shardPorts.append(',');
+					shardPorts.append(ports[i]);
+				}
+				launch.setAttribute(JUnitLaunchConfigurationConstants.ATTR_SHARD_PORTS, shardPorts.toString());
+			}
+			launch.setAttribute(JUnitLaunchConfigurationConstants.ATTR_PORT, String.valueOf(ports[0]));
+
 			String mainTypeName= verifyMainTypeName(configuration);
 			IVMRunner runner= getVMRunner(configuration, mode);
 
@@ -136,26 +148,34 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			// Environment variables
 			String[] envp= getEnvironment(configuration);
 
-			ArrayList vmArguments= new ArrayList();
-			ArrayList programArguments= new ArrayList();
-			collectExecutionArguments(configuration, vmArguments, programArguments);
-
 			// VM-specific attributes
 			Map vmAttributesMap= getVMSpecificAttributesMap(configuration);
 
 			// Classpath
 			String[] classpath= getClasspath(configuration);
 
-			// Create VM config
-			VMRunnerConfiguration runConfig= new VMRunnerConfiguration(mainTypeName, classpath);
-			runConfig.setVMArguments((String[]) vmArguments.toArray(new String[vmArguments.size()]));
-			runConfig.setProgramArguments((String[]) programArguments.toArray(new String[programArguments.size()]));
-			runConfig.setEnvironment(envp);
-			runConfig.setWorkingDirectory(workingDirName);
-			runConfig.setVMSpecificAttributesMap(vmAttributesMap);
-
 			// Bootpath
-			runConfig.setBootClassPath(getBootpath(configuration));
+			String[] bootpath= getBootpath(configuration);
+
+			// Create VM configs, one per shard
+			VMRunnerConfiguration[] runConfigs= new VMRunnerConfiguration[shards.length];
+			for (int i= 0; i < shards.length; i++) {
+				fPort= ports[i];
+				fTestElements= shards[i];
+
+				ArrayList vmArguments= new ArrayList();
+				ArrayList programArguments= new ArrayList();
+				collectExecutionArguments(configuration, vmArguments, programArguments);
+
+				VMRunnerConfiguration runConfig= new VMRunnerConfiguration(mainTypeName, classpath);
+				runConfig.setVMArguments((String[]) vmArguments.toArray(new String[vmArguments.size()]));
+				runConfig.setProgramArguments((String[]) programArguments.toArray(new String[programArguments.size()]));
+				runConfig.setEnvironment(envp);
+				runConfig.setWorkingDirectory(workingDirName);
+				runConfig.setVMSpecificAttributesMap(vmAttributesMap);
+				runConfig.setBootClassPath(bootpath);
+				runConfigs[i]= runConfig;
+			}
 
 			// check for cancellation
 			if (monitor.isCanceled()) {
@@ -171,7 +191,9 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			monitor.worked(1);
 
 			// Launch the configuration - 1 unit of work
-			runner.run(runConfig, launch, monitor);
+			for (int i= 0; i < runConfigs.length; i++) {
+				runner.run(runConfigs[i], launch, monitor);
+			}
 
 			// check for cancellation
 			if (monitor.isCanceled()) {
@@ -191,6 +213,39 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 		return port;
 	}
 
+	private int[] evaluatePorts(int count) throws CoreException {
+		int[] ports= new int[count];
+		HashSet used= new HashSet();
+		for (int i= 0; i < count; i++) {
+			int port= evaluatePort();
+			while (!used.add(new Integer(port)))
+				port= evaluatePort();
+			ports[i]= port;
+		}
+		return ports;
+	}
+
+	/**
+	 * Splits the test elements into the shards that are run in separate VMs. A launch
+	 * is only sharded if it runs several test classes and does not keep the VM alive.
+	 *
+	 * @param configuration the launch configuration
+	 * @return the test elements of each shard
+	 * @throws CoreException if the configuration could not be read
+	 */
+	private IMember[][] evaluateShards(ILaunchConfiguration configuration) throws CoreException {
+		int shardCount= configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_SHARD_COUNT, 1);
+		if (shardCount <= 1 || fKeepAlive || fTestElements.length <= 1)
+			return new IMember[][] { fTestElements };
+		IType[] types= new IType[fTestElements.length];
+		for (int i= 0; i < fTestElements.length; i++) {
+			if (!(fTestElements[i] instanceof IType))
+				return new IMember[][] { fTestElements };
+			types[i]= (IType) fTestElements[i];
+		}
+		return TestShardBalancer.split(types, shardCount, configuration);
+	}
+
 	/**
 	 * Performs a check on the launch configuration's attributes. If an attribute contains an invalid value, a {@link CoreException}
 	 * with the error is thrown.
@@ -329,9 +384,37 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			programArguments.add("-testNameFile"); //$NON-NLS-1$
 			programArguments.add(fileName);
 		}
+		String testOrder= configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_ORDER, ""); //$NON-NLS-1$
 		if (testFailureNames.length() > 0) {
 			programArguments.add("-testfailures"); //$NON-NLS-1$
 			programArguments.add(testFailureNames);
+		} else if (testOrder.length() > 0) {
+			String testHistoryFile= TestHistoryFile.create(configuration);
+			if (testHistoryFile != null) {
+				programArguments.add("-testhistoryfile"); //$NON-NLS-1$
+				programArguments.add(testHistoryFile);
+				programArguments.add("-testorder"); //$NON-NLS-1$
+				programArguments.add(testOrder);
+			}
+		}
+
+		if (configuration.hasAttribute(JUnitLaunchConfigurationConstants.ATTR_FLUSH_INTERVAL)) {
+			int flushInterval= configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_FLUSH_INTERVAL, JUnitLaunchConfigurationConstants.DEFAULT_FLUSH_INTERVAL);
+			if (flushInterval > 0) {
+				programArguments.add("-flushinterval"); //$NON-NLS-1$
+				programArguments.add(String.valueOf(flushInterval));
+			}
+		}
+
+		int parallelThreads= configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_PARALLEL_THREADS, 1);
+		if (parallelThreads > 1) {
+			programArguments.add("-parallel"); //$NON-NLS-1$
+			programArguments.add(String.valueOf(parallelThreads));
+			String serialTestPatterns= configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_SERIAL_TEST_PATTERNS, ""); //$NON-NLS-1$
+			if (serialTestPatterns.length() > 0) {
+				programArguments.add("-serialtests"); //$NON-NLS-1$
+				programArguments.add(serialTestPatterns);
+			}
 		}
 	}
 
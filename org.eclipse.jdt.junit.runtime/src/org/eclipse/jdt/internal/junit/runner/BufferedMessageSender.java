@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.internal.junit.runner;
+
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * Message sender that flushes another sender periodically instead of after every test.
+ * <p>
+ * {@link #flush()} only flushes immediately if one of the messages since the last flush
+ * ends a failure trace, the test run or a rerun. Otherwise, the messages are flushed by a
+ * timer. The messages are still written out whenever the buffer of the underlying writer fills.
+ * </p>
+ * <p>
+ * Clients synchronize on the sender to send several messages atomically.
+ * </p>
+ */
+public class BufferedMessageSender implements MessageSender {
+
+	private final MessageSender fSender;
+	private final Timer fTimer;
+
+	private boolean fPending;
+	private boolean fUrgent;
+
+	/**
+	 * Creates a sender that flushes the given sender at the given interval.
+	 *
+	 * @param sender the sender to buffer
+	 * @param flushInterval the interval in milliseconds
+	 */
+	public BufferedMessageSender(MessageSender sender, long flushInterval) {
+		fSender= sender;
+		fTimer= new Timer(true);
+		fTimer.schedule(new TimerTask() {
+			public void run() {
+				synchronized (BufferedMessageSender.this) {
+					if (fPending)
+						doFlush();
+				}
+			}
+		}, flushInterval, flushInterval);
+	}
+
+	public synchronized void sendMessage(String msg) {
+		fSender.sendMessage(msg);
+		fPending= true;
+		if (isUrgent(msg))
+			fUrgent= true;
+	}
+
+	public synchronized void flush() {
+		if (fUrgent)
+			doFlush();
+	}
+
+	/**
+	 * Stops the timer and flushes all pending messages.
+	 */
+	public synchronized void close() {
+		fTimer.cancel();
+		if (fPending)
+			doFlush();
+	}
+
+	private void doFlush() {
+		fSender.flush();
+		fPending= false;
+		fUrgent= false;
+	}
+
+	private static boolean isUrgent(String msg) {
+		return msg.startsWith(MessageIds.TRACE_END)
+				|| msg.startsWith(MessageIds.RTRACE_END)
+				|| msg.startsWith(MessageIds.TEST_RUN_END)
+				|| msg.startsWith(MessageIds.TEST_STOPPED)
+				|| msg.startsWith(MessageIds.TEST_RERAN);
+	}
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.internal.junit.runner;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Vector;
+
+import junit.extensions.TestDecorator;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Reorders the tests of every suite by the {@link ITestOrder} of a {@link TestHistory}.
+ * The history of a suite is the combined history of its tests.
+ */
+public class HistoryPrioritizer implements ITestPrioritizer {
+
+	private final TestHistory fHistory;
+	private final Map/*<Test, TestHistory.Entry>*/ fEntries= new IdentityHashMap();
+
+	public HistoryPrioritizer(TestHistory history) {
+		fHistory= history;
+	}
+
+	public Test prioritize(Test suite) {
+		doPrioritize(suite);
+		fEntries.clear();
+		return suite;
+	}
+
+	private TestHistory.Entry doPrioritize(Test test) {
+		TestHistory.Entry entry;
+		if (test instanceof TestCase) {
+			entry= fHistory.getTestEntry(test.toString());
+		} else if (test instanceof TestSuite) {
+			entry= TestHistory.Entry.UNKNOWN;
+			Vector tests= (Vector) FailuresFirstPrioritizer.getField(test, "fTests"); //$NON-NLS-1$
+			if (tests != null) {
+				for (int i= 0; i < tests.size(); i++)
+					entry= entry.add(doPrioritize((Test) tests.get(i)));
+				Collections.sort(tests, new Comparator() {
+					public int compare(Object o1, Object o2) {
+						return fHistory.compare((TestHistory.Entry) fEntries.get(o1), (TestHistory.Entry) fEntries.get(o2));
+					}
+				});
+			}
+		} else if (test instanceof TestDecorator) {
+			entry= doPrioritize(((TestDecorator) test).getTest());
+		} else {
+			entry= TestHistory.Entry.UNKNOWN;
+		}
+		fEntries.put(test, entry);
+		return entry;
+	}
+}
@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.internal.junit.runner;
+
+/**
+ * Strategy to order tests by their {@link TestHistory}.
+ * <p>
+ * The strategy is selected with the <code>-testorder</code> argument of the test runner,
+ * either by the name of a built-in strategy (see {@link TestHistory#getOrder(String)}) or
+ * by the fully qualified name of a class on the class path of the tests. Such a class needs a
+ * public constructor without arguments.
+ * </p>
+ */
+public interface ITestOrder {
+
+	/**
+	 * Compares the histories of two tests or groups of tests. Tests that compare equal
+	 * keep their relative order.
+	 *
+	 * @param e1 the history of the first tests
+	 * @param e2 the history of the second tests
+	 * @return a negative number if the first tests should run first, a positive number if
+	 *         the second tests should run first, and 0 otherwise
+	 */
+	int compare(TestHistory.Entry e1, TestHistory.Entry e2);
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,7 +21,9 @@ import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
 import java.net.Socket;
+import java.util.StringTokenizer;
 import java.util.Vector;
 
 import org.eclipse.jdt.internal.junit.runner.junit3.JUnit3TestLoader;
@@ -53,6 +55,8 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 
 	public static final String RERAN_OK = "OK"; //$NON-NLS-1$
 
+	private static final String NOT_THREAD_SAFE_ANNOTATION= "NotThreadSafe"; //$NON-NLS-1$
+
 	/**
 	 * The name of the test classes to be executed
 	 */
@@ -114,12 +118,40 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 
 	private String[] fFailureNames;
 
+	/**
+	 * History of previous test runs to order the tests by, or <code>null</code>.
+	 */
+	private TestHistory fTestHistory;
+
+	/**
+	 * Name of the {@link ITestOrder} to order the tests by their history, or <code>null</code>.
+	 */
+	private String fTestOrder;
+
 	private ITestLoader fLoader;
 
 	private MessageSender fSender;
 
 	private boolean fConsoleMode = false;
 
+	/**
+	 * Number of threads to run the test classes on, 1 to run them sequentially.
+	 */
+	private int fParallelThreads= 1;
+	/**
+	 * Patterns of the names of test classes that must not run concurrently.
+	 */
+	private String[] fSerialTestPatterns= new String[0];
+
+	/**
+	 * Interval in milliseconds to flush the messages at, 0 to flush after every test.
+	 */
+	private int fFlushInterval= 0;
+	/**
+	 * The sender that buffers the messages, or <code>null</code> if not buffering.
+	 */
+	private BufferedMessageSender fBufferedSender;
+
 	/**
 	 * Reader thread that processes messages from the client.
 	 */
@@ -183,6 +215,11 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * -host: the host to connect to default local host
 	 * -port: the port to connect to, mandatory argument
 	 * -keepalive: keep the process alive after a test run
+	 * -parallel: the number of threads to run the test classes on
+	 * -serialtests: comma separated patterns of test classes that must not run concurrently
+	 * -testhistoryfile: the name of a file with the history of previous test runs to order the tests by
+	 * -testorder: the name of a built-in or the class name of a custom order of the tests by their history
+	 * -flushinterval: the interval in milliseconds to send test events at, 0 to send every event immediately
      * </pre>
      */
 	public static void main(String[] args) {
@@ -258,6 +295,19 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 				}
 				i++;
 
+			} else if(args[i].toLowerCase().equals("-testhistoryfile")) { //$NON-NLS-1$
+				String testHistoryFile= args[i+1];
+				try {
+					fTestHistory= TestHistory.read(testHistoryFile);
+				} catch (IOException e) {
+					throw new IllegalArgumentException("Cannot read testhistory file.");		 //$NON-NLS-1$
+				}
+				i++;
+
+			} else if(args[i].toLowerCase().equals("-testorder")) { //$NON-NLS-1$
+				fTestOrder= args[i+1];
+				i++;
+
 			} else if(args[i].toLowerCase().equals("-port")) { //$NON-NLS-1$
 				fPort= Integer.parseInt(args[i+1]);
 				i++;
@@ -273,6 +323,18 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 			else if(args[i].toLowerCase().equals("-keepalive")) { //$NON-NLS-1$
 				fKeepAlive= true;
 			}
+			else if(args[i].toLowerCase().equals("-parallel")) { //$NON-NLS-1$
+				fParallelThreads= Math.max(1, Integer.parseInt(args[i+1]));
+				i++;
+			}
+			else if(args[i].toLowerCase().equals("-serialtests")) { //$NON-NLS-1$
+				fSerialTestPatterns= splitPatterns(args[i+1]);
+				i++;
+			}
+			else if(args[i].toLowerCase().equals("-flushinterval")) { //$NON-NLS-1$
+				fFlushInterval= Math.max(0, Integer.parseInt(args[i+1]));
+				i++;
+			}
 			else if(args[i].toLowerCase().equals("-debugging") || args[i].toLowerCase().equals("-debug")){ //$NON-NLS-1$ //$NON-NLS-2$
 			    fDebugMode= true;
 
@@ -288,6 +350,9 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 		if (getTestLoader() == null)
 			initDefaultLoader();
 
+		if (fTestHistory != null && fTestOrder != null)
+			fTestHistory.setOrder(createTestOrder(fTestOrder));
+
 		if(fTestClassNames == null || fTestClassNames.length == 0)
 			throw new IllegalArgumentException(JUnitMessages.getString("RemoteTestRunner.error.classnamemissing")); //$NON-NLS-1$
 
@@ -320,6 +385,20 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 		return Class.forName(className);
 	}
 
+	private ITestOrder createTestOrder(String name) {
+		ITestOrder order= TestHistory.getOrder(name);
+		if (order != null)
+			return order;
+		try {
+			return (ITestOrder) getTestClassLoader().loadClass(name).newInstance();
+		} catch (Exception e) {
+			StringWriter trace= new StringWriter();
+			e.printStackTrace(new PrintWriter(trace));
+			String message= JUnitMessages.getFormattedString("RemoteTestRunner.error.invalidorder", new Object[] {name, trace.toString()}); //$NON-NLS-1$
+			throw new IllegalArgumentException(message);
+		}
+	}
+
 	public void setLoader(ITestLoader newInstance) {
 		fLoader = newInstance;
 	}
@@ -372,6 +451,10 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	protected void run() {
 		if (!connect())
 			return;
+		if (fFlushInterval > 0) {
+			fBufferedSender= new BufferedMessageSender(fSender, fFlushInterval);
+			setMessageSender(fBufferedSender);
+		}
 		if (fRerunTest != null) {
 			rerunTest(new RerunRequest(Integer.parseInt(fRerunTest), fTestClassNames[0], fTestName));
 			return;
@@ -387,6 +470,17 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 
 	}
 
+	/**
+	 * Returns the history of previous test runs given by <code>-testhistoryfile</code>.
+	 * Test loaders order the tests by its {@link TestHistory#getOrder() order} unless failed
+	 * tests are to be run first.
+	 *
+	 * @return the test history, or <code>null</code>
+	 */
+	public TestHistory getTestHistory() {
+		return fTestHistory;
+	}
+
 	public FirstRunExecutionListener firstRunExecutionListener() {
 		return new FirstRunExecutionListener(fSender, fIds);
 	}
@@ -441,7 +535,10 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * @param execution executor
 	 */
 	public void runTests(String[] testClassNames, String testName, TestExecution execution) {
-		ITestReference[] suites= fLoader.loadTests(loadClasses(testClassNames), testName, fFailureNames, this);
+		if (fTestHistory != null && fFailureNames == null)
+			testClassNames= fTestHistory.sortClassNames(testClassNames);
+		Class[] classes= loadClasses(testClassNames);
+		ITestReference[] suites= fLoader.loadTests(classes, testName, fFailureNames, this);
 
 		// count all testMethods and inform ITestRunListeners
 		int count= countTests(suites);
@@ -456,10 +553,71 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 		sendTrees(suites);
 
 		long testStartTime= System.currentTimeMillis();
-		execution.run(suites);
+		// the loaders return one suite per class, in the order of the classes
+		if (fParallelThreads > 1 && suites.length > 1)
+			execution.runParallel(suites, getSerialSuites(classes), fParallelThreads);
+		else
+			execution.run(suites);
 		notifyListenersOfTestEnd(execution, testStartTime);
 	}
 
+	private boolean[] getSerialSuites(Class[] classes) {
+		boolean[] serial= new boolean[classes.length];
+		for (int i= 0; i < classes.length; i++)
+			serial[i]= isSerial(classes[i]);
+		return serial;
+	}
+
+	/**
+	 * Tells whether the given test class must not run concurrently with other serial test
+	 * classes. These are the classes that match one of the patterns given by
+	 * <code>-serialtests</code> or that are annotated with an annotation named
+	 * <code>NotThreadSafe</code>.
+	 *
+	 * @param clazz the test class
+	 * @return <code>true</code> if the class must be run serially
+	 */
+	protected boolean isSerial(Class clazz) {
+		String name= clazz.getName();
+		for (int i= 0; i < fSerialTestPatterns.length; i++) {
+			if (matches(fSerialTestPatterns[i], name))
+				return true;
+		}
+		return hasNotThreadSafeAnnotation(clazz);
+	}
+
+	private static boolean matches(String pattern, String name) {
+		if (pattern.endsWith("*")) //$NON-NLS-1$
+			return name.startsWith(pattern.substring(0, pattern.length() - 1));
+		return name.equals(pattern);
+	}
+
+	private static boolean hasNotThreadSafeAnnotation(Class clazz) {
+		// annotations are only available from 1.5 on
+		try {
+			Method getAnnotations= Class.class.getMethod("getAnnotations", new Class[0]); //$NON-NLS-1$
+			Method annotationType= Class.forName("java.lang.annotation.Annotation").getMethod("annotationType", new Class[0]); //$NON-NLS-1$ //$NON-NLS-2$
+			Object[] annotations= (Object[]) getAnnotations.invoke(clazz, new Object[0]);
+			for (int i= 0; i < annotations.length; i++) {
+				String name= ((Class) annotationType.invoke(annotations[i], new Object[0])).getName();
+				String simpleName= name.substring(Math.max(name.lastIndexOf('.'), name.lastIndexOf('$')) + 1);
+				if (simpleName.equals(NOT_THREAD_SAFE_ANNOTATION))
+					return true;
+			}
+		} catch (Exception e) {
+			// no annotations
+		}
+		return false;
+	}
+
+	private static String[] splitPatterns(String patterns) {
+		StringTokenizer tokenizer= new StringTokenizer(patterns, ","); //$NON-NLS-1$
+		String[] result= new String[tokenizer.countTokens()];
+		for (int i= 0; i < result.length; i++)
+			result[i]= tokenizer.nextToken().trim();
+		return result;
+	}
+
 	private void sendTrees(ITestReference[] suites) {
 		long startTime = System.currentTimeMillis();
 		if (fDebugMode)
@@ -589,6 +747,10 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * Shutsdown the connection to the remote test listener.
 	 */
 	private void shutDown() {
+		if (fBufferedSender != null) {
+			fBufferedSender.close();
+			fBufferedSender= null;
+		}
 		if (fWriter != null) {
 			fWriter.close();
 			fWriter= null;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006 IBM Corporation and others.
+ * Copyright (c) 2006, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,10 +14,9 @@
 package org.eclipse.jdt.internal.junit.runner;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 
 public class TestExecution {
-	private boolean fShouldStop = false;
+	private volatile boolean fShouldStop = false;
 
 	private IListensToTestExecutions fExecutionListener;
 
@@ -39,15 +38,76 @@ public class TestExecution {
 		}
 	}
 
+	/**
+	 * Runs the given suites concurrently on the given number of threads. The suites that
+	 * are marked as serial are run one after the other by a single thread, in parallel
+	 * to the other suites.
+	 *
+	 * @param suites the suites to run
+	 * @param serial <code>serial[i]</code> tells whether <code>suites[i]</code> must not run
+	 *            concurrently with other serial suites
+	 * @param threadCount the number of threads to use
+	 */
+	public void runParallel(ITestReference[] suites, boolean[] serial, int threadCount) {
+		// the serial suites are one work item, positioned at the first serial suite
+		final ArrayList workItems = new ArrayList();
+		ArrayList serialSuites = null;
+		for (int i = 0; i < suites.length; i++) {
+			if (serial[i]) {
+				if (serialSuites == null) {
+					serialSuites = new ArrayList();
+					workItems.add(serialSuites);
+				}
+				serialSuites.add(suites[i]);
+			} else {
+				workItems.add(suites[i]);
+			}
+		}
+
+		Thread[] threads = new Thread[Math.min(threadCount, workItems.size())];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread("TestExecution-" + i) { //$NON-NLS-1$
+				public void run() {
+					while (!fShouldStop) {
+						Object item;
+						synchronized (workItems) {
+							if (workItems.isEmpty())
+								return;
+							item = workItems.remove(0);
+						}
+						if (item instanceof ITestReference) {
+							((ITestReference) item).run(TestExecution.this);
+						} else {
+							ITestReference[] group = (ITestReference[]) ((ArrayList) item).toArray(new ITestReference[((ArrayList) item).size()]);
+							TestExecution.this.run(group);
+						}
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (int i = 0; i < threads.length; i++) {
+			try {
+				threads[i].join();
+			} catch (InterruptedException e) {
+				stop();
+				i--; // wait for the thread to finish its current test
+			}
+		}
+	}
+
 	public boolean shouldStop() {
 		return fShouldStop;
 	}
 
 	public void stop() {
 		fShouldStop = true;
-		for (Iterator iter = fStopListeners.iterator(); iter.hasNext();) {
-			IStopListener listener = (IStopListener) iter.next();
-			listener.stop();
+		IStopListener[] listeners;
+		synchronized (fStopListeners) {
+			listeners = (IStopListener[]) fStopListeners.toArray(new IStopListener[fStopListeners.size()]);
+		}
+		for (int i = 0; i < listeners.length; i++) {
+			listeners[i].stop();
 		}
 	}
 
@@ -60,6 +120,8 @@ public class TestExecution {
 	}
 
 	public void addStopListener(IStopListener listener) {
-		fStopListeners.add(listener);
+		synchronized (fStopListeners) {
+			fStopListeners.add(listener);
+		}
 	}
 }
@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.internal.junit.runner;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Outcomes and durations of the tests in previous test runs, used to order the tests
+ * by an {@link ITestOrder}, by default {@link #FAILED_THEN_FASTEST}.
+ * <p>
+ * The history file has one line per test of the form <code>status,seconds,testName</code>,
+ * where the status is <code>F</code> if the test failed in one of the previous runs and
+ * <code>P</code> otherwise. The test names are the display names of the tests, e.g.
+ * <code>testFoo(p.FooTest)</code>.
+ * </p>
+ * <p>
+ * Tests without history are considered new. The built-in orders run them right after the
+ * failed tests, since new tests are usually the ones that are being worked on.
+ * </p>
+ */
+public class TestHistory {
+
+	/**
+	 * History of a test or of a group of tests.
+	 */
+	public static class Entry {
+		public static final Entry UNKNOWN= new Entry(false, 0);
+
+		public final boolean failed;
+		public final double seconds;
+
+		public Entry(boolean failed, double seconds) {
+			this.failed= failed;
+			this.seconds= seconds;
+		}
+
+		/**
+		 * @param other another entry
+		 * @return the history of the tests of this entry and the other entry
+		 */
+		public Entry add(Entry other) {
+			return new Entry(failed || other.failed, seconds + other.seconds);
+		}
+	}
+
+	/**
+	 * Name of {@link #FAILED_FIRST} for <code>-testorder</code>.
+	 */
+	public static final String ORDER_FAILED_FIRST= "failedFirst"; //$NON-NLS-1$
+
+	/**
+	 * Name of {@link #FASTEST_FIRST} for <code>-testorder</code>.
+	 */
+	public static final String ORDER_FASTEST_FIRST= "fastestFirst"; //$NON-NLS-1$
+
+	/**
+	 * Name of {@link #FAILED_THEN_FASTEST} for <code>-testorder</code>.
+	 */
+	public static final String ORDER_FAILED_THEN_FASTEST= "failedThenFastest"; //$NON-NLS-1$
+
+	/**
+	 * Orders tests that failed recently first, and keeps the order of the other tests.
+	 */
+	public static final ITestOrder FAILED_FIRST= new ITestOrder() {
+		public int compare(Entry e1, Entry e2) {
+			if (e1.failed != e2.failed)
+				return e1.failed ? -1 : 1;
+			return 0;
+		}
+	};
+
+	/**
+	 * Orders the fastest tests first.
+	 */
+	public static final ITestOrder FASTEST_FIRST= new ITestOrder() {
+		public int compare(Entry e1, Entry e2) {
+			return Double.compare(e1.seconds, e2.seconds);
+		}
+	};
+
+	/**
+	 * Orders tests that failed recently first, then the fastest tests first.
+	 */
+	public static final ITestOrder FAILED_THEN_FASTEST= new ITestOrder() {
+		public int compare(Entry e1, Entry e2) {
+			int result= FAILED_FIRST.compare(e1, e2);
+			return result != 0 ? result : FASTEST_FIRST.compare(e1, e2);
+		}
+	};
+
+	private final Map/*<String, Entry>*/ fTests= new HashMap();
+	private final Map/*<String, Entry>*/ fClasses= new HashMap();
+	private ITestOrder fOrder= FAILED_THEN_FASTEST;
+
+	/**
+	 * Returns a built-in order.
+	 *
+	 * @param name the name of the order, e.g. {@link #ORDER_FAILED_THEN_FASTEST}
+	 * @return the order, or <code>null</code> if there is no built-in order of this name
+	 */
+	public static ITestOrder getOrder(String name) {
+		if (ORDER_FAILED_FIRST.equals(name))
+			return FAILED_FIRST;
+		if (ORDER_FASTEST_FIRST.equals(name))
+			return FASTEST_FIRST;
+		if (ORDER_FAILED_THEN_FASTEST.equals(name))
+			return FAILED_THEN_FASTEST;
+		return null;
+	}
+
+	/**
+	 * Reads a history file.
+	 *
+	 * @param historyFile the name of the file
+	 * @return the history
+	 * @throws IOException if the file cannot be read
+	 */
+	public static TestHistory read(String historyFile) throws IOException {
+		TestHistory history= new TestHistory();
+		BufferedReader br= new BufferedReader(new InputStreamReader(new FileInputStream(new File(historyFile)), "UTF-8")); //$NON-NLS-1$
+		try {
+			String line;
+			while ((line= br.readLine()) != null) {
+				int index0= line.indexOf(',');
+				int index1= line.indexOf(',', index0 + 1);
+				if (index0 == -1 || index1 == -1)
+					continue;
+				try {
+					boolean failed= line.substring(0, index0).equals("F"); //$NON-NLS-1$
+					double seconds= Double.parseDouble(line.substring(index0 + 1, index1));
+					history.add(line.substring(index1 + 1), new Entry(failed, seconds));
+				} catch (NumberFormatException e) {
+					// skip malformed line
+				}
+			}
+		} finally {
+			br.close();
+		}
+		return history;
+	}
+
+	private void add(String testName, Entry entry) {
+		fTests.put(testName, entry);
+		String className= getClassName(testName);
+		Entry classEntry= (Entry) fClasses.get(className);
+		fClasses.put(className, classEntry == null ? entry : classEntry.add(entry));
+	}
+
+	private static String getClassName(String testName) {
+		int index= testName.lastIndexOf('(');
+		if (index != -1 && testName.endsWith(")")) //$NON-NLS-1$
+			return testName.substring(index + 1, testName.length() - 1);
+		return testName;
+	}
+
+	/**
+	 * @param testName the display name of a test
+	 * @return the history of the test, or {@link Entry#UNKNOWN}
+	 */
+	public Entry getTestEntry(String testName) {
+		Entry entry= (Entry) fTests.get(testName);
+		return entry != null ? entry : Entry.UNKNOWN;
+	}
+
+	/**
+	 * @param className the fully qualified name of a test class
+	 * @return the history of the tests in the class, or {@link Entry#UNKNOWN}
+	 */
+	public Entry getClassEntry(String className) {
+		Entry entry= (Entry) fClasses.get(className);
+		return entry != null ? entry : Entry.UNKNOWN;
+	}
+
+	/**
+	 * @return the order of the tests
+	 */
+	public ITestOrder getOrder() {
+		return fOrder;
+	}
+
+	/**
+	 * @param order the order of the tests
+	 */
+	public void setOrder(ITestOrder order) {
+		fOrder= order;
+	}
+
+	/**
+	 * Compares two entries by the order of the tests.
+	 *
+	 * @param e1 the first entry
+	 * @param e2 the second entry
+	 * @return the result of {@link ITestOrder#compare(Entry, Entry)}
+	 */
+	public int compare(Entry e1, Entry e2) {
+		return fOrder.compare(e1, e2);
+	}
+
+	/**
+	 * Sorts test class names by the order of the tests.
+	 *
+	 * @param classNames the fully qualified names of the test classes
+	 * @return the sorted names
+	 */
+	public String[] sortClassNames(String[] classNames) {
+		String[] sorted= (String[]) classNames.clone();
+		Arrays.sort(sorted, new Comparator() {
+			public int compare(Object o1, Object o2) {
+				return TestHistory.this.compare(getClassEntry((String) o1), getClassEntry((String) o2));
+			}
+		});
+		return sorted;
+	}
+}
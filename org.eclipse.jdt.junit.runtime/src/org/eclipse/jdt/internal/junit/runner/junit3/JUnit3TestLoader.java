@@ -23,6 +23,7 @@ import junit.framework.TestCase;
 import junit.framework.TestSuite;
 
 import org.eclipse.jdt.internal.junit.runner.FailuresFirstPrioritizer;
+import org.eclipse.jdt.internal.junit.runner.HistoryPrioritizer;
 import org.eclipse.jdt.internal.junit.runner.ITestLoader;
 import org.eclipse.jdt.internal.junit.runner.ITestPrioritizer;
 import org.eclipse.jdt.internal.junit.runner.ITestReference;
@@ -51,6 +52,8 @@ public class JUnit3TestLoader implements ITestLoader {
 
 		if (failureNames != null)
 			prioritizer= new FailuresFirstPrioritizer(failureNames);
+		else if (listener.getTestHistory() != null)
+			prioritizer= new HistoryPrioritizer(listener.getTestHistory());
 		else
 			prioritizer= new NullPrioritizer();
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -708,6 +708,10 @@ public class TestRunnerViewPart extends ViewPart {
 			fRerunLastTestAction.setEnabled(true);
 		}
 
+		public void totalCountChanged() {
+			postSyncProcessChanges();
+		}
+
 		public void sessionEnded(long elapsedTime){
 			deregisterTestSessionListener(false);
 			
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.internal.junit4.runner;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.runner.Description;
+
+import org.eclipse.jdt.internal.junit.runner.ITestOrder;
+import org.eclipse.jdt.internal.junit.runner.TestHistory;
+
+/**
+ * Comparator for descriptions to sort by the {@link ITestOrder} of a {@link TestHistory}.
+ * The history of a description with children is the combined history of its children.
+ */
+public class HistorySorter implements Comparator<Description> {
+
+	private final TestHistory history;
+	private final Map<Description, TestHistory.Entry> entries= new HashMap<Description, TestHistory.Entry>();
+
+	/**
+	 * Creates a sorter.
+	 *
+	 * @param history the history of previous test runs
+	 */
+	public HistorySorter(TestHistory history) {
+		this.history= history;
+	}
+
+	public int compare(Description d1, Description d2) {
+		return history.compare(getEntry(d1), getEntry(d2));
+	}
+
+	private TestHistory.Entry getEntry(Description d) {
+		TestHistory.Entry entry= entries.get(d);
+		if (entry == null) {
+			if (d.isTest()) {
+				entry= history.getTestEntry(d.getDisplayName());
+			} else {
+				entry= TestHistory.Entry.UNKNOWN;
+				for (Description child : d.getChildren()) {
+					entry= entry.add(getEntry(child));
+				}
+			}
+			entries.put(d, entry);
+		}
+		return entry;
+	}
+}
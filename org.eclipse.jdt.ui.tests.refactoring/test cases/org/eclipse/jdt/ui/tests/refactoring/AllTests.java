@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -24,6 +24,8 @@ public class AllTests {
 		suite.addTest(UndoManagerTests.suite());
 		suite.addTest(PathTransformationTests.suite());
 		suite.addTest(RefactoringScannerTests.suite());
+		suite.addTest(RefactoringSearchEngine2Tests.suite());
+		suite.addTest(StructuralHashIndexTests.suite());
 		suite.addTest(SurroundWithTests.suite());
 		suite.addTest(SurroundWithTests17.suite());
 		suite.addTest(SurroundWithTests18.suite());
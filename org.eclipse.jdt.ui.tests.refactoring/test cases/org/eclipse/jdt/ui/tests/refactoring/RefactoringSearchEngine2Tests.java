@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.refactoring;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.core.runtime.CoreException;
+
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.SearchMatch;
+import org.eclipse.jdt.core.search.SearchPattern;
+
+import org.eclipse.jdt.internal.corext.refactoring.IRefactoringSearchGroupRequestor;
+import org.eclipse.jdt.internal.corext.refactoring.IRefactoringSearchRequestor;
+import org.eclipse.jdt.internal.corext.refactoring.RefactoringScopeFactory;
+import org.eclipse.jdt.internal.corext.refactoring.RefactoringSearchEngine2;
+import org.eclipse.jdt.internal.corext.refactoring.SearchResultGroup;
+
+public class RefactoringSearchEngine2Tests extends RefactoringTest {
+
+	private static final Class clazz= RefactoringSearchEngine2Tests.class;
+
+	public RefactoringSearchEngine2Tests(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return new RefactoringTestSetup(new TestSuite(clazz));
+	}
+
+	public static Test setUpTest(Test test) {
+		return new RefactoringTestSetup(test);
+	}
+
+	public void testGroupRequestor() throws Exception {
+		ICompilationUnit a= createCU(getPackageP(), "A.java", "package p;\npublic class A {\n\tpublic static final int C= 1;\n}\n");
+		ICompilationUnit b= createCU(getPackageP(), "B.java", "package p;\nclass B {\n\tint f= A.C;\n\tint m() {\n\t\treturn A.C + A.C;\n\t}\n}\n");
+		ICompilationUnit d= createCU(getPackageP(), "D.java", "package p;\nclass D {\n\t/** {@link A#C} */\n\tint g= A.C;\n}\n");
+		IField field= a.getType("A").getField("C");
+
+		final List<SearchResultGroup> groups= new ArrayList<SearchResultGroup>();
+		RefactoringSearchEngine2 engine= createEngine(field);
+		engine.setGroupRequestor(new IRefactoringSearchGroupRequestor() {
+			public void acceptSearchResultGroup(SearchResultGroup group) throws CoreException {
+				groups.add(group);
+			}
+		});
+		engine.searchPattern(null);
+
+		assertEquals(0, engine.getResults().length);
+		assertEquals(2, groups.size());
+		SearchResultGroup groupOfB= groups.get(0).getCompilationUnit().equals(b) ? groups.get(0) : groups.get(1);
+		SearchResultGroup groupOfD= groups.get(0).getCompilationUnit().equals(d) ? groups.get(0) : groups.get(1);
+		assertEquals(b, groupOfB.getCompilationUnit());
+		assertEquals(3, groupOfB.getSearchResults().length);
+		assertEquals(d, groupOfD.getCompilationUnit());
+		assertEquals(2, groupOfD.getSearchResults().length);
+	}
+
+	public void testGroupRequestorMatchesCollectedResults() throws Exception {
+		ICompilationUnit a= createCU(getPackageP(), "A.java", "package p;\npublic class A {\n\tpublic static final int C= 1;\n\tint h= C;\n}\n");
+		createCU(getPackageP(), "B.java", "package p;\nclass B {\n\tint f= A.C;\n\tclass Inner {\n\t\tint g= A.C;\n\t}\n}\n");
+		createCU(getPackageP(), "D.java", "package p;\nclass D {\n\tint g= A.C * A.C;\n}\n");
+		IField field= a.getType("A").getField("C");
+
+		RefactoringSearchEngine2 collecting= createEngine(field);
+		collecting.searchPattern(null);
+		SearchResultGroup[] expected= (SearchResultGroup[]) collecting.getResults();
+
+		final List<SearchResultGroup> groups= new ArrayList<SearchResultGroup>();
+		RefactoringSearchEngine2 streaming= createEngine(field);
+		streaming.setGroupRequestor(new IRefactoringSearchGroupRequestor() {
+			public void acceptSearchResultGroup(SearchResultGroup group) throws CoreException {
+				groups.add(group);
+			}
+		});
+		streaming.searchPattern(null);
+
+		assertEquals(expected.length, groups.size());
+		for (int i= 0; i < expected.length; i++) {
+			SearchResultGroup actual= null;
+			for (int j= 0; j < groups.size(); j++) {
+				if (groups.get(j).getResource().equals(expected[i].getResource())) {
+					assertNull("more than one group for " + expected[i].getResource(), actual);
+					actual= groups.get(j);
+				}
+			}
+			assertNotNull("no group for " + expected[i].getResource(), actual);
+			assertEquals(expected[i].getSearchResults().length, actual.getSearchResults().length);
+		}
+	}
+
+	public void testGroupRequestorWhileSearching() throws Exception {
+		ICompilationUnit a= createCU(getPackageP(), "A.java", "package p;\npublic class A {\n\tpublic static final int C= 1;\n}\n");
+		createCU(getPackageP(), "B.java", "package p;\nclass B {\n\tint f= A.C;\n\tint g= A.C;\n}\n");
+		createCU(getPackageP(), "D.java", "package p;\nclass D {\n\tint f= A.C;\n}\n");
+		createCU(getPackageP(), "E.java", "package p;\nclass E {\n\tint f= A.C + A.C;\n}\n");
+		IField field= a.getType("A").getField("C");
+
+		final List<String> events= new ArrayList<String>();
+		RefactoringSearchEngine2 engine= createEngine(field);
+		engine.setRequestor(new IRefactoringSearchRequestor() {
+			public SearchMatch acceptSearchMatch(SearchMatch match) {
+				events.add("match " + match.getResource().getName());
+				return match;
+			}
+		});
+		engine.setGroupRequestor(new IRefactoringSearchGroupRequestor() {
+			public void acceptSearchResultGroup(SearchResultGroup group) throws CoreException {
+				events.add("group " + group.getResource().getName());
+			}
+		});
+		engine.searchPattern(null);
+
+		// each group is handed out after the last match of its resource, and before the next resource
+		List<String> groups= new ArrayList<String>();
+		for (int i= 0; i < events.size(); i++) {
+			String event= events.get(i);
+			if (event.startsWith("group ")) {
+				String resource= event.substring("group ".length());
+				groups.add(resource);
+				assertEquals("match " + resource, events.get(i - 1));
+				assertFalse(events.subList(i + 1, events.size()).contains("match " + resource));
+			} else if (i > 0 && !event.equals(events.get(i - 1)) && events.get(i - 1).startsWith("match ")) {
+				fail("no group handed out before " + event);
+			}
+		}
+		assertEquals(3, groups.size());
+		assertEquals("group " + groups.get(2), events.get(events.size() - 1));
+	}
+
+	private RefactoringSearchEngine2 createEngine(IField field) throws JavaModelException {
+		RefactoringSearchEngine2 engine= new RefactoringSearchEngine2(SearchPattern.createPattern(field, IJavaSearchConstants.REFERENCES));
+		engine.setFiltering(true, true);
+		engine.setScope(RefactoringScopeFactory.create(field));
+		engine.setStatus(new RefactoringStatus());
+		return engine;
+	}
+}
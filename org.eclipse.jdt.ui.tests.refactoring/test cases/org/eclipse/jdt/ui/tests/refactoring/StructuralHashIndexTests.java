@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.refactoring;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.dom.ASTMatcher;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+
+import org.eclipse.jdt.internal.corext.refactoring.code.StructuralHashIndex;
+import org.eclipse.jdt.internal.corext.refactoring.util.RefactoringASTParser;
+
+import org.eclipse.jdt.internal.ui.javaeditor.ASTProvider;
+
+public class StructuralHashIndexTests extends RefactoringTest {
+
+	private static final Class clazz= StructuralHashIndexTests.class;
+
+	public StructuralHashIndexTests(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return new RefactoringTestSetup(new TestSuite(clazz));
+	}
+
+	public static Test setUpTest(Test test) {
+		return new RefactoringTestSetup(test);
+	}
+
+	private TypeDeclaration parseType(String source) throws Exception {
+		ICompilationUnit cu= createCU(getPackageP(), "A.java", source);
+		CompilationUnit root= new RefactoringASTParser(ASTProvider.SHARED_AST_LEVEL).parse(cu, true);
+		return (TypeDeclaration) root.types().get(0);
+	}
+
+	private static ASTNode getBody(TypeDeclaration type, int method) {
+		return type.getMethods()[method].getBody();
+	}
+
+	public void testEqualFragmentsRemainCandidates() throws Exception {
+		TypeDeclaration type= parseType(
+				"package p;\n" +
+				"class A {\n" +
+				"	int f;\n" +
+				"	void m1(int a) {\n" +
+				"		int x= a + f * 2;\n" +
+				"		System.out.println(x);\n" +
+				"	}\n" +
+				"	void m2(int b) {\n" +
+				"		int y= b + f * 2;\n" +
+				"		System.out.println(y);\n" +
+				"	}\n" +
+				"}\n");
+		StructuralHashIndex index= new StructuralHashIndex();
+
+		// the bodies only differ in the names of locals and parameters
+		assertEquals(index.getHash(getBody(type, 0)), index.getHash(getBody(type, 1)));
+	}
+
+	public void testDifferentFragmentsAreFiltered() throws Exception {
+		TypeDeclaration type= parseType(
+				"package p;\n" +
+				"class A {\n" +
+				"	int f, g;\n" +
+				"	int m1(int a) {\n" +
+				"		return a + f * 2;\n" +
+				"	}\n" +
+				"	int m2(int a) {\n" +
+				"		return a - f * 2;\n" +
+				"	}\n" +
+				"	int m3(int a) {\n" +
+				"		return a + f * 3;\n" +
+				"	}\n" +
+				"	int m4(int a) {\n" +
+				"		return a + g * 2;\n" +
+				"	}\n" +
+				"	int m5(int a) {\n" +
+				"		return f * 2 + a;\n" +
+				"	}\n" +
+				"}\n");
+		StructuralHashIndex index= new StructuralHashIndex();
+
+		int hash= index.getHash(getBody(type, 0));
+		for (int i= 1; i < type.getMethods().length; i++) {
+			assertTrue(type.getMethods()[i].getName().getIdentifier(), hash != index.getHash(getBody(type, i)));
+		}
+	}
+
+	public void testMatchingFragmentsHaveEqualHashes() throws Exception {
+		TypeDeclaration type= parseType(
+				"package p;\n" +
+				"class A {\n" +
+				"	int f;\n" +
+				"	void m1(int a) {\n" +
+				"		f= f + 1;\n" +
+				"		if (a > 0)\n" +
+				"			f++;\n" +
+				"		String s= \"s\" + 'c' + true;\n" +
+				"	}\n" +
+				"	void m2(int a) {\n" +
+				"		f= f + 1;\n" +
+				"		if (a > 0)\n" +
+				"			f++;\n" +
+				"		String s= \"s\" + 'c' + true;\n" +
+				"		f= f + 1;\n" +
+				"	}\n" +
+				"}\n");
+		final List<ASTNode> nodes= new ArrayList<ASTNode>();
+		type.accept(new ASTVisitor() {
+			@Override
+			public void preVisit(ASTNode node) {
+				if (node instanceof Statement || node instanceof Expression)
+					nodes.add(node);
+			}
+		});
+		StructuralHashIndex index= new StructuralHashIndex();
+
+		// every pair of subtrees that matches must survive the hash filter
+		ASTMatcher matcher= new ASTMatcher();
+		int matches= 0;
+		for (int i= 0; i < nodes.size(); i++) {
+			for (int j= i + 1; j < nodes.size(); j++) {
+				ASTNode first= nodes.get(i);
+				ASTNode second= nodes.get(j);
+				if (first.subtreeMatch(matcher, second)) {
+					assertEquals(first.toString(), index.getHash(first), index.getHash(second));
+					matches++;
+				}
+			}
+		}
+		// each statement of m1 and each of its expressions has a counterpart in m2
+		assertTrue(matches >= nodes.size() / 2);
+
+		MethodDeclaration m1= type.getMethods()[0];
+		MethodDeclaration m2= type.getMethods()[1];
+		assertTrue(index.getHash(m1.getBody()) != index.getHash(m2.getBody()));
+	}
+}
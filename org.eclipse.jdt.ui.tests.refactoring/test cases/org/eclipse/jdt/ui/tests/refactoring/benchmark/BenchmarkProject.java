@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.refactoring.benchmark;
+
+import org.junit.Assert;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import org.eclipse.core.resources.IWorkspaceRunnable;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * A synthetic project for the refactoring benchmarks.
+ * <p>
+ * The project contains the class <code>def.Target</code>, its superclass <code>def.Base</code>,
+ * an empty class <code>dest.Destination</code> and the given number of units in the packages
+ * <code>ref0</code>, <code>ref1</code>, ... that reference the type, the field <code>value</code>,
+ * the constant <code>CONSTANT</code> and the methods <code>compute(int, int)</code>,
+ * <code>pulled()</code> and <code>create()</code> of <code>Target</code>. All units use the raw
+ * type <code>java.util.List</code>.
+ * </p>
+ */
+public class BenchmarkProject {
+
+	private static final int UNITS_PER_PACKAGE= 500;
+
+	private final IJavaProject fProject;
+	private IType fBase;
+	private IType fTarget;
+
+	public BenchmarkProject(final int numberOfUnits) throws Exception {
+		fProject= JavaProjectHelper.createJavaProject("BenchmarkProject", "bin");
+		Assert.assertTrue("rt not found", JavaProjectHelper.addRTJar15(fProject) != null);
+		final IPackageFragmentRoot root= JavaProjectHelper.addSourceContainer(fProject, "src");
+		JavaCore.run(new IWorkspaceRunnable() {
+			public void run(IProgressMonitor monitor) throws CoreException {
+				generateSources(root, numberOfUnits);
+			}
+		}, null);
+		JavaProjectHelper.performDummySearch();
+	}
+
+	public IJavaProject getJavaProject() {
+		return fProject;
+	}
+
+	public IType getBase() {
+		return fBase;
+	}
+
+	public IType getTarget() {
+		return fTarget;
+	}
+
+	public void delete() throws Exception {
+		if (fProject.exists())
+			JavaProjectHelper.delete(fProject);
+	}
+
+	private void generateSources(IPackageFragmentRoot root, int numberOfUnits) throws CoreException {
+		IPackageFragment definition= root.createPackageFragment("def", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package def;\n");
+		buf.append("public class Base {\n");
+		buf.append("}\n");
+		fBase= definition.createCompilationUnit("Base.java", buf.toString(), false, null).findPrimaryType();
+
+		buf= new StringBuffer();
+		buf.append("package def;\n");
+		buf.append("import java.util.ArrayList;\n");
+		buf.append("import java.util.List;\n");
+		buf.append("public class Target extends Base {\n");
+		buf.append("    public static final int CONSTANT= 1;\n");
+		buf.append("    public int value;\n");
+		buf.append("    public int compute(int first, int second) {\n");
+		buf.append("        int sum= first + second;\n");
+		buf.append("        return sum + first * second;\n");
+		buf.append("    }\n");
+		buf.append("    public void pulled() {\n");
+		buf.append("    }\n");
+		buf.append("    public List create() {\n");
+		buf.append("        List list= new ArrayList();\n");
+		buf.append("        list.add(\"element\");\n");
+		buf.append("        return list;\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		ICompilationUnit target= definition.createCompilationUnit("Target.java", buf.toString(), false, null);
+		fTarget= target.findPrimaryType();
+
+		IPackageFragment destination= root.createPackageFragment("dest", false, null);
+		buf= new StringBuffer();
+		buf.append("package dest;\n");
+		buf.append("public class Destination {\n");
+		buf.append("}\n");
+		destination.createCompilationUnit("Destination.java", buf.toString(), false, null);
+
+		IPackageFragment references= null;
+		for (int i= 0; i < numberOfUnits; i++) {
+			if (i % UNITS_PER_PACKAGE == 0)
+				references= root.createPackageFragment("ref" + i / UNITS_PER_PACKAGE, false, null);
+			createReferenceUnit(references, i);
+		}
+	}
+
+	private static void createReferenceUnit(IPackageFragment pack, int index) throws CoreException {
+		StringBuffer buf= new StringBuffer();
+		buf.append("package " + pack.getElementName() + ";\n");
+		buf.append("import java.util.List;\n");
+		buf.append("import def.Target;\n");
+		buf.append("public class Ref" + index + " {\n");
+		buf.append("    public int use(Target target) {\n");
+		buf.append("        target.value= target.compute(target.value, Target.CONSTANT);\n");
+		buf.append("        target.pulled();\n");
+		buf.append("        List list= target.create();\n");
+		buf.append("        list.add(\"ref" + index + "\");\n");
+		buf.append("        return list.size();\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		pack.createCompilationUnit("Ref" + index + ".java", buf.toString(), false, null);
+	}
+}
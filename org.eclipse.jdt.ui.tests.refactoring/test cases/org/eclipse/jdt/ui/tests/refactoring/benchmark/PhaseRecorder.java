@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.refactoring.benchmark;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the elapsed time and the allocated memory of the phases of a refactoring
+ * and appends them to a results file.
+ * <p>
+ * The results file is given by the system property {@link #RESULTS_FILE_PROPERTY} and
+ * defaults to <code>refactoring-benchmark.csv</code> in the temporary directory. It has
+ * the columns <code>build,refactoring,units,phase,elapsedMillis,allocatedBytes</code>.
+ * The build is taken from the <code>eclipse.buildId</code> system property. The allocated
+ * bytes are measured for the current thread and are -1 if the VM cannot measure them.
+ * </p>
+ */
+public class PhaseRecorder {
+
+	public static final String RESULTS_FILE_PROPERTY= "refactoring.benchmark.results";
+
+	private static final String HEADER= "build,refactoring,units,phase,elapsedMillis,allocatedBytes";
+
+	private static Method fgAllocatedBytesMethod;
+
+	static {
+		try {
+			Class<?> beanClass= Class.forName("com.sun.management.ThreadMXBean");
+			if (beanClass.isInstance(ManagementFactory.getThreadMXBean()))
+				fgAllocatedBytesMethod= beanClass.getMethod("getThreadAllocatedBytes", new Class[] { long.class });
+		} catch (ClassNotFoundException e) {
+			// not supported by this VM
+		} catch (NoSuchMethodException e) {
+			// not supported by this VM
+		}
+	}
+
+	private final String fRefactoring;
+	private final int fUnits;
+	private final List<String> fLines= new ArrayList<String>();
+
+	private String fPhase;
+	private long fStartTime;
+	private long fStartAllocation;
+
+	public PhaseRecorder(String refactoring, int units) {
+		fRefactoring= refactoring;
+		fUnits= units;
+	}
+
+	public void start(String phase) {
+		fPhase= phase;
+		fStartAllocation= getAllocatedBytes();
+		fStartTime= System.nanoTime();
+	}
+
+	public void stop() {
+		long elapsed= System.nanoTime() - fStartTime;
+		long allocation= getAllocatedBytes();
+		long allocated= allocation == -1 || fStartAllocation == -1 ? -1 : allocation - fStartAllocation;
+		String build= System.getProperty("eclipse.buildId", "");
+		fLines.add(build + ',' + fRefactoring + ',' + fUnits + ',' + fPhase + ',' + elapsed / 1000000 + ',' + allocated);
+		fPhase= null;
+	}
+
+	public void write() throws IOException {
+		String fileName= System.getProperty(RESULTS_FILE_PROPERTY);
+		File file= fileName != null ? new File(fileName) : new File(System.getProperty("java.io.tmpdir"), "refactoring-benchmark.csv");
+		boolean writeHeader= !file.exists() || file.length() == 0;
+		Writer writer= new FileWriter(file, true);
+		try {
+			if (writeHeader)
+				writer.write(HEADER + '\n');
+			for (int i= 0; i < fLines.size(); i++)
+				writer.write(fLines.get(i) + '\n');
+		} finally {
+			writer.close();
+		}
+		fLines.clear();
+	}
+
+	private static long getAllocatedBytes() {
+		if (fgAllocatedBytesMethod == null)
+			return -1;
+		ThreadMXBean bean= ManagementFactory.getThreadMXBean();
+		try {
+			Object result= fgAllocatedBytesMethod.invoke(bean, new Object[] { new Long(Thread.currentThread().getId()) });
+			return ((Long) result).longValue();
+		} catch (Exception e) {
+			return -1;
+		}
+	}
+}
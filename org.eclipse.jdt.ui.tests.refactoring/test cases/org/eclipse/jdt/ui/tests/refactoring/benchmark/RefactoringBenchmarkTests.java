@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.refactoring.benchmark;
+
+import java.util.Collections;
+import java.util.StringTokenizer;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.PerformChangeOperation;
+import org.eclipse.ltk.core.refactoring.Refactoring;
+import org.eclipse.ltk.core.refactoring.RefactoringCore;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.participants.MoveRefactoring;
+import org.eclipse.ltk.core.refactoring.participants.ProcessorBasedRefactoring;
+import org.eclipse.ltk.core.refactoring.participants.RenameRefactoring;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+
+import org.eclipse.jdt.internal.corext.refactoring.code.ExtractMethodRefactoring;
+import org.eclipse.jdt.internal.corext.refactoring.generics.InferTypeArgumentsRefactoring;
+import org.eclipse.jdt.internal.corext.refactoring.rename.RenameFieldProcessor;
+import org.eclipse.jdt.internal.corext.refactoring.rename.RenameTypeProcessor;
+import org.eclipse.jdt.internal.corext.refactoring.rename.RenameVirtualMethodProcessor;
+import org.eclipse.jdt.internal.corext.refactoring.structure.ChangeSignatureProcessor;
+import org.eclipse.jdt.internal.corext.refactoring.structure.MoveStaticMembersProcessor;
+import org.eclipse.jdt.internal.corext.refactoring.structure.PullUpRefactoringProcessor;
+
+import org.eclipse.jdt.internal.ui.preferences.JavaPreferencesSettings;
+
+import org.eclipse.jdt.ui.tests.refactoring.infra.RefactoringPerformanceTestSetup;
+
+/**
+ * Headless benchmarks that run refactorings end to end on synthetic projects (see
+ * {@link BenchmarkProject}) and record the time and allocation of each phase with a
+ * {@link PhaseRecorder}.
+ * <p>
+ * The project sizes are given as a comma separated list of numbers of units by the system
+ * property {@link #UNITS_PROPERTY}, e.g. <code>-Drefactoring.benchmark.units=1000,10000,50000</code>.
+ * The search for references is part of the final condition checking of the refactorings.
+ * </p>
+ */
+public class RefactoringBenchmarkTests extends TestCase {
+
+	public static final String UNITS_PROPERTY= "refactoring.benchmark.units";
+
+	private static final String DEFAULT_UNITS= "1000";
+
+	private interface RefactoringFactory {
+		Refactoring create(BenchmarkProject project) throws Exception;
+	}
+
+	public static Test suite() {
+		return new RefactoringPerformanceTestSetup(new TestSuite(RefactoringBenchmarkTests.class));
+	}
+
+	public static Test setUpTest(Test someTest) {
+		return new RefactoringPerformanceTestSetup(someTest);
+	}
+
+	public RefactoringBenchmarkTests(String name) {
+		super(name);
+	}
+
+	public void testRenameType() throws Exception {
+		benchmark("Rename Type", new RefactoringFactory() {
+			public Refactoring create(BenchmarkProject project) throws Exception {
+				RenameTypeProcessor processor= new RenameTypeProcessor(project.getTarget());
+				processor.setNewElementName("Renamed");
+				return new RenameRefactoring(processor);
+			}
+		});
+	}
+
+	public void testRenameMethod() throws Exception {
+		benchmark("Rename Method", new RefactoringFactory() {
+			public Refactoring create(BenchmarkProject project) throws Exception {
+				RenameVirtualMethodProcessor processor= new RenameVirtualMethodProcessor(getComputeMethod(project));
+				processor.setNewElementName("computeRenamed");
+				return new RenameRefactoring(processor);
+			}
+		});
+	}
+
+	public void testRenameField() throws Exception {
+		benchmark("Rename Field", new RefactoringFactory() {
+			public Refactoring create(BenchmarkProject project) throws Exception {
+				RenameFieldProcessor processor= new RenameFieldProcessor(project.getTarget().getField("value"));
+				processor.setNewElementName("renamedValue");
+				return new RenameRefactoring(processor);
+			}
+		});
+	}
+
+	public void testMoveStaticMember() throws Exception {
+		benchmark("Move", new RefactoringFactory() {
+			public Refactoring create(BenchmarkProject project) throws Exception {
+				IMember[] members= new IMember[] { project.getTarget().getField("CONSTANT") };
+				MoveStaticMembersProcessor processor= new MoveStaticMembersProcessor(members, JavaPreferencesSettings.getCodeGenerationSettings(project.getJavaProject()));
+				processor.setDestinationTypeFullyQualifiedName("dest.Destination");
+				return new MoveRefactoring(processor);
+			}
+		});
+	}
+
+	public void testChangeSignature() throws Exception {
+		benchmark("Change Signature", new RefactoringFactory() {
+			public Refactoring create(BenchmarkProject project) throws Exception {
+				ChangeSignatureProcessor processor= new ChangeSignatureProcessor(getComputeMethod(project));
+				Collections.reverse(processor.getParameterInfos());
+				return new ProcessorBasedRefactoring(processor);
+			}
+		});
+	}
+
+	public void testExtractMethod() throws Exception {
+		benchmark("Extract Method", new RefactoringFactory() {
+			public Refactoring create(BenchmarkProject project) throws Exception {
+				ICompilationUnit unit= project.getTarget().getCompilationUnit();
+				String selection= "first * second";
+				ExtractMethodRefactoring refactoring= new ExtractMethodRefactoring(unit, unit.getSource().indexOf(selection), selection.length());
+				refactoring.setMethodName("extracted");
+				return refactoring;
+			}
+		});
+	}
+
+	public void testInferTypeArguments() throws Exception {
+		benchmark("Infer Type Arguments", new RefactoringFactory() {
+			public Refactoring create(BenchmarkProject project) throws Exception {
+				return new InferTypeArgumentsRefactoring(new IJavaElement[] { project.getJavaProject() });
+			}
+		});
+	}
+
+	public void testPullUp() throws Exception {
+		benchmark("Pull Up", new RefactoringFactory() {
+			public Refactoring create(BenchmarkProject project) throws Exception {
+				IType target= project.getTarget();
+				IMember[] members= new IMember[] { target.getMethod("pulled", new String[0]) };
+				PullUpRefactoringProcessor processor= new PullUpRefactoringProcessor(members, JavaPreferencesSettings.getCodeGenerationSettings(project.getJavaProject()));
+				processor.setDestinationType(project.getBase());
+				return new ProcessorBasedRefactoring(processor);
+			}
+		});
+	}
+
+	private static IMethod getComputeMethod(BenchmarkProject project) {
+		return project.getTarget().getMethod("compute", new String[] { "I", "I" });
+	}
+
+	private void benchmark(String name, RefactoringFactory factory) throws Exception {
+		StringTokenizer tokenizer= new StringTokenizer(System.getProperty(UNITS_PROPERTY, DEFAULT_UNITS), ",");
+		while (tokenizer.hasMoreTokens()) {
+			int units= Integer.parseInt(tokenizer.nextToken().trim());
+			BenchmarkProject project= new BenchmarkProject(units);
+			try {
+				PhaseRecorder recorder= new PhaseRecorder(name, units);
+				measure(factory.create(project), recorder);
+				recorder.write();
+			} finally {
+				project.delete();
+			}
+		}
+	}
+
+	private void measure(Refactoring refactoring, PhaseRecorder recorder) throws Exception {
+		NullProgressMonitor pm= new NullProgressMonitor();
+		JavaProjectHelper.performDummySearch();
+		RefactoringCore.getUndoManager().flush();
+		System.gc();
+
+		recorder.start("checkInitialConditions");
+		RefactoringStatus status= refactoring.checkInitialConditions(pm);
+		recorder.stop();
+		assertFalse(status.toString(), status.hasError());
+
+		recorder.start("checkFinalConditions");
+		status= refactoring.checkFinalConditions(pm);
+		recorder.stop();
+		assertFalse(status.toString(), status.hasError());
+
+		recorder.start("createChange");
+		Change change= refactoring.createChange(pm);
+		recorder.stop();
+
+		recorder.start("perform");
+		change.initializeValidationData(pm);
+		PerformChangeOperation operation= new PerformChangeOperation(change);
+		operation.setUndoManager(RefactoringCore.getUndoManager(), refactoring.getName());
+		ResourcesPlugin.getWorkspace().run(operation, pm);
+		recorder.stop();
+		assertTrue(operation.changeExecuted());
+		assertTrue(operation.getValidationStatus() == null || operation.getValidationStatus().isOK());
+
+		RefactoringCore.getUndoManager().flush();
+	}
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.refactoring.typeconstraints;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints2.ConstraintVariable2;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints2.ConstraintVariableWorkList;
+
+public class ConstraintVariableWorkListTests extends TestCase {
+
+	private static class Variable extends ConstraintVariable2 {
+		public Variable() {
+			super(null);
+		}
+	}
+
+	public static Test suite() {
+		return new TestSuite(ConstraintVariableWorkListTests.class);
+	}
+
+	private static ConstraintVariable2[] createVariables(int count) {
+		ConstraintVariable2[] result= new ConstraintVariable2[count];
+		for (int i= 0; i < count; i++)
+			result[i]= new Variable();
+		return result;
+	}
+
+	public void testFirstInFirstOut() throws Exception {
+		ConstraintVariable2[] variables= createVariables(200);
+		ConstraintVariableWorkList workList= new ConstraintVariableWorkList();
+		workList.addAll(variables);
+		assertEquals(variables.length, workList.size());
+		for (int i= 0; i < variables.length; i++)
+			assertSame(variables[i], workList.removeFirst());
+		assertTrue(workList.isEmpty());
+	}
+
+	public void testEnqueuedOnlyOnce() throws Exception {
+		ConstraintVariable2[] variables= createVariables(3);
+		ConstraintVariableWorkList workList= new ConstraintVariableWorkList();
+		workList.addAll(variables);
+		workList.add(variables[1]);
+		workList.add(variables[0]);
+		assertEquals(3, workList.size());
+
+		assertSame(variables[0], workList.removeFirst());
+		workList.add(variables[0]);
+		workList.add(variables[2]);
+		assertSame(variables[1], workList.removeFirst());
+		assertSame(variables[2], workList.removeFirst());
+		assertSame(variables[0], workList.removeFirst());
+		assertTrue(workList.isEmpty());
+	}
+
+	public void testRingBufferGrowth() throws Exception {
+		ConstraintVariable2[] variables= createVariables(100);
+		ConstraintVariableWorkList workList= new ConstraintVariableWorkList();
+		for (int i= 0; i < 50; i++)
+			workList.add(variables[i]);
+		for (int i= 0; i < 40; i++)
+			assertSame(variables[i], workList.removeFirst());
+		// wraps around and grows while the head is in the middle of the buffer
+		for (int i= 50; i < 100; i++)
+			workList.add(variables[i]);
+		for (int i= 0; i < 40; i++)
+			workList.add(variables[i]);
+		for (int i= 40; i < 100; i++)
+			assertSame(variables[i], workList.removeFirst());
+		for (int i= 0; i < 40; i++)
+			assertSame(variables[i], workList.removeFirst());
+		assertTrue(workList.isEmpty());
+	}
+}
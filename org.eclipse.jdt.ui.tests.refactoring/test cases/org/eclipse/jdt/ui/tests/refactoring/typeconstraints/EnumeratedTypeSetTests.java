@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.refactoring.typeconstraints;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TType;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TypeEnvironment;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.typesets.EnumeratedTypeSet;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.typesets.TypeSet;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.typesets.TypeSetEnvironment;
+
+/**
+ * Compares the set operations of {@link EnumeratedTypeSet} with those of a
+ * {@link LinkedHashSet}, which backed enumerated type sets before they kept
+ * the indices of their members in bit sets.
+ */
+public class EnumeratedTypeSetTests extends TestCase {
+
+	/**
+	 * More types than fit into the first words of a bit set.
+	 */
+	private static final int DIMENSIONS= 20;
+
+	private TypeSetEnvironment fTypeSetEnvironment;
+	private List<TType> fTypes;
+
+	public static Test suite() {
+		return new TestSuite(EnumeratedTypeSetTests.class);
+	}
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		TypeEnvironment environment= new TypeEnvironment();
+		fTypeSetEnvironment= new TypeSetEnvironment(environment);
+		TType[] primitives= { environment.INT, environment.CHAR, environment.BOOLEAN, environment.SHORT, environment.LONG, environment.FLOAT, environment.DOUBLE, environment.BYTE };
+		fTypes= new ArrayList<TType>();
+		for (int i= 0; i < primitives.length; i++) {
+			fTypes.add(primitives[i]);
+			for (int dimensions= 1; dimensions <= DIMENSIONS; dimensions++) {
+				fTypes.add(environment.createArrayType(primitives[i], dimensions));
+			}
+		}
+		assertTrue(fTypes.size() > 128);
+	}
+
+	private EnumeratedTypeSet createSet(List<TType> members) {
+		return new EnumeratedTypeSet(members.iterator(), fTypeSetEnvironment);
+	}
+
+	private List<TType> randomMembers(Random random, int size) {
+		List<TType> shuffled= new ArrayList<TType>(fTypes);
+		Collections.shuffle(shuffled, random);
+		return new ArrayList<TType>(shuffled.subList(0, size));
+	}
+
+	private void assertMembers(Set<TType> expected, TypeSet actual) {
+		List<TType> members= new ArrayList<TType>();
+		for (Iterator<TType> iter= actual.iterator(); iter.hasNext();) {
+			members.add(iter.next());
+		}
+		assertEquals(new ArrayList<TType>(expected), members);
+		assertEquals(expected.isEmpty(), actual.isEmpty());
+		for (Iterator<TType> iter= fTypes.iterator(); iter.hasNext();) {
+			TType type= iter.next();
+			assertEquals(type.getPrettySignature(), expected.contains(type), actual.contains(type));
+		}
+	}
+
+	public void testAddRemoveBeyondInitialSize() throws Exception {
+		EnumeratedTypeSet set= new EnumeratedTypeSet(fTypeSetEnvironment);
+		Set<TType> expected= new LinkedHashSet<TType>();
+		// add in reverse, so that the indices are not in insertion order
+		for (int i= fTypes.size() - 1; i >= 0; i--) {
+			TType type= fTypes.get(i);
+			assertTrue(set.add(type));
+			expected.add(type);
+		}
+		assertFalse(set.add(fTypes.get(0)));
+		assertEquals(fTypes.size(), set.size());
+		assertMembers(expected, set);
+
+		for (int i= 0; i < fTypes.size(); i+= 3) {
+			assertTrue(set.remove(fTypes.get(i)));
+			expected.remove(fTypes.get(i));
+		}
+		assertFalse(set.remove(fTypes.get(0)));
+		assertEquals(expected.size(), set.size());
+		assertMembers(expected, set);
+		assertEquals(fTypes.get(fTypes.size() - 1), set.anyMember());
+
+		set.clear();
+		assertMembers(new LinkedHashSet<TType>(), set);
+	}
+
+	public void testUnion() throws Exception {
+		Random random= new Random(4711);
+		for (int round= 0; round < 20; round++) {
+			List<TType> first= randomMembers(random, 1 + random.nextInt(fTypes.size() - 1));
+			List<TType> second= randomMembers(random, 1 + random.nextInt(fTypes.size() - 1));
+			EnumeratedTypeSet set1= createSet(first);
+			EnumeratedTypeSet set2= createSet(second);
+			Set<TType> expected= new LinkedHashSet<TType>(first);
+			expected.addAll(second);
+
+			assertMembers(expected, set1.addedTo(set2));
+			assertMembers(new LinkedHashSet<TType>(first), set1);
+
+			assertEquals(!first.containsAll(second), set1.addAll(set2));
+			assertMembers(expected, set1);
+			assertFalse(set1.addAll(set2));
+		}
+	}
+
+	public void testIntersection() throws Exception {
+		Random random= new Random(815);
+		for (int round= 0; round < 20; round++) {
+			List<TType> first= randomMembers(random, 2 + random.nextInt(fTypes.size() - 2));
+			List<TType> second= randomMembers(random, 2 + random.nextInt(fTypes.size() - 2));
+			EnumeratedTypeSet set1= createSet(first);
+			EnumeratedTypeSet set2= createSet(second);
+			Set<TType> expected= new LinkedHashSet<TType>(first);
+			expected.retainAll(second);
+
+			TypeSet intersection= set1.intersectedWith(set2);
+			assertMembers(expected, intersection);
+			assertMembers(new LinkedHashSet<TType>(first), set1);
+			assertMembers(new LinkedHashSet<TType>(second), set2);
+
+			assertEquals(expected.size() != first.size(), set1.retainAll(set2));
+			assertMembers(expected, set1);
+		}
+	}
+
+	public void testIntersectionOfDisjointSets() throws Exception {
+		List<TType> first= new ArrayList<TType>();
+		List<TType> second= new ArrayList<TType>();
+		for (int i= 0; i < fTypes.size(); i++) {
+			(i % 2 == 0 ? first : second).add(fTypes.get(i));
+		}
+		EnumeratedTypeSet set1= createSet(first);
+		EnumeratedTypeSet set2= createSet(second);
+
+		TypeSet intersection= set1.intersectedWith(set2);
+		assertTrue(intersection.isEmpty());
+		assertSame(fTypeSetEnvironment.getEmptyTypeSet(), intersection);
+
+		assertTrue(set1.retainAll(set2));
+		assertMembers(new LinkedHashSet<TType>(), set1);
+	}
+
+	public void testRemoveAll() throws Exception {
+		Random random= new Random(1234);
+		for (int round= 0; round < 20; round++) {
+			List<TType> first= randomMembers(random, 1 + random.nextInt(fTypes.size() - 1));
+			List<TType> second= randomMembers(random, 1 + random.nextInt(fTypes.size() - 1));
+			EnumeratedTypeSet set1= createSet(first);
+			EnumeratedTypeSet set2= createSet(second);
+			Set<TType> expected= new LinkedHashSet<TType>(first);
+			boolean changed= expected.removeAll(second);
+
+			assertEquals(changed, set1.removeAll(set2));
+			assertMembers(expected, set1);
+			assertFalse(set1.removeAll(set2));
+		}
+	}
+
+	public void testEqualsAndContainsAll() throws Exception {
+		Random random= new Random(42);
+		List<TType> members= randomMembers(random, fTypes.size() - 5);
+		List<TType> reversed= new ArrayList<TType>(members);
+		Collections.reverse(reversed);
+		EnumeratedTypeSet set= createSet(members);
+		EnumeratedTypeSet reversedSet= createSet(reversed);
+
+		assertEquals(set, reversedSet);
+		assertEquals(set.hashCode(), reversedSet.hashCode());
+		assertTrue(set.containsAll(reversedSet));
+
+		EnumeratedTypeSet subset= createSet(members.subList(10, members.size() - 10));
+		assertTrue(set.containsAll(subset));
+		assertFalse(subset.containsAll(set));
+		assertFalse(set.equals(subset));
+
+		// same size, but one member is not in set
+		List<TType> missing= new ArrayList<TType>(fTypes);
+		missing.removeAll(members);
+		EnumeratedTypeSet other= createSet(members.subList(1, members.size()));
+		other.add(missing.get(0));
+		assertEquals(set.size(), other.size());
+		assertFalse(set.containsAll(other));
+		assertFalse(set.equals(other));
+	}
+
+	public void testRandomOperations() throws Exception {
+		Random random= new Random(31);
+		EnumeratedTypeSet set= new EnumeratedTypeSet(fTypeSetEnvironment);
+		Set<TType> expected= new LinkedHashSet<TType>();
+		for (int i= 0; i < 2000; i++) {
+			TType type= fTypes.get(random.nextInt(fTypes.size()));
+			if (random.nextInt(3) == 0)
+				assertEquals(expected.remove(type), set.remove(type));
+			else
+				assertEquals(expected.add(type), set.add(type));
+			assertEquals(expected.size(), set.size());
+			assertEquals(expected.contains(type), set.contains(type));
+		}
+		assertMembers(expected, set);
+	}
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.junit.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.jdt.internal.junit.runner.BufferedMessageSender;
+import org.eclipse.jdt.internal.junit.runner.MessageIds;
+import org.eclipse.jdt.internal.junit.runner.MessageSender;
+
+public class BufferedMessageSenderTest extends TestCase {
+
+	/**
+	 * Interval that is never reached by a test, so that only urgent messages and close() flush.
+	 */
+	private static final long NO_TIMER_FLUSH= 60 * 60 * 1000;
+
+	private static class RecordingSender implements MessageSender {
+		final List fMessages= new ArrayList();
+		int fFlushedCount= -1;
+
+		public void sendMessage(String msg) {
+			fMessages.add(msg);
+		}
+
+		public void flush() {
+			fFlushedCount= fMessages.size();
+		}
+	}
+
+	private RecordingSender fRecorder;
+	private BufferedMessageSender fSender;
+
+	protected void setUp() throws Exception {
+		fRecorder= new RecordingSender();
+		fSender= new BufferedMessageSender(fRecorder, NO_TIMER_FLUSH);
+	}
+
+	protected void tearDown() throws Exception {
+		fSender.close();
+	}
+
+	public void testTestEventsAreBuffered() {
+		send(MessageIds.TEST_START + "1,testA(p.A)");
+		send(MessageIds.TEST_END + "1,testA(p.A)");
+		assertEquals(-1, fRecorder.fFlushedCount);
+	}
+
+	public void testTraceEndFlushes() {
+		send(MessageIds.TEST_START + "1,testA(p.A)");
+		send(MessageIds.TRACE_START);
+		send("java.lang.AssertionError");
+		send(MessageIds.TRACE_END);
+		assertEquals(4, fRecorder.fFlushedCount);
+	}
+
+	public void testRerunTraceEndFlushes() {
+		send(MessageIds.RTRACE_END);
+		assertEquals(1, fRecorder.fFlushedCount);
+	}
+
+	public void testRunEndFlushes() {
+		send(MessageIds.TEST_START + "1,testA(p.A)");
+		send(MessageIds.TEST_RUN_END + "42");
+		assertEquals(2, fRecorder.fFlushedCount);
+	}
+
+	public void testStoppedFlushes() {
+		send(MessageIds.TEST_STOPPED + "42");
+		assertEquals(1, fRecorder.fFlushedCount);
+	}
+
+	public void testReranFlushes() {
+		send(MessageIds.TEST_RERAN + "1 p.A testA OK");
+		assertEquals(1, fRecorder.fFlushedCount);
+	}
+
+	public void testUrgentFlushResetsState() {
+		send(MessageIds.TEST_RUN_END + "42");
+		send(MessageIds.TEST_START + "2,testB(p.A)");
+		assertEquals(1, fRecorder.fFlushedCount);
+	}
+
+	public void testCloseFlushesPendingMessages() {
+		send(MessageIds.TEST_START + "1,testA(p.A)");
+		fSender.close();
+		assertEquals(1, fRecorder.fFlushedCount);
+	}
+
+	private void send(String msg) {
+		fSender.sendMessage(msg);
+		fSender.flush();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2010 IBM Corporation and others.
+ * Copyright (c) 2005, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -26,6 +26,8 @@ public class JUnitJUnitTests {
 
 		suite.addTestSuite(TestEnableAssertions.class);
 		suite.addTestSuite(TestPriorization.class);
+		suite.addTestSuite(BufferedMessageSenderTest.class);
+		suite.addTestSuite(ParallelTestExecutionTest.class);
 		suite.addTestSuite(TestTestSearchEngine.class);
 
 		addDeprecatedTests(suite);
@@ -41,6 +43,11 @@ public class JUnitJUnitTests {
 
 		suite.addTestSuite(JUnit3TestFinderTest.class);
 		suite.addTestSuite(JUnit4TestFinderTest.class);
+
+		suite.addTestSuite(TestShardBalancerTest.class);
+		suite.addTestSuite(TestHistoryTest.class);
+		suite.addTestSuite(TestHistoryFileTest.class);
+		suite.addTestSuite(TestSearchCacheTest.class);
 		//$JUnit-END$
 		return suite;
 	}
@@ -0,0 +1,272 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.junit.tests;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.eclipse.jdt.internal.junit.runner.DefaultClassifier;
+import org.eclipse.jdt.internal.junit.runner.ITestIdentifier;
+import org.eclipse.jdt.internal.junit.runner.MessageIds;
+import org.eclipse.jdt.internal.junit.runner.MessageSender;
+import org.eclipse.jdt.internal.junit.runner.RemoteTestRunner;
+import org.eclipse.jdt.internal.junit.runner.TestExecution;
+import org.eclipse.jdt.internal.junit.runner.TestIdMap;
+
+/**
+ * Runs test classes with <code>-parallel</code> in the runtime of the JUnit launcher.
+ */
+public class ParallelTestExecutionTest extends TestCase {
+
+	private static final String PREFIX= ParallelTestExecutionTest.class.getName() + '$';
+
+	@Retention(RetentionPolicy.RUNTIME)
+	public @interface NotThreadSafe {
+	}
+
+	/**
+	 * Lets both parallel test classes wait for each other, so that they fail if they do not run
+	 * concurrently.
+	 */
+	static CyclicBarrier fgParallelBarrier;
+
+	/**
+	 * Number of serial tests that are running.
+	 */
+	static final AtomicInteger fgRunningSerialTests= new AtomicInteger();
+
+	public static class ParallelA extends TestCase {
+		public void testA() throws Exception {
+			fgParallelBarrier.await(10, TimeUnit.SECONDS);
+		}
+	}
+
+	public static class ParallelB extends TestCase {
+		public void testB() throws Exception {
+			fgParallelBarrier.await(10, TimeUnit.SECONDS);
+		}
+	}
+
+	public static class PatternSerial extends TestCase {
+		public void testC() throws Exception {
+			runSerial();
+		}
+		public void testD() throws Exception {
+			runSerial();
+		}
+	}
+
+	@NotThreadSafe
+	public static class AnnotatedSerial extends TestCase {
+		public void testE() throws Exception {
+			runSerial();
+		}
+	}
+
+	static void runSerial() throws InterruptedException {
+		assertEquals(1, fgRunningSerialTests.incrementAndGet());
+		try {
+			Thread.sleep(50);
+		} finally {
+			fgRunningSerialTests.decrementAndGet();
+		}
+	}
+
+	private static class RecordingSender implements MessageSender {
+		final List<String> fMessages= new ArrayList<String>();
+
+		public synchronized void sendMessage(String msg) {
+			fMessages.add(msg);
+		}
+
+		public void flush() {
+		}
+	}
+
+	private static class TestRunner extends RemoteTestRunner {
+		TestRunner(String[] args, MessageSender sender) {
+			init(args);
+			setMessageSender(sender);
+		}
+
+		public boolean isSerial(Class clazz) {
+			return super.isSerial(clazz);
+		}
+	}
+
+	private static class Identifier implements ITestIdentifier {
+		private final String fName;
+
+		Identifier(String name) {
+			fName= name;
+		}
+
+		public String getName() {
+			return fName;
+		}
+	}
+
+	protected void setUp() throws Exception {
+		fgParallelBarrier= new CyclicBarrier(2);
+		fgRunningSerialTests.set(0);
+	}
+
+	private static TestRunner createRunner(RecordingSender sender, String parallel) {
+		String[] args= {
+				"-classnames", PREFIX + "ParallelA", PREFIX + "PatternSerial", PREFIX + "ParallelB", PREFIX + "AnnotatedSerial",
+				"-port", "1",
+				"-parallel", parallel,
+				"-serialtests", "p.Missing, " + PREFIX + "Pattern*"
+		};
+		return new TestRunner(args, sender);
+	}
+
+	public void testSerialClasses() throws Exception {
+		TestRunner runner= createRunner(new RecordingSender(), "3");
+		assertFalse(runner.isSerial(ParallelA.class));
+		assertFalse(runner.isSerial(ParallelB.class));
+		assertTrue(runner.isSerial(PatternSerial.class));
+		assertTrue(runner.isSerial(AnnotatedSerial.class));
+	}
+
+	public void testParallelRun() throws Exception {
+		RecordingSender sender= new RecordingSender();
+		TestRunner runner= createRunner(sender, "3");
+		runner.runTests(new TestExecution(runner.firstRunExecutionListener(), new DefaultClassifier()));
+
+		List<String> messages= sender.fMessages;
+		assertTrue(messages.get(0), messages.get(0).startsWith(MessageIds.TEST_RUN_START + "5 "));
+		assertTrue(messages.get(messages.size() - 1).startsWith(MessageIds.TEST_RUN_END));
+
+		// ids of the tree entries
+		Map<String, String> treeIds= new HashMap<String, String>();
+		for (int i= 0; i < messages.size(); i++) {
+			String message= messages.get(i);
+			if (message.startsWith(MessageIds.TEST_TREE)) {
+				String[] entry= message.substring(MessageIds.MSG_HEADER_LENGTH).split(",");
+				assertNull(entry[1], treeIds.put(entry[1], entry[0]));
+			}
+			assertFalse(message, message.startsWith(MessageIds.TEST_FAILED) || message.startsWith(MessageIds.TEST_ERROR));
+		}
+		assertEquals(4 + 5, treeIds.size());
+		assertEquals(treeIds.size(), new HashSet<String>(treeIds.values()).size());
+
+		Map<String, Integer> starts= getEventIndices(messages, MessageIds.TEST_START, treeIds);
+		Map<String, Integer> ends= getEventIndices(messages, MessageIds.TEST_END, treeIds);
+		assertEquals(5, starts.size());
+		assertEquals(starts.keySet(), ends.keySet());
+		for (String test : starts.keySet()) {
+			assertTrue(test, starts.get(test).intValue() < ends.get(test).intValue());
+		}
+
+		// the parallel classes overlap
+		String a= "testA(" + PREFIX + "ParallelA)";
+		String b= "testB(" + PREFIX + "ParallelB)";
+		assertTrue(starts.get(a).intValue() < ends.get(b).intValue());
+		assertTrue(starts.get(b).intValue() < ends.get(a).intValue());
+
+		// the serial classes run one after the other, in launch order
+		String c= "testC(" + PREFIX + "PatternSerial)";
+		String d= "testD(" + PREFIX + "PatternSerial)";
+		String e= "testE(" + PREFIX + "AnnotatedSerial)";
+		assertTrue(ends.get(c).intValue() < starts.get(d).intValue());
+		assertTrue(ends.get(d).intValue() < starts.get(e).intValue());
+	}
+
+	public void testSequentialRun() throws Exception {
+		// the parallel tests would wait for each other in vain
+		fgParallelBarrier= new CyclicBarrier(1);
+		RecordingSender sender= new RecordingSender();
+		TestRunner runner= createRunner(sender, "1");
+		runner.runTests(new TestExecution(runner.firstRunExecutionListener(), new DefaultClassifier()));
+
+		List<String> starts= new ArrayList<String>();
+		for (int i= 0; i < sender.fMessages.size(); i++) {
+			String message= sender.fMessages.get(i);
+			assertFalse(message, message.startsWith(MessageIds.TEST_FAILED) || message.startsWith(MessageIds.TEST_ERROR));
+			if (message.startsWith(MessageIds.TEST_START))
+				starts.add(message.substring(message.indexOf(',') + 1));
+		}
+		String[] expected= {
+				"testA(" + PREFIX + "ParallelA)",
+				"testC(" + PREFIX + "PatternSerial)",
+				"testD(" + PREFIX + "PatternSerial)",
+				"testB(" + PREFIX + "ParallelB)",
+				"testE(" + PREFIX + "AnnotatedSerial)"
+		};
+		assertEquals(Arrays.asList(expected), starts);
+	}
+
+	public void testConcurrentTestIds() throws Exception {
+		final TestIdMap ids= new TestIdMap();
+		final Identifier[] identifiers= new Identifier[200];
+		for (int i= 0; i < identifiers.length; i++)
+			identifiers[i]= new Identifier("test" + i);
+
+		final Map<Identifier, String> assigned= Collections.synchronizedMap(new HashMap<Identifier, String>());
+		final List<String> errors= Collections.synchronizedList(new ArrayList<String>());
+		Thread[] threads= new Thread[8];
+		for (int t= 0; t < threads.length; t++) {
+			final int offset= t * 25;
+			threads[t]= new Thread() {
+				public void run() {
+					for (int i= 0; i < identifiers.length; i++) {
+						Identifier identifier= identifiers[(i + offset) % identifiers.length];
+						String id= ids.getTestId(identifier);
+						String previous= assigned.put(identifier, id);
+						if (previous != null && !previous.equals(id))
+							errors.add(identifier.getName() + ": " + previous + " != " + id);
+					}
+				}
+			};
+		}
+		for (int t= 0; t < threads.length; t++)
+			threads[t].start();
+		for (int t= 0; t < threads.length; t++)
+			threads[t].join();
+
+		assertEquals(errors.toString(), 0, errors.size());
+		Set<String> distinct= new HashSet<String>(assigned.values());
+		assertEquals(identifiers.length, distinct.size());
+		for (int i= 1; i <= identifiers.length; i++)
+			assertTrue(distinct.contains(Integer.toString(i)));
+	}
+
+	private static Map<String, Integer> getEventIndices(List<String> messages, String event, Map<String, String> treeIds) {
+		Map<String, Integer> result= new HashMap<String, Integer>();
+		for (int i= 0; i < messages.size(); i++) {
+			String message= messages.get(i);
+			if (message.startsWith(event)) {
+				String idAndName= message.substring(MessageIds.MSG_HEADER_LENGTH);
+				int comma= idAndName.indexOf(',');
+				String name= idAndName.substring(comma + 1);
+				// the id of the event is the one of the tree entry, whatever thread ran the test
+				assertEquals(name, treeIds.get(name), idAndName.substring(0, comma));
+				assertNull(name, result.put(name, new Integer(i)));
+			}
+		}
+		return result;
+	}
+}
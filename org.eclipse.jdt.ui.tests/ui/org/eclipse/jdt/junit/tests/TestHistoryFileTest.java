@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.junit.tests;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.jdt.internal.junit.launcher.TestHistoryFile;
+import org.eclipse.jdt.internal.junit.model.TestElement;
+import org.eclipse.jdt.internal.junit.model.TestElement.Status;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.model.TestSuiteElement;
+import org.eclipse.jdt.internal.junit.runner.TestHistory;
+
+public class TestHistoryFileTest extends TestCase {
+
+	private int fId;
+	private TestRunSession fSession;
+	private TestSuiteElement fSuite;
+
+	private void addSession(List<TestRunSession> sessions) {
+		fSession= new TestRunSession("TestHistoryFileTest", null);
+		sessions.add(fSession);
+		fSuite= (TestSuiteElement) fSession.createTestElement(fSession.getTestRoot(), String.valueOf(fId++), "p.ATest", true, 0);
+	}
+
+	private void addTest(String name, boolean failed, double seconds) {
+		TestElement test= fSession.createTestElement(fSuite, String.valueOf(fId++), name + "(p.ATest)", false, 0);
+		test.setStatus(failed ? Status.FAILURE : Status.OK);
+		test.setElapsedTimeInSeconds(seconds);
+	}
+
+	private static void assertEntry(boolean failed, double seconds, TestHistory.Entry entry) {
+		assertEquals(failed, entry.failed);
+		assertEquals(seconds, entry.seconds, 0.0001);
+	}
+
+	public void testLastSessions() throws Exception {
+		// from new to old
+		List<TestRunSession> sessions= new ArrayList<TestRunSession>();
+		addSession(sessions);
+		addTest("testA", false, 1.0);
+		addTest("testB", false, 2.0);
+		addSession(sessions);
+		addTest("testA", false, 1.5);
+		addTest("testB", true, 2.5);
+		addSession(sessions);
+		addTest("testA", false, 1.2);
+		addTest("testC", false, 3.0);
+		// beyond the history size
+		addSession(sessions);
+		addTest("testA", true, 9.0);
+		addTest("testD", true, 4.0);
+		assertEquals(TestHistoryFile.HISTORY_SIZE + 1, sessions.size());
+
+		String fileName= TestHistoryFile.create(sessions);
+		assertNotNull(fileName);
+		try {
+			TestHistory history= TestHistory.read(fileName);
+			assertEntry(false, 1.0, history.getTestEntry("testA(p.ATest)"));
+			assertEntry(true, 2.0, history.getTestEntry("testB(p.ATest)"));
+			assertEntry(false, 3.0, history.getTestEntry("testC(p.ATest)"));
+			assertSame(TestHistory.Entry.UNKNOWN, history.getTestEntry("testD(p.ATest)"));
+			assertEntry(true, 6.0, history.getClassEntry("p.ATest"));
+		} finally {
+			new File(fileName).delete();
+		}
+	}
+
+	public void testNoHistory() throws Exception {
+		assertNull(TestHistoryFile.create(new ArrayList<TestRunSession>()));
+	}
+}
@@ -0,0 +1,286 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.junit.tests;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.junit.runner.Description;
+import org.junit.runner.Request;
+
+import org.eclipse.jdt.internal.junit.runner.DefaultClassifier;
+import org.eclipse.jdt.internal.junit.runner.HistoryPrioritizer;
+import org.eclipse.jdt.internal.junit.runner.ITestOrder;
+import org.eclipse.jdt.internal.junit.runner.MessageIds;
+import org.eclipse.jdt.internal.junit.runner.MessageSender;
+import org.eclipse.jdt.internal.junit.runner.RemoteTestRunner;
+import org.eclipse.jdt.internal.junit.runner.TestExecution;
+import org.eclipse.jdt.internal.junit.runner.TestHistory;
+import org.eclipse.jdt.internal.junit4.runner.HistorySorter;
+
+/**
+ * Tests ordering tests by the history of previous test runs in the runtime of the JUnit launcher.
+ */
+public class TestHistoryTest extends TestCase {
+
+	private static final String PREFIX= TestHistoryTest.class.getName() + '$';
+
+	private static final String SUITE1= "(org.eclipse.jdt.junit.tests.TestPriorizationSuite1)";
+	private static final String SUITE2= "(org.eclipse.jdt.junit.tests.TestPriorizationSuite2)";
+
+	public static class HistoryA extends TestCase {
+		public void testA() {
+		}
+	}
+
+	public static class HistoryB extends TestCase {
+		public void testB() {
+		}
+	}
+
+	public static class JUnit4Tests {
+		@org.junit.Test
+		public void slow() {
+		}
+		@org.junit.Test
+		public void failed() {
+		}
+		@org.junit.Test
+		public void fast() {
+		}
+	}
+
+	public static class SlowestFirst implements ITestOrder {
+		public int compare(TestHistory.Entry e1, TestHistory.Entry e2) {
+			return Double.compare(e2.seconds, e1.seconds);
+		}
+	}
+
+	private static class RecordingSender implements MessageSender {
+		final List<String> fMessages= new ArrayList<String>();
+
+		public synchronized void sendMessage(String msg) {
+			fMessages.add(msg);
+		}
+
+		public void flush() {
+		}
+	}
+
+	private static class TestRunner extends RemoteTestRunner {
+		TestRunner(String[] args) {
+			init(args);
+		}
+	}
+
+	private List<File> fFiles= new ArrayList<File>();
+
+	protected void tearDown() throws Exception {
+		for (int i= 0; i < fFiles.size(); i++)
+			fFiles.get(i).delete();
+		super.tearDown();
+	}
+
+	private String createFile(String[] lines) throws IOException {
+		File file= File.createTempFile("testHistory", ".txt");
+		fFiles.add(file);
+		Writer writer= new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			for (int i= 0; i < lines.length; i++)
+				writer.write(lines[i] + "\n");
+		} finally {
+			writer.close();
+		}
+		return file.getAbsolutePath();
+	}
+
+	private TestHistory createHistory(String[] lines) throws IOException {
+		return TestHistory.read(createFile(lines));
+	}
+
+	private static void assertEntry(boolean failed, double seconds, TestHistory.Entry entry) {
+		assertEquals(failed, entry.failed);
+		assertEquals(seconds, entry.seconds, 0.0001);
+	}
+
+	public void testRead() throws Exception {
+		TestHistory history= createHistory(new String[] {
+				"F,0.5,testA(p.A)",
+				"P,2.0,testB(p.A)",
+				"malformed",
+				"P,x,testC(p.A)",
+				"P,1.25,test[1,2](p.B)",
+		});
+		assertEntry(true, 0.5, history.getTestEntry("testA(p.A)"));
+		assertEntry(false, 2.0, history.getTestEntry("testB(p.A)"));
+		assertSame(TestHistory.Entry.UNKNOWN, history.getTestEntry("testC(p.A)"));
+		assertEntry(false, 1.25, history.getTestEntry("test[1,2](p.B)"));
+
+		assertEntry(true, 2.5, history.getClassEntry("p.A"));
+		assertEntry(false, 1.25, history.getClassEntry("p.B"));
+		assertSame(TestHistory.Entry.UNKNOWN, history.getClassEntry("p.C"));
+	}
+
+	public void testSortClassNames() throws Exception {
+		TestHistory history= createHistory(new String[] {
+				"P,5,testA(p.Slow)",
+				"F,2,testA(p.Failed)",
+				"P,1,testB(p.Failed)",
+				"P,1,testA(p.Fast)",
+		});
+		String[] classNames= { "p.Slow", "p.Fast", "p.New", "p.Failed" };
+
+		assertSame(TestHistory.FAILED_THEN_FASTEST, history.getOrder());
+		assertEquals(Arrays.asList(new String[] { "p.Failed", "p.New", "p.Fast", "p.Slow" }), Arrays.asList(history.sortClassNames(classNames)));
+
+		history.setOrder(TestHistory.FASTEST_FIRST);
+		assertEquals(Arrays.asList(new String[] { "p.New", "p.Fast", "p.Failed", "p.Slow" }), Arrays.asList(history.sortClassNames(classNames)));
+
+		history.setOrder(TestHistory.FAILED_FIRST);
+		assertEquals(Arrays.asList(new String[] { "p.Failed", "p.Slow", "p.Fast", "p.New" }), Arrays.asList(history.sortClassNames(classNames)));
+
+		history.setOrder(new SlowestFirst());
+		assertEquals(Arrays.asList(new String[] { "p.Slow", "p.Failed", "p.Fast", "p.New" }), Arrays.asList(history.sortClassNames(classNames)));
+	}
+
+	public void testHistoryPrioritizer() throws Exception {
+		TestHistory history= createHistory(new String[] {
+				"P,0.1,testA" + SUITE1,
+				"P,0.2,testB" + SUITE1,
+				"P,0.3,testC" + SUITE1,
+				"P,2,testD" + SUITE2,
+				"F,1,testE" + SUITE2,
+				"P,0.5,testF" + SUITE2,
+		});
+		assertEquals(Arrays.asList(new String[] { "testE", "testF", "testD", "testA", "testB", "testC" }), prioritize(history));
+
+		history.setOrder(TestHistory.FASTEST_FIRST);
+		assertEquals(Arrays.asList(new String[] { "testA", "testB", "testC", "testF", "testE", "testD" }), prioritize(history));
+	}
+
+	private static List<String> prioritize(TestHistory history) {
+		TestSuite suite= new TestSuite();
+		TestSuite suite1= new TestSuite();
+		suite1.addTest(new TestPriorizationSuite1("testC"));
+		suite1.addTest(new TestPriorizationSuite1("testB"));
+		suite1.addTest(new TestPriorizationSuite1("testA"));
+		TestSuite suite2= new TestSuite();
+		suite2.addTest(new TestPriorizationSuite2("testD"));
+		suite2.addTest(new TestPriorizationSuite2("testE"));
+		suite2.addTest(new TestPriorizationSuite2("testF"));
+		suite.addTest(suite2);
+		suite.addTest(suite1);
+
+		new HistoryPrioritizer(history).prioritize(suite);
+		List<String> order= new ArrayList<String>();
+		collectOrder(suite, order);
+		return order;
+	}
+
+	private static void collectOrder(junit.framework.Test test, List<String> order) {
+		if (test instanceof TestCase) {
+			order.add(((TestCase) test).getName());
+		} else if (test instanceof TestSuite) {
+			for (Enumeration<?> e= ((TestSuite) test).tests(); e.hasMoreElements();)
+				collectOrder((junit.framework.Test) e.nextElement(), order);
+		}
+	}
+
+	public void testHistorySorter() throws Exception {
+		String className= "(" + JUnit4Tests.class.getName() + ")";
+		TestHistory history= createHistory(new String[] {
+				"P,3,slow" + className,
+				"F,2,failed" + className,
+				"P,1,fast" + className,
+		});
+		assertEquals(Arrays.asList(new String[] { "failed", "fast", "slow" }), sort(history));
+
+		history.setOrder(TestHistory.FASTEST_FIRST);
+		assertEquals(Arrays.asList(new String[] { "fast", "failed", "slow" }), sort(history));
+	}
+
+	private static List<String> sort(TestHistory history) {
+		Request request= Request.aClass(JUnit4Tests.class).sortWith(new HistorySorter(history));
+		List<String> order= new ArrayList<String>();
+		for (Description child : request.getRunner().getDescription().getChildren())
+			order.add(child.getMethodName());
+		return order;
+	}
+
+	private String[] createArgs(String testOrder) throws IOException {
+		String historyFile= createFile(new String[] {
+				"P,5,testA(" + PREFIX + "HistoryA)",
+				"F,1,testB(" + PREFIX + "HistoryB)",
+		});
+		List<String> args= new ArrayList<String>(Arrays.asList(new String[] {
+				"-classnames", PREFIX + "HistoryA", PREFIX + "HistoryB",
+				"-port", "1",
+				"-testhistoryfile", historyFile
+		}));
+		if (testOrder != null) {
+			args.add("-testorder");
+			args.add(testOrder);
+		}
+		return args.toArray(new String[args.size()]);
+	}
+
+	public void testSelectOrder() throws Exception {
+		assertSame(TestHistory.FAILED_THEN_FASTEST, new TestRunner(createArgs(null)).getTestHistory().getOrder());
+		assertSame(TestHistory.FASTEST_FIRST, new TestRunner(createArgs(TestHistory.ORDER_FASTEST_FIRST)).getTestHistory().getOrder());
+		assertSame(TestHistory.FAILED_FIRST, new TestRunner(createArgs(TestHistory.ORDER_FAILED_FIRST)).getTestHistory().getOrder());
+		assertTrue(new TestRunner(createArgs(SlowestFirst.class.getName())).getTestHistory().getOrder() instanceof SlowestFirst);
+		try {
+			new TestRunner(createArgs("p.Missing"));
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	public void testClassOrder() throws Exception {
+		assertEquals(Arrays.asList(new String[] { "testB", "testA" }), run(createArgs(null)));
+	}
+
+	public void testFailuresFirstKeepsClassOrder() throws Exception {
+		List<String> args= new ArrayList<String>(Arrays.asList(createArgs(null)));
+		args.add("-testfailures");
+		args.add(createFile(new String[] { "testA(" + PREFIX + "HistoryA)" }));
+		assertEquals(Arrays.asList(new String[] { "testA", "testB" }), run(args.toArray(new String[args.size()])));
+	}
+
+	private static List<String> run(String[] args) {
+		RecordingSender sender= new RecordingSender();
+		TestRunner runner= new TestRunner(args);
+		runner.setMessageSender(sender);
+		runner.runTests(new TestExecution(runner.firstRunExecutionListener(), new DefaultClassifier()));
+
+		List<String> starts= new ArrayList<String>();
+		for (int i= 0; i < sender.fMessages.size(); i++) {
+			String message= sender.fMessages.get(i);
+			if (message.startsWith(MessageIds.TEST_START)) {
+				String name= message.substring(message.indexOf(',') + 1);
+				starts.add(name.substring(0, name.indexOf('(')));
+			}
+		}
+		return starts;
+	}
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.eclipse.jdt.junit.JUnitCore;
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeHierarchy;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.internal.junit.launcher.ITestFinder;
+import org.eclipse.jdt.internal.junit.launcher.JUnit4TestFinder;
+import org.eclipse.jdt.internal.junit.util.CoreTestSearchEngine;
+import org.eclipse.jdt.internal.junit.util.TestSearchCache;
+
+public class TestSearchCacheTest extends TestCase {
+
+	/**
+	 * Records the types it checks.
+	 */
+	private static class CountingFinder implements ITestFinder {
+		final List<String> fCheckedTypes= new ArrayList<String>();
+		private final ITestFinder fFinder= new JUnit4TestFinder();
+
+		public void findTestsInContainer(IJavaElement element, Set result, IProgressMonitor pm) throws CoreException {
+			fFinder.findTestsInContainer(element, result, pm);
+		}
+
+		public boolean isTest(IType type) throws CoreException {
+			fCheckedTypes.add(type.getElementName());
+			return fFinder.isTest(type);
+		}
+	}
+
+	private IJavaProject fProject;
+	private IPackageFragment fPackage;
+	private TestSearchCache fCache;
+	private CountingFinder fFinder;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		fProject= JavaProjectHelper.createJavaProject("TestProject", "bin");
+		JavaProjectHelper.addRTJar(fProject);
+		JavaProjectHelper.addToClasspath(fProject, JavaCore.newContainerEntry(JUnitCore.JUNIT4_CONTAINER_PATH));
+		JavaProjectHelper.set15CompilerOptions(fProject);
+		fPackage= JavaProjectHelper.addSourceContainer(fProject, "src").createPackageFragment("p", true, null);
+
+		createUnit("ATest", "public class ATest {\n	@org.junit.Test public void a() {}\n}\n");
+		createUnit("B", "public class B {\n	public void b() {}\n}\n");
+		createUnit("Base", "public abstract class Base {\n	@org.junit.Test public void base() {}\n}\n");
+		createUnit("Sub", "public class Sub extends Base {\n}\n");
+
+		fCache= new TestSearchCache();
+		JavaCore.addElementChangedListener(fCache, ElementChangedEvent.POST_CHANGE);
+		fFinder= new CountingFinder();
+
+		int modificationStamp= fCache.getModificationStamp();
+		Set<IType> tests= new HashSet<IType>();
+		fFinder.findTestsInContainer(fPackage, tests, null);
+		ITypeHierarchy hierarchy= JavaCore.newTypeHierarchy(CoreTestSearchEngine.getRegion(fPackage), null, null);
+		fCache.put(fPackage, tests, hierarchy, modificationStamp);
+	}
+
+	protected void tearDown() throws Exception {
+		JavaCore.removeElementChangedListener(fCache);
+		JavaProjectHelper.delete(fProject);
+		super.tearDown();
+	}
+
+	private ICompilationUnit createUnit(String name, String body) throws Exception {
+		return fPackage.createCompilationUnit(name + ".java", "package p;\n" + body, true, null);
+	}
+
+	private void assertTests(String[] expected, IType[] actual) {
+		assertNotNull(actual);
+		Set<String> names= new HashSet<String>();
+		for (int i= 0; i < actual.length; i++)
+			names.add(actual[i].getElementName());
+		assertEquals(new HashSet<String>(Arrays.asList(expected)), names);
+	}
+
+	public void testCacheHit() throws Exception {
+		assertTests(new String[] { "ATest", "Sub" }, fCache.get(fPackage, fFinder));
+
+		// opening a working copy does not change the tests
+		ICompilationUnit unit= fPackage.getCompilationUnit("B.java");
+		unit.becomeWorkingCopy(null);
+		unit.discardWorkingCopy();
+
+		assertTests(new String[] { "ATest", "Sub" }, fCache.get(fPackage, fFinder));
+		assertEquals(0, fFinder.fCheckedTypes.size());
+	}
+
+	public void testUnitInvalidation() throws Exception {
+		createUnit("B", "public class B {\n	@org.junit.Test public void b() {}\n}\n");
+		createUnit("C", "public class C {\n	@org.junit.Test public void c() {}\n	public static class Inner {}\n}\n");
+		fPackage.getCompilationUnit("ATest.java").delete(true, null);
+
+		assertTests(new String[] { "B", "C", "Sub" }, fCache.get(fPackage, fFinder));
+		assertEquals(new HashSet<String>(Arrays.asList(new String[] { "B", "C", "Inner" })), new HashSet<String>(fFinder.fCheckedTypes));
+
+		// the changed units are up to date now
+		fFinder.fCheckedTypes.clear();
+		assertTests(new String[] { "B", "C", "Sub" }, fCache.get(fPackage, fFinder));
+		assertEquals(0, fFinder.fCheckedTypes.size());
+	}
+
+	public void testSuperTypeChange() throws Exception {
+		// the subclasses of a changed super type have to be searched again
+		createUnit("Base", "public abstract class Base {\n	public void base() {}\n}\n");
+		assertNull(fCache.get(fPackage, fFinder));
+	}
+
+	public void testNewSuperType() throws Exception {
+		createUnit("D", "public class D extends B {\n}\n");
+		assertTests(new String[] { "ATest", "Sub" }, fCache.get(fPackage, fFinder));
+
+		// B is a super type now
+		createUnit("B", "public class B {\n	@org.junit.Test public void b() {}\n}\n");
+		assertNull(fCache.get(fPackage, fFinder));
+	}
+
+	public void testClasspathChange() throws Exception {
+		JavaProjectHelper.addSourceContainer(fProject, "src2");
+		assertNull(fCache.get(fPackage, fFinder));
+	}
+}
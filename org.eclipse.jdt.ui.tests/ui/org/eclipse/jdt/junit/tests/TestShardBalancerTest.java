@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IType;
+
+import org.eclipse.jdt.internal.junit.launcher.TestShardBalancer;
+
+
+public class TestShardBalancerTest extends TestCase {
+	private IJavaProject fProject;
+	private IPackageFragment fPackage;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		fProject= JavaProjectHelper.createJavaProject("TestProject", "bin");
+		fPackage= JavaProjectHelper.addSourceContainer(fProject, "src").getPackageFragment("p");
+	}
+
+	protected void tearDown() throws Exception {
+		JavaProjectHelper.delete(fProject);
+		super.tearDown();
+	}
+
+	public void testUnevenDurations() throws Exception {
+		IType[] types= createTypes(5);
+		Map durations= new HashMap();
+		durations.put("p.Test0", new Double(10));
+		durations.put("p.Test1", new Double(1));
+		durations.put("p.Test2", new Double(6));
+		durations.put("p.Test3", new Double(3));
+		durations.put("p.Test4", new Double(2));
+
+		IType[][] shards= TestShardBalancer.split(types, 2, durations);
+		assertEquals(2, shards.length);
+		// longest first: 10 -> shard 0, 6 -> shard 1, 3 -> shard 1, 2 -> shard 1, 1 -> shard 0
+		assertEqualTypes(new IType[] { types[0], types[1] }, shards[0]);
+		assertEqualTypes(new IType[] { types[2], types[3], types[4] }, shards[1]);
+	}
+
+	public void testUnknownDurationsUseAverage() throws Exception {
+		IType[] types= createTypes(4);
+		Map durations= new HashMap();
+		durations.put("p.Test0", new Double(8));
+		durations.put("p.Test1", new Double(2));
+
+		IType[][] shards= TestShardBalancer.split(types, 2, durations);
+		assertEquals(2, shards.length);
+		// 8 -> shard 0, 5 (average) -> shard 1, 5 (average) -> shard 1, 2 -> shard 0
+		assertEqualTypes(new IType[] { types[0], types[1] }, shards[0]);
+		assertEqualTypes(new IType[] { types[2], types[3] }, shards[1]);
+	}
+
+	public void testMoreShardsThanTests() throws Exception {
+		IType[] types= createTypes(3);
+		IType[][] shards= TestShardBalancer.split(types, 5, new HashMap());
+		assertEquals(3, shards.length);
+		HashSet all= new HashSet();
+		for (int i= 0; i < shards.length; i++) {
+			assertEquals(1, shards[i].length);
+			all.add(shards[i][0]);
+		}
+		assertEquals(new HashSet(Arrays.asList(types)), all);
+	}
+
+	public void testOneShard() throws Exception {
+		IType[] types= createTypes(4);
+		Map durations= new HashMap();
+		durations.put("p.Test2", new Double(100));
+
+		IType[][] shards= TestShardBalancer.split(types, 1, durations);
+		assertEquals(1, shards.length);
+		assertEqualTypes(types, shards[0]);
+	}
+
+	public void testNestedClassDurations() throws Exception {
+		IType[] types= createTypes(3);
+		types[0]= types[0].getType("Inner");
+		Map durations= new HashMap();
+		durations.put("p.Test0.Inner", new Double(10));
+		durations.put("p.Test1", new Double(4));
+		durations.put("p.Test2", new Double(4));
+
+		IType[][] shards= TestShardBalancer.split(types, 2, durations);
+		assertEquals(2, shards.length);
+		// 10 -> shard 0, 4 -> shard 1, 4 -> shard 1; with the average of 4 the nested class would share a shard
+		assertEqualTypes(new IType[] { types[0] }, shards[0]);
+		assertEqualTypes(new IType[] { types[1], types[2] }, shards[1]);
+	}
+
+	private IType[] createTypes(int count) {
+		IType[] types= new IType[count];
+		for (int i= 0; i < count; i++)
+			types[i]= fPackage.getCompilationUnit("Test" + i + ".java").getType("Test" + i);
+		return types;
+	}
+
+	private void assertEqualTypes(IType[] expected, IType[] actual) {
+		assertEquals(Arrays.asList(expected), Arrays.asList(actual));
+	}
+}
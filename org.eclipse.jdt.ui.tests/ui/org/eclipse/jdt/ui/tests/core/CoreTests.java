@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -60,8 +60,10 @@ public class CoreTests extends TestCase {
 		suite.addTest(TypeRulesTest.suite());
 		suite.addTest(TypeInfoTest.suite());
 		suite.addTest(StringsTest.suite());
+		suite.addTest(ExtensionMetricsTest.suite());
 		suite.addTest(IndentManipulationTest.suite());
 		suite.addTest(SelectionHistoryTest.suite());
+		suite.addTest(JavaStructureIndexTest.suite());
 		suite.addTest(ASTProviderTest.suite());
 		suite.addTest(JDTFlagsTest18.suite());
 
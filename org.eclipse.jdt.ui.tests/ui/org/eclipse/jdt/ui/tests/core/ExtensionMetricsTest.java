@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.core;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.jdt.internal.corext.util.ExtensionMetrics;
+
+public class ExtensionMetricsTest extends TestCase {
+
+	public static Test suite() {
+		return new TestSuite(ExtensionMetricsTest.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		ExtensionMetrics.reset();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		ExtensionMetrics.reset();
+	}
+
+	public void testEmpty() {
+		assertEquals("{\n}\n", ExtensionMetrics.toJSON());
+	}
+
+	public void testSingleInvocation() {
+		// 3000 ns is in the bucket [2048, 4096), the percentiles are capped at the maximum
+		ExtensionMetrics.recordDuration(ExtensionMetrics.CLEAN_UP, "p.CleanUp", 3000);
+		assertEquals("{\n"
+				+ "  \"cleanUp\": {\n"
+				+ "    \"p.CleanUp\": {\"count\": 1, \"totalMicros\": 3, \"p50Micros\": 3, \"p99Micros\": 3, \"maxMicros\": 3}\n"
+				+ "  }\n"
+				+ "}\n", ExtensionMetrics.toJSON());
+	}
+
+	public void testPercentiles() {
+		// 98 invocations in the bucket [512, 1024), 2 in the bucket [524288, 1048576)
+		for (int i= 0; i < 98; i++)
+			ExtensionMetrics.recordDuration(ExtensionMetrics.TEXT_HOVER, "h", 1000);
+		ExtensionMetrics.recordDuration(ExtensionMetrics.TEXT_HOVER, "h", 600000);
+		ExtensionMetrics.recordDuration(ExtensionMetrics.TEXT_HOVER, "h", 1000000);
+		assertEquals("{\n"
+				+ "  \"javaEditorTextHover\": {\n"
+				+ "    \"h\": {\"count\": 100, \"totalMicros\": 1698, \"p50Micros\": 1, \"p99Micros\": 1000, \"maxMicros\": 1000}\n"
+				+ "  }\n"
+				+ "}\n", ExtensionMetrics.toJSON());
+	}
+
+	public void testPercentileIsBucketUpperBound() {
+		// 50 invocations of 5000 ns and 50 of 40000 ns: the median is the upper bound of [4096, 8192)
+		for (int i= 0; i < 50; i++) {
+			ExtensionMetrics.recordDuration(ExtensionMetrics.CLEAN_UP, "c", 5000);
+			ExtensionMetrics.recordDuration(ExtensionMetrics.CLEAN_UP, "c", 40000);
+		}
+		assertEquals("{\n"
+				+ "  \"cleanUp\": {\n"
+				+ "    \"c\": {\"count\": 100, \"totalMicros\": 2250, \"p50Micros\": 8, \"p99Micros\": 40, \"maxMicros\": 40}\n"
+				+ "  }\n"
+				+ "}\n", ExtensionMetrics.toJSON());
+	}
+
+	public void testZeroAndNegativeDurations() {
+		ExtensionMetrics.recordDuration(ExtensionMetrics.CLEAN_UP, "c", 0);
+		ExtensionMetrics.recordDuration(ExtensionMetrics.CLEAN_UP, "c", -5);
+		assertEquals("{\n"
+				+ "  \"cleanUp\": {\n"
+				+ "    \"c\": {\"count\": 2, \"totalMicros\": 0, \"p50Micros\": 0, \"p99Micros\": 0, \"maxMicros\": 0}\n"
+				+ "  }\n"
+				+ "}\n", ExtensionMetrics.toJSON());
+	}
+
+	public void testOrderAndEscaping() {
+		ExtensionMetrics.recordDuration(ExtensionMetrics.SAVE_PARTICIPANT, "b", 1000);
+		ExtensionMetrics.recordDuration(ExtensionMetrics.CLEAN_UP, "z", 1000);
+		ExtensionMetrics.recordDuration(ExtensionMetrics.CLEAN_UP, "a\"\\\n", 1000);
+		ExtensionMetrics.recordDuration(ExtensionMetrics.CLEAN_UP, null, 1000);
+		assertEquals("{\n"
+				+ "  \"cleanUp\": {\n"
+				+ "    \"a\\\"\\\\\\u000a\": {\"count\": 1, \"totalMicros\": 1, \"p50Micros\": 1, \"p99Micros\": 1, \"maxMicros\": 1},\n"
+				+ "    \"null\": {\"count\": 1, \"totalMicros\": 1, \"p50Micros\": 1, \"p99Micros\": 1, \"maxMicros\": 1},\n"
+				+ "    \"z\": {\"count\": 1, \"totalMicros\": 1, \"p50Micros\": 1, \"p99Micros\": 1, \"maxMicros\": 1}\n"
+				+ "  },\n"
+				+ "  \"saveParticipant\": {\n"
+				+ "    \"b\": {\"count\": 1, \"totalMicros\": 1, \"p50Micros\": 1, \"p99Micros\": 1, \"maxMicros\": 1}\n"
+				+ "  }\n"
+				+ "}\n", ExtensionMetrics.toJSON());
+	}
+}
@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.swt.graphics.Image;
+
+import org.eclipse.core.runtime.CoreException;
+
+import org.eclipse.compare.IEditableContent;
+import org.eclipse.compare.IEncodedStreamContentAccessor;
+import org.eclipse.compare.ITypedElement;
+import org.eclipse.compare.structuremergeviewer.DocumentRangeNode;
+import org.eclipse.compare.structuremergeviewer.IStructureComparator;
+
+import org.eclipse.jdt.internal.ui.compare.JavaStructureCreator;
+import org.eclipse.jdt.internal.ui.compare.JavaStructureIndex;
+
+
+public class JavaStructureIndexTest extends TestCase {
+
+	private static final Class THIS= JavaStructureIndexTest.class;
+
+	/**
+	 * A source that cannot change, like a local history state.
+	 */
+	private static class Source implements IEncodedStreamContentAccessor, ITypedElement {
+		private final String fContents;
+
+		Source(String contents) {
+			fContents= contents;
+		}
+
+		public InputStream getContents() throws CoreException {
+			try {
+				return new ByteArrayInputStream(fContents.getBytes(getCharset()));
+			} catch (UnsupportedEncodingException e) {
+				throw new IllegalStateException(e.getMessage());
+			}
+		}
+
+		public String getCharset() {
+			return "UTF-8";
+		}
+
+		public String getName() {
+			return "A.java";
+		}
+
+		public Image getImage() {
+			return null;
+		}
+
+		public String getType() {
+			return ITypedElement.UNKNOWN_TYPE;
+		}
+	}
+
+	/**
+	 * A source in an editor, which is never indexed.
+	 */
+	private static class EditableSource extends Source implements IEditableContent {
+		EditableSource(String contents) {
+			super(contents);
+		}
+
+		public boolean isEditable() {
+			return true;
+		}
+
+		public void setContent(byte[] newContent) {
+		}
+
+		public ITypedElement replace(ITypedElement dest, ITypedElement src) {
+			return dest;
+		}
+	}
+
+	public JavaStructureIndexTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return new TestSuite(THIS);
+	}
+
+	private static String getSource(String name) {
+		StringBuffer buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("\n");
+		buf.append("import java.util.List;\n");
+		buf.append("\n");
+		buf.append("public class " + name + " {\n");
+		buf.append("    private List<String> fList;\n");
+		buf.append("    static {\n");
+		buf.append("    }\n");
+		buf.append("    public " + name + "(int i) {\n");
+		buf.append("    }\n");
+		buf.append("    public void foo(String s, int[] a) {\n");
+		buf.append("        System.out.println(s);\n");
+		buf.append("    }\n");
+		buf.append("    interface I {\n");
+		buf.append("        void bar();\n");
+		buf.append("    }\n");
+		buf.append("    enum E { X, Y }\n");
+		buf.append("}\n");
+		return buf.toString();
+	}
+
+	private static JavaStructureIndex getIndex(String source) {
+		return JavaStructureIndex.get(JavaStructureIndex.getKey(source.toCharArray(), null));
+	}
+
+	public void testEqualContents() throws Exception {
+		String source= getSource("Equal");
+		JavaStructureCreator creator= new JavaStructureCreator();
+		assertNotNull(creator.getStructure(new Source(source)));
+		JavaStructureIndex index= getIndex(source);
+		assertNotNull(index);
+
+		// equal contents of another input are not parsed again
+		assertNotNull(creator.getStructure(new Source(new String(source))));
+		assertSame(index, getIndex(source));
+		assertNotNull(new JavaStructureCreator().getStructure(new Source(source)));
+		assertSame(index, getIndex(source));
+
+		assertNull(getIndex(getSource("Other")));
+	}
+
+	public void testEditableContents() throws Exception {
+		String source= getSource("Editable");
+		assertNotNull(new JavaStructureCreator().getStructure(new EditableSource(source)));
+		assertNull(getIndex(source));
+	}
+
+	public void testEviction() throws Exception {
+		JavaStructureCreator creator= new JavaStructureCreator();
+		for (int i= 0; i <= JavaStructureIndex.MAX_INDEXES; i++)
+			creator.getStructure(new Source(getSource("Evicted" + i)));
+
+		assertNull(getIndex(getSource("Evicted0")));
+		for (int i= 1; i <= JavaStructureIndex.MAX_INDEXES; i++)
+			assertNotNull(getIndex(getSource("Evicted" + i)));
+	}
+
+	public void testIndexedTree() throws Exception {
+		String source= getSource("Indexed");
+		JavaStructureCreator creator= new JavaStructureCreator();
+		IStructureComparator parsed= creator.getStructure(new EditableSource(source));
+		creator.getStructure(new Source(source));
+		assertNotNull(getIndex(source));
+		IStructureComparator indexed= creator.getStructure(new Source(source));
+
+		assertEquals(15, assertEqualTrees((DocumentRangeNode) parsed, (DocumentRangeNode) indexed));
+	}
+
+	/**
+	 * Asserts that two node trees are equal.
+	 *
+	 * @param expected the expected tree
+	 * @param actual the actual tree
+	 * @return the number of nodes in the tree
+	 */
+	private static int assertEqualTrees(DocumentRangeNode expected, DocumentRangeNode actual) {
+		String id= expected.getId();
+		assertEquals(id, actual.getId());
+		assertEquals(id, expected.getTypeCode(), actual.getTypeCode());
+		assertEquals(id, expected.getRange(), actual.getRange());
+		assertEquals(id, expected.getAppendPosition(), actual.getAppendPosition());
+		Object[] expectedChildren= expected.getChildren();
+		Object[] actualChildren= actual.getChildren();
+		if (expectedChildren == null) {
+			assertNull(id, actualChildren);
+			return 1;
+		}
+		assertEquals(id, expectedChildren.length, actualChildren.length);
+		int nodes= 1;
+		for (int i= 0; i < expectedChildren.length; i++)
+			nodes+= assertEqualTrees((DocumentRangeNode) expectedChildren[i], (DocumentRangeNode) actualChildren[i]);
+		return nodes;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2012 IBM Corporation and others.
+ * Copyright (c) 2007, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,12 +17,24 @@
  *******************************************************************************/
 package org.eclipse.jdt.ui.tests.jarexport;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Enumeration;
 import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -1003,4 +1015,250 @@ public class FatJarExportTests extends TestCase {
 			JavaProjectHelper.removeFromClasspath(fProject, externalRoot.getPath());
 		}
 	}
+
+	public void testExportLibWithCompressedEntries() throws Exception {
+		File lib= JavaTestPlugin.getDefault().getFileInPlugin(JavaProjectHelper.MYLIB_STDOUT);
+		IPackageFragmentRoot root= JavaProjectHelper.addLibrary(fProject, Path.fromOSString(lib.getPath()));
+		byte[] text= getTextContent();
+		byte[] nested= createArchiveContent(text);
+		File entriesLib= File.createTempFile("compressed_entries", ".jar"); //$NON-NLS-1$ //$NON-NLS-2$
+		writeLibraryWithCompressedEntries(entriesLib, text, nested);
+		IPackageFragmentRoot entriesRoot= JavaProjectHelper.addLibrary(fProject, Path.fromOSString(entriesLib.getPath()));
+
+		try {
+			buildProject();
+			// compressed JAR: the text is deflated again, the nested archive stays stored
+			JarPackageData data= createJarPackageData(fProject, getName(), new ExtractLibraryHandler());
+			data.setCompress(true);
+			ZipFile archive= createArchive(data);
+			try {
+				assertEntry(archive, "mylib/text.txt", ZipEntry.DEFLATED, text); //$NON-NLS-1$
+				assertEntry(archive, "mylib/nested.zip", ZipEntry.STORED, nested); //$NON-NLS-1$
+			} finally {
+				archive.close();
+			}
+
+			// uncompressed JAR: both are stored
+			data= createJarPackageData(fProject, getName() + "_uncompressed", new ExtractLibraryHandler()); //$NON-NLS-1$
+			data.setCompress(false);
+			archive= createArchive(data);
+			try {
+				assertEntry(archive, "mylib/text.txt", ZipEntry.STORED, text); //$NON-NLS-1$
+				assertEntry(archive, "mylib/nested.zip", ZipEntry.STORED, nested); //$NON-NLS-1$
+			} finally {
+				archive.close();
+			}
+		} finally {
+			JavaProjectHelper.removeFromClasspath(fProject, entriesRoot.getPath());
+			JavaProjectHelper.removeFromClasspath(fProject, root.getPath());
+			entriesLib.delete();
+		}
+	}
+
+	public void testJarInJarLoaderWithNestedJars() throws Exception {
+		File lib= JavaTestPlugin.getDefault().getFileInPlugin(JavaProjectHelper.MYLIB_STDOUT);
+		IPackageFragmentRoot root= JavaProjectHelper.addLibrary(fProject, Path.fromOSString(lib.getPath()));
+		// the loader has to decode the space in the location of the runnable JAR
+		File folder= File.createTempFile("jar in jar", ""); //$NON-NLS-1$ //$NON-NLS-2$
+		folder.delete();
+		assertTrue(folder.mkdirs());
+
+		try {
+			IPackageFragment fragment= fMainRoot.getPackageFragment("org.eclipse.jdt.ui.test"); //$NON-NLS-1$
+			StringBuffer buf= new StringBuffer();
+			buf.append("package org.eclipse.jdt.ui.test;\n"); //$NON-NLS-1$
+			buf.append("import java.io.BufferedReader;\n"); //$NON-NLS-1$
+			buf.append("import java.io.IOException;\n"); //$NON-NLS-1$
+			buf.append("import java.io.InputStream;\n"); //$NON-NLS-1$
+			buf.append("import java.io.InputStreamReader;\n"); //$NON-NLS-1$
+			buf.append("import mylib.Foo;\n"); //$NON-NLS-1$
+			buf.append("public class Main {\n"); //$NON-NLS-1$
+			buf.append("    public static void main(String[] args) throws IOException {\n"); //$NON-NLS-1$
+			buf.append("        new Foo();\n"); //$NON-NLS-1$
+			buf.append("        System.out.println(Foo.class.getPackage().getImplementationTitle());\n"); //$NON-NLS-1$
+			buf.append("        ClassLoader loader= Main.class.getClassLoader();\n"); //$NON-NLS-1$
+			buf.append("        printLine(loader.getResourceAsStream(\"mylib/resource.txt\"));\n"); //$NON-NLS-1$
+			buf.append("        printLine(loader.getResource(\"mylib/resource.txt\").openStream());\n"); //$NON-NLS-1$
+			buf.append("    }\n"); //$NON-NLS-1$
+			buf.append("    private static void printLine(InputStream in) throws IOException {\n"); //$NON-NLS-1$
+			buf.append("        System.out.println(new BufferedReader(new InputStreamReader(in)).readLine());\n"); //$NON-NLS-1$
+			buf.append("        in.close();\n"); //$NON-NLS-1$
+			buf.append("    }\n"); //$NON-NLS-1$
+			buf.append("}\n"); //$NON-NLS-1$
+			fragment.createCompilationUnit("Main.java", buf.toString(), true, null); //$NON-NLS-1$
+			buildProject();
+
+			IPath mainClassPath= fProject.getOutputLocation().append("org/eclipse/jdt/ui/test/Main.class"); //$NON-NLS-1$
+			InputStream in= ResourcesPlugin.getWorkspace().getRoot().getFile(mainClassPath).getContents();
+			byte[] mainClass;
+			try {
+				mainClass= readFully(in);
+			} finally {
+				in.close();
+			}
+			byte[] nested= createNestedLibrary(lib);
+
+			// the exporter stores nested JARs, older runnable JARs have them deflated
+			int[] methods= { ZipEntry.STORED, ZipEntry.DEFLATED };
+			for (int i= 0; i < methods.length; i++) {
+				File jar= new File(folder, "runnable " + methods[i] + ".jar"); //$NON-NLS-1$ //$NON-NLS-2$
+				writeRunnableJar(jar, mainClass, nested, methods[i]);
+				String stdout= runJar(fProject, jar.getPath());
+				stdout= stdout.replaceAll("\r\n", "\n").replaceAll("\r", "\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				assertEquals("created mylib.Foo\nMy Library\nresource of mylib\nresource of mylib\n", stdout); //$NON-NLS-1$
+			}
+		} finally {
+			JavaProjectHelper.removeFromClasspath(fProject, root.getPath());
+			File[] files= folder.listFiles();
+			for (int i= 0; i < files.length; i++)
+				files[i].delete();
+			folder.delete();
+		}
+	}
+
+	private static byte[] createNestedLibrary(File lib) throws IOException {
+		Manifest manifest= new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0"); //$NON-NLS-1$
+		manifest.getMainAttributes().put(Attributes.Name.IMPLEMENTATION_TITLE, "My Library"); //$NON-NLS-1$
+		ByteArrayOutputStream bytes= new ByteArrayOutputStream();
+		JarOutputStream out= new JarOutputStream(bytes, manifest);
+		ZipFile zip= new ZipFile(lib);
+		try {
+			for (Enumeration entries= zip.entries(); entries.hasMoreElements();) {
+				ZipEntry entry= (ZipEntry) entries.nextElement();
+				if (entry.isDirectory() || entry.getName().equalsIgnoreCase(JarFile.MANIFEST_NAME))
+					continue;
+				out.putNextEntry(new ZipEntry(entry.getName()));
+				out.write(readFully(zip.getInputStream(entry)));
+				out.closeEntry();
+			}
+			out.putNextEntry(new ZipEntry("mylib/resource.txt")); //$NON-NLS-1$
+			out.write("resource of mylib\n".getBytes()); //$NON-NLS-1$
+			out.closeEntry();
+		} finally {
+			zip.close();
+			out.close();
+		}
+		return bytes.toByteArray();
+	}
+
+	private static void writeRunnableJar(File jar, byte[] mainClass, byte[] nested, int nestedMethod) throws IOException {
+		Manifest manifest= new Manifest();
+		Attributes attributes= manifest.getMainAttributes();
+		attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0"); //$NON-NLS-1$
+		attributes.put(Attributes.Name.MAIN_CLASS, "org.eclipse.jdt.internal.jarinjarloader.JarRsrcLoader"); //$NON-NLS-1$
+		attributes.putValue("Rsrc-Main-Class", "org.eclipse.jdt.ui.test.Main"); //$NON-NLS-1$ //$NON-NLS-2$
+		attributes.putValue("Rsrc-Class-Path", "./ mylib.jar"); //$NON-NLS-1$ //$NON-NLS-2$
+		JarOutputStream out= new JarOutputStream(new FileOutputStream(jar), manifest);
+		try {
+			ZipInputStream loader= new ZipInputStream(JavaPlugin.getDefault().getBundle().getEntry(FatJarRsrcUrlBuilder.JAR_RSRC_LOADER_ZIP).openStream());
+			try {
+				for (ZipEntry entry= loader.getNextEntry(); entry != null; entry= loader.getNextEntry()) {
+					if (entry.isDirectory())
+						continue;
+					out.putNextEntry(new ZipEntry(entry.getName()));
+					out.write(readFully(loader));
+					out.closeEntry();
+				}
+			} finally {
+				loader.close();
+			}
+
+			out.putNextEntry(new ZipEntry("org/eclipse/jdt/ui/test/Main.class")); //$NON-NLS-1$
+			out.write(mainClass);
+			out.closeEntry();
+
+			ZipEntry entry= new ZipEntry("mylib.jar"); //$NON-NLS-1$
+			entry.setMethod(nestedMethod);
+			if (nestedMethod == ZipEntry.STORED) {
+				entry.setSize(nested.length);
+				entry.setCompressedSize(nested.length);
+				entry.setCrc(getCrc(nested));
+			}
+			out.putNextEntry(entry);
+			out.write(nested);
+			out.closeEntry();
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads the given stream to its end. Does not close the stream.
+	 * 
+	 * @param in the stream
+	 * @return the content
+	 * @throws IOException if reading fails
+	 */
+	private static byte[] readFully(InputStream in) throws IOException {
+		ByteArrayOutputStream content= new ByteArrayOutputStream();
+		byte[] buffer= new byte[4096];
+		int count;
+		while ((count= in.read(buffer)) != -1)
+			content.write(buffer, 0, count);
+		return content.toByteArray();
+	}
+
+	private static byte[] getTextContent() {
+		StringBuffer buf= new StringBuffer();
+		for (int i= 0; i < 1000; i++)
+			buf.append("line ").append(i).append('\n'); //$NON-NLS-1$
+		return buf.toString().getBytes();
+	}
+
+	private static byte[] createArchiveContent(byte[] content) throws IOException {
+		ByteArrayOutputStream bytes= new ByteArrayOutputStream();
+		ZipOutputStream out= new ZipOutputStream(bytes);
+		try {
+			out.putNextEntry(new ZipEntry("text.txt")); //$NON-NLS-1$
+			out.write(content);
+			out.closeEntry();
+		} finally {
+			out.close();
+		}
+		return bytes.toByteArray();
+	}
+
+	private static void writeLibraryWithCompressedEntries(File file, byte[] text, byte[] nested) throws IOException {
+		ZipOutputStream out= new ZipOutputStream(new FileOutputStream(file));
+		try {
+			ZipEntry deflated= new ZipEntry("mylib/text.txt"); //$NON-NLS-1$
+			deflated.setMethod(ZipEntry.DEFLATED);
+			out.putNextEntry(deflated);
+			out.write(text);
+			out.closeEntry();
+
+			ZipEntry stored= new ZipEntry("mylib/nested.zip"); //$NON-NLS-1$
+			stored.setMethod(ZipEntry.STORED);
+			stored.setSize(nested.length);
+			stored.setCompressedSize(nested.length);
+			stored.setCrc(getCrc(nested));
+			out.putNextEntry(stored);
+			out.write(nested);
+			out.closeEntry();
+		} finally {
+			out.close();
+		}
+	}
+
+	private static long getCrc(byte[] content) {
+		CRC32 crc= new CRC32();
+		crc.update(content);
+		return crc.getValue();
+	}
+
+	private static void assertEntry(ZipFile archive, String name, int method, byte[] expected) throws IOException {
+		ZipEntry entry= archive.getEntry(name);
+		assertNotNull(name, entry);
+		assertEquals(name, method, entry.getMethod());
+		assertEquals(name, expected.length, entry.getSize());
+		assertEquals(name, getCrc(expected), entry.getCrc());
+
+		InputStream in= archive.getInputStream(entry);
+		try {
+			assertTrue(name, Arrays.equals(expected, readFully(in)));
+		} finally {
+			in.close();
+		}
+	}
 }
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.quickfix;
+
+import java.util.Arrays;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.jdt.internal.corext.fix.CleanUpBudget;
+
+import org.eclipse.jdt.ui.cleanup.ICleanUp;
+
+import org.eclipse.jdt.internal.ui.fix.CodeFormatCleanUp;
+import org.eclipse.jdt.internal.ui.fix.UnusedCodeCleanUp;
+
+public class CleanUpBudgetTest extends TestCase {
+
+	public static Test suite() {
+		return new TestSuite(CleanUpBudgetTest.class);
+	}
+
+	protected void tearDown() throws Exception {
+		CleanUpBudget.clearDemotedCleanUps();
+		super.tearDown();
+	}
+
+	public void testDeadline() throws Exception {
+		assertFalse(new CleanUpBudget(60 * 1000).isExhausted());
+
+		CleanUpBudget budget= new CleanUpBudget(1);
+		Thread.sleep(20);
+		assertTrue(budget.isExhausted());
+	}
+
+	public void testDemotion() throws Exception {
+		CodeFormatCleanUp format= new CodeFormatCleanUp();
+		UnusedCodeCleanUp unused= new UnusedCodeCleanUp();
+		CleanUpBudget budget= new CleanUpBudget(100);
+
+		budget.spent(format, 100);
+		budget.spent(unused, 10);
+		assertFalse(CleanUpBudget.isDemoted(format));
+		assertFalse(CleanUpBudget.isDemoted(unused));
+
+		budget.spent(format, 101);
+		assertTrue(CleanUpBudget.isDemoted(format));
+		assertTrue(CleanUpBudget.isDemoted(new CodeFormatCleanUp()));
+		assertFalse(CleanUpBudget.isDemoted(unused));
+
+		CleanUpBudget.clearDemotedCleanUps();
+		assertFalse(CleanUpBudget.isDemoted(format));
+	}
+
+	public void testDeferredCleanUpsKeepOrder() throws Exception {
+		ICleanUp first= new CodeFormatCleanUp();
+		ICleanUp second= new UnusedCodeCleanUp();
+		ICleanUp third= new CodeFormatCleanUp();
+		ICleanUp[] cleanUps= new ICleanUp[] { first, second, third };
+		CleanUpBudget budget= new CleanUpBudget(100);
+
+		assertEquals(0, budget.getDeferredCleanUps(cleanUps).length);
+
+		budget.defer(third);
+		budget.defer(first);
+		assertEquals(Arrays.asList(new ICleanUp[] { first, third }), Arrays.asList(budget.getDeferredCleanUps(cleanUps)));
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2014 IBM Corporation and others.
+ * Copyright (c) 2005, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -84,6 +84,7 @@ public class CleanUpTestCase extends QuickFixTest {
 		suite.addTest(CleanUpTest18.suite());
 		suite.addTest(CleanUpAnnotationTest.suite());
 		suite.addTest(SaveParticipantTest.suite());
+		suite.addTest(CleanUpBudgetTest.suite());
 		suite.addTest(CleanUpActionTest.suite());
 
 		return suite;
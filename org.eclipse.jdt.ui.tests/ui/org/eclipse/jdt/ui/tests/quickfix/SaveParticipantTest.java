@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2011 IBM Corporation and others.
+ * Copyright (c) 2007, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,9 +10,17 @@
  *******************************************************************************/
 package org.eclipse.jdt.ui.tests.quickfix;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import org.eclipse.jdt.testplugin.util.DisplayHelper;
+
+import org.eclipse.swt.widgets.Display;
+
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 
@@ -22,14 +30,21 @@ import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.JavaModelException;
 
+import org.eclipse.jdt.internal.corext.fix.CleanUpBudget;
 import org.eclipse.jdt.internal.corext.fix.CleanUpConstants;
 import org.eclipse.jdt.internal.corext.fix.CleanUpPostSaveListener;
 import org.eclipse.jdt.internal.corext.fix.CleanUpPreferenceUtil;
+import org.eclipse.jdt.internal.corext.fix.CleanUpRefactoring;
+import org.eclipse.jdt.internal.corext.util.ExtensionMetrics;
 
 import org.eclipse.jdt.ui.JavaUI;
+import org.eclipse.jdt.ui.cleanup.CleanUpContext;
 import org.eclipse.jdt.ui.cleanup.CleanUpOptions;
+import org.eclipse.jdt.ui.cleanup.ICleanUp;
 import org.eclipse.jdt.ui.tests.core.ProjectTestSetup;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.fix.CodeFormatCleanUp;
 import org.eclipse.jdt.internal.ui.javaeditor.EditorUtility;
 import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
 
@@ -58,11 +73,38 @@ public class SaveParticipantTest extends CleanUpTestCase {
 		node.put(CleanUpPreferenceUtil.SAVE_PARTICIPANT_KEY_PREFIX + CleanUpConstants.CLEANUP_ON_SAVE_ADDITIONAL_OPTIONS, CleanUpOptions.TRUE);
 	}
 
-	private static void editCUInEditor(ICompilationUnit cu, String newContent) throws JavaModelException, PartInitException {
+	protected void tearDown() throws Exception {
+		JavaPlugin.getDefault().getPreferenceStore().setToDefault(CleanUpConstants.CLEANUP_ON_SAVE_TIME_BUDGET);
+		CleanUpBudget.clearDemotedCleanUps();
+		super.tearDown();
+	}
+
+	private static JavaEditor editCUInEditor(ICompilationUnit cu, String newContent) throws JavaModelException, PartInitException {
 		JavaEditor editor= (JavaEditor) EditorUtility.openInEditor(cu);
 
 		cu.getBuffer().setContents(newContent);
 		editor.doSave(null);
+		return editor;
+	}
+
+	private static void setTimeBudget(int budget) {
+		JavaPlugin.getDefault().getPreferenceStore().setValue(CleanUpConstants.CLEANUP_ON_SAVE_TIME_BUDGET, budget);
+	}
+
+	/*
+	 * Demotes the clean up as if it had once taken longer than the whole budget.
+	 */
+	private static void demote(ICleanUp cleanUp) {
+		new CleanUpBudget(1).spent(cleanUp, 2);
+	}
+
+	private static void joinDeferredCleanUps(final ICompilationUnit cu) {
+		boolean finished= new DisplayHelper() {
+			protected boolean condition() {
+				return Job.getJobManager().find(cu).length == 0;
+			}
+		}.waitForCondition(Display.getCurrent(), 10000, 50);
+		assertTrue("deferred clean ups did not finish", finished);
 	}
 
 	public void testFormatAll01() throws Exception {
@@ -728,4 +770,182 @@ public class SaveParticipantTest extends CleanUpTestCase {
 
 		assertEquals(expected1, cu1.getBuffer().getContents());
 	}
+
+	public void testTimeBudgetExhausted() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		ICompilationUnit cu1= pack1.createCompilationUnit("E1.java", "package test1;\npublic class E1 {\n}", false, null);
+
+		CleanUpBudget budget= new CleanUpBudget(1);
+		Thread.sleep(20);
+
+		ICleanUp[] cleanUps= new ICleanUp[] { new CodeFormatCleanUp(), new CodeFormatCleanUp() };
+		ArrayList<ICleanUp> undoneCleanUps= new ArrayList<ICleanUp>();
+		assertNull(CleanUpRefactoring.calculateChange(new CleanUpContext(cu1, null), cleanUps, undoneCleanUps, null, budget, ExtensionMetrics.CLEAN_UP));
+
+		assertEquals(0, undoneCleanUps.size());
+		assertEquals(Arrays.asList(cleanUps), Arrays.asList(budget.getDeferredCleanUps(cleanUps)));
+	}
+
+	public void testNoTimeBudget() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E1 {\n");
+		buf.append("    public void foo( Object o ) {\n");
+		buf.append("        String s= (String)o;\n");
+		buf.append("    }\n");
+		buf.append("}");
+		ICompilationUnit cu1= pack1.createCompilationUnit("E1.java", buf.toString(), false, null);
+
+		enable(CleanUpConstants.FORMAT_SOURCE_CODE);
+		setTimeBudget(0);
+		demote(new CodeFormatCleanUp());
+
+		buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E1 {\n");
+		buf.append("    public void foo( Object o ) {\n");
+		buf.append("        String s    = (String)o;\n");
+		buf.append("    }\n");
+		buf.append("}");
+
+		JavaEditor editor= editCUInEditor(cu1, buf.toString());
+		try {
+			assertEquals(0, Job.getJobManager().find(cu1).length);
+			assertFalse(editor.isDirty());
+
+			buf= new StringBuffer();
+			buf.append("package test1;\n");
+			buf.append("public class E1 {\n");
+			buf.append("    public void foo(Object o) {\n");
+			buf.append("        String s = (String) o;\n");
+			buf.append("    }\n");
+			buf.append("}");
+			String expected1= buf.toString();
+
+			assertEquals(expected1, cu1.getBuffer().getContents());
+		} finally {
+			JavaPlugin.getActivePage().closeEditor(editor, false);
+		}
+	}
+
+	public void testDeferredCleanUp() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E1 {\n");
+		buf.append("    public void foo( Object o ) {\n");
+		buf.append("        String s= (String)o;\n");
+		buf.append("    }\n");
+		buf.append("}");
+		ICompilationUnit cu1= pack1.createCompilationUnit("E1.java", buf.toString(), false, null);
+
+		enable(CleanUpConstants.FORMAT_SOURCE_CODE);
+		setTimeBudget(60 * 1000);
+		demote(new CodeFormatCleanUp());
+
+		buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E1 {\n");
+		buf.append("    public void foo( Object o ) {\n");
+		buf.append("        String s    = (String)o;\n");
+		buf.append("    }\n");
+		buf.append("}");
+
+		JavaEditor editor= editCUInEditor(cu1, buf.toString());
+		try {
+			joinDeferredCleanUps(cu1);
+
+			buf= new StringBuffer();
+			buf.append("package test1;\n");
+			buf.append("public class E1 {\n");
+			buf.append("    public void foo(Object o) {\n");
+			buf.append("        String s = (String) o;\n");
+			buf.append("    }\n");
+			buf.append("}");
+			String expected1= buf.toString();
+
+			assertEquals(expected1, cu1.getBuffer().getContents());
+			// the deferred changes are not saved
+			assertTrue(editor.isDirty());
+		} finally {
+			JavaPlugin.getActivePage().closeEditor(editor, false);
+		}
+	}
+
+	public void testDeferredCleanUpAfterEdit() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E1 {\n");
+		buf.append("    public void foo( Object o ) {\n");
+		buf.append("        String s= (String)o;\n");
+		buf.append("    }\n");
+		buf.append("}");
+		ICompilationUnit cu1= pack1.createCompilationUnit("E1.java", buf.toString(), false, null);
+
+		enable(CleanUpConstants.FORMAT_SOURCE_CODE);
+		setTimeBudget(60 * 1000);
+		demote(new CodeFormatCleanUp());
+
+		buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E1 {\n");
+		buf.append("    public void foo( Object o ) {\n");
+		buf.append("        String s    = (String)o;\n");
+		buf.append("    }\n");
+		buf.append("}");
+
+		JavaEditor editor= editCUInEditor(cu1, buf.toString());
+		try {
+			// edit the document before the deferred clean ups are applied
+			buf= new StringBuffer();
+			buf.append("package test1;\n");
+			buf.append("public class E1 {\n");
+			buf.append("    public void foo( Object o ) {\n");
+			buf.append("        String t    = (String)o;\n");
+			buf.append("    }\n");
+			buf.append("}");
+			String expected1= buf.toString();
+			cu1.getBuffer().setContents(expected1);
+
+			joinDeferredCleanUps(cu1);
+
+			assertEquals(expected1, cu1.getBuffer().getContents());
+		} finally {
+			JavaPlugin.getActivePage().closeEditor(editor, false);
+		}
+	}
+
+	public void testDeferredCleanUpAfterClose() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E1 {\n");
+		buf.append("    public void foo( Object o ) {\n");
+		buf.append("        String s= (String)o;\n");
+		buf.append("    }\n");
+		buf.append("}");
+		ICompilationUnit cu1= pack1.createCompilationUnit("E1.java", buf.toString(), false, null);
+
+		enable(CleanUpConstants.FORMAT_SOURCE_CODE);
+		setTimeBudget(60 * 1000);
+		demote(new CodeFormatCleanUp());
+
+		buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E1 {\n");
+		buf.append("    public void foo( Object o ) {\n");
+		buf.append("        String s    = (String)o;\n");
+		buf.append("    }\n");
+		buf.append("}");
+		String expected1= buf.toString();
+
+		JavaEditor editor= editCUInEditor(cu1, expected1);
+		JavaPlugin.getActivePage().closeEditor(editor, false);
+
+		joinDeferredCleanUps(cu1);
+
+		assertEquals(expected1, cu1.getBuffer().getContents());
+	}
 }
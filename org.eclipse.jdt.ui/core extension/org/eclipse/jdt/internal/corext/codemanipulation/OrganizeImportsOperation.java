@@ -32,7 +32,6 @@ import org.eclipse.text.edits.TextEdit;
 
 import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.ICompilationUnit;
-import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.ISourceRange;
@@ -51,9 +50,6 @@ import org.eclipse.jdt.core.dom.Name;
 import org.eclipse.jdt.core.dom.SimpleName;
 import org.eclipse.jdt.core.dom.Type;
 import org.eclipse.jdt.core.dom.rewrite.ImportRewrite;
-import org.eclipse.jdt.core.search.IJavaSearchConstants;
-import org.eclipse.jdt.core.search.IJavaSearchScope;
-import org.eclipse.jdt.core.search.SearchEngine;
 import org.eclipse.jdt.core.search.TypeNameMatch;
 
 import org.eclipse.jdt.internal.corext.dom.ASTNodes;
@@ -62,7 +58,7 @@ import org.eclipse.jdt.internal.corext.dom.ScopeAnalyzer;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 import org.eclipse.jdt.internal.corext.util.Messages;
 import org.eclipse.jdt.internal.corext.util.Strings;
-import org.eclipse.jdt.internal.corext.util.TypeNameMatchCollector;
+import org.eclipse.jdt.internal.corext.util.TypeNameMatchCache;
 
 import org.eclipse.jdt.ui.SharedASTProvider;
 
@@ -126,8 +122,11 @@ public class OrganizeImportsOperation implements IWorkspaceRunnable {
 		private TypeNameMatch[][] fOpenChoices;
 		private SourceRange[] fSourceRanges;
 
+		private final TypeNameMatchCache fTypeNameMatchCache;
 
-		public TypeReferenceProcessor(Set<String> oldSingleImports, Set<String> oldDemandImports, CompilationUnit root, ImportRewrite impStructure, boolean ignoreLowerCaseNames) {
+
+		public TypeReferenceProcessor(Set<String> oldSingleImports, Set<String> oldDemandImports, CompilationUnit root, ImportRewrite impStructure, boolean ignoreLowerCaseNames, TypeNameMatchCache typeNameMatchCache) {
+			fTypeNameMatchCache= typeNameMatchCache;
 			fOldSingleImports= oldSingleImports;
 			fOldDemandImports= oldDemandImports;
 			fImpStructure= impStructure;
@@ -233,20 +232,12 @@ public class OrganizeImportsOperation implements IWorkspaceRunnable {
 				if (nUnresolved == 0) {
 					return false;
 				}
-				char[][] allTypes= new char[nUnresolved][];
-				int i= 0;
-				for (Iterator<String> iter= fUnresolvedTypes.keySet().iterator(); iter.hasNext();) {
-					allTypes[i++]= iter.next().toCharArray();
-				}
-				final ArrayList<TypeNameMatch> typesFound= new ArrayList<TypeNameMatch>();
 				final IJavaProject project= fCurrPackage.getJavaProject();
-				IJavaSearchScope scope= SearchEngine.createJavaSearchScope(new IJavaElement[] { project });
-				TypeNameMatchCollector collector= new TypeNameMatchCollector(typesFound);
-				new SearchEngine().searchAllTypeNames(null, allTypes, scope, collector, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+				List<TypeNameMatch> typesFound= fTypeNameMatchCache.findTypes(project, fUnresolvedTypes.keySet(), monitor);
 
 				boolean is50OrHigher= 	JavaModelUtil.is50OrHigher(project);
 
-				for (i= 0; i < typesFound.size(); i++) {
+				for (int i= 0; i < typesFound.size(); i++) {
 					TypeNameMatch curr= typesFound.get(i);
 					UnresolvedTypeData data= fUnresolvedTypes.get(curr.getSimpleTypeName());
 					if (data != null && isVisible(curr) && isOfKind(curr, data.typeKinds, is50OrHigher)) {
@@ -367,7 +358,28 @@ public class OrganizeImportsOperation implements IWorkspaceRunnable {
 
 	private final boolean fAllowSyntaxErrors;
 
+	private final TypeNameMatchCache fTypeNameMatchCache;
+
 	public OrganizeImportsOperation(ICompilationUnit cu, CompilationUnit astRoot, boolean ignoreLowerCaseNames, boolean save, boolean allowSyntaxErrors, IChooseImportQuery chooseImportQuery) {
+		this(cu, astRoot, ignoreLowerCaseNames, save, allowSyntaxErrors, chooseImportQuery, null);
+	}
+
+	/**
+	 * Creates an operation that looks up unresolved type names in a cache shared with other
+	 * operations.
+	 *
+	 * @param cu the compilation unit
+	 * @param astRoot the AST of the compilation unit, or <code>null</code> to use the shared AST
+	 * @param ignoreLowerCaseNames whether to ignore unresolved names starting with a lower case letter
+	 * @param save whether to save the compilation unit
+	 * @param allowSyntaxErrors whether to organize imports of compilation units with syntax errors
+	 * @param chooseImportQuery the query for ambiguous type names, or <code>null</code>
+	 * @param typeNameMatchCache the cache of the types found by other operations, or
+	 *            <code>null</code> to search all unresolved names
+	 * @since 3.11
+	 */
+	public OrganizeImportsOperation(ICompilationUnit cu, CompilationUnit astRoot, boolean ignoreLowerCaseNames, boolean save, boolean allowSyntaxErrors, IChooseImportQuery chooseImportQuery, TypeNameMatchCache typeNameMatchCache) {
+		fTypeNameMatchCache= typeNameMatchCache;
 		fCompilationUnit= cu;
 		fASTRoot= astRoot;
 
@@ -436,7 +448,8 @@ public class OrganizeImportsOperation implements IWorkspaceRunnable {
 
 			monitor.worked(1);
 
-			TypeReferenceProcessor processor= new TypeReferenceProcessor(oldSingleImports, oldDemandImports, astRoot, importsRewrite, fIgnoreLowerCaseNames);
+			TypeNameMatchCache typeNameMatchCache= fTypeNameMatchCache != null ? fTypeNameMatchCache : new TypeNameMatchCache();
+			TypeReferenceProcessor processor= new TypeReferenceProcessor(oldSingleImports, oldDemandImports, astRoot, importsRewrite, fIgnoreLowerCaseNames, typeNameMatchCache);
 
 			Iterator<SimpleName> refIterator= typeReferences.iterator();
 			while (refIterator.hasNext()) {
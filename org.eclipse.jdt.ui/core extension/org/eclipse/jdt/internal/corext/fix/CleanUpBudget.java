@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.fix;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jdt.ui.cleanup.ICleanUp;
+
+/**
+ * The time budget of the clean ups executed on save of a file.
+ * <p>
+ * Clean ups that are not started before the budget is used up are deferred. A clean up that
+ * alone takes longer than the whole budget is demoted: it is deferred on all later saves of
+ * this session, so that it no longer delays saving.
+ * </p>
+ *
+ * @since 3.11
+ */
+public final class CleanUpBudget {
+
+	/**
+	 * Class names of the demoted clean ups.
+	 */
+	private static final Set<String> fgDemotedCleanUps= new HashSet<String>();
+
+	private final long fBudget;
+	private final long fDeadline;
+	private final Set<ICleanUp> fDeferredCleanUps;
+
+	/**
+	 * Creates a budget that starts now.
+	 *
+	 * @param budget the time budget in ms, must be positive
+	 */
+	public CleanUpBudget(long budget) {
+		fBudget= budget;
+		fDeadline= System.currentTimeMillis() + budget;
+		fDeferredCleanUps= new HashSet<ICleanUp>();
+	}
+
+	/**
+	 * @return <code>true</code> if no time is left
+	 */
+	public boolean isExhausted() {
+		return System.currentTimeMillis() > fDeadline;
+	}
+
+	/**
+	 * Returns whether the given clean up has been demoted.
+	 *
+	 * @param cleanUp the clean up
+	 * @return <code>true</code> if the clean up must be deferred
+	 */
+	public static boolean isDemoted(ICleanUp cleanUp) {
+		synchronized (fgDemotedCleanUps) {
+			return fgDemotedCleanUps.contains(cleanUp.getClass().getName());
+		}
+	}
+
+	/**
+	 * Forgets all demoted clean ups, they are executed on save again.
+	 */
+	public static void clearDemotedCleanUps() {
+		synchronized (fgDemotedCleanUps) {
+			fgDemotedCleanUps.clear();
+		}
+	}
+
+	/**
+	 * Defers a clean up.
+	 *
+	 * @param cleanUp the clean up to execute after the save
+	 */
+	public void defer(ICleanUp cleanUp) {
+		fDeferredCleanUps.add(cleanUp);
+	}
+
+	/**
+	 * Records the time a clean up took to create its fix. Demotes the clean up if it took
+	 * longer than the budget.
+	 *
+	 * @param cleanUp the clean up
+	 * @param time the time in ms
+	 */
+	public void spent(ICleanUp cleanUp, long time) {
+		if (time > fBudget) {
+			synchronized (fgDemotedCleanUps) {
+				fgDemotedCleanUps.add(cleanUp.getClass().getName());
+			}
+		}
+	}
+
+	/**
+	 * Returns the deferred clean ups.
+	 *
+	 * @param cleanUps all clean ups of the save
+	 * @return the deferred clean ups, in the order of <code>cleanUps</code>
+	 */
+	public ICleanUp[] getDeferredCleanUps(ICleanUp[] cleanUps) {
+		List<ICleanUp> result= new ArrayList<ICleanUp>();
+		for (int i= 0; i < cleanUps.length; i++) {
+			if (fDeferredCleanUps.contains(cleanUps[i]))
+				result.add(cleanUps[i]);
+		}
+		return result.toArray(new ICleanUp[result.size()]);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -1155,6 +1155,18 @@ public class CleanUpConstants {
 
 	public static final String CLEANUP_ON_SAVE_ADDITIONAL_OPTIONS= "cleanup.on_save_use_additional_actions"; //$NON-NLS-1$
 
+	/**
+	 * Time budget in milliseconds for the clean ups executed on save of a file. Clean ups which do
+	 * not fit into the budget are executed by a background job after the save, which leaves the
+	 * file dirty.<br>
+	 * <br>
+	 * Possible values: Integer value, <code>0</code> to execute all clean ups on save<br>
+	 * Default value: <code>0</code><br>
+	 * 
+	 * @since 3.11
+	 */
+	public static final String CLEANUP_ON_SAVE_TIME_BUDGET= "cleanup.on_save_time_budget"; //$NON-NLS-1$
+
 	/**
 	 * The id of the profile used as a default profile when executing clean up.<br>
 	 * <br>
@@ -1363,6 +1375,7 @@ public class CleanUpConstants {
 		store.setDefault(SHOW_CLEAN_UP_WIZARD, true);
 		store.setDefault(CLEANUP_PROFILE, DEFAULT_PROFILE);
 		store.setDefault(CLEANUP_ON_SAVE_PROFILE, DEFAULT_SAVE_PARTICIPANT_PROFILE);
+		store.setDefault(CLEANUP_ON_SAVE_TIME_BUDGET, 0);
 	}
 
 	public static void setDefaultOptions(int kind, CleanUpOptions options) {
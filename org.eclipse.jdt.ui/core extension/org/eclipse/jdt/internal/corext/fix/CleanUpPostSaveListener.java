@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -39,6 +39,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.core.runtime.preferences.DefaultScope;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.InstanceScope;
@@ -91,6 +92,7 @@ import org.eclipse.jdt.core.dom.CompilationUnit;
 
 import org.eclipse.jdt.internal.corext.fix.CleanUpRefactoring.CleanUpChange;
 import org.eclipse.jdt.internal.corext.refactoring.util.RefactoringASTParser;
+import org.eclipse.jdt.internal.corext.util.ExtensionMetrics;
 import org.eclipse.jdt.internal.corext.util.Messages;
 
 import org.eclipse.jdt.ui.JavaUI;
@@ -108,6 +110,7 @@ import org.eclipse.jdt.internal.ui.fix.MapCleanUpOptions;
 import org.eclipse.jdt.internal.ui.javaeditor.saveparticipant.IPostSaveListener;
 import org.eclipse.jdt.internal.ui.preferences.BulletListBlock;
 import org.eclipse.jdt.internal.ui.preferences.SaveParticipantPreferencePage;
+import org.eclipse.jdt.internal.ui.viewsupport.BasicElementLabels;
 
 public class CleanUpPostSaveListener implements IPostSaveListener {
 
@@ -309,6 +312,105 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
 		}
 	}
 
+	/**
+	 * Executes the clean ups which did not fit into the time budget of a save. The changes are
+	 * not saved, so the file is left dirty. The job gives up if the file is changed in the
+	 * meantime, the clean ups are then deferred again on the next save. It also gives up if no
+	 * editor holds the file buffer anymore, since the unsaved changes would be lost with the
+	 * buffer.
+	 * <p>
+	 * The job holds the scheduling rule of the compilation unit, so that a job scheduled by a
+	 * later save does not run before the job of the previous save has finished.
+	 * </p>
+	 */
+	private final class DeferredCleanUpJob extends Job {
+
+		private final ICompilationUnit fUnit;
+		private final ICleanUp[] fCleanUps;
+		private final IRegion[] fChangedRegions;
+		private final long fDocumentStamp;
+
+		public DeferredCleanUpJob(ICompilationUnit unit, ICleanUp[] cleanUps, IRegion[] changedRegions, long documentStamp) {
+			super(Messages.format(FixMessages.CleanUpPostSaveListener_DeferredCleanUpJob_name, BasicElementLabels.getFileName(unit)));
+			fUnit= unit;
+			fCleanUps= cleanUps;
+			fChangedRegions= changedRegions;
+			fDocumentStamp= documentStamp;
+			setRule(unit.getSchedulingRule());
+		}
+
+		/*
+		 * @see org.eclipse.core.runtime.jobs.Job#belongsTo(java.lang.Object)
+		 */
+		@Override
+		public boolean belongsTo(Object family) {
+			return fUnit.equals(family);
+		}
+
+		/*
+		 * @see org.eclipse.core.runtime.jobs.Job#run(org.eclipse.core.runtime.IProgressMonitor)
+		 */
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			monitor.beginTask(getName(), IProgressMonitor.UNKNOWN);
+			try {
+				IFile file= (IFile)fUnit.getResource();
+				ICleanUp[] cleanUps= fCleanUps;
+				IRegion[] changedRegions= fChangedRegions;
+				long documentStamp= fDocumentStamp;
+				while (cleanUps.length > 0) {
+					if (monitor.isCanceled())
+						return Status.CANCEL_STATUS;
+					if (!isConnected(file) || getDocumentStamp(file, new SubProgressMonitor(monitor, 2)) != documentStamp)
+						return Status.OK_STATUS;
+
+					if (checkPreConditions(fUnit, cleanUps, monitor).hasError())
+						return Status.OK_STATUS;
+
+					CleanUpContext context= createContext(fUnit, cleanUps, changedRegions, monitor);
+
+					ArrayList<ICleanUp> undoneCleanUps= new ArrayList<ICleanUp>();
+					CleanUpChange change= CleanUpRefactoring.calculateChange(context, cleanUps, undoneCleanUps, null, null, ExtensionMetrics.DEFERRED_CLEAN_UP);
+
+					if (checkPostConditions(cleanUps, monitor).hasError())
+						return Status.OK_STATUS;
+
+					cleanUps= undoneCleanUps.toArray(new ICleanUp[undoneCleanUps.size()]);
+					if (change != null) {
+						if (!isConnected(file) || getDocumentStamp(file, new SubProgressMonitor(monitor, 2)) != documentStamp)
+							return Status.OK_STATUS;
+
+						change.setSaveMode(TextFileChange.LEAVE_DIRTY);
+						change.initializeValidationData(new NullProgressMonitor());
+
+						PerformChangeOperation performChangeOperation= new PerformChangeOperation(change);
+						performChangeOperation.setSchedulingRule(fUnit.getSchedulingRule());
+						performChangeOperation.setUndoManager(RefactoringCore.getUndoManager(), change.getName());
+
+						if (changedRegions != null && changedRegions.length > 0 && requiresChangedRegions(cleanUps)) {
+							changedRegions= performWithChangedRegionUpdate(performChangeOperation, changedRegions, fUnit, new SubProgressMonitor(monitor, 5));
+						} else {
+							performChangeOperation.run(new SubProgressMonitor(monitor, 5));
+						}
+						if (!performChangeOperation.changeExecuted())
+							return Status.OK_STATUS;
+
+						documentStamp= getDocumentStamp(file, new SubProgressMonitor(monitor, 2));
+					}
+				}
+				return Status.OK_STATUS;
+			} catch (CoreException e) {
+				return e.getStatus();
+			} finally {
+				monitor.done();
+			}
+		}
+
+		private boolean isConnected(IFile file) {
+			return FileBuffers.getTextFileBufferManager().getTextFileBuffer(file.getFullPath(), LocationKind.IFILE) != null;
+		}
+	}
+
 	public static final String POSTSAVELISTENER_ID= "org.eclipse.jdt.ui.postsavelistener.cleanup"; //$NON-NLS-1$
 	private static final String WARNING_VALUE= "warning"; //$NON-NLS-1$
 	private static final String ERROR_VALUE= "error"; //$NON-NLS-1$
@@ -337,7 +439,15 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
 			if (!ActionUtil.isOnBuildPath(unit))
 				return;
 
-			ICleanUp[] cleanUps= getCleanUps(unit.getJavaProject().getProject());
+			ICleanUp[] allCleanUps= getCleanUps(unit.getJavaProject().getProject());
+			ICleanUp[] cleanUps= allCleanUps;
+
+			CleanUpBudget budget= null;
+			int timeBudget= JavaPlugin.getDefault().getPreferenceStore().getInt(CleanUpConstants.CLEANUP_ON_SAVE_TIME_BUDGET);
+			if (timeBudget > 0) {
+				budget= new CleanUpBudget(timeBudget);
+				cleanUps= deferDemotedCleanUps(cleanUps, budget);
+			}
 
 			long oldFileValue= unit.getResource().getModificationStamp();
 			long oldDocValue= getDocumentStamp((IFile)unit.getResource(), new SubProgressMonitor(monitor, 2));
@@ -363,43 +473,24 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
 			try {
     			manager.aboutToPerformChange(result);
 
-    			do {
-    				RefactoringStatus preCondition= new RefactoringStatus();
-    				for (int i= 0; i < cleanUps.length; i++) {
-    					RefactoringStatus conditions= cleanUps[i].checkPreConditions(unit.getJavaProject(), new ICompilationUnit[] {unit}, new SubProgressMonitor(monitor, 5));
-    					preCondition.merge(conditions);
-    				}
-    				if (showStatus(preCondition) != Window.OK)
-    					return;
-
-    				Map<String, String> options= new HashMap<String, String>();
-    				for (int i= 0; i < cleanUps.length; i++) {
-    					Map<String, String> map= cleanUps[i].getRequirements().getCompilerOptions();
-    					if (map != null) {
-    						options.putAll(map);
+    			while (cleanUps.length > 0) {
+    				if (budget != null && budget.isExhausted()) {
+    					for (int i= 0; i < cleanUps.length; i++) {
+    						budget.defer(cleanUps[i]);
     					}
+    					break;
     				}
 
-    				CompilationUnit ast= null;
-    				if (requiresAST(cleanUps)) {
-    					ast= createAst(unit, options, new SubProgressMonitor(monitor, 10));
-    				}
+    				RefactoringStatus preCondition= checkPreConditions(unit, cleanUps, monitor);
+    				if (showStatus(preCondition) != Window.OK)
+    					return;
 
-    				CleanUpContext context;
-    				if (changedRegions == null) {
-    					context= new CleanUpContext(unit, ast);
-    				} else {
-    					context= new MultiLineCleanUpContext(unit, ast, changedRegions);
-    				}
+    				CleanUpContext context= createContext(unit, cleanUps, changedRegions, monitor);
 
     				ArrayList<ICleanUp> undoneCleanUps= new ArrayList<ICleanUp>();
-					CleanUpChange change= CleanUpRefactoring.calculateChange(context, cleanUps, undoneCleanUps, slowCleanUps);
+					CleanUpChange change= CleanUpRefactoring.calculateChange(context, cleanUps, undoneCleanUps, slowCleanUps, budget, ExtensionMetrics.CLEAN_UP);
 
-    				RefactoringStatus postCondition= new RefactoringStatus();
-    				for (int i= 0; i < cleanUps.length; i++) {
-    					RefactoringStatus conditions= cleanUps[i].checkPostConditions(new SubProgressMonitor(monitor, 1));
-    					postCondition.merge(conditions);
-    				}
+    				RefactoringStatus postCondition= checkPostConditions(cleanUps, monitor);
     				if (showStatus(postCondition) != Window.OK)
     					return;
 
@@ -422,7 +513,7 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
     					performChangeOperation.getUndoChange();
     					undoEdits.addFirst(change.getUndoEdit());
     				}
-    			} while (cleanUps.length > 0);
+    			}
     			success= true;
 			} finally {
 				manager.changePerformed(result, success);
@@ -437,11 +528,71 @@ public class CleanUpPostSaveListener implements IPostSaveListener {
 
 			if (slowCleanUps != null && slowCleanUps.size() > 0)
 				showSlowCleanUpsWarning(slowCleanUps);
+
+			if (budget != null) {
+				ICleanUp[] deferredCleanUps= budget.getDeferredCleanUps(allCleanUps);
+				if (deferredCleanUps.length > 0) {
+					long docValue= getDocumentStamp((IFile)unit.getResource(), new SubProgressMonitor(monitor, 2));
+					Job.getJobManager().cancel(unit);
+					new DeferredCleanUpJob(unit, deferredCleanUps, changedRegions, docValue).schedule();
+				}
+			}
 		} finally {
 			monitor.done();
 		}
 	}
 
+	private static ICleanUp[] deferDemotedCleanUps(ICleanUp[] cleanUps, CleanUpBudget budget) {
+		ArrayList<ICleanUp> result= new ArrayList<ICleanUp>();
+		for (int i= 0; i < cleanUps.length; i++) {
+			if (CleanUpBudget.isDemoted(cleanUps[i])) {
+				budget.defer(cleanUps[i]);
+			} else {
+				result.add(cleanUps[i]);
+			}
+		}
+		return result.toArray(new ICleanUp[result.size()]);
+	}
+
+	private static RefactoringStatus checkPreConditions(ICompilationUnit unit, ICleanUp[] cleanUps, IProgressMonitor monitor) throws CoreException {
+		RefactoringStatus result= new RefactoringStatus();
+		for (int i= 0; i < cleanUps.length; i++) {
+			RefactoringStatus conditions= cleanUps[i].checkPreConditions(unit.getJavaProject(), new ICompilationUnit[] {unit}, new SubProgressMonitor(monitor, 5));
+			result.merge(conditions);
+		}
+		return result;
+	}
+
+	private static RefactoringStatus checkPostConditions(ICleanUp[] cleanUps, IProgressMonitor monitor) throws CoreException {
+		RefactoringStatus result= new RefactoringStatus();
+		for (int i= 0; i < cleanUps.length; i++) {
+			RefactoringStatus conditions= cleanUps[i].checkPostConditions(new SubProgressMonitor(monitor, 1));
+			result.merge(conditions);
+		}
+		return result;
+	}
+
+	private CleanUpContext createContext(ICompilationUnit unit, ICleanUp[] cleanUps, IRegion[] changedRegions, IProgressMonitor monitor) {
+		Map<String, String> options= new HashMap<String, String>();
+		for (int i= 0; i < cleanUps.length; i++) {
+			Map<String, String> map= cleanUps[i].getRequirements().getCompilerOptions();
+			if (map != null) {
+				options.putAll(map);
+			}
+		}
+
+		CompilationUnit ast= null;
+		if (requiresAST(cleanUps)) {
+			ast= createAst(unit, options, new SubProgressMonitor(monitor, 10));
+		}
+
+		if (changedRegions == null) {
+			return new CleanUpContext(unit, ast);
+		} else {
+			return new MultiLineCleanUpContext(unit, ast, changedRegions);
+		}
+	}
+
 	private static ICleanUp[] getCleanUps(IProject project) throws CoreException {
 		ICleanUp[] cleanUps;
 		Map<String, String> settings= CleanUpPreferenceUtil.loadSaveParticipantOptions(new ProjectScope(project));
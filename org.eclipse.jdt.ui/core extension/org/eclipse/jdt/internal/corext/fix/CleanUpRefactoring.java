@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -73,6 +73,7 @@ import org.eclipse.jdt.internal.corext.refactoring.changes.DynamicValidationStat
 import org.eclipse.jdt.internal.corext.refactoring.changes.MultiStateCompilationUnitChange;
 import org.eclipse.jdt.internal.corext.refactoring.util.RefactoringASTParser;
 import org.eclipse.jdt.internal.corext.refactoring.util.TextEditUtil;
+import org.eclipse.jdt.internal.corext.util.ExtensionMetrics;
 import org.eclipse.jdt.internal.corext.util.Messages;
 
 import org.eclipse.jdt.ui.JavaElementLabels;
@@ -796,6 +797,25 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 	}
 
 	public static CleanUpChange calculateChange(CleanUpContext context, ICleanUp[] cleanUps, List<ICleanUp> undoneCleanUps, HashSet<ICleanUp> slowCleanUps) throws CoreException {
+		return calculateChange(context, cleanUps, undoneCleanUps, slowCleanUps, null, ExtensionMetrics.CLEAN_UP);
+	}
+
+	/**
+	 * Calculates the change of the given clean ups.
+	 *
+	 * @param context the context of the clean ups
+	 * @param cleanUps the clean ups to execute
+	 * @param undoneCleanUps the clean ups which have not been executed and must be executed on a fresh AST
+	 * @param slowCleanUps the clean ups which took long, or <code>null</code> if not of interest
+	 * @param budget the time budget, or <code>null</code> to execute all clean ups. Clean ups
+	 *            which are not started in time are deferred to the budget.
+	 * @param extensionPoint the key under which the clean ups are recorded in the
+	 *            {@link ExtensionMetrics}
+	 * @return the change or <code>null</code> if there is nothing to change
+	 * @throws CoreException if a clean up failed
+	 * @since 3.11
+	 */
+	public static CleanUpChange calculateChange(CleanUpContext context, ICleanUp[] cleanUps, List<ICleanUp> undoneCleanUps, HashSet<ICleanUp> slowCleanUps, CleanUpBudget budget, String extensionPoint) throws CoreException {
 		if (cleanUps.length == 0)
 			return null;
 
@@ -803,15 +823,25 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 		int i= 0;
 		do {
 			ICleanUp cleanUp= cleanUps[i];
+			if (budget != null && budget.isExhausted()) {
+				budget.defer(cleanUp);
+				i++;
+				continue;
+			}
+
+			long start= ExtensionMetrics.start();
+			long timeBefore= System.currentTimeMillis();
 			ICleanUpFix fix;
-			if (slowCleanUps != null) {
-				long timeBefore= System.currentTimeMillis();
-				fix= cleanUp.createFix(context);
-				if (System.currentTimeMillis() - timeBefore > SLOW_CLEAN_UP_THRESHOLD)
-					slowCleanUps.add(cleanUp);
-			} else {
+			try {
 				fix= cleanUp.createFix(context);
+			} finally {
+				ExtensionMetrics.record(extensionPoint, cleanUp.getClass().getName(), start);
 			}
+			long time= System.currentTimeMillis() - timeBefore;
+			if (slowCleanUps != null && time > SLOW_CLEAN_UP_THRESHOLD)
+				slowCleanUps.add(cleanUp);
+			if (budget != null)
+				budget.spent(cleanUp, time);
 			if (fix != null) {
 				CompilationUnitChange current= fix.createChange(null);
 				TextEdit currentEdit= current.getEdit();
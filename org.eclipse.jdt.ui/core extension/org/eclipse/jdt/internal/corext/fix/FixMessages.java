@@ -23,6 +23,7 @@ public final class FixMessages extends NLS {
 	}
 
 	public static String CleanUpPostSaveListener_name;
+	public static String CleanUpPostSaveListener_DeferredCleanUpJob_name;
 	public static String CleanUpPostSaveListener_SaveAction_ChangeName;
 	public static String CleanUpPostSaveListener_SlowCleanUpDialog_link;
 	public static String CleanUpPostSaveListener_SlowCleanUpDialog_title;
@@ -26,6 +26,7 @@ import org.eclipse.jdt.internal.corext.codemanipulation.CodeGenerationSettings;
 import org.eclipse.jdt.internal.corext.codemanipulation.OrganizeImportsOperation;
 import org.eclipse.jdt.internal.corext.codemanipulation.OrganizeImportsOperation.IChooseImportQuery;
 import org.eclipse.jdt.internal.corext.util.Messages;
+import org.eclipse.jdt.internal.corext.util.TypeNameMatchCache;
 
 import org.eclipse.jdt.ui.cleanup.ICleanUpFix;
 
@@ -35,6 +36,23 @@ import org.eclipse.jdt.internal.ui.viewsupport.BasicElementLabels;
 public class ImportsFix extends TextEditFix {
 
 	public static ICleanUpFix createCleanUp(final CompilationUnit cu, CodeGenerationSettings settings, boolean organizeImports, RefactoringStatus status) throws CoreException {
+		return createCleanUp(cu, settings, organizeImports, status, null);
+	}
+
+	/**
+	 * Creates a fix that organizes the imports of a compilation unit.
+	 *
+	 * @param cu the AST of the compilation unit
+	 * @param settings the code generation settings
+	 * @param organizeImports whether to organize imports
+	 * @param status the status to report unresolvable and ambiguous type names to
+	 * @param typeNameMatchCache the cache of the types found for other compilation units of the
+	 *            clean up, or <code>null</code>
+	 * @return the fix, or <code>null</code> if the imports do not change
+	 * @throws CoreException if organizing the imports failed
+	 * @since 3.11
+	 */
+	public static ICleanUpFix createCleanUp(final CompilationUnit cu, CodeGenerationSettings settings, boolean organizeImports, RefactoringStatus status, TypeNameMatchCache typeNameMatchCache) throws CoreException {
 		if (!organizeImports)
 			return null;
 
@@ -47,7 +65,7 @@ public class ImportsFix extends TextEditFix {
 		};
 
 		final ICompilationUnit unit= (ICompilationUnit)cu.getJavaElement();
-		OrganizeImportsOperation op= new OrganizeImportsOperation(unit, cu, settings.importIgnoreLowercase, false, false, query);
+		OrganizeImportsOperation op= new OrganizeImportsOperation(unit, cu, settings.importIgnoreLowercase, false, false, query, typeNameMatchCache);
 		final TextEdit edit= op.createTextEdit(null);
 		if (hasAmbiguity[0]) {
 			status.addInfo(Messages.format(ActionMessages.OrganizeImportsAction_multi_error_unresolvable, getLocationString(cu)));
@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * Invocation statistics of the contributions that JDT UI calls on hot paths, like completion
+ * proposal computers, quick fix processors, hovers, clean ups and save participants. The
+ * statistics are always collected and can be exported with {@link #toJSON()}.
+ * <p>
+ * Recording an invocation takes two calls to {@link System#nanoTime()} and a short synchronized
+ * update. The latencies of a contributor are kept in a histogram with one bucket per power of
+ * two nanoseconds, so the reported percentiles are the upper bounds of their buckets and are
+ * accurate within a factor of two.
+ * </p>
+ * <p>
+ * Usage:
+ * <pre>
+ * long start= ExtensionMetrics.start();
+ * try {
+ *     computer.computeCompletionProposals(context, monitor);
+ * } finally {
+ *     ExtensionMetrics.record(ExtensionMetrics.COMPLETION_PROPOSAL_COMPUTER, id, start);
+ * }
+ * </pre>
+ * </p>
+ *
+ * @since 3.11
+ */
+public final class ExtensionMetrics {
+
+	public static final String COMPLETION_PROPOSAL_COMPUTER= "completionProposalComputer"; //$NON-NLS-1$
+	public static final String QUICK_FIX_PROCESSOR= "quickFixProcessor"; //$NON-NLS-1$
+	public static final String QUICK_ASSIST_PROCESSOR= "quickAssistProcessor"; //$NON-NLS-1$
+	public static final String TEXT_HOVER= "javaEditorTextHover"; //$NON-NLS-1$
+	public static final String CLEAN_UP= "cleanUp"; //$NON-NLS-1$
+	public static final String DEFERRED_CLEAN_UP= "deferredCleanUp"; //$NON-NLS-1$
+	public static final String SAVE_PARTICIPANT= "saveParticipant"; //$NON-NLS-1$
+	public static final String RECONCILING_LISTENER= "reconcilingListener"; //$NON-NLS-1$
+
+	private static final class Stats {
+		private int fCount;
+		private long fTotal;
+		private long fMax;
+		/**
+		 * Number of invocations that took less than <code>2^i</code> and at least
+		 * <code>2^(i-1)</code> nanoseconds.
+		 */
+		private final int[] fBuckets= new int[64];
+
+		synchronized void add(long nanos) {
+			if (nanos < 0)
+				nanos= 0;
+			fCount++;
+			fTotal+= nanos;
+			fMax= Math.max(fMax, nanos);
+			fBuckets[64 - Long.numberOfLeadingZeros(nanos)]++;
+		}
+
+		synchronized void appendJSON(StringBuffer buf) {
+			buf.append("{\"count\": ").append(fCount); //$NON-NLS-1$
+			buf.append(", \"totalMicros\": ").append(fTotal / 1000); //$NON-NLS-1$
+			buf.append(", \"p50Micros\": ").append(getPercentile(50) / 1000); //$NON-NLS-1$
+			buf.append(", \"p99Micros\": ").append(getPercentile(99) / 1000); //$NON-NLS-1$
+			buf.append(", \"maxMicros\": ").append(fMax / 1000); //$NON-NLS-1$
+			buf.append('}');
+		}
+
+		private long getPercentile(int percent) {
+			long rank= (fCount * (long) percent + 99) / 100;
+			long seen= 0;
+			for (int i= 0; i < fBuckets.length; i++) {
+				seen+= fBuckets[i];
+				if (seen >= rank && seen > 0)
+					return Math.min((1L << i) - 1, fMax);
+			}
+			return fMax;
+		}
+	}
+
+	/**
+	 * Map from extension point to the map from contributor to its statistics.
+	 */
+	private static final Map<String, Map<String, Stats>> fgStats= new TreeMap<String, Map<String, Stats>>();
+
+	private ExtensionMetrics() {
+	}
+
+	/**
+	 * Returns the start time of an invocation.
+	 *
+	 * @return the start time to pass to {@link #record(String, String, long)}
+	 */
+	public static long start() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Records an invocation of a contributor that ends now.
+	 *
+	 * @param extensionPoint the kind of the contribution, one of the constants of this class
+	 * @param contributorId the identifier of the contribution, or the class name of the
+	 *            contributed object if it has no identifier
+	 * @param startTime the start time from {@link #start()}
+	 */
+	public static void record(String extensionPoint, String contributorId, long startTime) {
+		recordDuration(extensionPoint, contributorId, System.nanoTime() - startTime);
+	}
+
+	/**
+	 * Records an invocation of a contributor that took the given time.
+	 *
+	 * @param extensionPoint the kind of the contribution, one of the constants of this class
+	 * @param contributorId the identifier of the contribution, or the class name of the
+	 *            contributed object if it has no identifier
+	 * @param nanos the duration of the invocation in nanoseconds
+	 */
+	public static void recordDuration(String extensionPoint, String contributorId, long nanos) {
+		getStats(extensionPoint, String.valueOf(contributorId)).add(nanos);
+	}
+
+	private static Stats getStats(String extensionPoint, String contributorId) {
+		synchronized (fgStats) {
+			Map<String, Stats> contributors= fgStats.get(extensionPoint);
+			if (contributors == null) {
+				contributors= new TreeMap<String, Stats>();
+				fgStats.put(extensionPoint, contributors);
+			}
+			Stats stats= contributors.get(contributorId);
+			if (stats == null) {
+				stats= new Stats();
+				contributors.put(contributorId, stats);
+			}
+			return stats;
+		}
+	}
+
+	/**
+	 * Discards all statistics.
+	 */
+	public static void reset() {
+		synchronized (fgStats) {
+			fgStats.clear();
+		}
+	}
+
+	/**
+	 * Returns the statistics as a JSON object that maps each extension point to an object that
+	 * maps the contributors to their invocation count and their total, median, 99th percentile
+	 * and maximum latency in microseconds.
+	 *
+	 * @return the statistics in JSON format
+	 */
+	public static String toJSON() {
+		StringBuffer buf= new StringBuffer();
+		buf.append('{');
+		synchronized (fgStats) {
+			for (Iterator<Entry<String, Map<String, Stats>>> iter= fgStats.entrySet().iterator(); iter.hasNext();) {
+				Entry<String, Map<String, Stats>> extensionPoint= iter.next();
+				buf.append("\n  "); //$NON-NLS-1$
+				appendString(buf, extensionPoint.getKey());
+				buf.append(": {"); //$NON-NLS-1$
+				for (Iterator<Entry<String, Stats>> iter2= extensionPoint.getValue().entrySet().iterator(); iter2.hasNext();) {
+					Entry<String, Stats> contributor= iter2.next();
+					buf.append("\n    "); //$NON-NLS-1$
+					appendString(buf, contributor.getKey());
+					buf.append(": "); //$NON-NLS-1$
+					contributor.getValue().appendJSON(buf);
+					if (iter2.hasNext())
+						buf.append(',');
+				}
+				buf.append("\n  }"); //$NON-NLS-1$
+				if (iter.hasNext())
+					buf.append(',');
+			}
+		}
+		buf.append("\n}\n"); //$NON-NLS-1$
+		return buf.toString();
+	}
+
+	private static void appendString(StringBuffer buf, String string) {
+		buf.append('"');
+		for (int i= 0; i < string.length(); i++) {
+			char ch= string.charAt(i);
+			if (ch == '"' || ch == '\\')
+				buf.append('\\').append(ch);
+			else if (ch < 0x20)
+				buf.append("\\u00").append(Character.forDigit(ch >> 4, 16)).append(Character.forDigit(ch & 0xF, 16)); //$NON-NLS-1$
+			else
+				buf.append(ch);
+		}
+		buf.append('"');
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -218,6 +218,35 @@ public class SuperTypeHierarchyCache {
 	}
 
 
+	/**
+	 * Returns the cached hierarchies. Used for debugging.
+	 *
+	 * @return the cached super type hierarchies
+	 * @since 3.11
+	 */
+	public static ITypeHierarchy[] getCachedTypeHierarchies() {
+		synchronized (fgHierarchyCache) {
+			ITypeHierarchy[] hierarchies= new ITypeHierarchy[fgHierarchyCache.size()];
+			for (int i= 0; i < hierarchies.length; i++) {
+				hierarchies[i]= fgHierarchyCache.get(i).getTypeHierarchy();
+			}
+			return hierarchies;
+		}
+	}
+
+	/**
+	 * Removes all hierarchies and method override testers from the cache.
+	 *
+	 * @since 3.11
+	 */
+	public static void flushCache() {
+		synchronized (fgHierarchyCache) {
+			for (int i= fgHierarchyCache.size() - 1; i >= 0; i--) {
+				removeHierarchyEntryFromCache(fgHierarchyCache.get(i));
+			}
+		}
+	}
+
 	/**
 	 * Gets the number of times the hierarchy could be taken from the hierarchy.
 	 * @return Returns a int
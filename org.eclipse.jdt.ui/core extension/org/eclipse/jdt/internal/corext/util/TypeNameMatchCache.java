@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+
+/**
+ * Cache of the types with a given simple name in the class path of a project, for operations
+ * that look up the same names in many compilation units, like organizing the imports of a
+ * whole project.
+ * <p>
+ * Names that are not cached yet are searched with a single batched
+ * {@link SearchEngine#searchAllTypeNames(char[][], char[][], IJavaSearchScope, org.eclipse.jdt.core.search.TypeNameMatchRequestor, int, IProgressMonitor)}
+ * query. The cache does not notice changes to the class path or to types, so it must only
+ * be kept for the duration of a single operation.
+ * </p>
+ *
+ * @since 3.11
+ */
+public class TypeNameMatchCache {
+
+	/**
+	 * Map from the handle identifier of a project to the map from simple type names to the
+	 * types found in the class path of the project.
+	 */
+	private final Map<String, Map<String, List<TypeNameMatch>>> fMatches= new HashMap<String, Map<String, List<TypeNameMatch>>>();
+
+	/**
+	 * Finds the types with the given simple names in the class path of a project. The types are
+	 * filtered by the type filter.
+	 *
+	 * @param project the project
+	 * @param simpleNames the simple type names
+	 * @param monitor the progress monitor
+	 * @return the types found
+	 * @throws JavaModelException if the search failed
+	 */
+	public synchronized List<TypeNameMatch> findTypes(IJavaProject project, Collection<String> simpleNames, IProgressMonitor monitor) throws JavaModelException {
+		Map<String, List<TypeNameMatch>> projectMatches= fMatches.get(project.getHandleIdentifier());
+		if (projectMatches == null) {
+			projectMatches= new HashMap<String, List<TypeNameMatch>>();
+			fMatches.put(project.getHandleIdentifier(), projectMatches);
+		}
+
+		List<String> missing= new ArrayList<String>();
+		for (Iterator<String> iter= simpleNames.iterator(); iter.hasNext();) {
+			String name= iter.next();
+			if (!projectMatches.containsKey(name))
+				missing.add(name);
+		}
+		if (!missing.isEmpty()) {
+			char[][] allTypes= new char[missing.size()][];
+			for (int i= 0; i < allTypes.length; i++) {
+				String name= missing.get(i);
+				allTypes[i]= name.toCharArray();
+				projectMatches.put(name, new ArrayList<TypeNameMatch>(1));
+			}
+			ArrayList<TypeNameMatch> typesFound= new ArrayList<TypeNameMatch>();
+			IJavaSearchScope scope= SearchEngine.createJavaSearchScope(new IJavaElement[] { project });
+			try {
+				new SearchEngine().searchAllTypeNames(null, allTypes, scope, new TypeNameMatchCollector(typesFound), IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+			} catch (JavaModelException e) {
+				for (int i= 0; i < missing.size(); i++)
+					projectMatches.remove(missing.get(i));
+				throw e;
+			}
+			for (int i= 0; i < typesFound.size(); i++) {
+				TypeNameMatch match= typesFound.get(i);
+				List<TypeNameMatch> matches= projectMatches.get(match.getSimpleTypeName());
+				if (matches != null)
+					matches.add(match);
+			}
+		} else if (monitor != null) {
+			monitor.done();
+		}
+
+		List<TypeNameMatch> result= new ArrayList<TypeNameMatch>();
+		for (Iterator<String> iter= simpleNames.iterator(); iter.hasNext();) {
+			result.addAll(projectMatches.get(iter.next()));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.refactoring;
+
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * Interface for requestors that process the search results of a
+ * {@link org.eclipse.jdt.internal.corext.refactoring.RefactoringSearchEngine2} resource by
+ * resource, without the search engine collecting and sorting all results.
+ *
+ * @see RefactoringSearchEngine2#setGroupRequestor(IRefactoringSearchGroupRequestor)
+ * @since 3.11
+ */
+public interface IRefactoringSearchGroupRequestor {
+
+	/**
+	 * Accepts the search matches of a resource. The search engine does not keep the group.
+	 *
+	 * @param group the filtered search matches of a resource
+	 * @throws CoreException if the group could not be processed. The search is aborted.
+	 */
+	public void acceptSearchResultGroup(SearchResultGroup group) throws CoreException;
+}
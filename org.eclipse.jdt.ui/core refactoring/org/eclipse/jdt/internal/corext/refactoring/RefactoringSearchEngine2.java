@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -133,6 +133,15 @@ public final class RefactoringSearchEngine2 {
 		public abstract Collection<?> getCollectedMatches();
 
 		public abstract Collection<SearchMatch> getInaccurateMatches();
+
+		/**
+		 * Hands the last group to the group requestor, if any.
+		 *
+		 * @throws CoreException if the group requestor fails
+		 */
+		public void endSearch() throws CoreException {
+			// Do nothing
+		}
 	}
 
 	/** Search requestor which collects every search match */
@@ -147,11 +156,19 @@ public final class RefactoringSearchEngine2 {
 		/** The inaccurate matches */
 		private final Set<SearchMatch> fInaccurateMatches= new HashSet<SearchMatch>();
 
+		/** The resource of the group that is collected for the group requestor, or <code>null</code> */
+		private IResource fGroupResource= null;
+
+		/** The matches of the group that is collected for the group requestor */
+		private final List<SearchMatch> fGroupMatches= new ArrayList<SearchMatch>();
+
+		/** The resources whose groups have been handed to the group requestor */
+		private final Set<IResource> fGroupedResources= new HashSet<IResource>();
+
 		@Override
 		public final void acceptSearchMatch(final SearchMatch match) throws CoreException {
 			final SearchMatch accepted= fRequestor.acceptSearchMatch(match);
 			if (accepted != null) {
-				fCollectedMatches.add(accepted);
 				final IResource resource= accepted.getResource();
 				if (!resource.equals(fLastResource)) {
 					if (fBinary) {
@@ -170,15 +187,46 @@ public final class RefactoringSearchEngine2 {
 						fInaccurateMatches.add(accepted);
 					}
 				}
+				if (fGroupRequestor == null) {
+					fCollectedMatches.add(accepted);
+				} else if (!fInaccurate || !fInaccurateMatches.contains(accepted)) {
+					if (!resource.equals(fGroupResource)) {
+						handOutGroup();
+						// the match locator reports the matches of a document together
+						Assert.isTrue(fGroupedResources.add(resource), "Matches of a resource are not reported together"); //$NON-NLS-1$
+						fGroupResource= resource;
+					}
+					fGroupMatches.add(accepted);
+				}
+			}
+		}
+
+		private void handOutGroup() throws CoreException {
+			if (fGroupResource != null) {
+				final IResource resource= fGroupResource;
+				final SearchMatch[] matches= fGroupMatches.toArray(new SearchMatch[fGroupMatches.size()]);
+				fGroupResource= null;
+				fGroupMatches.clear();
+				if (!(fBinary && fBinaryResources.contains(resource)))
+					fGroupRequestor.acceptSearchResultGroup(new SearchResultGroup(resource, matches));
 			}
 		}
 
+		@Override
+		public final void endSearch() throws CoreException {
+			handOutGroup();
+			fGroupedResources.clear();
+		}
+
 		@Override
 		public final void clearResults() {
 			super.clearResults();
 			fCollectedMatches.clear();
 			fInaccurateMatches.clear();
 			fBinaryResources.clear();
+			fGroupResource= null;
+			fGroupMatches.clear();
+			fGroupedResources.clear();
 		}
 
 		@Override
@@ -227,6 +275,9 @@ public final class RefactoringSearchEngine2 {
 	/** The search requestor */
 	private IRefactoringSearchRequestor fRequestor= new DefaultSearchRequestor();
 
+	/** The requestor that the grouped matches are handed to while searching, or <code>null</code> */
+	private IRefactoringSearchGroupRequestor fGroupRequestor= null;
+
 	/** The search scope */
 	private IJavaSearchScope fScope= SearchEngine.createWorkspaceScope();
 
@@ -496,6 +547,7 @@ public final class RefactoringSearchEngine2 {
 				else
 					engine= new SearchEngine(fWorkingCopies);
 				engine.search(fPattern, SearchUtils.getDefaultSearchParticipants(), fScope, getCollector(), new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+				getCollector().endSearch();
 			} catch (CoreException exception) {
 				throw new JavaModelException(exception);
 			}
@@ -525,6 +577,7 @@ public final class RefactoringSearchEngine2 {
 				else
 					engine= new SearchEngine(fWorkingCopies);
 				engine.searchDeclarationsOfAccessedFields(element, getCollector(), new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+				getCollector().endSearch();
 			} catch (CoreException exception) {
 				throw new JavaModelException(exception);
 			}
@@ -554,6 +607,7 @@ public final class RefactoringSearchEngine2 {
 				else
 					engine= new SearchEngine(fWorkingCopies);
 				engine.searchDeclarationsOfSentMessages(element, getCollector(), new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+				getCollector().endSearch();
 			} catch (CoreException exception) {
 				throw new JavaModelException(exception);
 			}
@@ -583,6 +637,7 @@ public final class RefactoringSearchEngine2 {
 				else
 					engine= new SearchEngine(fWorkingCopies);
 				engine.searchDeclarationsOfReferencedTypes(element, getCollector(), new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+				getCollector().endSearch();
 			} catch (CoreException exception) {
 				throw new JavaModelException(exception);
 			}
@@ -604,6 +659,26 @@ public final class RefactoringSearchEngine2 {
 		fBinary= binary;
 	}
 
+	/**
+	 * Sets the requestor that the matches are handed to while searching.
+	 * <p>
+	 * The matches are grouped by resource. A group is handed to the requestor as soon as the
+	 * search reports a match in another resource, or when the search ends, so that the requestor
+	 * can process the group while the search goes on. The search engine reports the matches of a
+	 * document together. The groups are filtered like the results of {@link #getResults()}, but
+	 * neither sorted nor kept: {@link #getResults()} returns no matches.
+	 * <p>
+	 * This method must be called before start searching, and only with grouping by resource
+	 * and a granularity of {@link #GRANULARITY_SEARCH_MATCH}. The default is to collect the matches.
+	 *
+	 * @param requestor the requestor to hand the matches to, or <code>null</code> to collect the matches
+	 * @since 3.11
+	 */
+	public final void setGroupRequestor(final IRefactoringSearchGroupRequestor requestor) {
+		Assert.isTrue(requestor == null || fGrouping && fGranularity == GRANULARITY_SEARCH_MATCH);
+		fGroupRequestor= requestor;
+	}
+
 	/**
 	 * Sets the granularity to use during the searches.
 	 * <p>
@@ -47,19 +47,16 @@ public class DynamicValidationStateChange extends CompositeChange implements Wor
 		super(change.getName());
 		add(change);
 		markAsSynthetic();
-		fSchedulingRule= ResourcesPlugin.getWorkspace().getRoot();
 	}
 
 	public DynamicValidationStateChange(String name) {
 		super(name);
 		markAsSynthetic();
-		fSchedulingRule= ResourcesPlugin.getWorkspace().getRoot();
 	}
 
 	public DynamicValidationStateChange(String name, Change[] changes) {
 		super(name, changes);
 		markAsSynthetic();
-		fSchedulingRule= ResourcesPlugin.getWorkspace().getRoot();
 	}
 
 	private DynamicValidationStateChange(String name, boolean expire) {
@@ -113,7 +110,7 @@ public class DynamicValidationStateChange extends CompositeChange implements Wor
 				result[0]= DynamicValidationStateChange.super.perform(monitor);
 			}
 		};
-		JavaCore.run(runnable, fSchedulingRule, pm);
+		JavaCore.run(runnable, getSchedulingRule(), pm);
 		return result[0];
 	}
 
@@ -156,7 +153,20 @@ public class DynamicValidationStateChange extends CompositeChange implements Wor
 		fSchedulingRule= schedulingRule;
 	}
 
+	/**
+	 * Returns the rule set by {@link #setSchedulingRule(ISchedulingRule)} or, if none has been
+	 * set, the rule combined from the children. Falls back to the workspace root if a child
+	 * doesn't know which resources it touches.
+	 *
+	 * @return the scheduling rule used to perform this change
+	 */
+	@Override
 	public ISchedulingRule getSchedulingRule() {
-		return fSchedulingRule;
+		if (fSchedulingRule != null)
+			return fSchedulingRule;
+		ISchedulingRule rule= super.getSchedulingRule();
+		if (rule != null)
+			return rule;
+		return ResourcesPlugin.getWorkspace().getRoot();
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -107,6 +107,7 @@ import org.eclipse.jdt.internal.corext.dom.NecessaryParenthesesChecker;
 import org.eclipse.jdt.internal.corext.dom.fragments.ASTFragmentFactory;
 import org.eclipse.jdt.internal.corext.dom.fragments.IExpressionFragment;
 import org.eclipse.jdt.internal.corext.refactoring.Checks;
+import org.eclipse.jdt.internal.corext.refactoring.IRefactoringSearchGroupRequestor;
 import org.eclipse.jdt.internal.corext.refactoring.IRefactoringSearchRequestor;
 import org.eclipse.jdt.internal.corext.refactoring.JDTRefactoringDescriptorComment;
 import org.eclipse.jdt.internal.corext.refactoring.JavaRefactoringArguments;
@@ -820,26 +821,27 @@ public class InlineConstantRefactoring extends Refactoring {
 		try {
 			fSelectionCuRewrite.clearASTAndImportRewrites();
 			fDeclarationCuRewrite.clearASTAndImportRewrites();
-			List<CompilationUnitChange>changes= new ArrayList<CompilationUnitChange>();
-			HashSet<SimpleName> staticImportsInInitializer= new HashSet<SimpleName>();
+			final List<CompilationUnitChange>changes= new ArrayList<CompilationUnitChange>();
+			final HashSet<SimpleName> staticImportsInInitializer= new HashSet<SimpleName>();
 			ImportReferencesCollector.collect(getInitializer(), fField.getJavaProject(), null, new ArrayList<SimpleName>(), staticImportsInInitializer);
 
 			if (getReplaceAllReferences()) {
-				SearchResultGroup[] searchResultGroups= findReferences(pm, result);
-				for (int i= 0; i < searchResultGroups.length; i++) {
-					if (pm.isCanceled())
-						throw new OperationCanceledException();
-					SearchResultGroup group= searchResultGroups[i];
-					ICompilationUnit cu= group.getCompilationUnit();
-
-					CompilationUnitRewrite cuRewrite= getCuRewrite(cu);
-					Name[] references= extractReferenceNodes(group.getSearchResults(), cuRewrite.getRoot());
-					InlineTargetCompilationUnit targetCompilationUnit= new InlineTargetCompilationUnit(
-							cuRewrite, references, this, staticImportsInInitializer);
-					CompilationUnitChange change= targetCompilationUnit.getChange();
-					if (change != null)
-						changes.add(change);
-				}
+				final IProgressMonitor monitor= pm;
+				findReferences(pm, result, new IRefactoringSearchGroupRequestor() {
+					public void acceptSearchResultGroup(SearchResultGroup group) throws CoreException {
+						if (monitor.isCanceled())
+							throw new OperationCanceledException();
+						ICompilationUnit cu= group.getCompilationUnit();
+
+						CompilationUnitRewrite cuRewrite= getCuRewrite(cu);
+						Name[] references= extractReferenceNodes(group.getSearchResults(), cuRewrite.getRoot());
+						InlineTargetCompilationUnit targetCompilationUnit= new InlineTargetCompilationUnit(
+								cuRewrite, references, InlineConstantRefactoring.this, staticImportsInInitializer);
+						CompilationUnitChange change= targetCompilationUnit.getChange();
+						if (change != null)
+							changes.add(change);
+					}
+				});
 
 			} else {
 				Assert.isTrue(! isDeclarationSelected());
@@ -907,7 +909,16 @@ public class InlineConstantRefactoring extends Refactoring {
 		return cuRewrite;
 	}
 
-	private SearchResultGroup[] findReferences(IProgressMonitor pm, RefactoringStatus status) throws JavaModelException {
+	/**
+	 * Searches the references to the field and hands them to the requestor compilation unit by
+	 * compilation unit.
+	 *
+	 * @param pm the progress monitor
+	 * @param status the status of the search
+	 * @param requestor the requestor for the references of a compilation unit
+	 * @throws JavaModelException if the search failed or the requestor failed
+	 */
+	private void findReferences(IProgressMonitor pm, RefactoringStatus status, IRefactoringSearchGroupRequestor requestor) throws JavaModelException {
 		final RefactoringSearchEngine2 engine= new RefactoringSearchEngine2(SearchPattern.createPattern(fField, IJavaSearchConstants.REFERENCES));
 		engine.setFiltering(true, true);
 		engine.setScope(RefactoringScopeFactory.create(fField));
@@ -917,8 +928,8 @@ public class InlineConstantRefactoring extends Refactoring {
 				return match.isInsideDocComment() ? null : match;
 			}
 		});
+		engine.setGroupRequestor(requestor);
 		engine.searchPattern(new SubProgressMonitor(pm, 1));
-		return (SearchResultGroup[]) engine.getResults();
 	}
 
 	@Override
@@ -153,11 +153,18 @@ import org.eclipse.jdt.internal.ui.text.correction.ASTResolving;
 	private int fIndex;
 	private Matcher fMatcher;
 	private int fTypes;
+	private StructuralHashIndex fHashIndex;
+	private int[] fSnippetHashes;
 
 	private SnippetFinder(ASTNode[] snippet) {
 		super(true);
 		fSnippet= snippet;
 		fMatcher= new Matcher();
+		fHashIndex= new StructuralHashIndex();
+		fSnippetHashes= new int[snippet.length];
+		for (int i= 0; i < snippet.length; i++) {
+			fSnippetHashes[i]= fHashIndex.getHash(snippet[i]);
+		}
 		reset();
 	}
 
@@ -257,6 +264,9 @@ import org.eclipse.jdt.internal.ui.text.correction.ASTResolving;
 	private boolean matches(ASTNode node) {
 		if (isSnippetNode(node))
 			return false;
+		// only nodes with the same structural hash can match
+		if (fHashIndex.getHash(node) != fSnippetHashes[fIndex])
+			return false;
 		if (node.subtreeMatch(fMatcher, fSnippet[fIndex]) && fMatch.hasCorrectNesting(node)) {
 			fMatch.add(node);
 			fIndex++;
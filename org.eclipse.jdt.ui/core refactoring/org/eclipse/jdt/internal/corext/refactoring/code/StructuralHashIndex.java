@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.refactoring.code;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.Assignment;
+import org.eclipse.jdt.core.dom.BooleanLiteral;
+import org.eclipse.jdt.core.dom.CharacterLiteral;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.InfixExpression;
+import org.eclipse.jdt.core.dom.NumberLiteral;
+import org.eclipse.jdt.core.dom.PostfixExpression;
+import org.eclipse.jdt.core.dom.PrefixExpression;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.StringLiteral;
+import org.eclipse.jdt.core.dom.StructuralPropertyDescriptor;
+
+import org.eclipse.jdt.internal.corext.dom.ASTNodes;
+
+/**
+ * Structural hashes of AST subtrees, used to find duplicate code without matching every
+ * node against a snippet.
+ * <p>
+ * Two subtrees that match with the matcher of {@link SnippetFinder} have the same hash:
+ * the hash covers node types, operators, literals and the identifiers of names, except
+ * for names of local variables and parameters, which the matcher maps onto each other.
+ * Subtrees with equal hashes still have to be confirmed by a full subtree match.
+ * </p>
+ * <p>
+ * Hashes are computed on demand and cached per node.
+ * </p>
+ */
+public class StructuralHashIndex {
+
+	private static final int LOCAL_NAME= 1;
+	private static final int JAVADOC= 2;
+
+	private final Map<ASTNode, Integer> fHashes= new HashMap<ASTNode, Integer>();
+
+	/**
+	 * Returns the structural hash of the subtree rooted at the given node.
+	 *
+	 * @param node the root of the subtree
+	 * @return the hash
+	 */
+	public int getHash(ASTNode node) {
+		Integer hash= fHashes.get(node);
+		if (hash == null) {
+			hash= new Integer(computeHash(node));
+			fHashes.put(node, hash);
+		}
+		return hash.intValue();
+	}
+
+	private int computeHash(ASTNode node) {
+		int hash= node.getNodeType();
+		switch (hash) {
+			case ASTNode.SIMPLE_NAME:
+				return 31 * hash + getNameHash((SimpleName) node);
+			case ASTNode.JAVADOC:
+				// the matcher does not compare doc tags
+				return 31 * hash + JAVADOC;
+			case ASTNode.STRING_LITERAL:
+				hash= 31 * hash + ((StringLiteral) node).getEscapedValue().hashCode();
+				break;
+			case ASTNode.CHARACTER_LITERAL:
+				hash= 31 * hash + ((CharacterLiteral) node).getEscapedValue().hashCode();
+				break;
+			case ASTNode.NUMBER_LITERAL:
+				hash= 31 * hash + ((NumberLiteral) node).getToken().hashCode();
+				break;
+			case ASTNode.BOOLEAN_LITERAL:
+				hash= 31 * hash + (((BooleanLiteral) node).booleanValue() ? 1231 : 1237);
+				break;
+			case ASTNode.INFIX_EXPRESSION:
+				hash= 31 * hash + ((InfixExpression) node).getOperator().toString().hashCode();
+				break;
+			case ASTNode.PREFIX_EXPRESSION:
+				hash= 31 * hash + ((PrefixExpression) node).getOperator().toString().hashCode();
+				break;
+			case ASTNode.POSTFIX_EXPRESSION:
+				hash= 31 * hash + ((PostfixExpression) node).getOperator().toString().hashCode();
+				break;
+			case ASTNode.ASSIGNMENT:
+				hash= 31 * hash + ((Assignment) node).getOperator().toString().hashCode();
+				break;
+			default:
+				break;
+		}
+		List<?> properties= node.structuralPropertiesForType();
+		for (int i= 0; i < properties.size(); i++) {
+			StructuralPropertyDescriptor property= (StructuralPropertyDescriptor) properties.get(i);
+			if (property.isChildProperty()) {
+				ASTNode child= (ASTNode) node.getStructuralProperty(property);
+				hash= 31 * hash + (child == null ? 0 : getHash(child));
+			} else if (property.isChildListProperty()) {
+				List<?> children= (List<?>) node.getStructuralProperty(property);
+				hash= 31 * hash + children.size();
+				for (int j= 0; j < children.size(); j++) {
+					hash= 31 * hash + getHash((ASTNode) children.get(j));
+				}
+			}
+		}
+		return hash;
+	}
+
+	private static int getNameHash(SimpleName name) {
+		int hash= name.isDeclaration() ? 1 : 2;
+		IVariableBinding binding= ASTNodes.getVariableBinding(name);
+		if (binding != null && !binding.isField())
+			return 31 * hash + LOCAL_NAME;
+		return 31 * hash + name.getIdentifier().hashCode();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,8 +14,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import com.ibm.icu.text.Collator;
 
@@ -39,6 +41,7 @@ import org.eclipse.jdt.internal.ui.viewsupport.BasicElementLabels;
 public class PropertyFileDocumentModel {
 
 	private List<KeyValuePairModell> fKeyValuePairs;
+	private Map<String, Integer> fKeyOffsets;
     private String fLineDelimiter;
 
     public PropertyFileDocumentModel(IDocument document) {
@@ -69,6 +72,19 @@ public class PropertyFileDocumentModel {
     	return null;
     }
 
+    /**
+	 * Returns the offset of the key <code>key</code> in the document described by this model.
+	 * The offsets are recorded while parsing and are not updated by the edits created by this
+	 * model.
+	 *
+	 * @param key the escaped key
+	 * @return the offset of the first occurrence of the key, or -1 if no such key
+	 */
+    public int getKeyOffset(String key) {
+    	Integer offset= fKeyOffsets.get(key);
+    	return offset != null ? offset.intValue() : -1;
+    }
+
     private InsertEdit insert(KeyValuePair keyValuePair) {
         KeyValuePairModell keyValuePairModell = new KeyValuePairModell(keyValuePair);
         int index = findInsertPosition(keyValuePairModell);
@@ -168,6 +184,7 @@ public class PropertyFileDocumentModel {
 
     private void parsePropertyDocument(IDocument document) {
         fKeyValuePairs = new ArrayList<KeyValuePairModell>();
+        fKeyOffsets= new HashMap<String, Integer>();
 
         SimpleLineReader reader = new SimpleLineReader(document);
         int offset = 0;
@@ -183,6 +200,8 @@ public class PropertyFileDocumentModel {
 					String trimmedValue= Strings.trimLeadingTabsAndSpaces(value);
 					int length= key.length() + 1 + value.length();
                     fKeyValuePairs.add(new KeyValuePairModell(trimmedKey, trimmedValue, offset, length, leadingWhiteSpaces));
+                    if (!fKeyOffsets.containsKey(trimmedKey))
+                    	fKeyOffsets.put(trimmedKey, new Integer(offset + findFirstNonWhiteSpace(key)));
                     leadingWhiteSpaces = 0;
                 }
             } else {
@@ -202,25 +221,45 @@ public class PropertyFileDocumentModel {
 		fKeyValuePairs.add(lastKeyValuePair);
     }
 
-    private int getIndexOfSeparationCharacter(String line) {
-        int minIndex = -1;
-        int indexOfEven = line.indexOf('=');
-        int indexOfColumn = line.indexOf(':');
-        int indexOfBlank = line.indexOf(' ');
-
-        if ((indexOfEven != -1) && (indexOfColumn != -1)) {
-            minIndex = Math.min(indexOfEven, indexOfColumn);
-        } else {
-            minIndex = Math.max(indexOfEven, indexOfColumn);
-        }
-
-		if ((minIndex == -1) && (indexOfBlank != -1)) {
-			minIndex= indexOfBlank;
-        }
-
-        return minIndex;
+    /**
+	 * Returns the index of the character that separates the key from the value, following the
+	 * grammar of {@link java.util.Properties#load(java.io.Reader)}: the key ends at the first
+	 * unescaped '=', ':' or white space. White space after the key can be followed by an '=' or
+	 * ':', which is the separator then.
+	 *
+	 * @param line the line, including its delimiter
+	 * @return the index of the separator, or -1 if the line has no value
+	 */
+    private static int getIndexOfSeparationCharacter(String line) {
+		int length= line.length();
+		int i= findFirstNonWhiteSpace(line);
+		while (i < length) {
+			char ch= line.charAt(i);
+			if (ch == '\\') {
+				i+= 2;
+				continue;
+			}
+			if (ch == '=' || ch == ':')
+				return i;
+			if (isSeparatingWhiteSpace(ch))
+				break;
+			i++;
+		}
+		if (i >= length)
+			return -1;
+
+		int separator= i;
+		while (i < length && isSeparatingWhiteSpace(line.charAt(i)))
+			i++;
+		if (i < length && (line.charAt(i) == '=' || line.charAt(i) == ':'))
+			return i;
+		return separator;
     }
 
+	private static boolean isSeparatingWhiteSpace(char ch) {
+		return ch == ' ' || ch == '\t' || ch == '\f';
+	}
+
 	public static String escape(String s, boolean escapeCommentCharsAndLeadingWhitespaces) {
 		StringBuffer sb= new StringBuffer(s.length());
 		int length= s.length();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.refactoring.typeconstraints.typesets;
 
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -23,6 +25,11 @@ import org.eclipse.jdt.internal.corext.refactoring.typeconstraints2.TTypes;
 /**
  * A type-safe wrapper for {@code Set<TType>} that also adds {@code TType}-specific
  * functionality, e.g. subTypes() and superTypes().
+ * <p>
+ * Besides the members in insertion order, the set keeps a bit set of the indices the
+ * {@link TypeSetEnvironment} assigns to its members, so that comparisons, inclusion tests
+ * and intersections of enumerated sets work on words instead of single members.
+ * </p>
  */
 public class EnumeratedTypeSet extends TypeSet {
 	static private int sCount= 0;
@@ -38,7 +45,13 @@ public class EnumeratedTypeSet extends TypeSet {
 	/**
 	 * Set containing the TTypes in this EnumeratedTypeSet.
 	 */
-	Set<TType> fMembers= new LinkedHashSet<TType>();
+	private final Set<TType> fMembers= new LinkedHashSet<TType>();
+
+	/**
+	 * Indices of the TTypes in this EnumeratedTypeSet.
+	 * @see TypeSetEnvironment#getTypeIndex(TType)
+	 */
+	private final BitSet fMemberIndices= new BitSet();
 
 	/**
 	 * Constructs a new EnumeratedTypeSet with the members of Set s in it.
@@ -50,7 +63,7 @@ public class EnumeratedTypeSet extends TypeSet {
 	public EnumeratedTypeSet(Iterator<TType> types, TypeSetEnvironment typeSetEnvironment) {
 		super(typeSetEnvironment);
 		while (types.hasNext()) {
-			fMembers.add(types.next());
+			add(types.next());
 		}
 		sCount++;
 	}
@@ -74,7 +87,7 @@ public class EnumeratedTypeSet extends TypeSet {
 	public EnumeratedTypeSet(TType t, TypeSetEnvironment typeSetEnvironment) {
 		super(typeSetEnvironment);
 		Assert.isNotNull(t);
-		fMembers.add(t);
+		add(t);
 		sCount++;
 	}
 
@@ -92,7 +105,7 @@ public class EnumeratedTypeSet extends TypeSet {
 		if (o instanceof EnumeratedTypeSet) {
 			EnumeratedTypeSet other= (EnumeratedTypeSet) o;
 
-			return fMembers.equals(other.fMembers);
+			return fMembers.size() == other.fMembers.size() && fMemberIndices.equals(other.fMemberIndices);
 		} else if (o instanceof SingletonTypeSet) {
 			SingletonTypeSet other= (SingletonTypeSet) o;
 
@@ -126,6 +139,9 @@ public class EnumeratedTypeSet extends TypeSet {
 	@Override
 	protected TypeSet specialCasesIntersectedWith(TypeSet s2) {
 		if (s2 instanceof EnumeratedTypeSet) {
+			if (!fMemberIndices.intersects(((EnumeratedTypeSet) s2).fMemberIndices))
+				return getTypeSetEnvironment().getEmptyTypeSet();
+
 			EnumeratedTypeSet result= new EnumeratedTypeSet(getTypeSetEnvironment());
 
 			result.addAll(this); // copy first since retainAll() modifies in-place
@@ -149,8 +165,8 @@ public class EnumeratedTypeSet extends TypeSet {
 			// More than an optimization: the universe never contains array types, so
 			// if s2 has array types, the following will retain them, as it should.
 			EnumeratedTypeSet ets2= (EnumeratedTypeSet) s2;
-			fMembers= new LinkedHashSet<TType>();
-			fMembers.addAll(ets2.fMembers);
+			clear();
+			addAll(ets2);
 		} else
 			retainAll(s2);
 	}
@@ -197,7 +213,7 @@ public class EnumeratedTypeSet extends TypeSet {
 	public TypeSet makeClone() {
 		EnumeratedTypeSet result= new EnumeratedTypeSet(getTypeSetEnvironment());
 
-		result.fMembers.addAll(fMembers);
+		result.addAll(this);
 		result.initComplete();
 		return result;
 	}
@@ -213,10 +229,8 @@ public class EnumeratedTypeSet extends TypeSet {
 	 * @see java.util.Set#clear()
 	 */
 	public void clear() {
-		if (isUniverse())
-			fMembers= new LinkedHashSet<TType>();
-		else
-			fMembers.clear();
+		fMembers.clear();
+		fMemberIndices.clear();
 	}
 
 	/* (non-Javadoc)
@@ -240,7 +254,10 @@ public class EnumeratedTypeSet extends TypeSet {
 	public boolean add(TType t) {
 		// Doesn't make sense to do here what other methods do (copy-and-modify)
 		Assert.isTrue(!isUniverse(), "Someone's trying to expand the universe!"); //$NON-NLS-1$
-		return fMembers.add(t);
+		if (!fMembers.add(t))
+			return false;
+		fMemberIndices.set(getTypeSetEnvironment().getTypeIndex(t));
+		return true;
 	}
 
 	/* (non-Javadoc)
@@ -257,30 +274,28 @@ public class EnumeratedTypeSet extends TypeSet {
 	 * @see java.util.Set#remove(java.lang.Object)
 	 */
 	public boolean remove(TType t) {
-		if (isUniverse())
-			fMembers= cloneSet(fMembers);
-		return fMembers.remove(t);
-	}
-
-	private Set<TType> cloneSet(Set<TType> members) {
-		Set<TType> result= new LinkedHashSet<TType>();
-		result.addAll(members);
-		return result;
+		if (!fMembers.remove(t))
+			return false;
+		fMemberIndices.clear(getTypeSetEnvironment().getTypeIndex(t));
+		return true;
 	}
 
 	/* (non-Javadoc)
 	 * @see java.util.Set#addAll(java.util.Collection)
 	 */
 	public boolean addAll(TypeSet s) {
-		if (s instanceof EnumeratedTypeSet) {
-			EnumeratedTypeSet ets= (EnumeratedTypeSet) s;
-
-			return fMembers.addAll(ets.fMembers);
-		} else {
-			EnumeratedTypeSet ets= s.enumerate();
+		EnumeratedTypeSet ets= s.enumerate();
 
-			return fMembers.addAll(ets.fMembers);
+		if (ets.fMembers.isEmpty() || containsAllMembers(ets))
+			return false;
+		if (fMembers.isEmpty()) {
+			fMembers.addAll(ets.fMembers);
+			fMemberIndices.or(ets.fMemberIndices);
+			return true;
 		}
+		for (Iterator<TType> iter= ets.fMembers.iterator(); iter.hasNext();)
+			add(iter.next());
+		return true;
 	}
 
 	@Override
@@ -304,16 +319,24 @@ public class EnumeratedTypeSet extends TypeSet {
 			return false;
 		EnumeratedTypeSet ets= s.enumerate();
 
-		return fMembers.containsAll(ets.fMembers);
+		return containsAllMembers(ets);
+	}
+
+	private boolean containsAllMembers(EnumeratedTypeSet ets) {
+		if (ets.fMembers.size() > fMembers.size())
+			return false;
+		BitSet missing= (BitSet) ets.fMemberIndices.clone();
+		missing.andNot(fMemberIndices);
+		return missing.isEmpty();
 	}
 
 	/* (non-Javadoc)
 	 * @see java.util.Set#removeAll(java.util.Collection)
 	 */
 	public boolean removeAll(EnumeratedTypeSet s) {
-		if (isUniverse())
-			fMembers= cloneSet(fMembers);
-		return fMembers.removeAll(s.fMembers);
+		BitSet removed= (BitSet) fMemberIndices.clone();
+		removed.and(s.fMemberIndices);
+		return removeMembers(removed);
 	}
 
 	/* (non-Javadoc)
@@ -325,10 +348,29 @@ public class EnumeratedTypeSet extends TypeSet {
 		EnumeratedTypeSet ets= (EnumeratedTypeSet) s;
 
 		if (isUniverse()) {
-			fMembers= cloneSet(ets.fMembers);
+			clear();
+			addAll(ets);
 			return true;
-		} else
-			return fMembers.retainAll(ets.fMembers);
+		} else {
+			BitSet removed= (BitSet) fMemberIndices.clone();
+			removed.andNot(ets.fMemberIndices);
+			return removeMembers(removed);
+		}
+	}
+
+	private boolean removeMembers(BitSet indices) {
+		if (indices.isEmpty())
+			return false;
+		if (indices.equals(fMemberIndices)) {
+			clear();
+			return true;
+		}
+		for (Iterator<TType> iter= fMembers.iterator(); iter.hasNext();) {
+			if (indices.get(getTypeSetEnvironment().getTypeIndex(iter.next())))
+				iter.remove();
+		}
+		fMemberIndices.andNot(indices);
+		return true;
 	}
 
 	/* (non-Javadoc)
@@ -360,7 +402,7 @@ public class EnumeratedTypeSet extends TypeSet {
 		EnumeratedTypeSet result= new EnumeratedTypeSet(getTypeSetEnvironment());
 
 		// Add to result each element of fMembers that has no proper supertype in fMembers
-		result.fMembers.addAll(fMembers);
+		result.addAll(this);
 		for(Iterator<TType> iter= fMembers.iterator(); iter.hasNext(); ) {
 			TType t= iter.next();
 
@@ -368,11 +410,11 @@ public class EnumeratedTypeSet extends TypeSet {
 				ArrayType at= (ArrayType) t;
 				int numDims= at.getDimensions();
 				for(Iterator<TType> subIter=TTypes.getAllSubTypesIterator(at.getElementType()); subIter.hasNext(); ) {
-					result.fMembers.remove(TTypes.createArrayType(subIter.next(), numDims));
+					result.remove(TTypes.createArrayType(subIter.next(), numDims));
 				}
 			} else {
 				for (Iterator<TType> iterator= TTypes.getAllSubTypesIterator(t); iterator.hasNext();) {
-					result.fMembers.remove(iterator.next());
+					result.remove(iterator.next());
 				}
 			}
 		}
@@ -391,7 +433,7 @@ public class EnumeratedTypeSet extends TypeSet {
 		EnumeratedTypeSet result= new EnumeratedTypeSet(getTypeSetEnvironment());
 
 		// Add to result each element of fMembers that has no proper subtype in fMembers
-		result.fMembers.addAll(fMembers);
+		result.addAll(this);
 
 		for(Iterator<TType> iter= fMembers.iterator(); iter.hasNext(); ) {
 			TType t= iter.next();
@@ -399,7 +441,7 @@ public class EnumeratedTypeSet extends TypeSet {
 			// java.lang.Object is only in the lower bound if fMembers consists
 			// of only java.lang.Object, but that case is handled above.
 			if (t.equals(getJavaLangObject())) {
-				result.fMembers.remove(t);
+				result.remove(t);
 				continue;
 			}
 
@@ -407,11 +449,11 @@ public class EnumeratedTypeSet extends TypeSet {
 				ArrayType at= (ArrayType) t;
 				int numDims= at.getDimensions();
 				for(Iterator<TType> superIter=TTypes.getAllSuperTypesIterator(at.getElementType()); superIter.hasNext(); ) {
-					result.fMembers.remove(TTypes.createArrayType(superIter.next(), numDims));
+					result.remove(TTypes.createArrayType(superIter.next(), numDims));
 				}
 			} else {
 				for (Iterator<TType> iterator= TTypes.getAllSuperTypesIterator(t); iterator.hasNext();) {
-					result.fMembers.remove(iterator.next());
+					result.remove(iterator.next());
 				}
 			}
 		}
@@ -462,7 +504,8 @@ public class EnumeratedTypeSet extends TypeSet {
 	 */
 	@Override
 	public Iterator<TType> iterator() {
-		return fMembers.iterator();
+		// removing through the iterator would bypass fMemberIndices
+		return Collections.unmodifiableSet(fMembers).iterator();
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2011 IBM Corporation and others.
+ * Copyright (c) 2005, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@
 
 package org.eclipse.jdt.internal.corext.refactoring.typeconstraints.typesets;
 
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -30,6 +31,8 @@ public class TypeSetEnvironment {
 	private final Map<TType, SuperTypesOfSingleton> fSuperTypesOfSingletons= new LinkedHashMap<TType, SuperTypesOfSingleton>();//@perf
 	private final Map<Object, SuperTypesSet> fSuperTypesSets= new LinkedHashMap<Object, SuperTypesSet>();//@perf
 
+	private final Map<TType, Integer> fTypeIndices= new HashMap<TType, Integer>();
+
 	private int fgCommonExprHits= 0;
 	private int fgCommonExprMisses= 0;
 
@@ -116,6 +119,23 @@ public class TypeSetEnvironment {
 		}
 	}
 
+	/**
+	 * Returns the index of the given type in this environment. Indices are dense and
+	 * assigned in the order in which the types are first requested, so that
+	 * {@link EnumeratedTypeSet}s can keep their members in bit sets.
+	 *
+	 * @param type the type
+	 * @return the index of the type
+	 */
+	int getTypeIndex(TType type) {
+		Integer index= fTypeIndices.get(type);
+		if (index == null) {
+			index= new Integer(fTypeIndices.size());
+			fTypeIndices.put(type, index);
+		}
+		return index.intValue();
+	}
+
 	public void dumpStats() {
 		System.out.println("Common expression hits:   " + fgCommonExprHits); //$NON-NLS-1$
 		System.out.println("Common expression misses: " + fgCommonExprMisses); //$NON-NLS-1$
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.refactoring.typeconstraints2;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * First-in first-out work list of the constraint variables a type constraint solver
+ * still has to process.
+ * <p>
+ * A variable that is already in the work list is not added again, since it will be
+ * processed with its latest type estimate anyway. Variables get dense ids when they
+ * are added for the first time. The work list is a ring buffer of these ids, and the
+ * ids of the enqueued variables are kept in a bit set.
+ * </p>
+ *
+ * @since 3.11
+ */
+public final class ConstraintVariableWorkList {
+
+	private final Map<ConstraintVariable2, Integer> fIds= new IdentityHashMap<ConstraintVariable2, Integer>();
+	private ConstraintVariable2[] fVariables= new ConstraintVariable2[64];
+	private int fVariableCount= 0;
+
+	private final BitSet fEnqueued= new BitSet();
+	private int[] fQueue= new int[64];
+	private int fHead= 0;
+	private int fSize= 0;
+
+	/**
+	 * Adds the variable to the end of the work list, unless it is already enqueued.
+	 *
+	 * @param variable the variable to add
+	 */
+	public void add(ConstraintVariable2 variable) {
+		int id= getId(variable);
+		if (fEnqueued.get(id))
+			return;
+		fEnqueued.set(id);
+		if (fSize == fQueue.length) {
+			int[] queue= new int[fQueue.length * 2];
+			for (int i= 0; i < fSize; i++)
+				queue[i]= fQueue[(fHead + i) % fQueue.length];
+			fQueue= queue;
+			fHead= 0;
+		}
+		fQueue[(fHead + fSize) % fQueue.length]= id;
+		fSize++;
+	}
+
+	/**
+	 * Adds the variables that are not already enqueued.
+	 *
+	 * @param variables the variables to add
+	 */
+	public void addAll(ConstraintVariable2[] variables) {
+		for (int i= 0; i < variables.length; i++)
+			add(variables[i]);
+	}
+
+	/**
+	 * Adds the variables that are not already enqueued.
+	 *
+	 * @param variables the variables to add
+	 */
+	public void addAll(Collection<? extends ConstraintVariable2> variables) {
+		for (Iterator<? extends ConstraintVariable2> iter= variables.iterator(); iter.hasNext();)
+			add(iter.next());
+	}
+
+	/**
+	 * Removes the first variable from the work list.
+	 *
+	 * @return the first variable
+	 * @throws NoSuchElementException if the work list is empty
+	 */
+	public ConstraintVariable2 removeFirst() {
+		if (fSize == 0)
+			throw new NoSuchElementException();
+		int id= fQueue[fHead];
+		fHead= (fHead + 1) % fQueue.length;
+		fSize--;
+		fEnqueued.clear(id);
+		return fVariables[id];
+	}
+
+	public boolean isEmpty() {
+		return fSize == 0;
+	}
+
+	public int size() {
+		return fSize;
+	}
+
+	private int getId(ConstraintVariable2 variable) {
+		Integer id= fIds.get(variable);
+		if (id != null)
+			return id.intValue();
+		if (fVariableCount == fVariables.length) {
+			ConstraintVariable2[] variables= new ConstraintVariable2[fVariables.length * 2];
+			System.arraycopy(fVariables, 0, variables, 0, fVariableCount);
+			fVariables= variables;
+		}
+		fVariables[fVariableCount]= variable;
+		fIds.put(variable, new Integer(fVariableCount));
+		return fVariableCount++;
+	}
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.jarinjarloader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Enumeration;
+import java.util.Vector;
+import java.util.jar.Manifest;
+
+/**
+ * This class will be compiled into the binary jar-in-jar-loader.zip. This ZIP is used for the
+ * "Runnable JAR File Exporter"
+ *
+ * Class loader for the Rsrc-Class-Path that looks up classes and resources in a
+ * {@link JarRsrcIndex} instead of probing every class path entry through rsrc: URLs.
+ * The URLs of the resources are the same as with a plain {@link URLClassLoader}.
+ *
+ * @since 3.11
+ */
+class JarRsrcClassLoader extends URLClassLoader {
+
+	private static final String CLASS_FILE_EXTENSION= ".class"; //$NON-NLS-1$
+
+	private final JarRsrcIndex index;
+
+	JarRsrcClassLoader(URL[] urls, JarRsrcIndex index) {
+		super(urls, null);
+		this.index= index;
+	}
+
+	protected Class findClass(String name) throws ClassNotFoundException {
+		JarRsrcIndex.Entry entry= index.getEntry(name.replace('.', '/').concat(CLASS_FILE_EXTENSION));
+		if (entry == null)
+			throw new ClassNotFoundException(name);
+		byte[] bytes;
+		try {
+			bytes= index.getBytes(entry);
+		} catch (IOException e) {
+			throw new ClassNotFoundException(name, e);
+		}
+		definePackage(name, entry.element);
+		return defineClass(name, bytes, 0, bytes.length, entry.element.codeSource);
+	}
+
+	private void definePackage(String className, JarRsrcIndex.ClassPathElement element) {
+		int index= className.lastIndexOf('.');
+		if (index == -1)
+			return;
+		String packageName= className.substring(0, index);
+		if (getPackage(packageName) != null)
+			return;
+		try {
+			Manifest manifest= this.index.getManifest(element);
+			if (manifest != null)
+				definePackage(packageName, manifest, element.url);
+			else
+				definePackage(packageName, null, null, null, null, null, null, null);
+		} catch (IllegalArgumentException e) {
+			// defined concurrently
+		}
+	}
+
+	public URL findResource(String name) {
+		JarRsrcIndex.Entry entry= index.getEntry(name);
+		if (entry == null)
+			return null;
+		try {
+			return getURL(entry);
+		} catch (MalformedURLException e) {
+			return null;
+		}
+	}
+
+	public Enumeration findResources(String name) throws IOException {
+		Vector result= new Vector();
+		for (JarRsrcIndex.Entry entry= index.getEntry(name); entry != null; entry= entry.next)
+			result.addElement(getURL(entry));
+		return result.elements();
+	}
+
+	public InputStream getResourceAsStream(String name) {
+		URL url= getResource(name);
+		if (url == null)
+			return null;
+		try {
+			JarRsrcIndex.Entry entry= index.getEntry(name);
+			if (entry != null && url.toExternalForm().equals(entry.element.urlPrefix + entry.name))
+				return new ByteArrayInputStream(index.getBytes(entry));
+			return url.openStream();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static URL getURL(JarRsrcIndex.Entry entry) throws MalformedURLException {
+		return new URL(entry.element.url, entry.name);
+	}
+}
@@ -0,0 +1,327 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.jarinjarloader;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.security.CodeSource;
+import java.security.cert.Certificate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * This class will be compiled into the binary jar-in-jar-loader.zip. This ZIP is used for the
+ * "Runnable JAR File Exporter"
+ *
+ * Index of the entries of the Rsrc-Class-Path, built once from the central directories of the
+ * runnable JAR and of the JARs nested in it. Nested JARs that are stored uncompressed are read
+ * in place by offset, compressed nested JARs are inflated into memory once.
+ *
+ * @since 3.11
+ */
+final class JarRsrcIndex {
+
+	private static final long LOCAL_HEADER_SIGNATURE= 0x04034b50L;
+	private static final long CENTRAL_HEADER_SIGNATURE= 0x02014b50L;
+	private static final long END_HEADER_SIGNATURE= 0x06054b50L;
+	private static final int LOCAL_HEADER_SIZE= 30;
+	private static final int CENTRAL_HEADER_SIZE= 46;
+	private static final int END_HEADER_SIZE= 22;
+	private static final int MAX_COMMENT_SIZE= 0xffff;
+	private static final long ZIP64_MAGIC= 0xffffffffL;
+	private static final int STORED= 0;
+	private static final int DEFLATED= 8;
+
+	/**
+	 * An entry of the class path, i.e. a nested JAR or a folder of the runnable JAR.
+	 */
+	static final class ClassPathElement {
+		final URL url;
+		final CodeSource codeSource;
+		final String urlPrefix;
+		private final byte[] content;
+		private final long start;
+		private Entry manifestEntry;
+		private Manifest manifest;
+		private boolean manifestRead;
+
+		ClassPathElement(URL url, String urlPrefix, byte[] content, long start) {
+			this.url= url;
+			this.codeSource= new CodeSource(url, (Certificate[]) null);
+			this.urlPrefix= urlPrefix;
+			this.content= content;
+			this.start= start;
+		}
+	}
+
+	/**
+	 * An entry of a class path element.
+	 */
+	static final class Entry {
+		final ClassPathElement element;
+		final String name;
+		private final int method;
+		private final long compressedSize;
+		private final long size;
+		private final long localHeaderOffset;
+		private long dataOffset= -1;
+		Entry next;
+
+		Entry(ClassPathElement element, String name, int method, long compressedSize, long size, long localHeaderOffset) {
+			this.element= element;
+			this.name= name;
+			this.method= method;
+			this.compressedSize= compressedSize;
+			this.size= size;
+			this.localHeaderOffset= localHeaderOffset;
+		}
+	}
+
+	private final RandomAccessFile file;
+	private final Map entries= new HashMap();
+
+	private JarRsrcIndex(File jar) throws IOException {
+		file= new RandomAccessFile(jar, "r"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Indexes the given class path of the given runnable JAR.
+	 *
+	 * @param jar the runnable JAR
+	 * @param rsrcClassPath the entries of the Rsrc-Class-Path
+	 * @param urls the URLs of the class path entries
+	 * @return the index, or <code>null</code> if an entry of the class path cannot be indexed
+	 */
+	static JarRsrcIndex create(File jar, String[] rsrcClassPath, URL[] urls) {
+		JarRsrcIndex index= null;
+		try {
+			index= new JarRsrcIndex(jar);
+			index.addAll(rsrcClassPath, urls);
+			return index;
+		} catch (IOException e) {
+			// fall back to resolving the class path through rsrc: URLs
+		} catch (RuntimeException e) {
+			// corrupt archive, fall back as well
+		}
+		if (index != null) {
+			try {
+				index.file.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+		return null;
+	}
+
+	private void addAll(String[] rsrcClassPath, URL[] urls) throws IOException {
+		ClassPathElement jar= new ClassPathElement(null, null, null, 0);
+		Map jarEntries= new HashMap();
+		Entry[] entries= readCentralDirectory(jar, file.length());
+		for (int i= 0; i < entries.length; i++)
+			jarEntries.put(entries[i].name, entries[i]);
+
+		for (int i= 0; i < rsrcClassPath.length; i++) {
+			String path= rsrcClassPath[i];
+			if (path.startsWith(JIJConstants.CURRENT_DIR))
+				path= path.substring(JIJConstants.CURRENT_DIR.length());
+			if (path.length() == 0 || path.endsWith(JIJConstants.PATH_SEPARATOR)) {
+				ClassPathElement folder= new ClassPathElement(urls[i], JIJConstants.INTERNAL_URL_PROTOCOL_WITH_COLON + path, null, 0);
+				for (int j= 0; j < entries.length; j++) {
+					Entry entry= entries[j];
+					if (entry.name.startsWith(path) && entry.name.length() > path.length())
+						add(new Entry(folder, entry.name.substring(path.length()), entry.method, entry.compressedSize, entry.size, entry.localHeaderOffset));
+				}
+			} else {
+				Entry entry= (Entry) jarEntries.get(path);
+				if (entry == null)
+					throw new IOException("Missing nested JAR " + path); //$NON-NLS-1$
+				String urlPrefix= JIJConstants.JAR_INTERNAL_URL_PROTOCOL_WITH_COLON + path + JIJConstants.JAR_INTERNAL_SEPARATOR;
+				ClassPathElement nested;
+				if (entry.method == STORED)
+					nested= new ClassPathElement(urls[i], urlPrefix, null, getDataOffset(entry));
+				else
+					nested= new ClassPathElement(urls[i], urlPrefix, getBytes(entry), 0);
+				Entry[] nestedEntries= readCentralDirectory(nested, entry.size);
+				for (int j= 0; j < nestedEntries.length; j++)
+					add(nestedEntries[j]);
+			}
+		}
+	}
+
+	private void add(Entry entry) {
+		if (entry.name.equals(JarFile.MANIFEST_NAME) && entry.element.manifestEntry == null)
+			entry.element.manifestEntry= entry;
+		Entry first= (Entry) entries.get(entry.name);
+		if (first == null) {
+			entries.put(entry.name, entry);
+		} else {
+			while (first.next != null)
+				first= first.next;
+			first.next= entry;
+		}
+	}
+
+	/**
+	 * Returns the first entry with the given name in class path order. Further entries with
+	 * the same name are linked through {@link Entry#next}.
+	 *
+	 * @param name the name of the entry
+	 * @return the entry or <code>null</code>
+	 */
+	Entry getEntry(String name) {
+		return (Entry) entries.get(name);
+	}
+
+	/**
+	 * Returns the manifest of the given class path element.
+	 *
+	 * @param element the class path element
+	 * @return the manifest, or <code>null</code> if there is none or it cannot be read
+	 */
+	Manifest getManifest(ClassPathElement element) {
+		synchronized (element) {
+			if (!element.manifestRead) {
+				element.manifestRead= true;
+				if (element.manifestEntry != null) {
+					try {
+						element.manifest= new Manifest(new ByteArrayInputStream(getBytes(element.manifestEntry)));
+					} catch (IOException e) {
+						// no manifest
+					}
+				}
+			}
+			return element.manifest;
+		}
+	}
+
+	/**
+	 * Returns the uncompressed content of the given entry.
+	 *
+	 * @param entry the entry
+	 * @return the content
+	 * @throws IOException if the entry cannot be read
+	 */
+	byte[] getBytes(Entry entry) throws IOException {
+		byte[] data= new byte[toInt(entry.compressedSize)];
+		read(entry.element, getDataOffset(entry), data, 0, data.length);
+		if (entry.method == STORED)
+			return data;
+		if (entry.method != DEFLATED)
+			throw new IOException("Unsupported compression method of " + entry.name); //$NON-NLS-1$
+
+		// the inflater needs an extra dummy byte when the ZLIB header is omitted
+		byte[] input= new byte[data.length + 1];
+		System.arraycopy(data, 0, input, 0, data.length);
+		byte[] result= new byte[toInt(entry.size)];
+		Inflater inflater= new Inflater(true);
+		try {
+			inflater.setInput(input);
+			int length= 0;
+			while (length < result.length) {
+				int inflated= inflater.inflate(result, length, result.length - length);
+				if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()))
+					throw new IOException("Truncated entry " + entry.name); //$NON-NLS-1$
+				length+= inflated;
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("Corrupt entry " + entry.name); //$NON-NLS-1$
+		} finally {
+			inflater.end();
+		}
+		return result;
+	}
+
+	private long getDataOffset(Entry entry) throws IOException {
+		synchronized (entry) {
+			if (entry.dataOffset == -1) {
+				byte[] header= new byte[LOCAL_HEADER_SIZE];
+				read(entry.element, entry.localHeaderOffset, header, 0, header.length);
+				if (getInt(header, 0) != LOCAL_HEADER_SIGNATURE)
+					throw new IOException("Invalid local header of " + entry.name); //$NON-NLS-1$
+				entry.dataOffset= entry.localHeaderOffset + LOCAL_HEADER_SIZE + getShort(header, 26) + getShort(header, 28);
+			}
+			return entry.dataOffset;
+		}
+	}
+
+	private Entry[] readCentralDirectory(ClassPathElement element, long length) throws IOException {
+		int tailLength= (int) Math.min(length, END_HEADER_SIZE + MAX_COMMENT_SIZE);
+		byte[] tail= new byte[tailLength];
+		read(element, length - tailLength, tail, 0, tailLength);
+		int end= tailLength - END_HEADER_SIZE;
+		while (end >= 0 && getInt(tail, end) != END_HEADER_SIGNATURE)
+			end--;
+		if (end < 0)
+			throw new IOException("Missing end of central directory"); //$NON-NLS-1$
+
+		int count= getShort(tail, end + 10);
+		long directorySize= getInt(tail, end + 12);
+		long directoryOffset= getInt(tail, end + 16);
+		if (count == 0xffff || directorySize == ZIP64_MAGIC || directoryOffset == ZIP64_MAGIC)
+			throw new IOException("ZIP64 archives are not supported"); //$NON-NLS-1$
+
+		byte[] directory= new byte[toInt(directorySize)];
+		read(element, directoryOffset, directory, 0, directory.length);
+		Entry[] result= new Entry[count];
+		int offset= 0;
+		for (int i= 0; i < count; i++) {
+			if (getInt(directory, offset) != CENTRAL_HEADER_SIGNATURE)
+				throw new IOException("Invalid central directory"); //$NON-NLS-1$
+			int method= getShort(directory, offset + 10);
+			long compressedSize= getInt(directory, offset + 20);
+			long size= getInt(directory, offset + 24);
+			int nameLength= getShort(directory, offset + 28);
+			int extraLength= getShort(directory, offset + 30);
+			int commentLength= getShort(directory, offset + 32);
+			long localHeaderOffset= getInt(directory, offset + 42);
+			if (compressedSize == ZIP64_MAGIC || size == ZIP64_MAGIC || localHeaderOffset == ZIP64_MAGIC)
+				throw new IOException("ZIP64 archives are not supported"); //$NON-NLS-1$
+			String name= new String(directory, offset + CENTRAL_HEADER_SIZE, nameLength, JIJConstants.UTF8_ENCODING);
+			result[i]= new Entry(element, name, method, compressedSize, size, localHeaderOffset);
+			offset+= CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+		}
+		return result;
+	}
+
+	private void read(ClassPathElement element, long position, byte[] buffer, int offset, int length) throws IOException {
+		if (element.content != null) {
+			if (position < 0 || position + length > element.content.length)
+				throw new IOException("Invalid offset in nested JAR " + element.url); //$NON-NLS-1$
+			System.arraycopy(element.content, (int) position, buffer, offset, length);
+		} else {
+			synchronized (file) {
+				file.seek(element.start + position);
+				file.readFully(buffer, offset, length);
+			}
+		}
+	}
+
+	private static int toInt(long size) throws IOException {
+		if (size > Integer.MAX_VALUE)
+			throw new IOException("Entry too large"); //$NON-NLS-1$
+		return (int) size;
+	}
+
+	private static int getShort(byte[] buffer, int offset) {
+		return (buffer[offset] & 0xff) | (buffer[offset + 1] & 0xff) << 8;
+	}
+
+	private static long getInt(byte[] buffer, int offset) {
+		return getShort(buffer, offset) | ((long) getShort(buffer, offset + 2)) << 16;
+	}
+}
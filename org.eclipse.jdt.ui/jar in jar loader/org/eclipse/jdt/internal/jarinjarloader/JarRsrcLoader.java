@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2009 IBM Corporation and others.
+ * Copyright (c) 2008, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,15 +10,19 @@
  *     Ferenc Hechler, ferenc_hechler@users.sourceforge.net - 219530 [jar application] add Jar-in-Jar ClassLoader option
  *     Ferenc Hechler, ferenc_hechler@users.sourceforge.net - 262746 [jar exporter] Create a builder for jar-in-jar-loader.zip
  *     Ferenc Hechler, ferenc_hechler@users.sourceforge.net - 262748 [jar exporter] extract constants for string literals in JarRsrcLoader et al.
+ *     IBM Corporation - load classes through an index of the nested JARs
  *******************************************************************************/
 package org.eclipse.jdt.internal.jarinjarloader;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.security.CodeSource;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
@@ -51,7 +55,13 @@ public class JarRsrcLoader {
 			else
 				rsrcUrls[i] = new URL(JIJConstants.JAR_INTERNAL_URL_PROTOCOL_WITH_COLON + rsrcPath + JIJConstants.JAR_INTERNAL_SEPARATOR);    
 		}
-		ClassLoader jceClassLoader = new URLClassLoader(rsrcUrls, null);
+		ClassLoader jceClassLoader;
+		File jar = getLoaderJar();
+		JarRsrcIndex index = jar != null ? JarRsrcIndex.create(jar, mi.rsrcClassPath, rsrcUrls) : null;
+		if (index != null)
+			jceClassLoader = new JarRsrcClassLoader(rsrcUrls, index);
+		else
+			jceClassLoader = new URLClassLoader(rsrcUrls, null);
 		Thread.currentThread().setContextClassLoader(jceClassLoader);
 		Class c = Class.forName(mi.rsrcMainClass, true, jceClassLoader);
 		Method main = c.getMethod(JIJConstants.MAIN_METHOD_NAME, new Class[]{args.getClass()}); 
@@ -86,6 +96,65 @@ public class JarRsrcLoader {
 		return null;
 	}
 
+	/**
+	 * Returns the runnable JAR this loader has been started from.
+	 * 
+	 * @return the JAR file, or <code>null</code> if the loader has not been loaded from a local JAR
+	 */
+	private static File getLoaderJar() {
+		try {
+			CodeSource codeSource = JarRsrcLoader.class.getProtectionDomain().getCodeSource();
+			if (codeSource == null || codeSource.getLocation() == null)
+				return null;
+			URL location = codeSource.getLocation();
+			if (!"file".equals(location.getProtocol())) //$NON-NLS-1$
+				return null;
+			File file = new File(decodePath(location.getFile()));
+			return file.isFile() ? file : null;
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * JDK 1.3.1 does not support URLDecoder.decode(String, String), so we have to do it manually.
+	 * Only %XX escapes are decoded as UTF-8, a '+' is kept as in a file URL.
+	 * 
+	 * @param path the path of a URL
+	 * @return the decoded path
+	 * @throws IOException if the path contains an invalid escape
+	 */
+	static String decodePath(String path) throws IOException {
+		if (path.indexOf('%') == -1)
+			return path;
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(path.length());
+		StringBuffer result = new StringBuffer(path.length());
+		int i = 0;
+		while (i < path.length()) {
+			char ch = path.charAt(i);
+			if (ch == '%') {
+				if (i + 2 >= path.length())
+					throw new IOException(path);
+				int high = Character.digit(path.charAt(i + 1), 16);
+				int low = Character.digit(path.charAt(i + 2), 16);
+				if (high == -1 || low == -1)
+					throw new IOException(path);
+				bytes.write((high << 4) + low);
+				i += 3;
+			} else {
+				if (bytes.size() > 0) {
+					result.append(new String(bytes.toByteArray(), JIJConstants.UTF8_ENCODING));
+					bytes.reset();
+				}
+				result.append(ch);
+				i++;
+			}
+		}
+		if (bytes.size() > 0)
+			result.append(new String(bytes.toByteArray(), JIJConstants.UTF8_ENCODING));
+		return result.toString();
+	}
+
 	/**
 	 * JDK 1.3.1 does not support String.split(), so we have to do it manually. Skip all spaces
 	 * (tabs are not handled)
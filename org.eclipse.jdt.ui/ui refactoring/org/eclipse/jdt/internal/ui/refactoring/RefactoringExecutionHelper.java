@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -65,16 +65,14 @@ public class RefactoringExecutionHelper {
 		public Change fChange;
 		public PerformChangeOperation fPerformChangeOperation;
 		private final boolean fForked;
-		private final boolean fForkChangeExecution;
 
-		public Operation(boolean forked, boolean forkChangeExecution) {
+		public Operation(boolean forked) {
 			fForked= forked;
-			fForkChangeExecution= forkChangeExecution;
         }
 
 		public void run(IProgressMonitor pm) throws CoreException {
 			try {
-				pm.beginTask("", fForked && !fForkChangeExecution ? 7 : 11); //$NON-NLS-1$
+				pm.beginTask("", 7); //$NON-NLS-1$
 				pm.subTask(""); //$NON-NLS-1$
 
 				final RefactoringStatus status= fRefactoring.checkAllConditions(new SubProgressMonitor(pm, 4, SubProgressMonitor.PREPEND_MAIN_LABEL_TO_SUBTASK));
@@ -101,9 +99,6 @@ public class RefactoringExecutionHelper {
 				fPerformChangeOperation.setUndoManager(RefactoringCore.getUndoManager(), fRefactoring.getName());
 				if (fRefactoring instanceof IScheduledRefactoring)
 					fPerformChangeOperation.setSchedulingRule(((IScheduledRefactoring)fRefactoring).getSchedulingRule());
-
-				if (!fForked || fForkChangeExecution)
-					fPerformChangeOperation.run(new SubProgressMonitor(pm, 4, SubProgressMonitor.PREPEND_MAIN_LABEL_TO_SUBTASK));
 			} finally {
 				pm.done();
 			}
@@ -170,27 +165,37 @@ public class RefactoringExecutionHelper {
 		} else {
 			rule= ResourcesPlugin.getWorkspace().getRoot();
 		}
+		RefactoringSaveHelper saveHelper= null;
 		try {
+			final Operation op= new Operation(fork);
 			try {
-				Runnable r= new Runnable() {
-					public void run() {
-						manager.beginRule(rule, null);
+				try {
+					try {
+						Runnable r= new Runnable() {
+							public void run() {
+								manager.beginRule(rule, null);
+							}
+						};
+						BusyIndicator.showWhile(fParent.getDisplay(), r);
+					} catch (OperationCanceledException e) {
+						throw new InterruptedException(e.getMessage());
 					}
-				};
-				BusyIndicator.showWhile(fParent.getDisplay(), r);
-			} catch (OperationCanceledException e) {
-				throw new InterruptedException(e.getMessage());
-			}
 
-			RefactoringSaveHelper saveHelper= new RefactoringSaveHelper(fSaveMode);
-			if (!saveHelper.saveEditors(fParent))
-				throw new InterruptedException();
-			final Operation op= new Operation(fork, forkChangeExecution);
-			fRefactoring.setValidationContext(fParent);
-			try{
-				fExecContext.run(fork, cancelable, new WorkbenchRunnableAdapter(op, rule, true));
-				if (fork && !forkChangeExecution && op.fPerformChangeOperation != null)
-					fExecContext.run(false, false, new WorkbenchRunnableAdapter(op.fPerformChangeOperation, rule, true));
+					RefactoringSaveHelper helper= new RefactoringSaveHelper(fSaveMode);
+					if (!helper.saveEditors(fParent))
+						throw new InterruptedException();
+					saveHelper= helper;
+					fRefactoring.setValidationContext(fParent);
+					fExecContext.run(fork, cancelable, new WorkbenchRunnableAdapter(op, rule, true));
+				} finally {
+					manager.endRule(rule);
+				}
+
+				if (op.fPerformChangeOperation != null) {
+					// the change is performed with its own rule, its validation state detects modifications made in the meantime
+					boolean forkPerform= fork && forkChangeExecution;
+					fExecContext.run(forkPerform, forkPerform || !fork ? cancelable : false, new WorkbenchRunnableAdapter(op.fPerformChangeOperation, op.fPerformChangeOperation.getSchedulingRule(), true));
+				}
 
 				if (op.fPerformChangeOperation != null) {
 					RefactoringStatus validationStatus= op.fPerformChangeOperation.getValidationStatus();
@@ -219,11 +224,10 @@ public class RefactoringExecutionHelper {
 				}
 			} catch (OperationCanceledException e) {
 				throw new InterruptedException(e.getMessage());
-			} finally {
-				saveHelper.triggerIncrementalBuild();
 			}
 		} finally {
-			manager.endRule(rule);
+			if (saveHelper != null)
+				saveHelper.triggerIncrementalBuild();
 			fRefactoring.setValidationContext(null);
 		}
 	}
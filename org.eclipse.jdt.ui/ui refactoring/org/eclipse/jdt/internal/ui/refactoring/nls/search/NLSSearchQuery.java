@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -34,8 +34,10 @@ import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.search.IJavaSearchConstants;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
 import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchMatch;
 import org.eclipse.jdt.core.search.SearchParticipant;
 import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.SearchRequestor;
 
 import org.eclipse.jdt.internal.corext.refactoring.nls.NLSRefactoring;
 import org.eclipse.jdt.internal.corext.util.Messages;
@@ -73,6 +75,9 @@ public class NLSSearchQuery implements ISearchQuery {
 			final AbstractTextSearchResult textResult= (AbstractTextSearchResult) getSearchResult();
 			textResult.removeAll();
 
+			IType[] wrapperClasses= new IType[fWrapperClass.length];
+			NLSSearchResultRequestor[] requestors= new NLSSearchResultRequestor[fWrapperClass.length];
+			SearchPattern pattern= null;
 			for (int i= 0; i < fWrapperClass.length; i++) {
 				IJavaElement wrapperClass= fWrapperClass[i];
 				IFile propertieFile= fPropertiesFile[i];
@@ -81,20 +86,30 @@ public class NLSSearchQuery implements ISearchQuery {
 				if (! propertieFile.exists())
 					return JavaUIStatus.createError(0, Messages.format(NLSSearchMessages.NLSSearchQuery_propertiesNotExists, BasicElementLabels.getResourceName(propertieFile)), null);
 
-				SearchPattern pattern= SearchPattern.createPattern(wrapperClass, IJavaSearchConstants.REFERENCES, SearchUtils.GENERICS_AGNOSTIC_MATCH_RULE);
-				SearchParticipant[] participants= new SearchParticipant[] {SearchEngine.getDefaultSearchParticipant()};
+				wrapperClasses[i]= (IType) wrapperClass;
+				requestors[i]= new NLSSearchResultRequestor(propertieFile, fResult);
+				SearchPattern wrapperPattern= SearchPattern.createPattern(wrapperClass, IJavaSearchConstants.REFERENCES, SearchUtils.GENERICS_AGNOSTIC_MATCH_RULE);
+				pattern= pattern == null ? wrapperPattern : SearchPattern.createOrPattern(pattern, wrapperPattern);
+			}
+			if (pattern == null)
+				return Status.OK_STATUS;
+
+			SearchParticipant[] participants= new SearchParticipant[] {SearchEngine.getDefaultSearchParticipant()};
+			try {
+				// one search for all accessor classes, the matches are attributed to the bundles by the requestor:
+				SearchEngine engine= new SearchEngine();
+				engine.search(pattern, participants, fScope, new WrapperClassReferenceRequestor(wrapperClasses, requestors), new SubProgressMonitor(monitor, 4 * fWrapperClass.length));
 
-				NLSSearchResultRequestor requestor= new NLSSearchResultRequestor(propertieFile, fResult);
-				try {
-					SearchEngine engine= new SearchEngine();
-					engine.search(pattern, participants, fScope, requestor, new SubProgressMonitor(monitor, 4));
+				for (int i= 0; i < wrapperClasses.length; i++) {
+					IType wrapperClass= wrapperClasses[i];
+					NLSSearchResultRequestor requestor= requestors[i];
 					requestor.reportUnusedPropertyNames(new SubProgressMonitor(monitor, 1));
 
-					ICompilationUnit compilationUnit= ((IType)wrapperClass).getCompilationUnit();
+					ICompilationUnit compilationUnit= wrapperClass.getCompilationUnit();
 					CompilationUnitEntry groupElement= new CompilationUnitEntry(NLSSearchMessages.NLSSearchResultCollector_unusedKeys, compilationUnit);
 
 					boolean hasUnusedPropertie= false;
-					IField[] fields= ((IType)wrapperClass).getFields();
+					IField[] fields= wrapperClass.getFields();
 					for (int j= 0; j < fields.length; j++) {
 						IField field= fields[j];
 						if (isNLSField(field)) {
@@ -113,10 +128,9 @@ public class NLSSearchQuery implements ISearchQuery {
 					}
 					if (hasUnusedPropertie)
 						fResult.addCompilationUnitGroup(groupElement);
-
-				} catch (CoreException e) {
-					return new Status(e.getStatus().getSeverity(), JavaPlugin.getPluginId(), IStatus.OK, NLSSearchMessages.NLSSearchQuery_error, e);
 				}
+			} catch (CoreException e) {
+				return new Status(e.getStatus().getSeverity(), JavaPlugin.getPluginId(), IStatus.OK, NLSSearchMessages.NLSSearchQuery_error, e);
 			}
 		} finally {
 			monitor.done();
@@ -187,4 +201,104 @@ public class NLSSearchQuery implements ISearchQuery {
 			fResult= new NLSSearchResult(this);
 		return fResult;
 	}
+
+	/**
+	 * Forwards the matches of the combined search for all wrapper classes to the
+	 * requestor of the wrapper class that is referenced by the match.
+	 */
+	private static class WrapperClassReferenceRequestor extends SearchRequestor {
+
+		private final IType[] fWrapperClasses;
+		private final NLSSearchResultRequestor[] fRequestors;
+
+		/**
+		 * The compilation unit of the last match and its source. Matches are reported per
+		 * compilation unit, so the source is read only once for all matches of a unit.
+		 */
+		private ICompilationUnit fLastUnit;
+		private String fLastSource;
+
+		public WrapperClassReferenceRequestor(IType[] wrapperClasses, NLSSearchResultRequestor[] requestors) {
+			fWrapperClasses= wrapperClasses;
+			fRequestors= requestors;
+		}
+
+		@Override
+		public void beginReporting() {
+			for (int i= 0; i < fRequestors.length; i++)
+				fRequestors[i].beginReporting();
+		}
+
+		@Override
+		public void endReporting() {
+			for (int i= 0; i < fRequestors.length; i++)
+				fRequestors[i].endReporting();
+			fLastUnit= null;
+			fLastSource= null;
+		}
+
+		@Override
+		public void acceptSearchMatch(SearchMatch match) throws CoreException {
+			int index= findWrapperClass(match);
+			if (index != -1)
+				fRequestors[index].acceptSearchMatch(match);
+		}
+
+		/**
+		 * Finds the wrapper class referenced by the given match. The referenced name is
+		 * compared with the names of the wrapper classes; only if that is ambiguous, the
+		 * reference is resolved.
+		 *
+		 * @param match the match
+		 * @return the index of the referenced wrapper class or -1 if it cannot be determined
+		 * @throws JavaModelException if the reference cannot be resolved
+		 */
+		private int findWrapperClass(SearchMatch match) throws JavaModelException {
+			if (fWrapperClasses.length == 1)
+				return 0;
+
+			int offset= match.getOffset();
+			int length= match.getLength();
+			if (offset == -1 || length == -1 || ! (match.getElement() instanceof IJavaElement))
+				return -1;
+
+			// matches outside of compilation units do not report keys:
+			ICompilationUnit unit= (ICompilationUnit) ((IJavaElement) match.getElement()).getAncestor(IJavaElement.COMPILATION_UNIT);
+			if (unit == null)
+				return -1;
+			if (!unit.equals(fLastUnit)) {
+				fLastUnit= unit;
+				fLastSource= unit.getSource();
+			}
+			String source= fLastSource;
+			if (source == null || offset + length > source.length())
+				return -1;
+
+			String reference= source.substring(offset, offset + length).trim();
+			String simpleName= reference.substring(reference.lastIndexOf('.') + 1).trim();
+			int found= -1;
+			for (int i= 0; i < fWrapperClasses.length; i++) {
+				IType wrapperClass= fWrapperClasses[i];
+				if (reference.equals(wrapperClass.getFullyQualifiedName('.')))
+					return i;
+				if (simpleName.equals(wrapperClass.getElementName())) {
+					if (found != -1)
+						return resolveWrapperClass(unit, offset, length);
+					found= i;
+				}
+			}
+			return found;
+		}
+
+		private int resolveWrapperClass(ICompilationUnit unit, int offset, int length) throws JavaModelException {
+			IJavaElement[] elements= unit.codeSelect(offset, length);
+			for (int i= 0; i < elements.length; i++) {
+				for (int j= 0; j < fWrapperClasses.length; j++) {
+					if (fWrapperClasses[j].equals(elements[i]))
+						return j;
+				}
+			}
+			return -1;
+		}
+	}
 }
@@ -30,6 +30,7 @@ import org.eclipse.core.filebuffers.ITextFileBuffer;
 import org.eclipse.core.filebuffers.ITextFileBufferManager;
 import org.eclipse.core.filebuffers.LocationKind;
 
+import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.Position;
 
 import org.eclipse.search.ui.text.Match;
@@ -49,6 +50,7 @@ import org.eclipse.jdt.core.compiler.InvalidInputException;
 import org.eclipse.jdt.core.search.SearchMatch;
 import org.eclipse.jdt.core.search.SearchRequestor;
 
+import org.eclipse.jdt.internal.corext.refactoring.nls.NLSUtil;
 import org.eclipse.jdt.internal.corext.refactoring.nls.PropertyFileDocumentModel;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 
@@ -75,6 +77,7 @@ class NLSSearchResultRequestor extends SearchRequestor {
 	private IFile fPropertiesFile;
 	private Properties fProperties;
 	private HashSet<String> fUsedPropertyNames;
+	private PropertyFileDocumentModel fPropertiesModel;
 
 	public NLSSearchResultRequestor(IFile propertiesFile, NLSSearchResult result) {
 		fPropertiesFile= propertiesFile;
@@ -317,75 +320,41 @@ class NLSSearchResultRequestor extends SearchRequestor {
 	}
 
 	/**
-	 * Finds the start position in the property file. We assume that
-	 * the key is the first match on a line.
+	 * Finds the start position in the property file. The file is parsed once,
+	 * the positions of all keys are then looked up in the parsed model.
 	 *
-	 * @param propertyName the property name
+	 * @param propertyName the escaped property name
 	 * @return	the start position of the property name in the file, -1 if not found
 	 */
 	private int findPropertyNameStartPosition(String propertyName) {
+		if (fPropertiesModel == null)
+			fPropertiesModel= createPropertiesModel();
+		return fPropertiesModel.getKeyOffset(propertyName); // -1 can happen if the key contains escaped characters. See bug 63794.
+	}
+
+	private PropertyFileDocumentModel createPropertiesModel() {
+		ITextFileBufferManager manager= FileBuffers.getTextFileBufferManager();
+		if (manager != null) {
+			ITextFileBuffer buffer= manager.getTextFileBuffer(fPropertiesFile.getFullPath(), LocationKind.IFILE);
+			if (buffer != null)
+				return new PropertyFileDocumentModel(new Document(buffer.getDocument().get()));
+		}
+
 		// Fix for http://dev.eclipse.org/bugs/show_bug.cgi?id=19319
-		InputStream stream= null;
-		LineReader lineReader= null;
 		String encoding;
 		try {
 			encoding= fPropertiesFile.getCharset();
-		} catch (CoreException e1) {
+		} catch (CoreException e) {
 			encoding= "ISO-8859-1";  //$NON-NLS-1$
 		}
+		String contents= null;
 		try {
-			stream= createInputStream(fPropertiesFile);
-			lineReader= new LineReader(stream, encoding);
-		} catch (CoreException cex) {
+			contents= NLSUtil.readString(fPropertiesFile.getContents(), encoding);
+		} catch (CoreException e) {
 			// failed to get input stream
-			JavaPlugin.log(cex);
-			return -1;
-		} catch (IOException e) {
-			if (stream != null) {
-				try {
-					stream.close();
-				} catch (IOException ce) {
-					JavaPlugin.log(ce);
-				}
-			}
-			return -1;
-		}
-		int start= 0;
-		try {
-			StringBuffer buf= new StringBuffer(80);
-			int eols= lineReader.readLine(buf);
-			int keyLength= propertyName.length();
-			while (eols > 0) {
-				String line= buf.toString();
-				int i= line.indexOf(propertyName);
-				int charPos= i + keyLength;
-				char terminatorChar= 0;
-				boolean hasNoValue= (charPos >= line.length());
-				if (i > -1 && !hasNoValue)
-					terminatorChar= line.charAt(charPos);
-				if (line.trim().startsWith(propertyName) &&
-						(hasNoValue || Character.isWhitespace(terminatorChar) || terminatorChar == '=')) {
-					start += line.indexOf(propertyName);
-					eols= -17; // found key
-				} else {
-					start += line.length() + eols;
-					buf.setLength(0);
-					eols= lineReader.readLine(buf);
-				}
-			}
-			if (eols != -17)
-				start= -1; //key not found in file. See bug 63794. This can happen if the key contains escaped characters.
-		} catch (IOException ex) {
-			JavaPlugin.log(ex);
-			return -1;
-		} finally {
-			try {
-				lineReader.close();
-			} catch (IOException ex) {
-				JavaPlugin.log(ex);
-			}
+			JavaPlugin.log(e);
 		}
-		return start;
+		return new PropertyFileDocumentModel(new Document(contents != null ? contents : "")); //$NON-NLS-1$
 	}
 
 	private void loadProperties() {
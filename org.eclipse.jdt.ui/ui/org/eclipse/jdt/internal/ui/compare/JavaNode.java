@@ -57,6 +57,19 @@ class JavaNode extends DocumentRangeNode implements ITypedElement {
 		parent.addChild(this);
 	}
 
+	/**
+	 * Creates a JavaNode with a given ID under the given parent.
+	 * @param parent the parent node
+	 * @param id the ID of the node, as built from its type and name
+	 * @param type the Java elements type. Legal values are from the range CU to METHOD of this class.
+	 * @param start the starting position of the java element in the underlying document
+	 * @param length the number of characters of the java element in the underlying document
+	 */
+	JavaNode(JavaNode parent, String id, int type, int start, int length) {
+		super(parent, type, id, parent.getDocument(), start, length);
+		parent.addChild(this);
+	}
+
 	/**
 	 * Creates a JavaNode for a CU. It represents the root of a
 	 * JavaNode tree, so its parent is null.
@@ -293,14 +293,27 @@ public class JavaStructureCreator extends StructureCreator {
 				contents.getChars(0, n, buffer, 0);
 			}
 
+			// sources that cannot change, like local history states, are only parsed once
+			String key= null;
+			if (!isEditable && adapter == null) {
+				key= JavaStructureIndex.getKey(buffer, compilerOptions);
+				JavaStructureIndex index= key != null ? JavaStructureIndex.get(key) : null;
+				if (index != null)
+					return index.build(root);
+			}
+
 			ASTParser parser= ASTParser.newParser(ASTProvider.SHARED_AST_LEVEL);
 			if (compilerOptions != null)
 				parser.setCompilerOptions(compilerOptions);
 			parser.setSource(buffer);
 			parser.setFocalPosition(0);
+			// the JavaParseTreeBuilder does not look into method bodies
+			parser.setIgnoreMethodBodies(true);
 			CompilationUnit cu= (CompilationUnit) parser.createAST(monitor);
 			cu.accept(new JavaParseTreeBuilder(root, buffer, true));
 
+			if (key != null)
+				JavaStructureIndex.put(key, root);
 			return root;
 		}
 		return null;
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.compare;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.compare.structuremergeviewer.IStructureComparator;
+
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.internal.corext.util.LRUMap;
+
+
+/**
+ * The members and source ranges of a Java source, so that the {@link JavaNode} tree of a source
+ * that does not change, like a local history state, only has to be parsed once.
+ * <p>
+ * The indexes are shared by all compare sessions and looked up by a digest of the source.
+ * </p>
+ *
+ * @since 3.11
+ */
+public final class JavaStructureIndex {
+
+	/**
+	 * The number of sources whose indexes are kept.
+	 */
+	public static final int MAX_INDEXES= 500;
+
+	private static final LRUMap<String, JavaStructureIndex> fgIndexes= new LRUMap<String, JavaStructureIndex>(MAX_INDEXES);
+
+	/*
+	 * The nodes below the root in pre-order. A parent index of -1 denotes the root.
+	 */
+	private final int[] fParents;
+	private final int[] fTypes;
+	private final String[] fIds;
+	private final int[] fOffsets;
+	private final int[] fLengths;
+	private final int[] fAppendPositions;
+
+	private JavaStructureIndex(List<JavaNode> nodes, List<Integer> parents) {
+		int n= nodes.size();
+		fParents= new int[n];
+		fTypes= new int[n];
+		fIds= new String[n];
+		fOffsets= new int[n];
+		fLengths= new int[n];
+		fAppendPositions= new int[n];
+		for (int i= 0; i < n; i++) {
+			JavaNode node= nodes.get(i);
+			fParents[i]= parents.get(i).intValue();
+			fTypes[i]= node.getTypeCode();
+			fIds[i]= node.getId();
+			fOffsets[i]= node.getRange().getOffset();
+			fLengths[i]= node.getRange().getLength();
+			fAppendPositions[i]= hasAppendPosition(fTypes[i]) ? node.getAppendPosition().getOffset() : -1;
+		}
+	}
+
+	/**
+	 * Returns the key of the index of a source.
+	 *
+	 * @param buffer the source
+	 * @param compilerOptions the compiler options to parse the source, or <code>null</code>
+	 * @return the key, or <code>null</code> if no digest can be computed
+	 */
+	public static String getKey(char[] buffer, Map<String, String> compilerOptions) {
+		try {
+			MessageDigest digest= MessageDigest.getInstance("SHA-1"); //$NON-NLS-1$
+			byte[] hash= digest.digest(new String(buffer).getBytes("UTF-8")); //$NON-NLS-1$
+			StringBuffer key= new StringBuffer(hash.length * 2 + 8);
+			for (int i= 0; i < hash.length; i++) {
+				key.append(Character.forDigit((hash[i] >> 4) & 0xF, 16));
+				key.append(Character.forDigit(hash[i] & 0xF, 16));
+			}
+			if (compilerOptions != null) {
+				key.append('/').append(compilerOptions.get(JavaCore.COMPILER_SOURCE));
+			}
+			return key.toString();
+		} catch (NoSuchAlgorithmException e) {
+			return null;
+		} catch (UnsupportedEncodingException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the index with the given key.
+	 *
+	 * @param key the key of the source
+	 * @return the index, or <code>null</code> if the source has not been indexed yet
+	 */
+	public static JavaStructureIndex get(String key) {
+		synchronized (fgIndexes) {
+			return fgIndexes.get(key);
+		}
+	}
+
+	/**
+	 * Indexes the node tree of a source.
+	 *
+	 * @param key the key of the source
+	 * @param root the root of the tree parsed from the source
+	 */
+	static void put(String key, JavaNode root) {
+		List<JavaNode> nodes= new ArrayList<JavaNode>();
+		List<Integer> parents= new ArrayList<Integer>();
+		collect(root, -1, nodes, parents);
+		JavaStructureIndex index= new JavaStructureIndex(nodes, parents);
+		synchronized (fgIndexes) {
+			fgIndexes.put(key, index);
+		}
+	}
+
+	private static void collect(JavaNode parent, int parentIndex, List<JavaNode> nodes, List<Integer> parents) {
+		Object[] children= parent.getChildren();
+		if (children == null)
+			return;
+		for (int i= 0; i < children.length; i++) {
+			JavaNode child= (JavaNode) children[i];
+			int index= nodes.size();
+			nodes.add(child);
+			parents.add(new Integer(parentIndex));
+			collect(child, index, nodes, parents);
+		}
+	}
+
+	/**
+	 * Recreates the indexed node tree below the given root.
+	 *
+	 * @param root the root node for the document of the indexed source
+	 * @return the root
+	 */
+	IStructureComparator build(JavaNode root) {
+		JavaNode[] nodes= new JavaNode[fIds.length];
+		for (int i= 0; i < nodes.length; i++) {
+			JavaNode parent= fParents[i] == -1 ? root : nodes[fParents[i]];
+			nodes[i]= new JavaNode(parent, fIds[i], fTypes[i], fOffsets[i], fLengths[i]);
+			if (fAppendPositions[i] != -1)
+				nodes[i].setAppendPosition(fAppendPositions[i]);
+		}
+		return root;
+	}
+
+	/*
+	 * The JavaParseTreeBuilder sets the append position of all nodes but the package and
+	 * import declarations. Asking other nodes would create an append position.
+	 */
+	private static boolean hasAppendPosition(int type) {
+		return type != JavaNode.PACKAGE && type != JavaNode.IMPORT;
+	}
+}
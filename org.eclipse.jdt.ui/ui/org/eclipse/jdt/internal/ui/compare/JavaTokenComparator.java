@@ -35,6 +35,10 @@ public class JavaTokenComparator implements ITokenComparator {
 	private int fCount;
 	private int[] fStarts;
 	private int[] fLengths;
+	/**
+	 * The hash codes of the tokens, or <code>null</code> if not computed yet.
+	 */
+	private int[] fHashes;
 
 	/**
 	 * Creates a token comparator for the given string.
@@ -173,12 +177,35 @@ public class JavaTokenComparator implements ITokenComparator {
 			JavaTokenComparator tc= (JavaTokenComparator) other;	// safe cast
 			int thisLen= getTokenLength(thisIndex);
 			int otherLen= tc.getTokenLength(otherIndex);
-			if (thisLen == otherLen)
+			if (thisLen == otherLen && getTokenHash(thisIndex) == tc.getTokenHash(otherIndex))
 				return fText.regionMatches(false, getTokenStart(thisIndex), tc.fText, tc.getTokenStart(otherIndex), thisLen);
 		}
 		return false;
 	}
 
+	/**
+	 * Returns the hash code of a token. The differencer compares each token with many
+	 * tokens of the other side, so the hash codes are computed once for all tokens.
+	 *
+	 * @param index the index of the token
+	 * @return the hash code of the token text
+	 */
+	private int getTokenHash(int index) {
+		if (index < 0 || index >= fCount)
+			return 0;
+		if (fHashes == null) {
+			int[] hashes= new int[fCount];
+			for (int i= 0; i < fCount; i++) {
+				int hash= 0;
+				for (int j= fStarts[i], end= fStarts[i] + fLengths[i]; j < end; j++)
+					hash= 31 * hash + fText.charAt(j);
+				hashes[i]= hash;
+			}
+			fHashes= hashes;
+		}
+		return fHashes[index];
+	}
+
 	/**
 	 * Aborts the comparison if the number of tokens is too large.
 	 *
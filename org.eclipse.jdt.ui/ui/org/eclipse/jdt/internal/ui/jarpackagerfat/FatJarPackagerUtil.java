@@ -63,7 +63,7 @@ public final class FatJarPackagerUtil {
 
 	public static byte[] readInputStream(InputStream is) throws IOException {
 		ByteArrayOutputStream result= new ByteArrayOutputStream();
-		byte[] buf= new byte[1024];
+		byte[] buf= new byte[8192];
 		int cnt= is.read(buf);
 		while (cnt > 0) {
 			result.write(buf, 0, cnt);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2009 IBM Corporation and others.
+ * Copyright (c) 2007, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,11 +14,14 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.jarpackagerfat;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.jar.JarEntry;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -43,6 +46,21 @@ import org.eclipse.jdt.internal.ui.viewsupport.BasicElementLabels;
  */
 public class JarWriter4 extends JarWriter3 {
 
+	/**
+	 * File extensions of archive entries whose content is already compressed. Deflating them
+	 * again costs time without reducing the size, so they are stored even if the JAR is
+	 * compressed.
+	 */
+	private static final String[] COMPRESSED_EXTENSIONS= { ".jar", ".zip", ".gz", ".war", ".ear", ".png", ".jpg", ".jpeg", ".gif" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$
+
+	private static final int BUFFER_SIZE= 64 * 1024;
+
+	/**
+	 * Stored entries need their CRC before the content is written. Files up to this size are
+	 * read into memory once, larger files are read twice.
+	 */
+	private static final int MAX_BUFFERED_FILE_SIZE= 32 * 1024 * 1024;
+
 	private final JarPackageData fJarPackage;
 
 	public JarWriter4(JarPackageData jarPackage, Shell parent) throws CoreException {
@@ -50,16 +68,28 @@ public class JarWriter4 extends JarWriter3 {
 		fJarPackage= jarPackage;
 	}
 
+	/**
+	 * Adds an entry of a library archive. The content is inflated from the library and, if the
+	 * JAR is compressed, deflated again, since the {@link java.util.jar.JarOutputStream} of the
+	 * writer cannot take over deflated data. Entries whose content is compressed by nature are
+	 * stored instead, with the size and CRC of the source entry.
+	 *
+	 * @param zipEntry the entry of the library
+	 * @param zipFile the library
+	 * @param path the path of the entry in the JAR
+	 * @throws IOException if the entry could not be read or written
+	 */
 	public void addZipEntry(ZipEntry zipEntry, ZipFile zipFile, String path) throws IOException {
 		if (fJarPackage.areDirectoryEntriesIncluded())
 			addDirectories(path);
 
 		JarEntry newEntry= new JarEntry(path.replace(File.separatorChar, '/'));
 
-		if (fJarPackage.isCompressed())
+		if (fJarPackage.isCompressed() && !(isCompressedContent(path) && zipEntry.getSize() != -1 && zipEntry.getCrc() != -1))
 			newEntry.setMethod(ZipEntry.DEFLATED);
 			// Entry is filled automatically.
 		else {
+			// reuse size and CRC of the source entry, no need to read the content twice
 			newEntry.setMethod(ZipEntry.STORED);
 			newEntry.setSize(zipEntry.getSize());
 			newEntry.setCrc(zipEntry.getCrc());
@@ -91,6 +121,60 @@ public class JarWriter4 extends JarWriter3 {
 		addEntry(newEntry, is);
 	}
 
+	/**
+	 * Adds the given file as a stored (uncompressed) entry, independent of the compression
+	 * setting of the JAR. Used for nested archives, whose content is already compressed and
+	 * which can then be read from the JAR without inflating.
+	 *
+	 * @param file the file to add
+	 * @param path the path of the entry
+	 * @throws IOException if the file could not be read or written
+	 */
+	public void addStoredFile(File file, String path) throws IOException {
+		if (fJarPackage.areDirectoryEntriesIncluded())
+			addDirectories(path);
+		JarEntry newEntry= new JarEntry(path.replace(File.separatorChar, '/'));
+		newEntry.setTime(System.currentTimeMillis());
+		addStoredEntry(newEntry, file);
+	}
+
+	private void addStoredEntry(JarEntry entry, File file) throws IOException {
+		entry.setMethod(ZipEntry.STORED);
+		long length= file.length();
+		if (length > MAX_BUFFERED_FILE_SIZE) {
+			JarPackagerUtil.calculateCrcAndSize(entry, new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE), new byte[BUFFER_SIZE]);
+			addEntry(entry, new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+			return;
+		}
+
+		// read the content once, computing the CRC on the way
+		byte[] content= new byte[(int) length];
+		CRC32 crc= new CRC32();
+		int size= 0;
+		InputStream stream= new FileInputStream(file);
+		try {
+			int count;
+			while (size < content.length && (count= stream.read(content, size, content.length - size)) != -1) {
+				crc.update(content, size, count);
+				size+= count;
+			}
+		} finally {
+			stream.close();
+		}
+		entry.setSize(size);
+		entry.setCrc(crc.getValue());
+		addEntry(entry, new ByteArrayInputStream(content, 0, size));
+	}
+
+	private static boolean isCompressedContent(String path) {
+		String lowerCasePath= path.toLowerCase();
+		for (int i= 0; i < COMPRESSED_EXTENSIONS.length; i++) {
+			if (lowerCasePath.endsWith(COMPRESSED_EXTENSIONS[i]))
+				return true;
+		}
+		return false;
+	}
+
 	public void write(File file, IPath destinationPath) throws CoreException {
 		try {
 			addFile(file, destinationPath);
@@ -113,15 +197,13 @@ public class JarWriter4 extends JarWriter3 {
 
 		JarEntry newEntry= new JarEntry(path.toString().replace(File.separatorChar, '/'));
 
-		if (fJarPackage.isCompressed())
+		newEntry.setTime(file.lastModified());
+		if (fJarPackage.isCompressed()) {
 			newEntry.setMethod(ZipEntry.DEFLATED);
 			// Entry is filled automatically.
-		else {
-			newEntry.setMethod(ZipEntry.STORED);
-			JarPackagerUtil.calculateCrcAndSize(newEntry, new FileInputStream(file), new byte[4096]);
+			addEntry(newEntry, new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+		} else {
+			addStoredEntry(newEntry, file);
 		}
-
-		newEntry.setTime(file.lastModified());
-		addEntry(newEntry, new FileInputStream(file));
 	}
 }
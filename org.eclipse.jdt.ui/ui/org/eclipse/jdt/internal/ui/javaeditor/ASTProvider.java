@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -209,6 +209,9 @@ public final class ASTProvider {
 	private volatile boolean fIsReconciling;
 	private IWorkbenchPart fActiveEditor;
 
+	private int fCacheHits;
+	private int fCacheMisses;
+
 
 	/**
 	 * Returns the Java plug-in's AST provider.
@@ -413,6 +416,7 @@ public final class ASTProvider {
 					if (JavaPlugin.DEBUG_AST_PROVIDER)
 						System.out.println(getThreadName() + " - " + DEBUG_PREFIX + "returning cached AST:" + toString(fAST) + " for: " + input.getElementName()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 
+					fCacheHits++;
 					return fAST;
 				}
 				if (waitFlag == SharedASTProvider.WAIT_NO) {
@@ -466,6 +470,9 @@ public final class ASTProvider {
 			return null;
 
 
+		synchronized (this) {
+			fCacheMisses++;
+		}
 		CompilationUnit ast= null;
 		try {
 			ast= createAST(input, progressMonitor);
@@ -568,6 +575,57 @@ public final class ASTProvider {
 		return false;
 	}
 
+	/**
+	 * Returns the Java element of the active Java editor. Used for debugging.
+	 *
+	 * @return the active Java element, or <code>null</code> if no Java editor is active
+	 * @since 3.11
+	 */
+	public synchronized ITypeRoot getActiveJavaElement() {
+		return fActiveJavaElement;
+	}
+
+	/**
+	 * Tells whether an AST for the active Java element is cached. Used for debugging.
+	 *
+	 * @return <code>true</code> if an AST is cached
+	 * @since 3.11
+	 */
+	public synchronized boolean hasCachedAST() {
+		return fAST != null;
+	}
+
+	/**
+	 * Returns the number of times a cached AST has been returned. Used for debugging.
+	 *
+	 * @return the number of cache hits
+	 * @since 3.11
+	 */
+	public synchronized int getCacheHits() {
+		return fCacheHits;
+	}
+
+	/**
+	 * Returns the number of times an AST had to be created because no AST was cached for the
+	 * requested element. Used for debugging.
+	 *
+	 * @return the number of cache misses
+	 * @since 3.11
+	 */
+	public synchronized int getCacheMisses() {
+		return fCacheMisses;
+	}
+
+	/**
+	 * Disposes the cached AST. The AST of the active Java element is created again by the next
+	 * reconcile or request. Used for debugging.
+	 *
+	 * @since 3.11
+	 */
+	public void flushCache() {
+		disposeAST();
+	}
+
 	/**
 	 * Disposes this AST provider.
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -111,6 +111,7 @@ import org.eclipse.jdt.core.WorkingCopyOwner;
 import org.eclipse.jdt.core.compiler.CategorizedProblem;
 import org.eclipse.jdt.core.compiler.IProblem;
 
+import org.eclipse.jdt.internal.corext.util.ExtensionMetrics;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 import org.eclipse.jdt.internal.corext.util.Messages;
 
@@ -1595,7 +1596,12 @@ public class CompilationUnitDocumentProvider extends TextFileDocumentProvider im
 						try {
 							long stamp= unit.getResource().getModificationStamp();
 
-							listener.saved(unit, changedRegions, getSubProgressMonitor(monitor, 4));
+							long start= ExtensionMetrics.start();
+							try {
+								listener.saved(unit, changedRegions, getSubProgressMonitor(monitor, 4));
+							} finally {
+								ExtensionMetrics.record(ExtensionMetrics.SAVE_PARTICIPANT, listener.getId(), start);
+							}
 
 							if (stamp != unit.getResource().getModificationStamp()) {
 								String msg= Messages.format(JavaEditorMessages.CompilationUnitDocumentProvider_error_saveParticipantSavedFile, participantName);
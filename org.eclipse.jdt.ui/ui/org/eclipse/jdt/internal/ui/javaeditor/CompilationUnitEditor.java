@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -112,6 +112,7 @@ import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.formatter.DefaultCodeFormatterConstants;
 
 import org.eclipse.jdt.internal.corext.fix.CleanUpPreferenceUtil;
+import org.eclipse.jdt.internal.corext.util.ExtensionMetrics;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 
 import org.eclipse.jdt.ui.IWorkingCopyManager;
@@ -1657,8 +1658,14 @@ public class CompilationUnitEditor extends JavaEditor implements IJavaReconcilin
 
 		// Notify listeners
 		Object[] listeners = fReconcilingListeners.getListeners();
-		for (int i = 0, length= listeners.length; i < length; ++i)
-			((IJavaReconcilingListener)listeners[i]).reconciled(ast, forced, progressMonitor);
+		for (int i = 0, length= listeners.length; i < length; ++i) {
+			long start= ExtensionMetrics.start();
+			try {
+				((IJavaReconcilingListener)listeners[i]).reconciled(ast, forced, progressMonitor);
+			} finally {
+				ExtensionMetrics.record(ExtensionMetrics.RECONCILING_LISTENER, listeners[i].getClass().getName(), start);
+			}
+		}
 
 		// Update Java Outline page selection
 		if (!forced && !progressMonitor.isCanceled()) {
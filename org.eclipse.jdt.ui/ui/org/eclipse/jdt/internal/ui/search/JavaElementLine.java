@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,28 +10,27 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.search;
 
-import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
-
-import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.ITypeRoot;
 import org.eclipse.jdt.core.formatter.IndentManipulation;
 
-import org.eclipse.jdt.internal.corext.util.Messages;
-
-import org.eclipse.jdt.ui.JavaUI;
-
-import org.eclipse.jdt.internal.ui.viewsupport.BasicElementLabels;
-
 
+/**
+ * A line with matches. The line contents are only extracted when the line is shown, from the
+ * contents of the element at search time, so that they fit the offsets of the matches.
+ */
 public class JavaElementLine {
 
 
 	private final ITypeRoot fElement;
-	private final String fLineContents;
 	private final int fLineNumber;
-	private final int fLineStartOffset;
+	private int fLineStartOffset;
+	private String fLineContents;
+
+	/**
+	 * The contents of the element at search time, shared by all lines of the element, or
+	 * <code>null</code> once the line contents have been extracted.
+	 */
+	private String fContents;
 
 	private int fFlags;
 
@@ -39,40 +38,43 @@ public class JavaElementLine {
 	 * @param element either an ICompilationUnit or an IClassFile
 	 * @param lineNumber the line number, starting at 0
 	 * @param lineStartOffset the start offset of the line
-	 * @throws CoreException thrown when accessing of the buffer failed
+	 * @param contents the contents of the element at search time, or <code>null</code> if the
+	 *            contents are not available
 	 */
-	public JavaElementLine(ITypeRoot element, int lineNumber, int lineStartOffset) throws CoreException {
+	public JavaElementLine(ITypeRoot element, int lineNumber, int lineStartOffset, String contents) {
 		fElement= element;
 		fFlags= 0;
+		fLineNumber= lineNumber;
+		fLineStartOffset= lineStartOffset;
+		fContents= contents != null ? contents : ""; //$NON-NLS-1$
+	}
 
-		IBuffer buffer= element.getBuffer();
-		if (buffer == null) {
-			throw new CoreException(new Status(IStatus.ERROR, JavaUI.ID_PLUGIN, Messages.format( SearchMessages.JavaElementLine_error_nobuffer, BasicElementLabels.getFileName(element))));
-		}
-
-		int length= buffer.getLength();
-		int i= lineStartOffset;
+	/**
+	 * Extracts the line contents and skips the indentation of the line.
+	 */
+	private void initializeLine() {
+		String contents= fContents;
+		int length= contents.length();
+		int i= fLineStartOffset;
 
-		char ch= buffer.getChar(i);
-		while (lineStartOffset < length && IndentManipulation.isIndentChar(ch)) {
-			ch= buffer.getChar(++i);
+		while (i < length && IndentManipulation.isIndentChar(contents.charAt(i))) {
+			i++;
 		}
 		fLineStartOffset= i;
 
 		StringBuffer buf= new StringBuffer();
 
-		while (i < length && !IndentManipulation.isLineDelimiterChar(ch)) {
+		while (i < length && !IndentManipulation.isLineDelimiterChar(contents.charAt(i))) {
+			char ch= contents.charAt(i);
 			if (Character.isISOControl(ch)) {
 				buf.append(' ');
 			} else {
 				buf.append(ch);
 			}
 			i++;
-			if (i < length)
-				ch= buffer.getChar(i);
 		}
 		fLineContents= buf.toString();
-		fLineNumber= lineNumber;
+		fContents= null;
 	}
 
 	public void setFlags(int flags) {
@@ -89,18 +91,22 @@ public class JavaElementLine {
 
 	/**
 	 * Returns the line number.
-	 * 
+	 *
 	 * @return the line number, starting at 0
 	 */
 	public int getLineNumber() {
 		return fLineNumber;
 	}
 
-	public String getLineContents() {
+	public synchronized String getLineContents() {
+		if (fLineContents == null)
+			initializeLine();
 		return fLineContents;
 	}
 
-	public int getLineStartOffset() {
+	public synchronized int getLineStartOffset() {
+		if (fLineContents == null)
+			initializeLine();
 		return fLineStartOffset;
 	}
 }
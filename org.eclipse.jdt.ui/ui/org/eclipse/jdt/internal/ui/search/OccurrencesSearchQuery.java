@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -24,11 +24,15 @@ import org.eclipse.search.ui.ISearchQuery;
 import org.eclipse.search.ui.ISearchResult;
 import org.eclipse.search.ui.text.Match;
 
+import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.ITypeRoot;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 
 import org.eclipse.jdt.internal.corext.util.Messages;
 
+import org.eclipse.jdt.ui.JavaUI;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.dialogs.StatusInfo;
 import org.eclipse.jdt.internal.ui.search.IOccurrencesFinder.OccurrenceLocation;
 import org.eclipse.jdt.internal.ui.viewsupport.BasicElementLabels;
@@ -71,12 +75,13 @@ public class OccurrencesSearchQuery implements ISearchQuery {
 			if (occurrences != null) {
 				HashMap<Integer, JavaElementLine> lineMap= new HashMap<Integer, JavaElementLine>();
 				CompilationUnit astRoot= fFinder.getASTRoot();
+				String contents= getContents(astRoot.getTypeRoot());
 				ArrayList<OccurrenceMatch> resultingMatches= new ArrayList<OccurrenceMatch>();
 
 				for (int i= 0; i < occurrences.length; i++) {
 					OccurrenceLocation loc= occurrences[i];
 
-					JavaElementLine lineKey= getLineElement(astRoot, loc, lineMap);
+					JavaElementLine lineKey= getLineElement(astRoot, contents, loc, lineMap);
 					if (lineKey != null) {
 						OccurrenceMatch match= new OccurrenceMatch(lineKey, loc.getOffset(), loc.getLength(), loc.getFlags());
 						resultingMatches.add(match);
@@ -98,24 +103,40 @@ public class OccurrencesSearchQuery implements ISearchQuery {
 		return Status.OK_STATUS;
 	}
 
-	private JavaElementLine getLineElement(CompilationUnit astRoot, OccurrenceLocation location, HashMap<Integer, JavaElementLine> lineToGroup) {
+	/**
+	 * Returns the contents of the element's buffer. The lines extract their contents from this
+	 * copy when they are shown, so that the contents fit the offsets of the occurrences even if
+	 * the buffer has changed in the meantime.
+	 *
+	 * @param element the element
+	 * @return the contents, or <code>null</code> if the buffer is not available
+	 */
+	private static String getContents(ITypeRoot element) {
+		try {
+			IBuffer buffer= element.getBuffer();
+			if (buffer == null) {
+				throw new CoreException(new Status(IStatus.ERROR, JavaUI.ID_PLUGIN, Messages.format(SearchMessages.JavaElementLine_error_nobuffer, BasicElementLabels.getFileName(element))));
+			}
+			return buffer.getContents();
+		} catch (CoreException e) {
+			JavaPlugin.log(e);
+			return null;
+		}
+	}
+
+	private JavaElementLine getLineElement(CompilationUnit astRoot, String contents, OccurrenceLocation location, HashMap<Integer, JavaElementLine> lineToGroup) {
 		int lineNumber= astRoot.getLineNumber(location.getOffset());
 		if (lineNumber <= 0) {
 			return null;
 		}
-		JavaElementLine lineElement= null;
-		try {
-			Integer key= new Integer(lineNumber);
-			lineElement= lineToGroup.get(key);
-			if (lineElement == null) {
-				int lineStartOffset= astRoot.getPosition(lineNumber, 0);
-				if (lineStartOffset >= 0) {
-					lineElement= new JavaElementLine(astRoot.getTypeRoot(), lineNumber - 1, lineStartOffset);
-					lineToGroup.put(key, lineElement);
-				}
+		Integer key= new Integer(lineNumber);
+		JavaElementLine lineElement= lineToGroup.get(key);
+		if (lineElement == null) {
+			int lineStartOffset= astRoot.getPosition(lineNumber, 0);
+			if (lineStartOffset >= 0) {
+				lineElement= new JavaElementLine(astRoot.getTypeRoot(), lineNumber - 1, lineStartOffset, contents);
+				lineToGroup.put(key, lineElement);
 			}
-		} catch (CoreException e) {
-			//nothing
 		}
 		return lineElement;
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -126,6 +126,14 @@ public final class ContributedProcessorDescriptor {
 		return false;
 	}
 
+	/**
+	 * @return the identifier of the contributed processor
+	 * @since 3.11
+	 */
+	public String getId() {
+		return fConfigurationElement.getAttribute(ID);
+	}
+
 	public Object getProcessor(ICompilationUnit cunit, Class<?> expectedType) {
 		if (matches(cunit)) {
 			if (fProcessorInstance == null) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -48,6 +48,7 @@ import org.eclipse.ltk.core.refactoring.NullChange;
 
 import org.eclipse.jdt.core.ICompilationUnit;
 
+import org.eclipse.jdt.internal.corext.util.ExtensionMetrics;
 import org.eclipse.jdt.internal.corext.util.Messages;
 
 import org.eclipse.jdt.ui.JavaUI;
@@ -320,9 +321,17 @@ public class JavaCorrectionProcessor implements org.eclipse.jface.text.quickassi
 	}
 
 	private static abstract class SafeCorrectionProcessorAccess implements ISafeRunnable {
+		private final String fExtensionPoint;
 		private MultiStatus fMulti= null;
 		private ContributedProcessorDescriptor fDescriptor;
 
+		/**
+		 * @param extensionPoint the {@link ExtensionMetrics} extension point of the processors
+		 */
+		protected SafeCorrectionProcessorAccess(String extensionPoint) {
+			fExtensionPoint= extensionPoint;
+		}
+
 		public void process(ContributedProcessorDescriptor[] desc) {
 			for (int i= 0; i < desc.length; i++) {
 				fDescriptor= desc[i];
@@ -336,7 +345,12 @@ public class JavaCorrectionProcessor implements org.eclipse.jface.text.quickassi
 		}
 
 		public void run() throws Exception {
-			safeRun(fDescriptor);
+			long start= ExtensionMetrics.start();
+			try {
+				safeRun(fDescriptor);
+			} finally {
+				ExtensionMetrics.record(fExtensionPoint, fDescriptor.getId(), start);
+			}
 		}
 
 		protected abstract void safeRun(ContributedProcessorDescriptor processor) throws Exception;
@@ -363,6 +377,7 @@ public class JavaCorrectionProcessor implements org.eclipse.jface.text.quickassi
 		private IProblemLocation[] fLocations;
 
 		public SafeCorrectionCollector(IInvocationContext context, Collection<IJavaCompletionProposal> proposals) {
+			super(ExtensionMetrics.QUICK_FIX_PROCESSOR);
 			fContext= context;
 			fProposals= proposals;
 		}
@@ -391,6 +406,7 @@ public class JavaCorrectionProcessor implements org.eclipse.jface.text.quickassi
 		private final Collection<IJavaCompletionProposal> fProposals;
 
 		public SafeAssistCollector(IInvocationContext context, IProblemLocation[] locations, Collection<IJavaCompletionProposal> proposals) {
+			super(ExtensionMetrics.QUICK_ASSIST_PROCESSOR);
 			fContext= context;
 			fLocations= locations;
 			fProposals= proposals;
@@ -415,6 +431,7 @@ public class JavaCorrectionProcessor implements org.eclipse.jface.text.quickassi
 		private boolean fHasAssists;
 
 		public SafeHasAssist(IInvocationContext context) {
+			super(ExtensionMetrics.QUICK_ASSIST_PROCESSOR);
 			fContext= context;
 			fHasAssists= false;
 		}
@@ -438,6 +455,7 @@ public class JavaCorrectionProcessor implements org.eclipse.jface.text.quickassi
 		private boolean fHasCorrections;
 
 		public SafeHasCorrections(ICompilationUnit cu, int problemId) {
+			super(ExtensionMetrics.QUICK_FIX_PROCESSOR);
 			fCu= cu;
 			fProblemId= problemId;
 			fHasCorrections= false;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2012 IBM Corporation and others.
+ * Copyright (c) 2005, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -35,6 +35,7 @@ import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 import org.eclipse.jface.text.contentassist.IContextInformation;
 
+import org.eclipse.jdt.internal.corext.util.ExtensionMetrics;
 import org.eclipse.jdt.internal.corext.util.Messages;
 
 import org.eclipse.jdt.ui.text.IJavaPartitions;
@@ -330,7 +331,13 @@ final class CompletionProposalComputerDescriptor {
 
 			try {
 				PerformanceStats stats= startMeter(context, computer);
-				List<ICompletionProposal> proposals= computer.computeCompletionProposals(context, monitor);
+				long start= ExtensionMetrics.start();
+				List<ICompletionProposal> proposals;
+				try {
+					proposals= computer.computeCompletionProposals(context, monitor);
+				} finally {
+					ExtensionMetrics.record(ExtensionMetrics.COMPLETION_PROPOSAL_COMPUTER, fId, start);
+				}
 				stopMeter(stats, COMPUTE_COMPLETION_PROPOSALS);
 
 				if (proposals != null) {
@@ -377,7 +384,13 @@ final class CompletionProposalComputerDescriptor {
 				return Collections.emptyList();
 
 			PerformanceStats stats= startMeter(context, computer);
-			List<IContextInformation> proposals= computer.computeContextInformation(context, monitor);
+			long start= ExtensionMetrics.start();
+			List<IContextInformation> proposals;
+			try {
+				proposals= computer.computeContextInformation(context, monitor);
+			} finally {
+				ExtensionMetrics.record(ExtensionMetrics.COMPLETION_PROPOSAL_COMPUTER, fId, start);
+			}
 			stopMeter(stats, COMPUTE_CONTEXT_INFORMATION);
 
 			if (proposals != null) {
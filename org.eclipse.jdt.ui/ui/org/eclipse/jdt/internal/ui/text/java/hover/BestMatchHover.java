@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -24,6 +24,8 @@ import org.eclipse.jface.text.information.IInformationProviderExtension2;
 
 import org.eclipse.ui.IEditorPart;
 
+import org.eclipse.jdt.internal.corext.util.ExtensionMetrics;
+
 import org.eclipse.jdt.ui.PreferenceConstants;
 import org.eclipse.jdt.ui.text.java.hover.IJavaEditorTextHover;
 
@@ -111,7 +113,13 @@ public class BestMatchHover extends AbstractJavaEditorTextHover {
 			if (hover == null)
 				continue;
 
-			String s= hover.getHoverInfo(textViewer, hoverRegion);
+			long start= ExtensionMetrics.start();
+			String s;
+			try {
+				s= hover.getHoverInfo(textViewer, hoverRegion);
+			} finally {
+				ExtensionMetrics.record(ExtensionMetrics.TEXT_HOVER, hover.getClass().getName(), start);
+			}
 			if (s != null && s.trim().length() > 0) {
 				fBestHover= hover;
 				return s;
@@ -160,13 +168,25 @@ public class BestMatchHover extends AbstractJavaEditorTextHover {
 				continue;
 
 			if (hover instanceof ITextHoverExtension2) {
-				Object info= ((ITextHoverExtension2) hover).getHoverInfo2(textViewer, hoverRegion);
+				long start= ExtensionMetrics.start();
+				Object info;
+				try {
+					info= ((ITextHoverExtension2) hover).getHoverInfo2(textViewer, hoverRegion);
+				} finally {
+					ExtensionMetrics.record(ExtensionMetrics.TEXT_HOVER, hover.getClass().getName(), start);
+				}
 				if (info != null && !(forInformationProvider && getInformationPresenterControlCreator(hover) == null)) {
 					fBestHover= hover;
 					return info;
 				}
 			} else {
-				String s= hover.getHoverInfo(textViewer, hoverRegion);
+				long start= ExtensionMetrics.start();
+				String s;
+				try {
+					s= hover.getHoverInfo(textViewer, hoverRegion);
+				} finally {
+					ExtensionMetrics.record(ExtensionMetrics.TEXT_HOVER, hover.getClass().getName(), start);
+				}
 				if (s != null && s.trim().length() > 0) {
 					fBestHover= hover;
 					return s;
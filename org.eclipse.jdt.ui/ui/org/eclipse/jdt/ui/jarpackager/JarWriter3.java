@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -75,8 +75,15 @@ import org.eclipse.jdt.internal.ui.viewsupport.BasicElementLabels;
  */
 public class JarWriter3 {
 
+	private static final int BUFFER_SIZE= 64 * 1024;
+
 	private Set<String> fDirectories= new HashSet<String>();
 
+	/**
+	 * The buffer to copy contents, shared by all entries.
+	 */
+	private byte[] fBuffer;
+
 	private JarOutputStream fJarOutputStream;
 
 	private JarPackageData fJarPackage;
@@ -223,7 +230,7 @@ public class JarWriter3 {
 	 */
 	protected void addFile(IFile resource, IPath path) throws IOException, CoreException {
 		JarEntry newEntry= new JarEntry(path.toString().replace(File.separatorChar, '/'));
-		byte[] readBuffer= new byte[4096];
+		byte[] readBuffer= getBuffer();
 
 		if (fJarPackage.isCompressed())
 			newEntry.setMethod(ZipEntry.DEFLATED);
@@ -249,6 +256,12 @@ public class JarWriter3 {
 		addEntry(newEntry, contentStream);
 	}
 
+	private byte[] getBuffer() {
+		if (fBuffer == null)
+			fBuffer= new byte[BUFFER_SIZE];
+		return fBuffer;
+	}
+
 	/**
 	 * Write the given entry describing the given content to the
 	 * current archive
@@ -261,7 +274,7 @@ public class JarWriter3 {
 	 * @since 3.4
 	 */
 	protected void addEntry(JarEntry entry, InputStream content) throws IOException {
-		byte[] readBuffer= new byte[4096];
+		byte[] readBuffer= getBuffer();
 		try {
 			fJarOutputStream.putNextEntry(entry);
 			int count;
@@ -461,7 +474,7 @@ public class JarWriter3 {
 		Assert.isNotNull(file);
 		Assert.isNotNull(path);
 		final JarEntry entry= new JarEntry(path.toString().replace(File.separatorChar, '/'));
-		byte[] buffer= new byte[4096];
+		byte[] buffer= getBuffer();
 		if (data.isCompressed())
 			entry.setMethod(ZipEntry.DEFLATED);
 		else {
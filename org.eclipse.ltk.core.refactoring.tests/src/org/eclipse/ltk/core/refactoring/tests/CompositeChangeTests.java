@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests;
+
+import java.io.ByteArrayInputStream;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.ResourceAttributes;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.CompositeChange;
+import org.eclipse.ltk.core.refactoring.NullChange;
+import org.eclipse.ltk.core.refactoring.PerformChangeOperation;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.RefactoringStatusEntry;
+import org.eclipse.ltk.core.refactoring.TextFileChange;
+import org.eclipse.ltk.core.refactoring.tests.util.SimpleTestProject;
+
+
+public class CompositeChangeTests extends TestCase {
+
+	private static class ValidatingChange extends Change {
+		private final String fName;
+		private final int fSeverity;
+		private final boolean fThreadSafe;
+		boolean fInitialized;
+		boolean fValidated;
+
+		public ValidatingChange(String name, int severity, boolean threadSafe) {
+			fName= name;
+			fSeverity= severity;
+			fThreadSafe= threadSafe;
+		}
+
+		public String getName() {
+			return fName;
+		}
+
+		public void initializeValidationData(IProgressMonitor pm) {
+			fInitialized= true;
+		}
+
+		public RefactoringStatus isValid(IProgressMonitor pm) throws CoreException, OperationCanceledException {
+			fValidated= true;
+			if ("throw".equals(fName))
+				throw new CoreException(new Status(IStatus.ERROR, "org.eclipse.ltk.core.refactoring.tests", fName));
+			return RefactoringStatus.createStatus(fSeverity, fName, null, null, RefactoringStatusEntry.NO_CODE, null);
+		}
+
+		public boolean isValidationThreadSafe() {
+			return fThreadSafe;
+		}
+
+		public Change perform(IProgressMonitor pm) throws CoreException {
+			return null;
+		}
+
+		public Object getModifiedElement() {
+			return null;
+		}
+	}
+
+	private static CompositeChange createComposite(boolean concurrent, ValidatingChange[] children) {
+		CompositeChange result= new CompositeChange("root", children);
+		result.setConcurrentValidation(concurrent);
+		return result;
+	}
+
+	private static ValidatingChange[] createChildren() {
+		ValidatingChange[] result= new ValidatingChange[40];
+		for (int i= 0; i < result.length; i++) {
+			int severity= i % 3 == 0 ? RefactoringStatus.WARNING : RefactoringStatus.INFO;
+			result[i]= new ValidatingChange("change" + i, severity, i % 5 != 0);
+		}
+		return result;
+	}
+
+	private static String toString(RefactoringStatus status) {
+		StringBuffer buffer= new StringBuffer();
+		RefactoringStatusEntry[] entries= status.getEntries();
+		for (int i= 0; i < entries.length; i++) {
+			buffer.append(entries[i].getSeverity()).append(':').append(entries[i].getMessage()).append('\n');
+		}
+		return buffer.toString();
+	}
+
+	public void testConcurrentValidationMergesInOrder() throws Exception {
+		ValidatingChange[] sequentialChildren= createChildren();
+		CompositeChange sequential= createComposite(false, sequentialChildren);
+		sequential.initializeValidationData(new NullProgressMonitor());
+		RefactoringStatus expected= sequential.isValid(new NullProgressMonitor());
+
+		ValidatingChange[] concurrentChildren= createChildren();
+		CompositeChange concurrent= createComposite(true, concurrentChildren);
+		concurrent.initializeValidationData(new NullProgressMonitor());
+		RefactoringStatus actual= concurrent.isValid(new NullProgressMonitor());
+
+		assertEquals(toString(expected), toString(actual));
+		for (int i= 0; i < concurrentChildren.length; i++) {
+			assertTrue(concurrentChildren[i].fInitialized);
+			assertTrue(concurrentChildren[i].fValidated);
+		}
+	}
+
+	public void testConcurrentValidationStopsAtFatalError() throws Exception {
+		ValidatingChange[] children= createChildren();
+		children[10]= new ValidatingChange("fatal", RefactoringStatus.FATAL, true);
+		CompositeChange concurrent= createComposite(true, children);
+		concurrent.initializeValidationData(new NullProgressMonitor());
+		RefactoringStatus status= concurrent.isValid(new NullProgressMonitor());
+
+		assertTrue(status.hasFatalError());
+		RefactoringStatusEntry[] entries= status.getEntries();
+		assertEquals(11, entries.length);
+		assertEquals("fatal", entries[10].getMessage());
+	}
+
+	public void testConcurrentValidationRethrowsFirstException() throws Exception {
+		ValidatingChange[] children= createChildren();
+		children[7]= new ValidatingChange("throw", RefactoringStatus.OK, true);
+		CompositeChange concurrent= createComposite(true, children);
+		concurrent.initializeValidationData(new NullProgressMonitor());
+		try {
+			concurrent.isValid(new NullProgressMonitor());
+		} catch (CoreException e) {
+			assertEquals("throw", e.getStatus().getMessage());
+			return;
+		}
+		fail("exception expected");
+	}
+
+	public void testSchedulingRule() throws Exception {
+		CompositeChange known= new CompositeChange("known", new Change[] { new NullChange(), new NullChange() });
+		ISchedulingRule rule= known.getSchedulingRule();
+		assertNotNull(rule);
+		assertFalse(rule.isConflicting(ResourcesPlugin.getWorkspace().getRoot()));
+		assertNotSame(ResourcesPlugin.getWorkspace().getRoot(), new PerformChangeOperation(known).getSchedulingRule());
+
+		CompositeChange unknown= new CompositeChange("unknown", new Change[] { new NullChange(), new ValidatingChange("unknown", RefactoringStatus.OK, false) });
+		assertNull(unknown.getSchedulingRule());
+		assertEquals(ResourcesPlugin.getWorkspace().getRoot(), new PerformChangeOperation(unknown).getSchedulingRule());
+
+		PerformChangeOperation operation= new PerformChangeOperation(unknown);
+		operation.setSchedulingRule(null);
+		assertNull(operation.getSchedulingRule());
+	}
+
+	public void testSchedulingRuleOfEmptyComposite() throws Exception {
+		CompositeChange empty= new CompositeChange("empty");
+		ISchedulingRule rule= empty.getSchedulingRule();
+		assertNotNull(rule);
+		assertFalse(rule.isConflicting(ResourcesPlugin.getWorkspace().getRoot()));
+		assertNotSame(ResourcesPlugin.getWorkspace().getRoot(), new PerformChangeOperation(empty).getSchedulingRule());
+
+		NullChange disabled= new NullChange();
+		disabled.setEnabled(false);
+		CompositeChange allDisabled= new CompositeChange("disabled", new Change[] { disabled, new ValidatingChange("unknown", RefactoringStatus.OK, false) });
+		allDisabled.getChildren()[1].setEnabled(false);
+		rule= allDisabled.getSchedulingRule();
+		assertNotNull(rule);
+		assertFalse(rule.isConflicting(ResourcesPlugin.getWorkspace().getRoot()));
+	}
+
+	public void testConcurrentValidationOfModifiedFile() throws Exception {
+		SimpleTestProject project= new SimpleTestProject();
+		try {
+			TextFileChange[] children= createTextFileChanges(project, 4);
+			CompositeChange composite= new CompositeChange("root", children);
+			composite.setConcurrentValidation(true);
+			composite.initializeValidationData(new NullProgressMonitor());
+			assertTrue(composite.isValid(new NullProgressMonitor()).isOK());
+
+			composite.initializeValidationData(new NullProgressMonitor());
+			IFile modified= (IFile) children[2].getModifiedElement();
+			modified.setContents(new ByteArrayInputStream("modified".getBytes()), true, false, null);
+			assertTrue(composite.isValid(new NullProgressMonitor()).hasFatalError());
+		} finally {
+			project.delete();
+		}
+	}
+
+	public void testCanceledConcurrentValidationDiscardsModificationStatus() throws Exception {
+		SimpleTestProject project= new SimpleTestProject();
+		try {
+			TextFileChange[] children= createTextFileChanges(project, 2);
+			IFile file= (IFile) children[1].getModifiedElement();
+			setReadOnly(file, true);
+
+			CompositeChange composite= new CompositeChange("root", children);
+			composite.setConcurrentValidation(true);
+			composite.initializeValidationData(new NullProgressMonitor());
+			NullProgressMonitor canceled= new NullProgressMonitor();
+			canceled.setCanceled(true);
+			try {
+				composite.isValid(canceled);
+				fail("cancellation expected");
+			} catch (OperationCanceledException e) {
+				// expected
+			}
+
+			setReadOnly(file, false);
+			children[1].initializeValidationData(new NullProgressMonitor());
+			assertTrue(children[1].isValid(new NullProgressMonitor()).isOK());
+		} finally {
+			project.delete();
+		}
+	}
+
+	private static TextFileChange[] createTextFileChanges(SimpleTestProject project, int count) throws CoreException {
+		TextFileChange[] result= new TextFileChange[count];
+		for (int i= 0; i < count; i++) {
+			IFile file= project.createFile(project.getProject(), "file" + i + ".txt", "content" + i);
+			result[i]= new TextFileChange("change" + i, file);
+		}
+		return result;
+	}
+
+	private static void setReadOnly(IFile file, boolean readOnly) throws CoreException {
+		ResourceAttributes attributes= file.getResourceAttributes();
+		attributes.setReadOnly(readOnly);
+		file.setResourceAttributes(attributes);
+	}
+}
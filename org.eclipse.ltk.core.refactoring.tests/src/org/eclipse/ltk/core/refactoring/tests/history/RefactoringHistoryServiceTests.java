@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2008 IBM Corporation and others.
+ * Copyright (c) 2006, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -19,15 +19,22 @@ import junit.framework.TestCase;
 import org.osgi.service.prefs.BackingStoreException;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.ProjectScope;
 import org.eclipse.core.resources.ResourcesPlugin;
 
+import org.eclipse.ltk.core.refactoring.ChangeDescriptor;
 import org.eclipse.ltk.core.refactoring.CheckConditionsOperation;
+import org.eclipse.ltk.core.refactoring.NullChange;
+import org.eclipse.ltk.core.refactoring.PerformChangeOperation;
 import org.eclipse.ltk.core.refactoring.PerformRefactoringOperation;
+import org.eclipse.ltk.core.refactoring.RefactoringChangeDescriptor;
 import org.eclipse.ltk.core.refactoring.RefactoringCore;
 import org.eclipse.ltk.core.refactoring.RefactoringDescriptor;
 import org.eclipse.ltk.core.refactoring.RefactoringDescriptorProxy;
@@ -706,4 +713,33 @@ public class RefactoringHistoryServiceTests extends TestCase {
 		assertDescendingSortOrder(proxies);
 	}
 
-}
\ No newline at end of file
+	public void testPerformChangeWithRuleOfChange() throws Exception {
+		final IProject project= fProject.getProject();
+		final IFile file= fProject.createFile(project, "file.txt", "content");
+		final ISchedulingRule fileRule= ResourcesPlugin.getWorkspace().getRuleFactory().modifyRule(file);
+		final MockRefactoringDescriptor descriptor= new MockRefactoringDescriptor(project.getName(), "A mock description", "A mock comment", Collections.EMPTY_MAP, RefactoringDescriptor.NONE);
+		NullChange change= new NullChange() {
+
+			public ChangeDescriptor getDescriptor() {
+				return new RefactoringChangeDescriptor(descriptor);
+			}
+
+			public ISchedulingRule getSchedulingRule() {
+				return fileRule;
+			}
+		};
+		PerformChangeOperation operation= new PerformChangeOperation(change);
+		operation.setUndoManager(RefactoringCore.getUndoManager(), "mock");
+		ISchedulingRule rule= operation.getSchedulingRule();
+		assertTrue("Rule must allow modifying the file", rule.contains(fileRule));
+		assertTrue("Rule must allow refreshing the project", rule.contains(ResourcesPlugin.getWorkspace().getRuleFactory().refreshRule(project)));
+		assertFalse("Rule must not be the workspace root", rule.contains(ResourcesPlugin.getWorkspace().getRoot()));
+
+		operation.run(null);
+
+		assertTrue("Change should have been executed", operation.changeExecuted());
+		RefactoringHistory history= RefactoringHistoryService.getInstance().getProjectHistory(project, null);
+		assertEquals("Refactoring history has wrong size:", TOTAL_PROJECT_NUMBER + 1, history.getDescriptors().length);
+		assertTrue("Shared refactoring history should be refreshed", project.isSynchronized(IResource.DEPTH_INFINITE));
+	}
+}
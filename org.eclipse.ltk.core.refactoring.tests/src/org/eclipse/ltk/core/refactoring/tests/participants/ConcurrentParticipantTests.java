@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests.participants;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.CompositeChange;
+import org.eclipse.ltk.core.refactoring.NullChange;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.RefactoringStatusEntry;
+import org.eclipse.ltk.core.refactoring.participants.CheckConditionsContext;
+import org.eclipse.ltk.core.refactoring.participants.RefactoringParticipant;
+import org.eclipse.ltk.core.refactoring.participants.RenameArguments;
+import org.eclipse.ltk.core.refactoring.participants.RenameParticipant;
+import org.eclipse.ltk.core.refactoring.participants.RenameProcessor;
+import org.eclipse.ltk.core.refactoring.participants.RenameRefactoring;
+import org.eclipse.ltk.core.refactoring.participants.SharableParticipants;
+
+public class ConcurrentParticipantTests extends TestCase {
+
+	private static class CheckingParticipant extends RenameParticipant {
+		private final String fName;
+		private final boolean fThreadSafe;
+		private final long fDelay;
+		private final boolean fFail;
+		private final List fThreads;
+
+		public CheckingParticipant(String name, boolean threadSafe, long delay, boolean fail, List threads) {
+			fName= name;
+			fThreadSafe= threadSafe;
+			fDelay= delay;
+			fFail= fail;
+			fThreads= threads;
+		}
+		protected boolean initialize(Object element) {
+			return true;
+		}
+		public String getName() {
+			return fName;
+		}
+		public boolean isCheckConditionsThreadSafe() {
+			return fThreadSafe;
+		}
+		public RefactoringStatus checkConditions(IProgressMonitor pm, CheckConditionsContext context) throws OperationCanceledException {
+			synchronized (fThreads) {
+				fThreads.add(Thread.currentThread());
+			}
+			try {
+				Thread.sleep(fDelay);
+			} catch (InterruptedException e) {
+				// return early
+			}
+			if (fFail)
+				throw new IllegalStateException(fName);
+			return RefactoringStatus.createWarningStatus(fName);
+		}
+		public Change createChange(IProgressMonitor pm) throws CoreException, OperationCanceledException {
+			return new NullChange(fName);
+		}
+	}
+
+	private static class FatalParticipant extends CheckingParticipant {
+		public FatalParticipant(String name, List threads) {
+			super(name, false, 0, false, threads);
+		}
+		public RefactoringStatus checkConditions(IProgressMonitor pm, CheckConditionsContext context) throws OperationCanceledException {
+			super.checkConditions(pm, context);
+			return RefactoringStatus.createFatalErrorStatus(getName());
+		}
+	}
+
+	private class TestProcessor extends RenameProcessor {
+		private Object fElement= Boolean.TRUE;
+		private final CheckingParticipant[] fParticipants;
+
+		public TestProcessor(CheckingParticipant[] participants) {
+			fParticipants= participants;
+		}
+		public Object[] getElements() {
+			return new Object[] { fElement };
+		}
+		public String getIdentifier() {
+			return "org.eclipse.ltk.core.refactoring.tests.TestProcessor";
+		}
+		public String getProcessorName() {
+			return "processor";
+		}
+		public boolean isApplicable() throws CoreException {
+			return true;
+		}
+		public RefactoringStatus checkInitialConditions(IProgressMonitor pm) throws CoreException, OperationCanceledException {
+			return new RefactoringStatus();
+		}
+		public RefactoringStatus checkFinalConditions(IProgressMonitor pm, CheckConditionsContext context) throws CoreException, OperationCanceledException {
+			return new RefactoringStatus();
+		}
+		public Change createChange(IProgressMonitor pm) throws CoreException, OperationCanceledException {
+			return new NullChange("test change");
+		}
+		public RefactoringParticipant[] loadParticipants(RefactoringStatus status, SharableParticipants sharedParticipants) throws CoreException {
+			for (int i= 0; i < fParticipants.length; i++)
+				fParticipants[i].initialize(this, fElement, new RenameArguments("", false));
+			return fParticipants;
+		}
+	}
+
+	private List fThreads;
+
+	protected void setUp() {
+		fThreads= new ArrayList();
+	}
+
+	public void testStatusOrder() throws Exception {
+		CheckingParticipant[] participants= new CheckingParticipant[] {
+				new CheckingParticipant("0", true, 300, false, fThreads),
+				new CheckingParticipant("1", false, 0, false, fThreads),
+				new CheckingParticipant("2", true, 200, false, fThreads),
+				new CheckingParticipant("3", true, 100, false, fThreads),
+				new CheckingParticipant("4", false, 0, false, fThreads),
+				new CheckingParticipant("5", true, 0, false, fThreads)
+		};
+		RenameRefactoring refactoring= new RenameRefactoring(new TestProcessor(participants));
+
+		RefactoringStatus result= refactoring.checkFinalConditions(new NullProgressMonitor());
+
+		RefactoringStatusEntry[] entries= result.getEntries();
+		assertEquals(participants.length, entries.length);
+		for (int i= 0; i < entries.length; i++) {
+			assertEquals(String.valueOf(i), entries[i].getMessage());
+		}
+		assertEquals(participants.length, fThreads.size());
+	}
+
+	public void testFatalErrorBeforeConcurrentCheck() throws Exception {
+		CheckingParticipant[] participants= new CheckingParticipant[] {
+				new CheckingParticipant("0", true, 0, false, fThreads),
+				new CheckingParticipant("1", false, 0, false, fThreads),
+				new FatalParticipant("2", fThreads),
+				new CheckingParticipant("3", true, 0, false, fThreads),
+				new CheckingParticipant("4", false, 0, false, fThreads)
+		};
+		RenameRefactoring refactoring= new RenameRefactoring(new TestProcessor(participants));
+
+		RefactoringStatus result= refactoring.checkFinalConditions(new NullProgressMonitor());
+
+		assertTrue(result.hasFatalError());
+		RefactoringStatusEntry[] entries= result.getEntries();
+		assertEquals(2, entries.length);
+		assertEquals("1", entries[0].getMessage());
+		assertEquals("2", entries[1].getMessage());
+		// the thread-safe participants are not checked after the fatal error
+		assertEquals(2, fThreads.size());
+	}
+
+	public void testFailingParticipant() throws Exception {
+		CheckingParticipant[] participants= new CheckingParticipant[] {
+				new CheckingParticipant("0", true, 100, false, fThreads),
+				new CheckingParticipant("1", true, 0, true, fThreads),
+				new CheckingParticipant("2", true, 0, false, fThreads)
+		};
+		RenameRefactoring refactoring= new RenameRefactoring(new TestProcessor(participants));
+
+		RefactoringStatus result= refactoring.checkFinalConditions(new NullProgressMonitor());
+
+		RefactoringStatusEntry[] entries= result.getEntries();
+		assertEquals(3, entries.length);
+		assertEquals("0", entries[0].getMessage());
+		assertTrue(entries[1].isError());
+		assertEquals("2", entries[2].getMessage());
+
+		Change[] children= ((CompositeChange) refactoring.createChange(new NullProgressMonitor())).getChildren();
+		assertEquals(3, children.length);
+		assertEquals("0", children[1].getName());
+		assertEquals("2", children[2].getName());
+	}
+}
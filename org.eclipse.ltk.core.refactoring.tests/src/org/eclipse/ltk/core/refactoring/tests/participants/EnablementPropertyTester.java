@@ -0,0 +1,27 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests.participants;
+
+import org.eclipse.core.expressions.PropertyTester;
+
+/**
+ * Counts how often the enablement of a participant tests an {@link EnablementElement}.
+ */
+public class EnablementPropertyTester extends PropertyTester {
+
+	public static int fgTests= 0;
+	public static boolean fgEnabled= true;
+
+	public boolean test(Object receiver, String property, Object[] args, Object expectedValue) {
+		fgTests++;
+		return fgEnabled;
+	}
+}
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests.participants;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.expressions.EvaluationContext;
+
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.Platform;
+
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+
+import org.eclipse.ltk.internal.core.refactoring.ParticipantDescriptor;
+
+public class ParticipantDescriptorTests extends TestCase {
+
+	private static final String RENAME_PARTICIPANTS= "org.eclipse.ltk.core.refactoring.renameParticipants";
+	private static final String PREFIX= "org.eclipse.ltk.core.refactoring.tests.participants.";
+
+	private int fConversions;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		fConversions= 0;
+		EnablementPropertyTester.fgTests= 0;
+		EnablementPropertyTester.fgEnabled= true;
+	}
+
+	/**
+	 * Creates the descriptor of a participant of the test plug-in. The descriptor counts how
+	 * often it converts the enablement expression.
+	 *
+	 * @param id the id of the participant
+	 * @return the descriptor
+	 */
+	private ParticipantDescriptor createDescriptor(String id) {
+		IConfigurationElement[] elements= Platform.getExtensionRegistry().getConfigurationElementsFor(RENAME_PARTICIPANTS);
+		for (int i= 0; i < elements.length; i++) {
+			final IConfigurationElement element= elements[i];
+			if (!id.equals(element.getAttribute("id")))
+				continue;
+			InvocationHandler handler= new InvocationHandler() {
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					if ("getChildren".equals(method.getName()) && args != null && "enablement".equals(args[0]))
+						fConversions++;
+					try {
+						return method.invoke(element, args);
+					} catch (InvocationTargetException e) {
+						throw e.getTargetException();
+					}
+				}
+			};
+			return new ParticipantDescriptor((IConfigurationElement) Proxy.newProxyInstance(
+					IConfigurationElement.class.getClassLoader(), new Class[] { IConfigurationElement.class }, handler));
+		}
+		fail("participant not found: " + id);
+		return null;
+	}
+
+	private static EvaluationContext createContext(Object element) {
+		EvaluationContext result= new EvaluationContext(null, element);
+		result.addVariable("element", element);
+		result.addVariable("affectedNatures", Arrays.asList(new String[] { "org.eclipse.ltk.core.refactoring.tests.nature" }));
+		result.addVariable("processorIdentifier", "org.eclipse.ltk.core.refactoring.tests.processor");
+		return result;
+	}
+
+	private static boolean matches(ParticipantDescriptor descriptor, EvaluationContext context) throws Exception {
+		return descriptor.matches(context, null, new RefactoringStatus());
+	}
+
+	public void testCacheableEnablement() throws Exception {
+		ParticipantDescriptor descriptor= createDescriptor(PREFIX + "InstanceofParticipant");
+		assertTrue(matches(descriptor, createContext(new EnablementElement())));
+		assertFalse(matches(descriptor, createContext(new Element())));
+		assertTrue(matches(descriptor, createContext(new EnablementElement())));
+		assertFalse(matches(descriptor, createContext(new Element())));
+		assertEquals(1, fConversions);
+	}
+
+	public void testPropertyTesterEnablement() throws Exception {
+		ParticipantDescriptor descriptor= createDescriptor(PREFIX + "PropertyTesterParticipant");
+		assertTrue(matches(descriptor, createContext(new EnablementElement())));
+		EnablementPropertyTester.fgEnabled= false;
+		assertFalse(matches(descriptor, createContext(new EnablementElement())));
+		EnablementPropertyTester.fgEnabled= true;
+		assertTrue(matches(descriptor, createContext(new EnablementElement())));
+		assertEquals(3, EnablementPropertyTester.fgTests);
+		assertEquals(1, fConversions);
+	}
+
+	public void testVariableEnablement() throws Exception {
+		ParticipantDescriptor descriptor= createDescriptor(PREFIX + "VariableParticipant");
+		EvaluationContext context= createContext(new EnablementElement());
+		context.addVariable("enabled", Boolean.TRUE);
+		assertTrue(matches(descriptor, context));
+
+		context= createContext(new EnablementElement());
+		context.addVariable("enabled", Boolean.FALSE);
+		assertFalse(matches(descriptor, context));
+		assertEquals(1, fConversions);
+	}
+}
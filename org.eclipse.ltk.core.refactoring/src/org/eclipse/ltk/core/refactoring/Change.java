@@ -16,6 +16,7 @@ import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
 
 /**
  * An abstract base implementation for object representing a generic change
@@ -239,6 +240,29 @@ public abstract class Change implements IAdaptable {
 	 */
 	public abstract RefactoringStatus isValid(IProgressMonitor pm) throws CoreException, OperationCanceledException;
 
+	/**
+	 * Returns whether <code>initializeValidationData</code> and <code>isValid</code>
+	 * of this change can be called from a background thread, concurrently with the
+	 * validation of other changes. Changes answering <code>true</code> must not modify
+	 * shared state during validation, must not acquire scheduling rules and must not
+	 * interact with the user.
+	 * <p>
+	 * The information is used by composite changes that validate their children
+	 * concurrently (see {@link CompositeChange#setConcurrentValidation(boolean)}).
+	 * </p>
+	 * <p>
+	 * This default implementation returns <code>false</code>. Subclasses may override.
+	 * </p>
+	 *
+	 * @return <code>true</code> if the validation of this change is thread-safe,
+	 *  <code>false</code> otherwise
+	 *
+	 * @since 3.7
+	 */
+	public boolean isValidationThreadSafe() {
+		return false;
+	}
+
 	/**
 	 * Performs this change. If this method is called on an invalid or disabled change
 	 * object the result is unspecified. Changes should in general not respond to
@@ -293,6 +317,30 @@ public abstract class Change implements IAdaptable {
 		return null;
 	}
 
+	/**
+	 * Returns the scheduling rule that is sufficient to perform this change,
+	 * or <code>null</code> if the change cannot tell which resources it
+	 * touches. The rule should be computed with the workspace's
+	 * {@link org.eclipse.core.resources.IResourceRuleFactory resource rule factory}.
+	 * <p>
+	 * The rule is used by the {@link PerformChangeOperation} to perform the change
+	 * if no rule has been set explicitly. If the rule is <code>null</code>, the
+	 * workspace root is used.
+	 * </p>
+	 * <p>
+	 * This default implementation returns <code>null</code>. Subclasses should
+	 * reimplement this method if they know the resources they modify.
+	 * </p>
+	 *
+	 * @return the scheduling rule to perform this change, or <code>null</code>
+	 *  if the rule is unknown
+	 *
+	 * @since 3.7
+	 */
+	public ISchedulingRule getSchedulingRule() {
+		return null;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,10 +20,14 @@ import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.ISafeRunnable;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.MultiRule;
 
+import org.eclipse.ltk.internal.core.refactoring.ConcurrentTaskRunner;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCoreMessages;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
 
@@ -45,6 +49,7 @@ public class CompositeChange extends Change {
 	private List fChanges;
 	private boolean fIsSynthetic;
 	private Change fUndoUntilException;
+	private boolean fConcurrentValidation;
 
 	/**
 	 * Creates a new composite change with the given name.
@@ -93,6 +98,42 @@ public class CompositeChange extends Change {
 		fIsSynthetic= true;
 	}
 
+	/**
+	 * Returns whether the children of this change are validated concurrently.
+	 *
+	 * @return <code>true</code> if concurrent validation is enabled; otherwise
+	 *  <code>false</code>
+	 *
+	 * @see #setConcurrentValidation(boolean)
+	 * @since 3.7
+	 */
+	public boolean isConcurrentValidation() {
+		return fConcurrentValidation;
+	}
+
+	/**
+	 * Enables or disables concurrent validation. If enabled, the direct children of
+	 * this change that declare a {@link Change#isValidationThreadSafe() thread-safe
+	 * validation} receive their <code>initializeValidationData</code> and
+	 * <code>isValid</code> calls on a bounded number of background threads. All
+	 * other children are still validated sequentially by the calling thread. The
+	 * edits of the files of {@link TextFileChange}s are validated by the calling
+	 * thread before the background validation starts, so all files get validated
+	 * even if one of the children reports a fatal error.
+	 * <p>
+	 * The statuses are merged in the order of the children, so the result of
+	 * <code>isValid</code> is the same as with sequential validation. Concurrent
+	 * validation is disabled by default.
+	 * </p>
+	 *
+	 * @param concurrent <code>true</code> to enable concurrent validation
+	 *
+	 * @since 3.7
+	 */
+	public void setConcurrentValidation(boolean concurrent) {
+		fConcurrentValidation= concurrent;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -211,11 +252,32 @@ public class CompositeChange extends Change {
 	 */
 	public void initializeValidationData(IProgressMonitor pm) {
 		pm.beginTask("", fChanges.size()); //$NON-NLS-1$
+		final Change[] concurrent= getConcurrentlyValidatedChildren();
+		int next= 0;
 		for (Iterator iter= fChanges.iterator(); iter.hasNext();) {
 			Change change= (Change)iter.next();
+			if (next < concurrent.length && concurrent[next] == change) {
+				next++;
+				continue;
+			}
 			change.initializeValidationData(new SubProgressMonitor(pm, 1));
 			pm.worked(1);
 		}
+		if (concurrent.length > 0) {
+			ConcurrentTaskRunner runner= new ConcurrentTaskRunner(concurrent.length, ConcurrentTaskRunner.getDefaultThreadCount()) {
+				protected void runTask(int index) {
+					concurrent[index].initializeValidationData(new NullProgressMonitor());
+				}
+			};
+			runner.run(new SubProgressMonitor(pm, concurrent.length));
+			for (int i= 0; i < concurrent.length; i++) {
+				Throwable exception= runner.getException(i);
+				if (exception instanceof RuntimeException)
+					throw (RuntimeException) exception;
+				if (exception instanceof Error)
+					throw (Error) exception;
+			}
+		}
 	}
 
 	/**
@@ -227,10 +289,18 @@ public class CompositeChange extends Change {
 	 * will not receive the <code>isValid</code> call.
 	 * </p>
 	 * <p>
+	 * If {@link #setConcurrentValidation(boolean) concurrent validation} is enabled,
+	 * thread-safe children are validated up front on background threads and their
+	 * statuses are merged in the order of the children.
+	 * </p>
+	 * <p>
 	 * Client are allowed to extend this method.
 	 * </p>
 	 */
 	public RefactoringStatus isValid(IProgressMonitor pm) throws CoreException {
+		final Change[] concurrent= getConcurrentlyValidatedChildren();
+		if (concurrent.length > 0)
+			return isValidConcurrently(concurrent, pm);
 		RefactoringStatus result= new RefactoringStatus();
 		pm.beginTask("", fChanges.size()); //$NON-NLS-1$
 		for (Iterator iter= fChanges.iterator(); iter.hasNext() && !result.hasFatalError();) {
@@ -246,6 +316,75 @@ public class CompositeChange extends Change {
 		return result;
 	}
 
+	private RefactoringStatus isValidConcurrently(final Change[] concurrent, IProgressMonitor pm) throws CoreException {
+		final RefactoringStatus[] statuses= new RefactoringStatus[concurrent.length];
+		RefactoringStatus result= new RefactoringStatus();
+		pm.beginTask("", fChanges.size()); //$NON-NLS-1$
+		// validating the edit of a file may take rules and prompt the user, so it stays on this thread
+		for (int i= 0; i < concurrent.length; i++) {
+			if (concurrent[i] instanceof TextFileChange)
+				((TextFileChange) concurrent[i]).validateModification();
+		}
+		ConcurrentTaskRunner runner= new ConcurrentTaskRunner(concurrent.length, ConcurrentTaskRunner.getDefaultThreadCount()) {
+			protected void runTask(int index) throws CoreException {
+				RefactoringStatus status= concurrent[index].isValid(new NullProgressMonitor());
+				statuses[index]= status;
+				if (status.hasFatalError())
+					stop();
+			}
+		};
+		try {
+			runner.run(new SubProgressMonitor(pm, concurrent.length));
+		} finally {
+			// children that were skipped must not return the status checked ahead on a later isValid
+			for (int i= 0; i < concurrent.length; i++) {
+				if (concurrent[i] instanceof TextFileChange)
+					((TextFileChange) concurrent[i]).discardModificationStatus();
+			}
+		}
+		// merge in the order of the children to get the same result as the sequential validation
+		int next= 0;
+		for (Iterator iter= fChanges.iterator(); iter.hasNext() && !result.hasFatalError();) {
+			Change change= (Change)iter.next();
+			if (next < concurrent.length && concurrent[next] == change) {
+				if (!runner.wasRun(next))
+					break; // only happens after a fatal error of a preceding child
+				ConcurrentTaskRunner.rethrow(runner.getException(next));
+				result.merge(statuses[next]);
+				next++;
+			} else if (change.isEnabled()) {
+				result.merge(change.isValid(new SubProgressMonitor(pm, 1)));
+			} else {
+				pm.worked(1);
+			}
+			if (pm.isCanceled())
+				throw new OperationCanceledException();
+		}
+		pm.done();
+		return result;
+	}
+
+	/**
+	 * Returns the enabled children that get validated concurrently, in the
+	 * order of the children.
+	 *
+	 * @return the children to validate concurrently, or an empty array if the
+	 *  children are validated sequentially
+	 */
+	private Change[] getConcurrentlyValidatedChildren() {
+		if (!fConcurrentValidation)
+			return new Change[0];
+		List result= new ArrayList(fChanges.size());
+		for (Iterator iter= fChanges.iterator(); iter.hasNext();) {
+			Change change= (Change)iter.next();
+			if (change.isEnabled() && change.isValidationThreadSafe())
+				result.add(change);
+		}
+		if (result.size() < 2)
+			return new Change[0];
+		return (Change[])result.toArray(new Change[result.size()]);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -473,6 +612,33 @@ public class CompositeChange extends Change {
 		return result.toArray();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The composite change combines the scheduling rules of all its enabled
+	 * children. If one of them doesn't know its rule then <code>null</code>
+	 * is returned. If the composite has no enabled children, an empty rule is
+	 * returned, since performing the composite touches no resources.
+	 * </p>
+	 *
+	 * @since 3.7
+	 */
+	public ISchedulingRule getSchedulingRule() {
+		List rules= new ArrayList(fChanges.size());
+		for (Iterator iter= fChanges.iterator(); iter.hasNext();) {
+			Change change= (Change)iter.next();
+			if (!change.isEnabled())
+				continue;
+			ISchedulingRule rule= change.getSchedulingRule();
+			if (rule == null)
+				return null;
+			rules.add(rule);
+		}
+		if (rules.isEmpty())
+			return new MultiRule(new ISchedulingRule[0]);
+		return MultiRule.combine((ISchedulingRule[])rules.toArray(new ISchedulingRule[rules.size()]));
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
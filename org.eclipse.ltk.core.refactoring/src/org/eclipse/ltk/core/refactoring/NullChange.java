@@ -13,6 +13,8 @@ package org.eclipse.ltk.core.refactoring;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.MultiRule;
 
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCoreMessages;
 
@@ -69,6 +71,18 @@ public class NullChange extends Change {
 		return new RefactoringStatus();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * A null change doesn't touch any resources, so an empty rule is returned.
+	 * </p>
+	 *
+	 * @since 3.7
+	 */
+	public ISchedulingRule getSchedulingRule() {
+		return new MultiRule(new ISchedulingRule[0]);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
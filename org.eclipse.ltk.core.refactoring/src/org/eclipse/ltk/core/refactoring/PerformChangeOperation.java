@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,12 +17,15 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.MultiRule;
 
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 
 import org.eclipse.ltk.internal.core.refactoring.NotCancelableProgressMonitor;
+import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistoryService;
 
 /**
  * Operation that, when run, performs a {@link Change} object. The operation
@@ -71,6 +74,7 @@ public class PerformChangeOperation implements IWorkspaceRunnable {
 	private boolean fChangeExecuted;
 	private boolean fChangeExecutionFailed;
 	private ISchedulingRule fSchedulingRule;
+	private boolean fSchedulingRuleSet;
 
 	/**
 	 * Creates a new perform change operation instance for the given change.
@@ -80,7 +84,6 @@ public class PerformChangeOperation implements IWorkspaceRunnable {
 	public PerformChangeOperation(Change change) {
 		Assert.isNotNull(change);
 		fChange= change;
-		fSchedulingRule= ResourcesPlugin.getWorkspace().getRoot();
 	}
 
 	/**
@@ -94,7 +97,6 @@ public class PerformChangeOperation implements IWorkspaceRunnable {
 	public PerformChangeOperation(CreateChangeOperation op) {
 		Assert.isNotNull(op);
 		fCreateChangeOperation= op;
-		fSchedulingRule= ResourcesPlugin.getWorkspace().getRoot();
 	}
 
 	/**
@@ -185,14 +187,68 @@ public class PerformChangeOperation implements IWorkspaceRunnable {
 
 	/**
 	 * Sets the scheduling rule used to execute this operation. If
-	 * not set then the workspace root is used. The supplied Change
-	 * must be able to be performed in the provided scheduling rule.
+	 * not set then the rule returned by {@link Change#getSchedulingRule()}
+	 * is used, or the workspace root if the change doesn't know its rule.
+	 * The supplied Change must be able to be performed in the provided
+	 * scheduling rule.
 	 *
 	 * @param rule the rule to use, or <code>null</code> to use no scheduling rule
 	 * @since 3.3
 	 */
 	public void setSchedulingRule(ISchedulingRule rule) {
 		fSchedulingRule= rule;
+		fSchedulingRuleSet= true;
+	}
+
+	/**
+	 * Returns the scheduling rule used to execute the change. This is the rule set via
+	 * {@link #setSchedulingRule(ISchedulingRule)} or, if no rule has been set, the rule
+	 * computed from the change to execute. The workspace root is returned if the
+	 * change to execute is not known yet or cannot tell which resources it touches.
+	 * <p>
+	 * If an undo manager is set, the computed rule also allows refreshing the project
+	 * of the change if the project has a shared refactoring history, since the undo
+	 * manager records the performed change in that history.
+	 * </p>
+	 *
+	 * @return the scheduling rule, or <code>null</code> if the change is executed
+	 *  without a scheduling rule
+	 *
+	 * @since 3.7
+	 */
+	public ISchedulingRule getSchedulingRule() {
+		if (fSchedulingRuleSet)
+			return fSchedulingRule;
+		if (fChange != null) {
+			ISchedulingRule rule= fChange.getSchedulingRule();
+			if (rule != null) {
+				if (fUndoManager != null)
+					return MultiRule.combine(rule, getRefactoringHistoryRule());
+				return rule;
+			}
+		}
+		return ResourcesPlugin.getWorkspace().getRoot();
+	}
+
+	/**
+	 * Returns the rule to refresh the project whose shared refactoring history
+	 * gets the change once the undo manager has been notified.
+	 *
+	 * @return the refresh rule of the project, or <code>null</code> if the change
+	 *  is not recorded in a shared refactoring history
+	 */
+	private ISchedulingRule getRefactoringHistoryRule() {
+		ChangeDescriptor descriptor= fChange.getDescriptor();
+		if (!(descriptor instanceof RefactoringChangeDescriptor))
+			return null;
+		String name= ((RefactoringChangeDescriptor) descriptor).getRefactoringDescriptor().getProject();
+		if (name == null || name.length() == 0)
+			return null;
+		IWorkspace workspace= ResourcesPlugin.getWorkspace();
+		IProject project= workspace.getRoot().getProject(name);
+		if (!project.isAccessible() || !RefactoringHistoryService.hasSharedRefactoringHistory(project))
+			return null;
+		return workspace.getRuleFactory().refreshRule(project);
 	}
 
 	/**
@@ -303,7 +359,7 @@ public class PerformChangeOperation implements IWorkspaceRunnable {
 				}
 			}
 		};
-		ResourcesPlugin.getWorkspace().run(runnable, fSchedulingRule, IWorkspace.AVOID_UPDATE, pm);
+		ResourcesPlugin.getWorkspace().run(runnable, getSchedulingRule(), IWorkspace.AVOID_UPDATE, pm);
 	}
 
 	private boolean createChange() {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,6 +18,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
 
 import org.eclipse.core.resources.IFile;
 
@@ -31,12 +32,14 @@ import org.eclipse.text.edits.UndoEdit;
 
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
 
 import org.eclipse.ltk.internal.core.refactoring.BufferValidationState;
 import org.eclipse.ltk.internal.core.refactoring.Changes;
 import org.eclipse.ltk.internal.core.refactoring.ContentStamps;
 import org.eclipse.ltk.internal.core.refactoring.Lock;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
+import org.eclipse.ltk.internal.core.refactoring.Resources;
 
 /**
  * A special {@link TextChange} that operates on a <code>IFile</code>.
@@ -82,6 +85,9 @@ public class TextFileChange extends TextChange {
 	private BufferValidationState fValidationState;
 	private ContentStamp fContentStamp;
 
+	// the result of validateModification(), consumed by the next isValid call
+	private RefactoringStatus fModificationStatus;
+
 	/**
 	 * Creates a new <code>TextFileChange</code> for the given file.
 	 *
@@ -160,6 +166,15 @@ public class TextFileChange extends TextChange {
 		return new Object[] { modifiedElement };
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @since 3.7
+	 */
+	public ISchedulingRule getSchedulingRule() {
+		return Resources.getModifyRule(fFile);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -185,20 +200,72 @@ public class TextFileChange extends TextChange {
 			if (fValidationState == null)
 				throw new CoreException(new Status(IStatus.ERROR, RefactoringCorePlugin.getPluginId(), "TextFileChange has not been initialialized")); //$NON-NLS-1$
 
-			boolean needsSaving= needsSaving();
-			RefactoringStatus result= fValidationState.isValid(needsSaving);
-			if (needsSaving) {
-				result.merge(Changes.validateModifiesFiles(new IFile[] { fFile}));
-			} else {
-				// we are reading the file. So it should be at least in sync
-				result.merge(Changes.checkInSync(new IFile[] { fFile}));
-			}
+			RefactoringStatus result= fValidationState.isValid(needsSaving());
+			RefactoringStatus modificationStatus= fModificationStatus;
+			fModificationStatus= null;
+			if (modificationStatus == null)
+				modificationStatus= checkModification();
+			result.merge(modificationStatus);
 			return result;
 		} finally {
 			monitor.done();
 		}
 	}
 
+	/**
+	 * Validates the edit of the file if it gets saved, otherwise checks that it is in sync.
+	 * Validating the edit can acquire scheduling rules and prompt the user.
+	 *
+	 * @return the status of the check
+	 */
+	private RefactoringStatus checkModification() {
+		if (needsSaving()) {
+			return Changes.validateModifiesFiles(new IFile[] { fFile});
+		} else {
+			// we are reading the file. So it should be at least in sync
+			return Changes.checkInSync(new IFile[] { fFile});
+		}
+	}
+
+	/**
+	 * Performs the part of {@link #isValid(IProgressMonitor)} that is not thread-safe ahead of
+	 * time, so that the next <code>isValid</code> call only compares the stamps of the file
+	 * and can be made from a background thread. Must be called by the thread that performs
+	 * the validation after the validation data has been initialized.
+	 */
+	void validateModification() {
+		if (fValidationState != null)
+			fModificationStatus= checkModification();
+	}
+
+	/**
+	 * Discards the result of {@link #validateModification()} if it has not been consumed by
+	 * <code>isValid</code>, e.g. because the validation got stopped or canceled. The next
+	 * <code>isValid</code> call validates the edit again.
+	 */
+	void discardModificationStatus() {
+		fModificationStatus= null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * A text file change validates by taking a stamp of its file and comparing it later on,
+	 * which can be done concurrently for different files. The edit of the file is validated
+	 * by the calling thread, see {@link CompositeChange#setConcurrentValidation(boolean)}. If
+	 * the file is open in a dirty buffer whose document has no modification stamp, the change
+	 * listens to the document and has to be validated by the calling thread. Subclasses that
+	 * extend <code>initializeValidationData</code> or <code>isValid</code> must reimplement
+	 * this method if their additional checks are not thread-safe.
+	 * </p>
+	 *
+	 * @since 3.7
+	 */
+	public boolean isValidationThreadSafe() {
+		ITextFileBuffer buffer= FileBuffers.getTextFileBufferManager().getTextFileBuffer(fFile.getFullPath(), LocationKind.IFILE);
+		return buffer == null || !buffer.isDirty() || buffer.getDocument() instanceof IDocumentExtension4;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
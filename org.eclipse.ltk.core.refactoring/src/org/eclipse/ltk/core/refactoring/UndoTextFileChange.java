@@ -17,6 +17,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
 
 import org.eclipse.core.resources.IFile;
 
@@ -38,6 +39,7 @@ import org.eclipse.ltk.internal.core.refactoring.Changes;
 import org.eclipse.ltk.internal.core.refactoring.ContentStamps;
 import org.eclipse.ltk.internal.core.refactoring.Lock;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
+import org.eclipse.ltk.internal.core.refactoring.Resources;
 
 /**
  * A change to perform the reverse change of a {@link TextFileChange}.
@@ -142,6 +144,15 @@ public class UndoTextFileChange extends Change {
 		return new Object[] { modifiedElement };
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @since 3.7
+	 */
+	public ISchedulingRule getSchedulingRule() {
+		return Resources.getModifyRule(fFile);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2010 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -38,6 +38,7 @@ import org.eclipse.ltk.core.refactoring.Refactoring;
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 import org.eclipse.ltk.core.refactoring.TextChange;
 import org.eclipse.ltk.core.refactoring.TextFileChange;
+import org.eclipse.ltk.internal.core.refactoring.ConcurrentTaskRunner;
 import org.eclipse.ltk.internal.core.refactoring.Messages;
 import org.eclipse.ltk.internal.core.refactoring.ParticipantDescriptor;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCoreMessages;
@@ -246,31 +247,51 @@ public class ProcessorBasedRefactoring extends Refactoring {
 		IProgressMonitor sm= new SubProgressMonitor(pm, 2);
 
 		sm.beginTask("", fParticipants.size()); //$NON-NLS-1$
-		for (Iterator iter= fParticipants.iterator(); iter.hasNext() && !result.hasFatalError(); ) {
-
-			RefactoringParticipant participant= (RefactoringParticipant) iter.next();
+		RefactoringParticipant[] participants= (RefactoringParticipant[]) fParticipants.toArray(new RefactoringParticipant[fParticipants.size()]);
+		RefactoringStatus[] statuses= new RefactoringStatus[participants.length];
+		ConcurrentCheck concurrentCheck= getConcurrentCheck(participants);
+		boolean fatal= false;
+		for (int i= 0; i < participants.length && !fatal; i++) {
+			RefactoringParticipant participant= participants[i];
+			if (concurrentCheck.indexOf(participant) >= 0)
+				continue;
 
 			final PerformanceStats stats= PerformanceStats.getStats(PERF_CHECK_CONDITIONS, getName() + ", " + participant.getName()); //$NON-NLS-1$
 			stats.startRun();
 
 			try {
-				result.merge(participant.checkConditions(new SubProgressMonitor(sm, 1), context));
+				statuses[i]= participant.checkConditions(new SubProgressMonitor(sm, 1), context);
 			} catch (OperationCanceledException e) {
 				throw e;
 			} catch (RuntimeException e) {
-				// remove the participant so that it will be ignored during change execution.
-				RefactoringCorePlugin.log(e);
-				result.merge(RefactoringStatus.createErrorStatus(Messages.format(
-					RefactoringCoreMessages.ProcessorBasedRefactoring_check_condition_participant_failed,
-					participant.getName())));
-				iter.remove();
+				statuses[i]= participantFailed(participant, e);
 			}
+			fatal= statuses[i].hasFatalError();
 
 			stats.endRun();
 
 			if (sm.isCanceled())
 				throw new OperationCanceledException();
 		}
+		if (!fatal && concurrentCheck.fCheckedParticipants.length > 0) {
+			checkConditionsConcurrently(concurrentCheck, context, sm);
+			for (int i= 0; i < concurrentCheck.fCheckedParticipants.length; i++) {
+				RuntimeException exception= concurrentCheck.getException(i);
+				if (exception instanceof OperationCanceledException)
+					throw exception;
+			}
+			for (int i= 0; i < participants.length; i++) {
+				int index= concurrentCheck.indexOf(participants[i]);
+				if (index < 0)
+					continue;
+				RuntimeException exception= concurrentCheck.getException(index);
+				statuses[i]= exception != null ? participantFailed(participants[i], exception) : concurrentCheck.getStatus(index);
+			}
+		}
+		for (int i= 0; i < participants.length && !result.hasFatalError(); i++) {
+			if (statuses[i] != null)
+				result.merge(statuses[i]);
+		}
 		sm.done();
 		if (result.hasFatalError()) {
 			pm.done();
@@ -281,6 +302,125 @@ public class ProcessorBasedRefactoring extends Refactoring {
 		return result;
 	}
 
+	/**
+	 * The results of the participants whose conditions have been checked concurrently.
+	 */
+	private static final class ConcurrentCheck {
+
+		private final RefactoringParticipant[] fCheckedParticipants;
+		private final RefactoringStatus[] fStatuses;
+		private final RuntimeException[] fExceptions;
+
+		ConcurrentCheck(RefactoringParticipant[] participants) {
+			fCheckedParticipants= participants;
+			fStatuses= new RefactoringStatus[participants.length];
+			fExceptions= new RuntimeException[participants.length];
+		}
+
+		int indexOf(RefactoringParticipant participant) {
+			for (int i= 0; i < fCheckedParticipants.length; i++) {
+				if (fCheckedParticipants[i] == participant)
+					return i;
+			}
+			return -1;
+		}
+
+		RefactoringStatus getStatus(int index) {
+			return fStatuses[index];
+		}
+
+		RuntimeException getException(int index) {
+			return fExceptions[index];
+		}
+	}
+
+	/**
+	 * Logs the failure of a participant and removes it, so that it is ignored during change
+	 * creation.
+	 *
+	 * @param participant the participant whose condition checking failed
+	 * @param exception the exception thrown by the participant
+	 * @return the error status to report for the participant
+	 */
+	private RefactoringStatus participantFailed(RefactoringParticipant participant, RuntimeException exception) {
+		RefactoringCorePlugin.log(exception);
+		fParticipants.remove(participant);
+		return RefactoringStatus.createErrorStatus(Messages.format(
+			RefactoringCoreMessages.ProcessorBasedRefactoring_check_condition_participant_failed,
+			participant.getName()));
+	}
+
+	/**
+	 * Returns the participants to check concurrently: all participants that declare thread-safe
+	 * condition checking, if there are at least two of them.
+	 *
+	 * @param participants the participants
+	 * @return the participants to check concurrently, not yet checked
+	 */
+	private static ConcurrentCheck getConcurrentCheck(RefactoringParticipant[] participants) {
+		List threadSafe= new ArrayList();
+		for (int i= 0; i < participants.length; i++) {
+			if (participants[i].isCheckConditionsThreadSafe())
+				threadSafe.add(participants[i]);
+		}
+		if (threadSafe.size() < 2)
+			return new ConcurrentCheck(new RefactoringParticipant[0]);
+		return new ConcurrentCheck((RefactoringParticipant[]) threadSafe.toArray(new RefactoringParticipant[threadSafe.size()]));
+	}
+
+	/**
+	 * Checks the conditions of the given participants on a bounded number of threads. This is
+	 * only done after all other participants have been checked without a fatal error. Checking
+	 * stops at the first fatal error, but the statuses are only merged later, in the order of
+	 * the participants.
+	 *
+	 * @param check the participants to check, receives their results
+	 * @param context the condition checking context
+	 * @param pm the progress monitor to report one unit of work per checked participant
+	 * @throws OperationCanceledException if the monitor got canceled
+	 */
+	private void checkConditionsConcurrently(final ConcurrentCheck check, final CheckConditionsContext context, final IProgressMonitor pm) throws OperationCanceledException {
+		ConcurrentTaskRunner runner= new ConcurrentTaskRunner(check.fCheckedParticipants.length, ConcurrentTaskRunner.getDefaultThreadCount()) {
+			protected void runTask(int index) {
+				RefactoringParticipant participant= check.fCheckedParticipants[index];
+				final PerformanceStats stats= PerformanceStats.getStats(PERF_CHECK_CONDITIONS, getName() + ", " + participant.getName()); //$NON-NLS-1$
+				stats.startRun();
+				try {
+					RefactoringStatus status= participant.checkConditions(new CancelableProgressMonitor(pm), context);
+					check.fStatuses[index]= status;
+					if (status.hasFatalError())
+						stop();
+				} catch (RuntimeException e) {
+					check.fExceptions[index]= e;
+				}
+				stats.endRun();
+			}
+		};
+		runner.run(new SubProgressMonitor(pm, check.fCheckedParticipants.length));
+		for (int i= 0; i < check.fCheckedParticipants.length; i++) {
+			Throwable exception= runner.getException(i);
+			if (exception instanceof Error)
+				throw (Error) exception;
+		}
+	}
+
+	/**
+	 * Progress monitor for participants that are checked on a background thread. It only
+	 * forwards cancellation to the monitor of the calling thread.
+	 */
+	private static final class CancelableProgressMonitor extends NullProgressMonitor {
+
+		private final IProgressMonitor fMonitor;
+
+		CancelableProgressMonitor(IProgressMonitor monitor) {
+			fMonitor= monitor;
+		}
+
+		public boolean isCanceled() {
+			return fMonitor.isCanceled();
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -166,6 +166,33 @@ public abstract class RefactoringParticipant extends PlatformObject {
 	 */
 	public abstract RefactoringStatus checkConditions(IProgressMonitor pm, CheckConditionsContext context) throws OperationCanceledException;
 
+	/**
+	 * Returns whether {@link #checkConditions(IProgressMonitor, CheckConditionsContext)}
+	 * of this participant can be called from a background thread, concurrently with the
+	 * condition checking of other participants. Participants answering <code>true</code>
+	 * must not modify shared state while checking conditions, must not acquire scheduling
+	 * rules and must not interact with the user. They must synchronize on the condition
+	 * checking context while they access it or one of its checkers.
+	 * <p>
+	 * Concurrently checked participants are checked after all other participants, and only
+	 * if none of those reported a fatal error. Their statuses are merged in the order of the
+	 * participants, so the result is the same as with sequential checking. The progress
+	 * monitor passed to a concurrently checked participant does not report progress, but
+	 * can be used to check for cancellation.
+	 * </p>
+	 * <p>
+	 * This default implementation returns <code>false</code>. Subclasses may override.
+	 * </p>
+	 *
+	 * @return <code>true</code> if condition checking of this participant is thread-safe,
+	 *  <code>false</code> otherwise
+	 *
+	 * @since 3.7
+	 */
+	public boolean isCheckConditionsThreadSafe() {
+		return false;
+	}
+
 	/**
 	 * Creates a {@link Change} object that contains the workspace modifications
 	 * of this participant to be executed <em>before</em> the
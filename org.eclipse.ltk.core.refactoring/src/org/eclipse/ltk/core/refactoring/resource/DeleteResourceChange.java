@@ -20,6 +20,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -85,6 +86,18 @@ public class DeleteResourceChange extends ResourceChange {
 		return getResource();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @since 3.7
+	 */
+	public ISchedulingRule getSchedulingRule() {
+		IResource resource= getResource();
+		if (resource == null)
+			return null;
+		return ResourcesPlugin.getWorkspace().getRuleFactory().deleteRule(resource);
+	}
+
 	private IResource getResource() {
 		IResource resource= ResourcesPlugin.getWorkspace().getRoot().findMember(fResourcePath);
 		if (resource == null && fResourcePath.segmentCount() == 1) {
@@ -13,8 +13,10 @@ package org.eclipse.ltk.core.refactoring.resource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
 
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 
 import org.eclipse.ltk.core.refactoring.Change;
@@ -110,6 +112,34 @@ public class RenameResourceChange extends ResourceChange {
 		return ResourcesPlugin.getWorkspace().getRoot().findMember(fResourcePath);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @since 3.7
+	 */
+	public ISchedulingRule getSchedulingRule() {
+		IResource resource= getResource();
+		if (resource == null)
+			return null;
+		IWorkspaceRoot root= ResourcesPlugin.getWorkspace().getRoot();
+		IPath newPath= renamedResourcePath(fResourcePath, fNewName);
+		IResource destination;
+		switch (resource.getType()) {
+			case IResource.FILE:
+				destination= root.getFile(newPath);
+				break;
+			case IResource.FOLDER:
+				destination= root.getFolder(newPath);
+				break;
+			case IResource.PROJECT:
+				destination= root.getProject(fNewName);
+				break;
+			default:
+				return null;
+		}
+		return ResourcesPlugin.getWorkspace().getRuleFactory().moveRule(resource, destination);
+	}
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.ltk.core.refactoring.Change#perform(org.eclipse.core.runtime.IProgressMonitor)
 	 */
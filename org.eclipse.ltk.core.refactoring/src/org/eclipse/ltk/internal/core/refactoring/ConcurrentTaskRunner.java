@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2015 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.internal.core.refactoring;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * Runs a number of independent, indexed tasks on a bounded number of threads.
+ * <p>
+ * Tasks are handed out in increasing index order. The calling thread takes part
+ * in the work, so all tasks complete even if no worker job gets scheduled (e.g.
+ * because the job manager is suspended). Progress is reported and cancellation is
+ * checked on the calling thread only; tasks themselves must not report progress to
+ * the caller's progress monitor, but may poll it for cancellation.
+ * </p>
+ * <p>
+ * Exceptions thrown by a task are recorded per index and can be queried with
+ * {@link #getException(int)} after {@link #run(IProgressMonitor)} returned. Tasks
+ * must not acquire scheduling rules or locks that the calling thread may hold.
+ * </p>
+ *
+ * @since 3.7
+ */
+public abstract class ConcurrentTaskRunner {
+
+	private final int fTaskCount;
+	private final int fMaxThreads;
+
+	private final Object fLock= new Object();
+	private final Throwable[] fExceptions;
+	private int fNext;
+	private int fRunning;
+	private int fCompleted;
+	private boolean fStopped;
+
+	/**
+	 * Creates a new runner.
+	 *
+	 * @param taskCount the number of tasks to run
+	 * @param maxThreads the maximal number of threads, including the calling thread
+	 */
+	public ConcurrentTaskRunner(int taskCount, int maxThreads) {
+		fTaskCount= taskCount;
+		fMaxThreads= Math.max(1, Math.min(maxThreads, taskCount));
+		fExceptions= new Throwable[taskCount];
+	}
+
+	/**
+	 * Returns the default number of threads to use for I/O bound tasks.
+	 *
+	 * @return the number of available processors
+	 */
+	public static int getDefaultThreadCount() {
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Runs the task with the given index. Called concurrently from different threads.
+	 *
+	 * @param index the index of the task
+	 * @throws CoreException if the task failed
+	 */
+	protected abstract void runTask(int index) throws CoreException;
+
+	/**
+	 * Stops handing out further tasks. Tasks that are already running complete normally.
+	 * Can be called from within {@link #runTask(int)}.
+	 */
+	public void stop() {
+		synchronized (fLock) {
+			fStopped= true;
+		}
+	}
+
+	/**
+	 * Returns whether the task with the given index has been run.
+	 *
+	 * @param index the index of the task
+	 * @return <code>true</code> if the task has been run, <code>false</code> if it
+	 *  was skipped because the runner got stopped
+	 */
+	public boolean wasRun(int index) {
+		synchronized (fLock) {
+			return index < fNext;
+		}
+	}
+
+	/**
+	 * Returns the exception thrown by the task with the given index.
+	 *
+	 * @param index the index of the task
+	 * @return the exception or <code>null</code> if the task completed normally
+	 */
+	public Throwable getException(int index) {
+		synchronized (fLock) {
+			return fExceptions[index];
+		}
+	}
+
+	/**
+	 * Runs all tasks and waits until they are done.
+	 *
+	 * @param pm the progress monitor of the calling thread, or <code>null</code>
+	 * @throws OperationCanceledException if the monitor got canceled. Running tasks
+	 *  have completed when the exception is thrown.
+	 */
+	public void run(IProgressMonitor pm) throws OperationCanceledException {
+		if (pm == null)
+			pm= new NullProgressMonitor();
+		pm.beginTask("", fTaskCount); //$NON-NLS-1$
+		try {
+			for (int i= 1; i < fMaxThreads; i++) {
+				Job job= new Job("ConcurrentTaskRunner") { //$NON-NLS-1$
+					protected IStatus run(IProgressMonitor monitor) {
+						while (processNext()) {
+							// keep going
+						}
+						return Status.OK_STATUS;
+					}
+				};
+				job.setSystem(true);
+				job.schedule();
+			}
+			int reported= 0;
+			boolean done= false;
+			while (!done) {
+				if (pm.isCanceled())
+					stop();
+				boolean more= processNext();
+				int completed;
+				synchronized (fLock) {
+					if (!more && fRunning > 0) {
+						try {
+							fLock.wait(100);
+						} catch (InterruptedException e) {
+							// continue waiting for the workers
+						}
+					}
+					completed= fCompleted;
+					done= !more && fRunning == 0;
+				}
+				pm.worked(completed - reported);
+				reported= completed;
+			}
+			if (pm.isCanceled())
+				throw new OperationCanceledException();
+		} finally {
+			pm.done();
+		}
+	}
+
+	private boolean processNext() {
+		int index;
+		synchronized (fLock) {
+			if (fStopped || fNext >= fTaskCount)
+				return false;
+			index= fNext++;
+			fRunning++;
+		}
+		Throwable exception= null;
+		try {
+			runTask(index);
+		} catch (CoreException e) {
+			exception= e;
+		} catch (RuntimeException e) {
+			exception= e;
+		} catch (Error e) {
+			exception= e;
+		} finally {
+			synchronized (fLock) {
+				fExceptions[index]= exception;
+				fRunning--;
+				fCompleted++;
+				fLock.notifyAll();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Rethrows the given exception recorded by {@link #getException(int)}.
+	 *
+	 * @param exception the exception, or <code>null</code>
+	 * @throws CoreException if the exception is a core exception
+	 */
+	public static void rethrow(Throwable exception) throws CoreException {
+		if (exception instanceof CoreException)
+			throw (CoreException) exception;
+		if (exception instanceof RuntimeException)
+			throw (RuntimeException) exception;
+		if (exception instanceof Error)
+			throw (Error) exception;
+	}
+}
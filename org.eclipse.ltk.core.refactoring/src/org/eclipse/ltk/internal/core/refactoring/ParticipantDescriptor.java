@@ -10,9 +10,17 @@
  *******************************************************************************/
 package org.eclipse.ltk.internal.core.refactoring;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
 import org.eclipse.core.expressions.EvaluationResult;
 import org.eclipse.core.expressions.Expression;
 import org.eclipse.core.expressions.ExpressionConverter;
+import org.eclipse.core.expressions.ExpressionInfo;
 import org.eclipse.core.expressions.ExpressionTagNames;
 import org.eclipse.core.expressions.IEvaluationContext;
 
@@ -31,11 +39,42 @@ public class ParticipantDescriptor {
 	private IConfigurationElement fConfigurationElement;
 	private boolean fEnabled;
 
+	/** The converted enablement expression, or <code>null</code> if not converted yet */
+	private Expression fExpression;
+	/** Whether the participant has no enablement expression */
+	private boolean fNoExpression;
+	/**
+	 * Map from (element class, affected natures, processor id) to the {@link Boolean} result
+	 * of the enablement expression, or <code>null</code> if the result depends on more than that
+	 */
+	private Map fResults;
+
 	private static final String ID= "id"; //$NON-NLS-1$
 	private static final String NAME= "name";  //$NON-NLS-1$
 	private static final String CLASS= "class"; //$NON-NLS-1$
 	private static final String PROCESS_ON_CANCEL= "processOnCancel";  //$NON-NLS-1$
 
+	private static final String ELEMENT= "element"; //$NON-NLS-1$
+	private static final String AFFECTED_NATURES= "affectedNatures"; //$NON-NLS-1$
+	private static final String PROCESSOR_IDENTIFIER= "processorIdentifier"; //$NON-NLS-1$
+	private static final String VARIABLE= "variable"; //$NON-NLS-1$
+
+	/** The variables that the participant extension points provide */
+	private static final List KNOWN_VARIABLES= Arrays.asList(new String[] { ELEMENT, AFFECTED_NATURES, PROCESSOR_IDENTIFIER });
+
+	/**
+	 * The expressions that only depend on the class of the element. Other expressions may
+	 * only be applied to the affected natures and the processor identifier.
+	 */
+	private static final List CLASS_EXPRESSIONS= Arrays.asList(new String[] {
+			ExpressionTagNames.ENABLEMENT, ExpressionTagNames.AND, ExpressionTagNames.OR, ExpressionTagNames.NOT,
+			ExpressionTagNames.INSTANCEOF, ExpressionTagNames.WITH });
+
+	/** The expressions whose result may change for the same variables */
+	private static final List UNCACHEABLE_EXPRESSIONS= Arrays.asList(new String[] {
+			ExpressionTagNames.TEST, ExpressionTagNames.SYSTEM_TEST, ExpressionTagNames.ADAPT,
+			ExpressionTagNames.RESOLVE, ExpressionTagNames.REFERENCE });
+
 	public ParticipantDescriptor(IConfigurationElement element) {
 		fConfigurationElement= element;
 		fEnabled= true;
@@ -68,16 +107,93 @@ public class ParticipantDescriptor {
 	}
 
 	public boolean matches(IEvaluationContext context, IParticipantDescriptorFilter filter, RefactoringStatus status) throws CoreException {
-		IConfigurationElement[] elements= fConfigurationElement.getChildren(ExpressionTagNames.ENABLEMENT);
-		if (elements.length == 0)
+		if (!evaluate(context))
+			return false;
+		if (filter != null && !filter.select(fConfigurationElement, status))
+			return false;
+
+		return true;
+	}
+
+	/**
+	 * Evaluates the enablement expression. The expression is converted once. Its results are
+	 * remembered per element class, affected natures and processor if the expression only
+	 * tests the class of the element and the other variables.
+	 *
+	 * @param context the evaluation context
+	 * @return whether the expression is not <code>false</code>
+	 * @throws CoreException if the expression could not be converted or evaluated
+	 */
+	private boolean evaluate(IEvaluationContext context) throws CoreException {
+		Expression exp;
+		Map results;
+		synchronized (this) {
+			if (fExpression == null && !fNoExpression)
+				convertExpression();
+			exp= fExpression;
+			results= fResults;
+		}
+		if (exp == null)
 			return false;
+		if (results == null)
+			return convert(exp.evaluate(context));
+
+		Object element= context.getVariable(ELEMENT);
+		Object natures= context.getVariable(AFFECTED_NATURES);
+		Object key= Arrays.asList(new Object[] {
+				element != null ? element.getClass() : null,
+				natures instanceof Collection ? new HashSet((Collection) natures) : natures,
+				context.getVariable(PROCESSOR_IDENTIFIER) });
+		Boolean result;
+		synchronized (results) {
+			result= (Boolean) results.get(key);
+		}
+		if (result == null) {
+			result= Boolean.valueOf(convert(exp.evaluate(context)));
+			synchronized (results) {
+				results.put(key, result);
+			}
+		}
+		return result.booleanValue();
+	}
+
+	private void convertExpression() throws CoreException {
+		IConfigurationElement[] elements= fConfigurationElement.getChildren(ExpressionTagNames.ENABLEMENT);
+		if (elements.length == 0) {
+			fNoExpression= true;
+			return;
+		}
 		Assert.isTrue(elements.length == 1);
-		Expression exp= ExpressionConverter.getDefault().perform(elements[0]);
-		if (!convert(exp.evaluate(context)))
+		fExpression= ExpressionConverter.getDefault().perform(elements[0]);
+		if (isCacheable(fExpression.computeExpressionInfo()) && isCacheable(elements[0], ELEMENT))
+			fResults= new HashMap();
+	}
+
+	private static boolean isCacheable(ExpressionInfo info) {
+		if (info.hasSystemPropertyAccess())
 			return false;
-		if (filter != null && !filter.select(fConfigurationElement, status))
+		if (info.getAccessedPropertyNames().length > 0)
 			return false;
+		if (info.getMisbehavingExpressionTypes() != null)
+			return false;
+		return KNOWN_VARIABLES.containsAll(Arrays.asList(info.getAccessedVariableNames()));
+	}
 
+	private static boolean isCacheable(IConfigurationElement element, String defaultVariable) {
+		String name= element.getName();
+		if (UNCACHEABLE_EXPRESSIONS.contains(name))
+			return false;
+		if (ELEMENT.equals(defaultVariable) && !CLASS_EXPRESSIONS.contains(name))
+			return false;
+		if (ExpressionTagNames.WITH.equals(name))
+			defaultVariable= element.getAttribute(VARIABLE);
+		else if (ExpressionTagNames.ITERATE.equals(name))
+			defaultVariable= null;
+		IConfigurationElement[] children= element.getChildren();
+		for (int i= 0; i < children.length; i++) {
+			if (!isCacheable(children[i], defaultVariable))
+				return false;
+		}
 		return true;
 	}
 
@@ -21,9 +21,12 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.MultiRule;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceRuleFactory;
 import org.eclipse.core.resources.IResourceStatus;
 import org.eclipse.core.resources.ResourceAttributes;
 import org.eclipse.core.resources.ResourcesPlugin;
@@ -177,6 +180,19 @@ public class Resources {
 		}
 	}
 
+	/**
+	 * Returns the scheduling rule required to modify the content of the given
+	 * file. This includes the rule required to make the file committable.
+	 *
+	 * @param file the file to modify
+	 * @return the scheduling rule, never <code>null</code>
+	 */
+	public static ISchedulingRule getModifyRule(IFile file) {
+		IResourceRuleFactory factory= ResourcesPlugin.getWorkspace().getRuleFactory();
+		ISchedulingRule rule= MultiRule.combine(factory.modifyRule(file), factory.validateEditRule(new IResource[] { file }));
+		return rule != null ? rule : new MultiRule(new ISchedulingRule[0]);
+	}
+
 	public static boolean isReadOnly(IResource resource) {
 		ResourceAttributes resourceAttributes = resource.getResourceAttributes();
 		if (resourceAttributes == null)  // not supported on this platform for this resource
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2015 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -634,7 +634,7 @@ public abstract class RefactoringWizard extends Wizard {
 		op.setUndoManager(RefactoringCore.getUndoManager(), getRefactoring().getName());
 		Shell parent= getContainer().getShell();
 		try{
-			getContainer().run(true, true, new WorkbenchRunnableAdapter(op, ResourcesPlugin.getWorkspace().getRoot()));
+			getContainer().run(true, true, new WorkbenchRunnableAdapter(op, op.getSchedulingRule()));
 		} catch (InvocationTargetException e) {
 			Throwable inner= e.getTargetException();
 			if (op.changeExecutionFailed()) {